@@ -0,0 +1,28 @@
+#!/usr/bin/env python3
+# 本地告警 Webhook 接收端，用于测试告警推送：
+#   python3 scripts/alert-webhook-stub.py 9099
+#   monitor.alerts.webhook.url=http://localhost:9099/alerts
+# 把收到的每个请求体按行打印到标准输出；设置 STUB_STATUS 时返回该状态码（用于测试重试）。
+import json
+import os
+import sys
+from http.server import BaseHTTPRequestHandler, HTTPServer
+
+
+class Handler(BaseHTTPRequestHandler):
+    def do_POST(self):
+        body = self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        try:
+            print(json.dumps(json.loads(body), ensure_ascii=False), flush=True)
+        except ValueError:
+            print(body.decode("utf-8", "replace"), flush=True)
+        self.send_response(int(os.environ.get("STUB_STATUS", "200")))
+        self.send_header("Content-Length", "0")
+        self.end_headers()
+
+    def log_message(self, format, *args):
+        pass
+
+
+port = int(sys.argv[1]) if len(sys.argv) > 1 else 9099
+HTTPServer(("", port), Handler).serve_forever()
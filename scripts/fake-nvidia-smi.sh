@@ -0,0 +1,29 @@
+#!/bin/sh
+# 模拟 nvidia-smi 的 GPU 遥测输出，用于在没有 GPU 的机器上测试 GPU 采集：
+#   monitor.gpu.command=/path/to/fake-nvidia-smi.sh
+# 忽略查询参数，按 -lms 指定的间隔（毫秒）循环输出固定的 CSV 行，列顺序与 GpuCollector.QUERY 一致；
+# 设置 FAKE_GPU_CSV 时输出该文件的内容。
+
+interval_ms=""
+while [ $# -gt 0 ]; do
+    case "$1" in
+        -lms) interval_ms="$2"; shift ;;
+    esac
+    shift
+done
+
+print_rows() {
+    if [ -n "$FAKE_GPU_CSV" ]; then
+        cat "$FAKE_GPU_CSV"
+    else
+        echo "0, NVIDIA A100-SXM4-80GB, 37, 24576, 81920, 12, 54, 182.35, 400.00, 1410, 1593"
+        echo "1, NVIDIA A100-SXM4-80GB, 0, 4, 81920, 0, 31, 61.02, 400.00, 210, 1593"
+    fi
+}
+
+print_rows
+[ -z "$interval_ms" ] && exit 0
+interval_s=$(awk "BEGIN { printf \"%.3f\", $interval_ms / 1000 }")
+while sleep "$interval_s"; do
+    print_rows
+done
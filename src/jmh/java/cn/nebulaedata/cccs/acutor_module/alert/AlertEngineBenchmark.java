@@ -0,0 +1,70 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 300条规则（直接比较和 avg/min/max/delta/slope 窗口函数各占一部分，窗口1~15分钟）对一次采样的评估。
+ * 采样时间每次前进1秒，窗口处于稳定状态（每次评估淘汰一个旧样本、加入一个新样本）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlertEngineBenchmark {
+
+    private static final int RULES = 300;
+    private static final String[] FUNCTIONS = {null, "avg", "min", "max", "delta", "slope"};
+    private static final int ROWS = 1024;
+
+    private AlertEngine engine;
+    private double[][] rows;
+    private long timestamp = 1700000000000L;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        engine = new AlertEngine(null, null, new CollectorMetrics(60000), "", 1000, 256);
+        String[] series = MetricsSampler.HISTORY_SERIES;
+        for (int i = 0; i < RULES; i++) {
+            String metric = series[i % series.length];
+            String function = FUNCTIONS[i % FUNCTIONS.length];
+            String window = (1 + i % 15) + "m";
+            String source = function == null ? metric : function + "(" + metric + ", " + window + ")";
+            engine.addRule("rule-" + i, source + " > " + (50 + i % 40) + " for 30s clear " + (40 + i % 40));
+        }
+        Random random = new Random(1);
+        rows = new double[ROWS][series.length];
+        for (double[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble() * 100;
+            }
+        }
+        // 填满最长的窗口
+        for (int i = 0; i < 15 * 60; i++) {
+            evaluate();
+        }
+    }
+
+    @Benchmark
+    public List<AlertEvent> evaluate() {
+        timestamp += 1000;
+        return engine.evaluate(timestamp, rows[next++ & (ROWS - 1)], null);
+    }
+}
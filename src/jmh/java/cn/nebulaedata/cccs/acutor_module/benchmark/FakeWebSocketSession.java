@@ -0,0 +1,150 @@
+package cn.nebulaedata.cccs.acutor_module.benchmark;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存中的 WebSocket 会话，只统计收到的帧数和字符数（可选统计行数），不做任何网络 I/O。
+ */
+public class FakeWebSocketSession implements WebSocketSession {
+
+    private final String id;
+    private final boolean countLines;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private volatile boolean open = true;
+
+    private long messages = 0;
+    private long chars = 0;
+    private long lines = 0;
+
+    public FakeWebSocketSession(String id, boolean countLines) {
+        this.id = id;
+        this.countLines = countLines;
+    }
+
+    public synchronized long getMessages() {
+        return messages;
+    }
+
+    public synchronized long getChars() {
+        return chars;
+    }
+
+    // 文本帧内以换行分隔的行数，构造时未开启统计则为0
+    public synchronized long getLines() {
+        return lines;
+    }
+
+    public synchronized void reset() {
+        messages = 0;
+        chars = 0;
+        lines = 0;
+    }
+
+    @Override
+    public synchronized void sendMessage(WebSocketMessage<?> message) {
+        messages++;
+        if (message instanceof TextMessage) {
+            String payload = ((TextMessage) message).getPayload();
+            chars += payload.length();
+            if (countLines) {
+                lines++;
+                for (int i = 0; i < payload.length(); i++) {
+                    if (payload.charAt(i) == '\n') lines++;
+                }
+            }
+        } else {
+            chars += message.getPayloadLength();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return URI.create("ws://localhost/benchmark");
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return new HttpHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        open = false;
+    }
+}
@@ -0,0 +1,118 @@
+package cn.nebulaedata.cccs.acutor_module.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试夹具（src/jmh/resources/fixtures）的读取和加工。
+ * 夹具内容固定，不同版本之间的结果可以直接比较。
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("找不到夹具: " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 按行读取，忽略空行
+    public static List<String> lines(String name) {
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(bytes(name), StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * 把夹具复制到临时目录中的相同相对路径下，返回临时目录（用作 proc-root 等根目录）。
+     */
+    public static Path copyToTempDirectory(String... names) {
+        try {
+            Path root = Files.createTempDirectory("monitor-bench");
+            root.toFile().deleteOnExit();
+            for (String name : names) {
+                Path target = root.resolve(name);
+                Files.createDirectories(target.getParent());
+                Files.write(target, bytes(name));
+                target.toFile().deleteOnExit();
+            }
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 构造一个分块传输的 HTTP 200 响应，chunks 中的每一段各占一个分块（与守护进程逐帧刷新一致）。
+     */
+    public static byte[] chunkedResponse(String contentType, List<byte[]> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "HTTP/1.1 200 OK\r\nContent-Type: " + contentType + "\r\nApi-Version: 1.43\r\n"
+                + "Transfer-Encoding: chunked\r\n\r\n");
+        for (byte[] chunk : chunks) {
+            write(out, Integer.toHexString(chunk.length) + "\r\n");
+            out.write(chunk, 0, chunk.length);
+            write(out, "\r\n");
+        }
+        write(out, "0\r\n\r\n");
+        return out.toByteArray();
+    }
+
+    // 把响应体按固定大小切分为分块
+    public static List<byte[]> split(byte[] body, int chunkSize) {
+        List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < body.length; i += chunkSize) {
+            byte[] chunk = new byte[Math.min(chunkSize, body.length - i)];
+            System.arraycopy(body, i, chunk, 0, chunk.length);
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 把日志行编码为 Docker 多路复用格式，每行一帧（8字节头 + 内容 + 换行），全部写入 stdout。
+     */
+    public static List<byte[]> multiplexedFrames(List<String> lines) {
+        List<byte[]> frames = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            byte[] payload = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            byte[] frame = new byte[8 + payload.length];
+            frame[0] = 1;
+            frame[4] = (byte) (payload.length >>> 24);
+            frame[5] = (byte) (payload.length >>> 16);
+            frame[6] = (byte) (payload.length >>> 8);
+            frame[7] = (byte) payload.length;
+            System.arraycopy(payload, 0, frame, 8, payload.length);
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,41 @@
+package cn.nebulaedata.cccs.acutor_module.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只记录提交的任务、由调用方在当前线程执行的调度器。
+ * 忽略延迟，使依赖定时合并的组件（如日志批量发送）在基准测试中可确定地执行。
+ */
+public class InlineScheduler extends ScheduledThreadPoolExecutor {
+
+    private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+
+    public InlineScheduler() {
+        super(1);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        pending.addLast(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        pending.addLast(command);
+        return null;
+    }
+
+    // 依次执行所有已提交的任务（包括执行过程中新提交的），返回执行的任务数
+    public int runPending() {
+        int count = 0;
+        Runnable task;
+        while ((task = pending.pollFirst()) != null) {
+            task.run();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 夹具中的 /proc/diskstats（16块盘、48个分区、8个loop设备）和挂载表（22项）的一次完整采集，
+ * 以及三个 PSI 文件的解析。挂载点在本机不存在，statvfs 立即失败，结果只反映解析开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiskCollectorBenchmark {
+
+    private DiskCollector diskCollector;
+    private PressureCollector pressureCollector;
+
+    @Setup
+    public void setup() throws IOException {
+        String procRoot = Fixtures.copyToTempDirectory("proc/diskstats", "proc/self/mounts",
+                "proc/pressure/cpu", "proc/pressure/memory", "proc/pressure/io").resolve("proc").toString();
+        // inode 间隔为0，不启动 df
+        diskCollector = new DiskCollector(procRoot, "^(ram|loop|fd|sr|zram|nbd)\\d+$", "proc,sysfs,cgroup2", 0,
+                null, new CollectorMetrics(60000));
+        pressureCollector = new PressureCollector(procRoot);
+        diskCollector.collect();
+    }
+
+    @Benchmark
+    public DiskCollector.Sample collectDisk() throws IOException {
+        return diskCollector.collect();
+    }
+
+    @Benchmark
+    public PressureCollector.Sample collectPressure() throws IOException {
+        return pressureCollector.collect();
+    }
+}
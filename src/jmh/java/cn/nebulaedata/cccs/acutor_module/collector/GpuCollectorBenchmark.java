@@ -0,0 +1,51 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * nvidia-smi 遥测流的逐行解析（8块GPU一轮输出），不启动子进程。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GpuCollectorBenchmark {
+
+    private String[] lines;
+    private GpuCollector collector;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> fixture = Fixtures.lines("nvidia-smi.csv");
+        lines = fixture.toArray(new String[0]);
+        // 不调用 start()，不需要I/O线程池
+        collector = new GpuCollector("nvidia-smi", 1000, 10000, 1000, false, null, new CollectorMetrics(60000));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public int parseRows() {
+        int parsed = 0;
+        for (String line : lines) {
+            if (collector.onRow(line)) parsed++;
+        }
+        return parsed;
+    }
+}
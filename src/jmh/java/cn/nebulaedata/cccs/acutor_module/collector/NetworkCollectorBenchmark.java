@@ -0,0 +1,45 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /proc/net/dev 的读取和解析（16个网卡），包括与上一次样本计算速率。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NetworkCollectorBenchmark {
+
+    private NetworkCollector collector;
+
+    @Setup
+    public void setup() throws IOException {
+        String procRoot = Fixtures.copyToTempDirectory("proc/net/dev").resolve("proc").toString();
+        collector = new NetworkCollector(procRoot);
+        if (!collector.isSupported()) {
+            throw new IllegalStateException("夹具目录不可读: " + procRoot);
+        }
+        collector.collect();
+    }
+
+    @Benchmark
+    public NetworkCollector.Sample collect() throws IOException {
+        return collector.collect();
+    }
+}
@@ -0,0 +1,77 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10000个进程的 /proc 目录（临时目录中生成）：一次完整扫描，以及按 CPU 取前20个进程（含读取 statm 和命令行）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessCollectorBenchmark {
+
+    private static final int PROCESSES = 10000;
+
+    private ProcessCollector collector;
+
+    @Setup
+    public void setup() throws IOException {
+        Path root = Files.createTempDirectory("monitor-bench-proc");
+        root.toFile().deleteOnExit();
+        write(root.resolve("meminfo"), "MemTotal:       65842340 kB\nMemFree:        12345678 kB\n");
+        write(root.resolve("stat"), "cpu  1 2 3 4\nbtime 1700000000\n");
+        write(root.resolve("uptime"), "86400.25 172000.50\n");
+        Random random = new Random(1);
+        for (int i = 0; i < PROCESSES; i++) {
+            int pid = 100 + i * 3;
+            Path directory = root.resolve(Integer.toString(pid));
+            Files.createDirectory(directory);
+            directory.toFile().deleteOnExit();
+            write(directory.resolve("stat"), pid + " (worker " + i + ") S 1 " + pid + " " + pid
+                    + " 0 -1 4194560 1200 0 3 0 " + random.nextInt(100000) + " " + random.nextInt(20000)
+                    + " 0 0 20 0 " + (1 + random.nextInt(64)) + " 0 " + (5000 + i) + " " + (1L << 30) + " "
+                    + random.nextInt(200000) + " 18446744073709551615 1 1 0 0 0 0 0 0 0 0 0 0 17 3 0 0 0 0 0\n");
+            write(directory.resolve("statm"), "262144 " + random.nextInt(200000) + " 2048 512 0 65536 0\n");
+            write(directory.resolve("cmdline"), "/usr/bin/worker\0--id\0" + i + "\0");
+        }
+        collector = new ProcessCollector(root.toString(), true, 4096, 4096, null, new CollectorMetrics(60000));
+        collector.sample();
+        collector.sample();
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+        path.toFile().deleteOnExit();
+    }
+
+    @Benchmark
+    public ProcessCollector.Sample scan() {
+        collector.sample();
+        return collector.getLatest();
+    }
+
+    @Benchmark
+    public Map<String, Object> topByCpu() {
+        return collector.top(ProcessCollector.SORT_CPU, 20);
+    }
+}
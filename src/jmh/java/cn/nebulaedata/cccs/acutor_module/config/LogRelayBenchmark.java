@@ -0,0 +1,92 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.FakeWebSocketSession;
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import cn.nebulaedata.cccs.acutor_module.benchmark.InlineScheduler;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogFollower;
+import cn.nebulaedata.cccs.acutor_module.docker.FixtureDocker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志转发全链路，结果按行计：守护进程日志流解码 → 去掉时间戳前缀 → 跟随器分发 →
+ * 批量发送器排队合并 → 发送到内存中的 WebSocket 会话。
+ * 跟随和发送任务都在当前线程中同步执行，测得的是单行的 CPU 开销，不含线程切换。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogRelayBenchmark {
+
+    static final int LOG_LINES = 2000;
+
+    private FixtureDocker docker;
+    private InlineScheduler scheduler;
+    private FakeWebSocketSession session;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> lines = Fixtures.lines("docker/logs.txt");
+        docker = new FixtureDocker(Fixtures.chunkedResponse("application/vnd.docker.multiplexed-stream",
+                Fixtures.multiplexedFrames(lines)));
+        scheduler = new InlineScheduler();
+        // 跟随器每次启动和结束都会打印一行，避免干扰基准测试输出
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+
+        // 先完整转发一次，确认所有行都送达
+        FakeWebSocketSession counting = new FakeWebSocketSession("verify", true);
+        relay(counting);
+        if (counting.getLines() != LOG_LINES) {
+            throw new IllegalStateException("应转发 " + LOG_LINES + " 行，实际 " + counting.getLines() + " 行");
+        }
+        session = new FakeWebSocketSession("benchmark", false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOG_LINES)
+    public long relayLines() {
+        session.reset();
+        relay(session);
+        return session.getChars();
+    }
+
+    private void relay(FakeWebSocketSession target) {
+        docker.rewind();
+        BatchingLogSender sender = new BatchingLogSender(target, null, scheduler, 10_000, 8 << 20, 16_384, 50,
+                BatchingLogSender.OverflowPolicy.DROP_OLDEST);
+        DockerLogFollower follower = docker.follower("abcdef012345", 1000, sender);
+        FixtureDocker.start(follower, scheduler);
+        scheduler.runPending();
+    }
+}
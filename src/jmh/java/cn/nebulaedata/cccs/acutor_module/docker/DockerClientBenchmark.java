@@ -0,0 +1,77 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Docker Engine API 客户端：容器列表的响应解析，以及日志流的分帧解码和按行切分。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DockerClientBenchmark {
+
+    // 夹具中的日志行数
+    static final int LOG_LINES = 2000;
+
+    @State(Scope.Thread)
+    public static class ContainerList {
+        FixtureDocker docker;
+
+        @Setup
+        public void setup() throws IOException {
+            byte[] body = Fixtures.bytes("docker/containers.json");
+            docker = new FixtureDocker(Fixtures.chunkedResponse("application/json", Fixtures.split(body, 8192)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Logs {
+        FixtureDocker docker;
+
+        @Setup
+        public void setup() throws IOException {
+            List<String> lines = Fixtures.lines("docker/logs.txt");
+            if (lines.size() != LOG_LINES) {
+                throw new IllegalStateException("日志夹具应为 " + LOG_LINES + " 行");
+            }
+            docker = new FixtureDocker(Fixtures.chunkedResponse("application/vnd.docker.multiplexed-stream",
+                    Fixtures.multiplexedFrames(lines)));
+        }
+    }
+
+    // 一次 GET /containers/json?all=1（40个容器）
+    @Benchmark
+    public List<DockerContainer> listContainers(ContainerList state) throws IOException {
+        state.docker.rewind();
+        return state.docker.getClient().listContainers(true);
+    }
+
+    // 日志流解码，结果按行计
+    @Benchmark
+    @OperationsPerInvocation(LOG_LINES)
+    public void pumpLogLines(Logs state, Blackhole blackhole) throws IOException {
+        state.docker.rewind();
+        try (DockerLogStream stream = state.docker.getClient().openLogs("abcdef012345",
+                new DockerLogOptions().follow(false).timestamps(true))) {
+            stream.pump((stderr, line) -> blackhole.consume(line));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 回放固定响应的 Docker 客户端：连接池中只有一条内存连接，每次请求前调用 {@link #rewind()}
+ * 从头回放同一份响应，请求写出、状态行和头部解析、分块解码与 JSON 解析都走真实代码路径。
+ */
+public class FixtureDocker {
+
+    private final FixtureSocket socket;
+    private final DockerEngineClient client;
+
+    public FixtureDocker(byte[] response) throws IOException {
+        this.socket = new FixtureSocket(response);
+        // 套接字路径不存在，连接池中的连接失效时请求会直接失败而不是连接真实守护进程
+        this.client = new DockerEngineClient("/nonexistent/docker.sock", 1, 1000, 1000, new CollectorMetrics(60000));
+        client.release(new DockerConnection(socket));
+    }
+
+    public DockerEngineClient getClient() {
+        return client;
+    }
+
+    public void rewind() {
+        socket.rewind();
+    }
+
+    // 创建日志跟随器并加入订阅者（加入时补发的历史行为空）
+    public DockerLogFollower follower(String containerId, int backlogLines, DockerLogSubscriber subscriber) {
+        DockerLogFollower follower = new DockerLogFollower(containerId, client, backlogLines);
+        follower.addSubscriber(subscriber);
+        return follower;
+    }
+
+    // 在指定线程池中启动跟随，传入同步执行器时返回时日志已全部读完
+    public static void start(DockerLogFollower follower, ExecutorService executor) {
+        follower.start(executor);
+    }
+
+    private static final class FixtureSocket extends Socket {
+        private final byte[] response;
+        private final RewindableInputStream in = new RewindableInputStream();
+        private boolean closed = false;
+
+        FixtureSocket(byte[] response) {
+            this.response = response;
+        }
+
+        void rewind() {
+            in.position = 0;
+            closed = false;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+        }
+
+        @Override
+        public void setSoTimeout(int timeout) {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public boolean isInputShutdown() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private final class RewindableInputStream extends InputStream {
+            int position = 0;
+
+            @Override
+            public int read() {
+                return position < response.length ? response[position++] & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (position >= response.length) return -1;
+                int n = Math.min(len, response.length - position);
+                System.arraycopy(response, position, b, off, n);
+                position += n;
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return response.length - position;
+            }
+        }
+    }
+}
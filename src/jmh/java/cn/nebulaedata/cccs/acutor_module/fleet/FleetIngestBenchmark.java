@@ -0,0 +1,96 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 汇聚节点的接收路径：4个线程并发合并各自主机的推送（解压、解码、按分片加锁合并），
+ * 每批10个快照，结果为每个快照的平均耗时。每个线程的推送按主机轮转、时间戳递增，不会被当作重发忽略。
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@Threads(4)
+public class FleetIngestBenchmark {
+
+    private static final int HOSTS_PER_THREAD = 250;
+    private static final int BATCHES_PER_THREAD = 5000;
+    private static final int SNAPSHOTS_PER_BATCH = 10;
+
+    @State(Scope.Benchmark)
+    public static class Aggregator {
+        FleetAggregator aggregator;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            aggregator = new FleetAggregator(new CollectorMetrics(60000), "aggregator", "bench", false, 16, 10000, 3600000);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pushes {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        final List<byte[]> batches = new ArrayList<>(BATCHES_PER_THREAD);
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            int thread = THREADS.getAndIncrement();
+            Random random = new Random(thread);
+            String[] series = MetricsSampler.HISTORY_SERIES;
+            List<ContainerSummary> containers = new ArrayList<>();
+            for (int c = 0; c < 20; c++) {
+                containers.add(new ContainerSummary(Integer.toHexString(random.nextInt()), "app-" + c, "nginx:1.25",
+                        "running", true, random.nextFloat() * 100, random.nextInt(1 << 30), 1L << 31));
+            }
+            long start = System.currentTimeMillis();
+            for (int b = 0; b < BATCHES_PER_THREAD; b++) {
+                int host = b % HOSTS_PER_THREAD;
+                int round = b / HOSTS_PER_THREAD;
+                long[] timestamps = new long[SNAPSHOTS_PER_BATCH];
+                double[][] rows = new double[SNAPSHOTS_PER_BATCH][series.length];
+                for (int i = 0; i < SNAPSHOTS_PER_BATCH; i++) {
+                    timestamps[i] = start + (round * SNAPSHOTS_PER_BATCH + i) * 1000L;
+                    for (int s = 0; s < series.length; s++) {
+                        rows[i][s] = Math.round(random.nextDouble() * 10000) / 100.0;
+                    }
+                }
+                batches.add(FleetCodec.encode("t" + thread + "-h" + host, "http://localhost:8080", series,
+                        timestamps, rows, SNAPSHOTS_PER_BATCH, containers));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCHES_PER_THREAD * SNAPSHOTS_PER_BATCH)
+    public int ingest(Aggregator state, Pushes pushes) throws IOException {
+        int accepted = 0;
+        for (byte[] batch : pushes.batches) {
+            accepted += state.aggregator.ingest(new ByteArrayInputStream(batch), "127.0.0.1");
+        }
+        return accepted;
+    }
+}
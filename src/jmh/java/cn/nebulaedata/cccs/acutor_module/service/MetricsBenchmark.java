@@ -0,0 +1,146 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.benchmark.Fixtures;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.ContainerStatsCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.DiskCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GpuCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.NetworkCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.PressureCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统指标快照相关的热点：快照 JSON 编码和 OpenMetrics 渲染。
+ * 快照由夹具（16个网卡、8块GPU、16块盘及其分区、22项挂载表）构造，与真实采样的结构一致。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    private GpuCollector gpuCollector;
+    private MetricsSnapshot snapshot;
+    private OpenMetricsExporter exporter;
+
+    @Setup
+    public void setup() throws IOException {
+        // 不调用 start()，直接把夹具中的行交给解析器
+        gpuCollector = new GpuCollector("nvidia-smi", 1000, 10000, 1000, false, null, new CollectorMetrics(60000));
+        for (String line : Fixtures.lines("nvidia-smi.csv")) {
+            gpuCollector.onRow(line);
+        }
+        String procRoot = Fixtures.copyToTempDirectory("proc/net/dev", "proc/diskstats", "proc/self/mounts",
+                "proc/pressure/cpu", "proc/pressure/memory", "proc/pressure/io").resolve("proc").toString();
+        NetworkCollector networkCollector = new NetworkCollector(procRoot);
+        networkCollector.collect();
+        NetworkCollector.Sample network = networkCollector.collect();
+        DiskCollector diskCollector = new DiskCollector(procRoot, "^(ram|loop|fd|sr|zram|nbd)\\d+$", "proc,sysfs,cgroup2",
+                0, null, new CollectorMetrics(60000));
+        diskCollector.collect();
+        DiskCollector.Sample disk = diskCollector.collect();
+        PressureCollector pressureCollector = new PressureCollector(procRoot);
+        PressureCollector.Sample pressure = pressureCollector.collect();
+
+        snapshot = snapshot(network, disk, pressure);
+        snapshot.encode();
+        // 两个快照交替返回，每次导出都会重新渲染
+        MetricsSnapshot other = snapshot(network, disk, pressure);
+        other.encode();
+        exporter = new OpenMetricsExporter(new FixedSampler(networkCollector, diskCollector, pressureCollector, snapshot, other),
+                new ContainerStatsCollector(null, "/nonexistent", "/nonexistent", new CollectorMetrics(60000)));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        snapshot.encode();
+        return snapshot.getJson();
+    }
+
+    @Benchmark
+    public byte[] renderOpenMetrics() {
+        return exporter.render();
+    }
+
+    private MetricsSnapshot snapshot(NetworkCollector.Sample network, DiskCollector.Sample disk,
+                                     PressureCollector.Sample pressure) {
+        MetricsSnapshot s = new MetricsSnapshot();
+        s.timestamp = 1700000000000L;
+        s.heapUsedBytes = 734_003_200L;
+        s.heapMaxBytes = 4_294_967_296L;
+        s.heapCommittedBytes = 1_073_741_824L;
+        s.nonHeapUsedBytes = 157_286_400L;
+        s.heapUsedMB = 700.0;
+        s.heapMaxMB = 4096.0;
+        s.heapCommittedMB = 1024.0;
+        s.heapUsagePercent = 17.09;
+        s.nonHeapUsedMB = 150.0;
+        s.systemCpuLoad = 0.4273;
+        s.processCpuLoad = 0.0318;
+        s.systemCpuLoadPercent = 42.73;
+        s.processCpuLoadPercent = 3.18;
+        s.availableProcessors = 64;
+        s.systemLoadAverage = 27.41;
+        s.totalPhysicalMemoryBytes = 540_170_993_664L;
+        s.freePhysicalMemoryBytes = 123_480_502_272L;
+        s.totalPhysicalMemoryMB = 515147.0;
+        s.freePhysicalMemoryMB = 117760.0;
+        s.usedPhysicalMemoryMB = 397387.0;
+        s.systemMemoryUsagePercent = 77.14;
+        s.threadCount = 87;
+        s.peakThreadCount = 95;
+        s.daemonThreadCount = 71;
+        s.loadedClassCount = 14210;
+        s.totalLoadedClassCount = 14388;
+        s.unloadedClassCount = 178;
+        s.gcNames = new String[]{"G1 Young Generation", "G1 Old Generation"};
+        s.gcCounts = new long[]{18342, 3};
+        s.gcTimes = new long[]{95211, 1840};
+        s.totalGcCount = 18345;
+        s.totalGcTime = 97051;
+        GpuCollector.GpuState[] states = gpuCollector.getGpus();
+        s.gpus = new MetricsSnapshot.GpuInfo[states.length];
+        for (int i = 0; i < states.length; i++) {
+            double[] values = new double[GpuCollector.VALUE_COUNT];
+            states[i].read(values);
+            s.gpus[i] = MetricsSnapshot.GpuInfo.of(states[i].getIndex(), states[i].getName(), values, states.length);
+        }
+        s.gpuInfo = s.gpus[0];
+        s.network = network;
+        s.disk = disk;
+        s.pressure = pressure;
+        return s;
+    }
+
+    private static final class FixedSampler extends MetricsSampler {
+        private final MetricsSnapshot[] snapshots;
+        private int next = 0;
+
+        FixedSampler(NetworkCollector networkCollector, DiskCollector diskCollector,
+                     PressureCollector pressureCollector, MetricsSnapshot... snapshots) {
+            // 不调用 sample()，不需要GPU采集器
+            super(networkCollector, null, null, null, diskCollector, pressureCollector, new CollectorMetrics(60000),
+                    1, 1, 1000, 1000, 1000, 1000, 1000);
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public MetricsSnapshot getLatest() {
+            return snapshots[next++ % snapshots.length];
+        }
+    }
+}
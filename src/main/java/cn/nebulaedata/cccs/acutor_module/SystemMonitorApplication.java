@@ -1,9 +1,11 @@
 package cn.nebulaedata.cccs.acutor_module;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
+@EnableScheduling
 public class SystemMonitorApplication {
 
     public static void main(String[] args) {
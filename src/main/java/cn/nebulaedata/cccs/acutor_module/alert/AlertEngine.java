@@ -0,0 +1,381 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerContainer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsListener;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 告警规则引擎：每次采样完成后对所有规则增量评估一次。
+ * 规则在加入时编译，评估时只按序号取出本次采样的历史序列值，窗口函数的状态保存在各自的 SlidingWindow 中，
+ * 每条规则均摊 O(1)；按容器计算的规则（containerRestarts）为每个容器维护一个独立的实例。
+ * 每个实例按 未触发 → 等待（条件满足但未满 for 时间）→ 触发 → 恢复 的状态机运行，只在触发和恢复时产生事件，
+ * 事件交给监听器（WebSocket 推送、Webhook）并保留最近的若干条。
+ * 指标持续缺失（NaN）超过 for 时间（至少三个采样间隔）时，触发中的告警以值未知（value 为 null）恢复，等待中的告警取消。
+ */
+@Component
+public class AlertEngine implements MetricsListener {
+
+    private final MetricsSampler metricsSampler;
+    private final DockerInventory dockerInventory;
+    private final CollectorStats evaluateStats;
+    private final String ruleDefinitions;
+    private final long sampleIntervalMs;
+    private final int eventHistorySize;
+    private final List<AlertListener> listeners = new CopyOnWriteArrayList<>();
+
+    // 以下字段由 this 保护
+    private final Map<String, Binding> bindings = new LinkedHashMap<>();
+    private Binding[] evaluationOrder = new Binding[0];
+    private final ArrayDeque<AlertEvent> recentEvents = new ArrayDeque<>();
+    private long nextEventId = 1;
+
+    public AlertEngine(MetricsSampler metricsSampler, DockerInventory dockerInventory, CollectorMetrics collectorMetrics,
+                       @Value("${monitor.alerts.rules:}") String ruleDefinitions,
+                       @Value("${monitor.sampler.interval-ms:1000}") long sampleIntervalMs,
+                       @Value("${monitor.alerts.event-history-size:256}") int eventHistorySize) {
+        this.metricsSampler = metricsSampler;
+        this.dockerInventory = dockerInventory;
+        this.evaluateStats = collectorMetrics.stats("alerts");
+        this.ruleDefinitions = ruleDefinitions;
+        this.sampleIntervalMs = Math.max(1, sampleIntervalMs);
+        this.eventHistorySize = Math.max(1, eventHistorySize);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 每行一条规则：“名称: 表达式”，空行和 # 开头的行忽略；无效的规则跳过，不影响启动
+        for (String line : ruleDefinitions.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int colon = line.indexOf(':');
+            try {
+                if (colon < 0) {
+                    throw new IllegalArgumentException("缺少规则名称（格式：名称: 表达式）");
+                }
+                putRule(AlertRule.compile(line.substring(0, colon).trim(), line.substring(colon + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("告警规则无效，已忽略: " + line + "，原因: " + e.getMessage());
+            }
+        }
+        if (!bindings.isEmpty()) {
+            System.out.println("已加载告警规则 " + bindings.size() + " 条");
+        }
+        metricsSampler.addListener(this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        metricsSampler.removeListener(this);
+    }
+
+    public void addListener(AlertListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(AlertListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onSample(MetricsSnapshot snapshot) {
+        long start = System.nanoTime();
+        List<AlertEvent> events;
+        try {
+            DockerInventory.Snapshot inventory = dockerInventory != null ? dockerInventory.getSnapshot() : null;
+            events = evaluate(snapshot.getTimestamp(), MetricsSampler.toHistoryRow(snapshot), inventory);
+            evaluateStats.record(start);
+        } catch (RuntimeException e) {
+            evaluateStats.recordFailure(start, e);
+            System.err.println("评估告警规则时发生异常: " + e.getMessage());
+            return;
+        }
+        publish(events);
+    }
+
+    /**
+     * 用一次采样的历史序列值评估所有规则，返回产生的事件，没有状态变化时返回 null。
+     */
+    public synchronized List<AlertEvent> evaluate(long timestamp, double[] row, DockerInventory.Snapshot inventory) {
+        List<AlertEvent> events = null;
+        for (Binding binding : evaluationOrder) {
+            if (!binding.rule.isPerContainer()) {
+                events = update(binding.instance, timestamp, row[binding.rule.getMetricIndex()], events);
+            } else if (inventory != null && inventory.isAvailable()) {
+                events = updateContainers(binding, timestamp, inventory, events);
+            }
+        }
+        return events;
+    }
+
+    private List<AlertEvent> updateContainers(Binding binding, long timestamp, DockerInventory.Snapshot inventory,
+                                              List<AlertEvent> events) {
+        Map<String, DockerContainer> containers = inventory.getContainers();
+        for (DockerContainer container : containers.values()) {
+            Instance instance = binding.containers.get(container.getId());
+            if (instance == null) {
+                instance = new Instance(binding.rule, container.getId(), container.getName(), windowCapacity(binding.rule),
+                        missingTimeout(binding.rule));
+                binding.containers.put(container.getId(), instance);
+            }
+            events = update(instance, timestamp, dockerInventory.getRestartCount(container.getId()), events);
+        }
+        // 已删除的容器：触发中的告警随之恢复
+        if (binding.containers.size() > containers.size()) {
+            Iterator<Instance> iterator = binding.containers.values().iterator();
+            while (iterator.hasNext()) {
+                Instance instance = iterator.next();
+                if (containers.containsKey(instance.containerId)) continue;
+                iterator.remove();
+                if (instance.state == Instance.FIRING) {
+                    events = record(events, AlertEvent.RESOLVED, instance, timestamp);
+                }
+            }
+        }
+        return events;
+    }
+
+    private List<AlertEvent> update(Instance instance, long timestamp, double value, List<AlertEvent> events) {
+        int transition = instance.update(timestamp, value);
+        if (transition == Instance.NONE) return events;
+        return record(events, transition == Instance.FIRING ? AlertEvent.FIRING : AlertEvent.RESOLVED, instance, timestamp);
+    }
+
+    private List<AlertEvent> record(List<AlertEvent> events, String status, Instance instance, long timestamp) {
+        AlertEvent event = new AlertEvent(nextEventId++, status, instance.rule, instance.containerId,
+                instance.containerName, instance.value, instance.since, timestamp);
+        if (recentEvents.size() >= eventHistorySize) {
+            recentEvents.pollFirst();
+        }
+        recentEvents.addLast(event);
+        if (events == null) {
+            events = new ArrayList<>(4);
+        }
+        events.add(event);
+        return events;
+    }
+
+    private void publish(List<AlertEvent> events) {
+        if (events == null) return;
+        for (AlertListener listener : listeners) {
+            try {
+                listener.onAlerts(events);
+            } catch (RuntimeException e) {
+                System.err.println("告警监听器处理事件时发生异常: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 加入或替换规则；替换或删除时，原规则触发中的告警发出恢复事件。
+     */
+    public AlertRule addRule(String name, String expression) {
+        AlertRule rule = AlertRule.compile(name, expression);
+        List<AlertEvent> events;
+        synchronized (this) {
+            events = resolveAll(bindings.get(name));
+            putRule(rule);
+        }
+        publish(events);
+        return rule;
+    }
+
+    public boolean removeRule(String name) {
+        List<AlertEvent> events;
+        synchronized (this) {
+            Binding binding = bindings.remove(name);
+            if (binding == null) return false;
+            evaluationOrder = bindings.values().toArray(new Binding[0]);
+            events = resolveAll(binding);
+        }
+        publish(events);
+        return true;
+    }
+
+    private synchronized void putRule(AlertRule rule) {
+        bindings.put(rule.getName(), new Binding(rule, rule.isPerContainer() ? null : new Instance(rule, null, null,
+                windowCapacity(rule), missingTimeout(rule))));
+        evaluationOrder = bindings.values().toArray(new Binding[0]);
+    }
+
+    private List<AlertEvent> resolveAll(Binding binding) {
+        if (binding == null) return null;
+        List<AlertEvent> events = null;
+        long now = System.currentTimeMillis();
+        Iterable<Instance> instances = binding.rule.isPerContainer()
+                ? binding.containers.values() : Collections.singletonList(binding.instance);
+        for (Instance instance : instances) {
+            if (instance.state == Instance.FIRING) {
+                events = record(events, AlertEvent.RESOLVED, instance, now);
+            }
+        }
+        return events;
+    }
+
+    // 窗口的初始容量：按采样间隔估算窗口内的样本数
+    private int windowCapacity(AlertRule rule) {
+        return (int) Math.min(1 << 16, rule.getWindowMs() / sampleIntervalMs + 2);
+    }
+
+    // 指标缺失多久后放弃当前状态：for 时间，至少三个采样间隔，避免偶尔一次采样失败就恢复
+    private long missingTimeout(AlertRule rule) {
+        return Math.max(rule.getForMs(), 3 * sampleIntervalMs);
+    }
+
+    public synchronized List<Map<String, Object>> rules() {
+        List<Map<String, Object>> result = new ArrayList<>(bindings.size());
+        for (Binding binding : bindings.values()) {
+            result.add(binding.rule.toMap());
+        }
+        return result;
+    }
+
+    // 等待中和触发中的告警
+    public synchronized List<Map<String, Object>> activeAlerts() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Binding binding : bindings.values()) {
+            if (binding.rule.isPerContainer()) {
+                for (Instance instance : binding.containers.values()) {
+                    instance.describeTo(result);
+                }
+            } else {
+                binding.instance.describeTo(result);
+            }
+        }
+        return result;
+    }
+
+    // 最近的事件，从新到旧
+    public synchronized List<Map<String, Object>> recentEvents(int limit) {
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, recentEvents.size()));
+        Iterator<AlertEvent> iterator = recentEvents.descendingIterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next().toMap());
+        }
+        return result;
+    }
+
+    /**
+     * 规则及其评估实例；按容器计算的规则按容器ID保存实例。
+     */
+    private static final class Binding {
+        final AlertRule rule;
+        final Instance instance;
+        final Map<String, Instance> containers = new HashMap<>();
+
+        Binding(AlertRule rule, Instance instance) {
+            this.rule = rule;
+            this.instance = instance;
+        }
+    }
+
+    /**
+     * 一条规则的一个评估实例（状态机）。
+     */
+    private static final class Instance {
+        static final int NONE = 0;
+        static final int INACTIVE = 0;
+        static final int PENDING = 1;
+        static final int FIRING = 2;
+        static final int RESOLVED = 3;
+        private static final String[] STATE_NAMES = {"inactive", "pending", "firing"};
+
+        final AlertRule rule;
+        final String containerId;
+        final String containerName;
+        // 直接比较当前值的规则没有窗口
+        private final SlidingWindow window;
+        private final long missingTimeoutMs;
+        int state = INACTIVE;
+        // 条件开始满足的时间
+        long since = 0;
+        double value = Double.NaN;
+        // 值开始缺失的时间，-1 表示当前有值
+        private long missingSince = -1;
+
+        Instance(AlertRule rule, String containerId, String containerName, int windowCapacity, long missingTimeoutMs) {
+            this.rule = rule;
+            this.containerId = containerId;
+            this.containerName = containerName;
+            this.missingTimeoutMs = missingTimeoutMs;
+            this.window = rule.getFunction() == AlertRule.FN_VALUE ? null
+                    : new SlidingWindow(rule.getFunction(), rule.getWindowMs(), windowCapacity);
+        }
+
+        // 返回本次产生的状态变化：NONE、FIRING 或 RESOLVED；窗口未满或值短暂缺失时状态保持不变
+        int update(long timestamp, double sample) {
+            double current = window == null ? sample : window.add(timestamp, sample);
+            if (Double.isNaN(current)) {
+                return missing(timestamp);
+            }
+            missingSince = -1;
+            value = current;
+            if (state == FIRING) {
+                // 回差：直到不再满足恢复阈值才恢复
+                if (rule.matches(current, rule.getClearThreshold())) return NONE;
+                state = INACTIVE;
+                return RESOLVED;
+            }
+            if (!rule.matches(current, rule.getThreshold())) {
+                state = INACTIVE;
+                return NONE;
+            }
+            if (state == INACTIVE) {
+                state = PENDING;
+                since = timestamp;
+            }
+            if (timestamp - since >= rule.getForMs()) {
+                state = FIRING;
+                return FIRING;
+            }
+            return NONE;
+        }
+
+        // 值缺失超过 missingTimeoutMs 后：触发中的告警以未知值恢复，等待中的告警取消
+        private int missing(long timestamp) {
+            if (state == INACTIVE) return NONE;
+            if (missingSince < 0) {
+                missingSince = timestamp;
+            }
+            if (timestamp - missingSince < missingTimeoutMs) return NONE;
+            boolean firing = state == FIRING;
+            state = INACTIVE;
+            value = Double.NaN;
+            missingSince = -1;
+            return firing ? RESOLVED : NONE;
+        }
+
+        void describeTo(List<Map<String, Object>> result) {
+            if (state == INACTIVE) return;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("rule", rule.getName());
+            item.put("state", STATE_NAMES[state]);
+            item.put("severity", rule.getSeverity());
+            item.put("expression", rule.getExpression());
+            if (containerId != null) {
+                item.put("containerId", containerId);
+                item.put("containerName", containerName);
+            }
+            item.put("value", Math.round(value * 100.0) / 100.0);
+            item.put("since", since);
+            result.add(item);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次告警状态变化：触发（firing）或恢复（resolved）。
+ * 同一告警（规则 + 容器）在两次状态变化之间只产生一个事件。
+ */
+public final class AlertEvent {
+
+    public static final String FIRING = "firing";
+    public static final String RESOLVED = "resolved";
+
+    private final long id;
+    private final String status;
+    private final AlertRule rule;
+    // 按容器计算的规则所属的容器，其余为 null
+    private final String containerId;
+    private final String containerName;
+    private final double value;
+    private final long startsAt;
+    private final long timestamp;
+
+    AlertEvent(long id, String status, AlertRule rule, String containerId, String containerName,
+               double value, long startsAt, long timestamp) {
+        this.id = id;
+        this.status = status;
+        this.rule = rule;
+        this.containerId = containerId;
+        this.containerName = containerName;
+        this.value = value;
+        this.startsAt = startsAt;
+        this.timestamp = timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public AlertRule getRule() {
+        return rule;
+    }
+
+    // 去重键：规则名，按容器计算时附加容器ID
+    public String getFingerprint() {
+        return containerId == null ? rule.getName() : rule.getName() + "/" + containerId;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("status", status);
+        item.put("rule", rule.getName());
+        item.put("fingerprint", getFingerprint());
+        item.put("severity", rule.getSeverity());
+        item.put("expression", rule.getExpression());
+        if (containerId != null) {
+            item.put("containerId", containerId);
+            item.put("containerName", containerName);
+        }
+        item.put("value", Double.isNaN(value) ? null : Math.round(value * 100.0) / 100.0);
+        item.put("threshold", RESOLVED.equals(status) ? rule.getClearThreshold() : rule.getThreshold());
+        // 条件开始满足的时间；恢复事件的 timestamp 即为恢复时间
+        item.put("startsAt", startsAt);
+        item.put("timestamp", timestamp);
+        return item;
+    }
+}
@@ -0,0 +1,13 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import java.util.List;
+
+/**
+ * 告警状态变化监听器。
+ * 回调在采样线程中执行，实现方不应阻塞。
+ */
+public interface AlertListener {
+
+    // 一次评估中产生的触发/恢复事件，按规则顺序排列
+    void onAlerts(List<AlertEvent> events);
+}
@@ -0,0 +1,248 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 编译后的告警规则（不可变）。表达式语法：
+ * <pre>
+ *   指标 比较符 阈值 [for 持续时间] [clear 恢复阈值] [severity 级别]
+ *   函数(指标, 窗口) 比较符 阈值 [for 持续时间] [clear 恢复阈值] [severity 级别]
+ * </pre>
+ * 指标为 MetricsSampler.HISTORY_SERIES 中的序列名，或按容器分别计算的 containerRestarts（重启次数）；
+ * 函数为 avg / min / max（窗口内的平均、最小、最大值）、delta（窗口内首尾之差）、
+ * increase（计数器增量，计数器变小时视为重置）和 slope（最小二乘斜率，每分钟的变化量）；
+ * 比较符为 &gt; &gt;= &lt; &lt;=；时间写作 500ms、30s、2m、1h。
+ * 条件持续满足 for 指定的时间后触发；触发后直到不再满足 clear 阈值（缺省与阈值相同）才恢复，避免在阈值附近反复触发。
+ * 例如：systemCpuLoadPercent &gt; 90 for 2m clear 80、increase(containerRestarts, 10m) &gt; 3、
+ * slope(heapUsagePercent, 15m) &gt; 0.5。
+ */
+public final class AlertRule {
+
+    public static final String CONTAINER_RESTARTS = "containerRestarts";
+
+    static final int FN_VALUE = 0;
+    static final int FN_AVG = 1;
+    static final int FN_MIN = 2;
+    static final int FN_MAX = 3;
+    static final int FN_DELTA = 4;
+    static final int FN_INCREASE = 5;
+    static final int FN_SLOPE = 6;
+    private static final String[] FUNCTION_NAMES = {"", "avg", "min", "max", "delta", "increase", "slope"};
+
+    static final int OP_GT = 0;
+    static final int OP_GE = 1;
+    static final int OP_LT = 2;
+    static final int OP_LE = 3;
+    private static final String[] OPERATORS = {">", ">=", "<", "<="};
+
+    private static final String NAME_PATTERN = "[A-Za-z][A-Za-z0-9_.-]*";
+    private static final Pattern EXPRESSION = Pattern.compile(
+            "\\s*(?:(\\w+)\\s*\\(\\s*(\\w+)\\s*,\\s*(\\w+)\\s*\\)|(\\w+))\\s*(>=|<=|>|<)\\s*(-?[0-9.]+(?:[eE][-+]?[0-9]+)?)"
+                    + "((?:\\s+\\w+\\s+\\S+)*)\\s*");
+    private static final Pattern DURATION = Pattern.compile("([0-9]+)(ms|s|m|h)");
+
+    private final String name;
+    private final String expression;
+    private final String severity;
+    private final String metric;
+    // HISTORY_SERIES 中的序号，containerRestarts 为 -1
+    private final int metricIndex;
+    private final int function;
+    private final long windowMs;
+    private final int operator;
+    private final double threshold;
+    private final double clearThreshold;
+    private final long forMs;
+
+    private AlertRule(String name, String expression, String severity, String metric, int metricIndex,
+                      int function, long windowMs, int operator, double threshold, double clearThreshold, long forMs) {
+        this.name = name;
+        this.expression = expression;
+        this.severity = severity;
+        this.metric = metric;
+        this.metricIndex = metricIndex;
+        this.function = function;
+        this.windowMs = windowMs;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.clearThreshold = clearThreshold;
+        this.forMs = forMs;
+    }
+
+    /**
+     * 编译一条规则，表达式无效时抛出 IllegalArgumentException。
+     */
+    public static AlertRule compile(String name, String expression) {
+        if (name == null || !name.matches(NAME_PATTERN)) {
+            throw new IllegalArgumentException("无效的规则名称: " + name + "（只能包含字母、数字、_ . -，以字母开头）");
+        }
+        Matcher m = expression == null ? null : EXPRESSION.matcher(expression);
+        if (m == null || !m.matches()) {
+            throw new IllegalArgumentException("无效的规则表达式: " + expression
+                    + "（格式：指标 > 阈值 [for 2m] [clear 恢复阈值] [severity 级别]，或 avg(指标, 5m) > 阈值）");
+        }
+        int function = FN_VALUE;
+        long windowMs = 0;
+        String metric = m.group(4);
+        if (metric == null) {
+            function = Arrays.asList(FUNCTION_NAMES).indexOf(m.group(1));
+            if (function <= FN_VALUE) {
+                throw new IllegalArgumentException("未知的函数: " + m.group(1) + "，可用函数: avg, min, max, delta, increase, slope");
+            }
+            metric = m.group(2);
+            windowMs = parseDuration(m.group(3));
+            if (windowMs <= 0) {
+                throw new IllegalArgumentException("窗口必须大于0: " + m.group(3));
+            }
+        }
+        int metricIndex = -1;
+        if (!CONTAINER_RESTARTS.equals(metric)) {
+            metricIndex = Arrays.asList(MetricsSampler.HISTORY_SERIES).indexOf(metric);
+            if (metricIndex < 0) {
+                throw new IllegalArgumentException("未知的指标: " + metric + "，可用指标: "
+                        + String.join(", ", MetricsSampler.HISTORY_SERIES) + ", " + CONTAINER_RESTARTS);
+            }
+        }
+        int operator = Arrays.asList(OPERATORS).indexOf(m.group(5));
+        double threshold = parseNumber(m.group(6));
+
+        double clearThreshold = threshold;
+        long forMs = 0;
+        String severity = "warning";
+        String[] options = m.group(7).trim().isEmpty() ? new String[0] : m.group(7).trim().split("\\s+");
+        for (int i = 0; i < options.length; i += 2) {
+            String value = options[i + 1];
+            switch (options[i]) {
+                case "for":
+                    forMs = parseDuration(value);
+                    break;
+                case "clear":
+                    clearThreshold = parseNumber(value);
+                    break;
+                case "severity":
+                    severity = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的规则选项: " + options[i] + "，可用选项: for, clear, severity");
+            }
+        }
+        // 恢复阈值只能比触发阈值更宽松，否则触发后会立即恢复
+        boolean above = operator == OP_GT || operator == OP_GE;
+        if (above ? clearThreshold > threshold : clearThreshold < threshold) {
+            throw new IllegalArgumentException("恢复阈值 " + value(clearThreshold) + " 必须" + (above ? "不大于" : "不小于")
+                    + "触发阈值 " + value(threshold));
+        }
+        return new AlertRule(name, expression.trim(), severity, metric, metricIndex, function, windowMs,
+                operator, threshold, clearThreshold, forMs);
+    }
+
+    static long parseDuration(String value) {
+        Matcher m = DURATION.matcher(value);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("无效的时间: " + value + "（如 500ms、30s、2m、1h）");
+        }
+        long amount = Long.parseLong(m.group(1));
+        switch (m.group(2)) {
+            case "ms":
+                return amount;
+            case "s":
+                return amount * 1000;
+            case "m":
+                return amount * 60_000;
+            default:
+                return amount * 3_600_000;
+        }
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的数值: " + value);
+        }
+    }
+
+    private static String value(double number) {
+        return number == Math.rint(number) ? Long.toString((long) number) : Double.toString(number);
+    }
+
+    // 比较 value 与 bound，NaN 不满足任何条件
+    boolean matches(double value, double bound) {
+        switch (operator) {
+            case OP_GT:
+                return value > bound;
+            case OP_GE:
+                return value >= bound;
+            case OP_LT:
+                return value < bound;
+            default:
+                return value <= bound;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    int getMetricIndex() {
+        return metricIndex;
+    }
+
+    // 按容器分别计算（每个容器一个独立的告警实例）
+    boolean isPerContainer() {
+        return metricIndex < 0;
+    }
+
+    int getFunction() {
+        return function;
+    }
+
+    long getWindowMs() {
+        return windowMs;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public double getClearThreshold() {
+        return clearThreshold;
+    }
+
+    public long getForMs() {
+        return forMs;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("name", name);
+        item.put("expression", expression);
+        item.put("severity", severity);
+        item.put("metric", metric);
+        item.put("function", function == FN_VALUE ? null : FUNCTION_NAMES[function]);
+        item.put("windowMs", function == FN_VALUE ? null : windowMs);
+        item.put("operator", OPERATORS[operator]);
+        item.put("threshold", threshold);
+        item.put("clearThreshold", clearThreshold);
+        item.put("forMs", forMs);
+        return item;
+    }
+}
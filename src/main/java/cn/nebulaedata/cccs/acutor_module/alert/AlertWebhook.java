@@ -0,0 +1,218 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 把告警事件以 JSON POST 到 monitor.alerts.webhook.url（未配置时不启用）。
+ * 事件先进入有界队列，发送任务在共享 I/O 线程池中批量发送，采样线程不会被慢的接收方阻塞；
+ * 失败时按退避间隔重试，超过 max-attempts 次后丢弃这批事件。
+ * 请求体：{"host": 主机名, "alerts": [事件, ...]}，事件字段与 /metrics/alerts/events 一致。
+ */
+@Component
+public class AlertWebhook implements AlertListener {
+
+    private final AlertEngine alertEngine;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService ioExecutor;
+    private final CollectorStats sendStats;
+    private final String url;
+    private final int maxQueuedEvents;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final String host;
+
+    // 待发送的事件，由 this 保护
+    private final ArrayDeque<AlertEvent> queue = new ArrayDeque<>();
+    private long dropped = 0;
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+    private volatile boolean running = false;
+
+    public AlertWebhook(AlertEngine alertEngine, ObjectMapper objectMapper, CollectorMetrics collectorMetrics,
+                        @Qualifier("ioExecutor") ExecutorService ioExecutor,
+                        @Value("${monitor.alerts.webhook.url:}") String url,
+                        @Value("${monitor.alerts.webhook.max-queued-events:1000}") int maxQueuedEvents,
+                        @Value("${monitor.alerts.webhook.max-attempts:5}") int maxAttempts,
+                        @Value("${monitor.alerts.webhook.retry-delay-ms:1000}") long retryDelayMs,
+                        @Value("${monitor.alerts.webhook.connect-timeout-ms:2000}") int connectTimeoutMs,
+                        @Value("${monitor.alerts.webhook.read-timeout-ms:5000}") int readTimeoutMs) {
+        this.alertEngine = alertEngine;
+        this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
+        this.sendStats = collectorMetrics.stats("alerts.webhook");
+        this.url = url.trim();
+        this.maxQueuedEvents = Math.max(1, maxQueuedEvents);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = Math.max(10, retryDelayMs);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.host = localHostName();
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (url.isEmpty()) return;
+        running = true;
+        alertEngine.addListener(this);
+        System.out.println("告警 Webhook 已启用: " + url);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) return;
+        running = false;
+        alertEngine.removeListener(this);
+    }
+
+    @Override
+    public void onAlerts(List<AlertEvent> events) {
+        synchronized (this) {
+            for (AlertEvent event : events) {
+                if (queue.size() >= maxQueuedEvents) {
+                    queue.pollFirst();
+                    dropped++;
+                }
+                queue.addLast(event);
+            }
+        }
+        schedule();
+    }
+
+    // 同一时间最多一个发送任务
+    private void schedule() {
+        if (!running || !sending.compareAndSet(false, true)) return;
+        try {
+            ioExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 事件留在队列中，下次有事件时再发送
+            sending.set(false);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<AlertEvent> batch;
+            while (running && (batch = poll()) != null) {
+                send(batch);
+            }
+        } finally {
+            sending.set(false);
+        }
+        // 发送任务结束前刚加入的事件
+        boolean pending;
+        synchronized (this) {
+            pending = !queue.isEmpty();
+        }
+        if (pending) {
+            schedule();
+        }
+    }
+
+    private synchronized List<AlertEvent> poll() {
+        if (queue.isEmpty()) return null;
+        if (dropped > 0) {
+            System.err.println("告警 Webhook 队列已满，丢弃了 " + dropped + " 个最旧的事件");
+            dropped = 0;
+        }
+        List<AlertEvent> batch = new ArrayList<>(queue);
+        queue.clear();
+        return batch;
+    }
+
+    // 发送一批事件，失败时按退避间隔重试
+    private void send(List<AlertEvent> batch) {
+        List<Map<String, Object>> alerts = new ArrayList<>(batch.size());
+        for (AlertEvent event : batch) {
+            alerts.add(event.toMap());
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("host", host);
+        payload.put("alerts", alerts);
+        long delay = retryDelayMs;
+        for (int attempt = 1; running; attempt++) {
+            long start = System.nanoTime();
+            try {
+                post(objectMapper.writeValueAsBytes(payload));
+                sendStats.record(start);
+                return;
+            } catch (IOException e) {
+                sendStats.recordFailure(start, e);
+                if (attempt >= maxAttempts) {
+                    System.err.println("发送告警 Webhook 失败，已重试 " + attempt + " 次，丢弃 " + batch.size()
+                            + " 个事件: " + e.getMessage());
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = Math.min(delay * 2, 60_000L);
+        }
+    }
+
+    private void post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            InputStream response = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (response != null) {
+                // 读完响应体，便于连接复用
+                byte[] buffer = new byte[1024];
+                try (InputStream in = response) {
+                    while (in.read(buffer) >= 0) {
+                        // 丢弃
+                    }
+                }
+            }
+            if (status / 100 != 2) {
+                throw new IOException("Webhook 返回 HTTP " + status);
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package cn.nebulaedata.cccs.acutor_module.alert;
+
+/**
+ * 按时间滑动的窗口聚合，数据保存在基本类型的环形数组中。
+ * 每加入一个样本先淘汰窗口外的旧样本，再增量更新累加值：
+ * avg / increase 维护窗口内的和，slope 额外维护时间和、时间平方和、时间与值的乘积和，
+ * min / max 维护单调队列；每个样本只进出一次，均摊 O(1)。
+ * 浮点累加的误差会随淘汰次数积累，时间原点离最新样本超过四个窗口时按窗口内的样本重新计算一次。
+ * 非线程安全，由 AlertEngine 串行调用。
+ */
+final class SlidingWindow {
+
+    private final int function;
+    private final long windowMs;
+
+    private long[] times;
+    private double[] values;
+    private int head = 0;
+    private int size = 0;
+
+    // 窗口内 values 的和；slope 的时间以 origin 为原点、以秒为单位
+    private double sum = 0;
+    private double sumT = 0;
+    private double sumTT = 0;
+    private double sumTV = 0;
+    private long origin = Long.MIN_VALUE;
+
+    // min / max 的单调队列（队首为窗口内的最值）
+    private long[] dequeTimes;
+    private double[] dequeValues;
+    private int dequeHead = 0;
+    private int dequeSize = 0;
+
+    // increase 需要上一个原始值；first 用于判断窗口是否已被样本覆盖
+    private double previous = Double.NaN;
+    private long first = Long.MIN_VALUE;
+
+    SlidingWindow(int function, long windowMs, int initialCapacity) {
+        this.function = function;
+        this.windowMs = windowMs;
+        int capacity = Math.max(4, initialCapacity);
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+        if (function == AlertRule.FN_MIN || function == AlertRule.FN_MAX) {
+            this.dequeTimes = new long[capacity];
+            this.dequeValues = new double[capacity];
+        }
+    }
+
+    /**
+     * 加入一个样本并返回窗口的聚合值；样本为 NaN，或窗口尚未被样本覆盖（increase 除外）时返回 NaN。
+     */
+    double add(long timestamp, double value) {
+        if (Double.isNaN(value)) return Double.NaN;
+        if (first == Long.MIN_VALUE) {
+            first = timestamp;
+            origin = timestamp;
+        }
+        evict(timestamp - windowMs);
+
+        double stored = value;
+        if (function == AlertRule.FN_INCREASE) {
+            // 计数器变小视为重置，重置后的值即为增量
+            stored = Double.isNaN(previous) ? 0 : value >= previous ? value - previous : value;
+            previous = value;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        int tail = (head + size) % times.length;
+        times[tail] = timestamp;
+        values[tail] = stored;
+        size++;
+        sum += stored;
+        if (function == AlertRule.FN_SLOPE) {
+            if (timestamp - origin > 4 * windowMs) {
+                rebase();
+            } else {
+                double t = (timestamp - origin) / 1000.0;
+                sumT += t;
+                sumTT += t * t;
+                sumTV += t * stored;
+            }
+        } else if (dequeTimes != null) {
+            push(timestamp, stored);
+        } else if (timestamp - origin > 4 * windowMs) {
+            rebase();
+        }
+
+        if (function == AlertRule.FN_INCREASE) return sum;
+        if (timestamp - first < windowMs) return Double.NaN;
+        switch (function) {
+            case AlertRule.FN_AVG:
+                return sum / size;
+            case AlertRule.FN_MIN:
+            case AlertRule.FN_MAX:
+                return dequeValues[dequeHead];
+            case AlertRule.FN_DELTA:
+                return stored - values[head];
+            default:
+                return slope();
+        }
+    }
+
+    // 淘汰时间不晚于 cutoff 的样本
+    private void evict(long cutoff) {
+        while (size > 0 && times[head] <= cutoff) {
+            double value = values[head];
+            sum -= value;
+            if (function == AlertRule.FN_SLOPE) {
+                double t = (times[head] - origin) / 1000.0;
+                sumT -= t;
+                sumTT -= t * t;
+                sumTV -= t * value;
+            }
+            head = (head + 1) % times.length;
+            size--;
+        }
+        while (dequeSize > 0 && dequeTimes[dequeHead] <= cutoff) {
+            dequeHead = (dequeHead + 1) % dequeTimes.length;
+            dequeSize--;
+        }
+    }
+
+    // 从队尾移除不可能再成为最值的样本后入队
+    private void push(long timestamp, double value) {
+        boolean max = function == AlertRule.FN_MAX;
+        while (dequeSize > 0) {
+            double last = dequeValues[(dequeHead + dequeSize - 1) % dequeValues.length];
+            if (max ? last > value : last < value) break;
+            dequeSize--;
+        }
+        int tail = (dequeHead + dequeSize) % dequeTimes.length;
+        dequeTimes[tail] = timestamp;
+        dequeValues[tail] = value;
+        dequeSize++;
+    }
+
+    // 最小二乘斜率，换算为每分钟的变化量
+    private double slope() {
+        if (size < 2) return Double.NaN;
+        double denominator = size * sumTT - sumT * sumT;
+        if (denominator <= 0) return Double.NaN;
+        return (size * sumTV - sumT * sum) / denominator * 60;
+    }
+
+    // 以窗口内最早的样本为新的时间原点，重新计算累加值
+    private void rebase() {
+        origin = times[head];
+        sum = 0;
+        sumT = 0;
+        sumTT = 0;
+        sumTV = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % times.length;
+            double value = values[index];
+            sum += value;
+            if (function == AlertRule.FN_SLOPE) {
+                double t = (times[index] - origin) / 1000.0;
+                sumT += t;
+                sumTT += t * t;
+                sumTV += t * value;
+            }
+        }
+    }
+
+    // 容量翻倍，样本按时间顺序搬到数组开头；单调队列的长度不超过窗口样本数，同步扩容
+    private void grow() {
+        times = unwrap(times, head, size);
+        values = unwrap(values, head, size);
+        head = 0;
+        if (dequeTimes != null) {
+            dequeTimes = unwrap(dequeTimes, dequeHead, dequeSize);
+            dequeValues = unwrap(dequeValues, dequeHead, dequeSize);
+            dequeHead = 0;
+        }
+    }
+
+    private static long[] unwrap(long[] ring, int head, int size) {
+        long[] result = new long[ring.length * 2];
+        for (int i = 0; i < size; i++) {
+            result[i] = ring[(head + i) % ring.length];
+        }
+        return result;
+    }
+
+    private static double[] unwrap(double[] ring, int head, int size) {
+        double[] result = new double[ring.length * 2];
+        for (int i = 0; i < size; i++) {
+            result[i] = ring[(head + i) % ring.length];
+        }
+        return result;
+    }
+}
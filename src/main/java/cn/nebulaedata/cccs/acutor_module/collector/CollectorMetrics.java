@@ -0,0 +1,52 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控程序自身的开销统计：每个采集器（GPU、网络、JVM各项、Docker接口等）的耗时直方图和失败次数，
+ * 以及启动外部进程的次数。采集方在构造时取得各自的 {@link CollectorStats} 并缓存，记录时不查表。
+ */
+@Component
+public class CollectorMetrics {
+
+    private final long windowMs;
+    private final Map<String, CollectorStats> collectors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> processSpawns = new ConcurrentHashMap<>();
+
+    public CollectorMetrics(@Value("${monitor.self-metrics.window-ms:60000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    // 取得（必要时创建）指定名称的采集器统计
+    public CollectorStats stats(String name) {
+        return collectors.computeIfAbsent(name, key -> new CollectorStats(key, windowMs));
+    }
+
+    // 记录一次外部进程启动，command 为程序名
+    public void recordProcessSpawn(String command) {
+        processSpawns.computeIfAbsent(command, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    // 按名称排序
+    public Map<String, CollectorStats> getCollectors() {
+        return new TreeMap<>(collectors);
+    }
+
+    public Map<String, Long> getProcessSpawns() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : processSpawns.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个采集器的耗时和失败统计。
+ * 除自启动以来的累计直方图外，还维护两个轮换的时间窗口直方图，
+ * “最近”统计覆盖最近 1~2 个窗口，能反映当前是否变慢。
+ */
+public final class CollectorStats {
+
+    private final String name;
+    private final long windowNanos;
+
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram[] windows = {new LatencyHistogram(), new LatencyHistogram()};
+    private volatile int currentWindow = 0;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private final AtomicLong errors = new AtomicLong();
+    private volatile long lastMicros = -1;
+    private volatile String lastError;
+    private volatile long lastErrorAt;
+
+    CollectorStats(String name, long windowMs) {
+        this.name = name;
+        this.windowNanos = Math.max(1, windowMs) * 1_000_000L;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 记录一次成功的采集，startNanos 为开始时的 System.nanoTime()。
+     */
+    public void record(long startNanos) {
+        long now = System.nanoTime();
+        long micros = (now - startNanos) / 1000;
+        rotate(now);
+        total.record(micros);
+        windows[currentWindow].record(micros);
+        lastMicros = micros;
+    }
+
+    // 失败的采集同样计入耗时（超时等失败往往正是最慢的那些）
+    public void recordFailure(long startNanos, Throwable error) {
+        record(startNanos);
+        errors.incrementAndGet();
+        lastError = error.getClass().getSimpleName() + ": " + error.getMessage();
+        lastErrorAt = System.currentTimeMillis();
+    }
+
+    // 没有异常对象的失败（如返回值表示失败）
+    public void recordFailure(long startNanos, String message) {
+        record(startNanos);
+        errors.incrementAndGet();
+        lastError = message;
+        lastErrorAt = System.currentTimeMillis();
+    }
+
+    public long getCount() {
+        return total.snapshot().getCount();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public LatencyHistogram.Snapshot getTotalSnapshot() {
+        return total.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getRecentSnapshot() {
+        rotate(System.nanoTime());
+        return windows[0].snapshot(windows[1]);
+    }
+
+    // 当前窗口已满时清空较旧的窗口并切换过去，只有一个线程能完成切换
+    private void rotate(long now) {
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            int next = 1 - currentWindow;
+            windows[next].reset();
+            currentWindow = next;
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        LatencyHistogram.Snapshot totalSnapshot = total.snapshot();
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("count", totalSnapshot.getCount());
+        item.put("errors", errors.get());
+        item.put("lastMs", lastMicros >= 0 ? lastMicros / 1000.0 : null);
+        item.put("totalMs", totalSnapshot.getSumMicros() / 1000.0);
+        item.put("recent", summary(getRecentSnapshot()));
+        item.put("sinceStart", summary(totalSnapshot));
+        if (lastError != null) {
+            item.put("lastError", lastError);
+            item.put("lastErrorAt", lastErrorAt);
+        }
+        return item;
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.getCount());
+        summary.put("meanMs", round3(snapshot.getMeanMicros() / 1000.0));
+        summary.put("p50Ms", snapshot.getPercentileMicros(50) / 1000.0);
+        summary.put("p90Ms", snapshot.getPercentileMicros(90) / 1000.0);
+        summary.put("p99Ms", snapshot.getPercentileMicros(99) / 1000.0);
+        summary.put("maxMs", snapshot.getMaxMicros() / 1000.0);
+        return summary;
+    }
+
+    private static double round3(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,597 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerContainer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 容器资源统计采集器。
+ * 不调用 docker stats，而是直接读取每个运行中容器的 cgroup 文件（支持 v1 和 v2）
+ * 和容器内进程的 /proc/&lt;pid&gt;/net/dev；所有容器在后台采样周期内一次采集完成，
+ * 速率基于相邻两次采集的计数器增量计算。
+ */
+@Component
+public class ContainerStatsCollector {
+
+    // 累计计数器序号
+    public static final int CPU_USAGE_NANOS = 0;
+    public static final int CPU_USER_NANOS = 1;
+    public static final int CPU_SYSTEM_NANOS = 2;
+    public static final int CPU_THROTTLED_PERIODS = 3;
+    public static final int CPU_THROTTLED_NANOS = 4;
+    public static final int BLKIO_READ_BYTES = 5;
+    public static final int BLKIO_WRITE_BYTES = 6;
+    public static final int BLKIO_READ_OPS = 7;
+    public static final int BLKIO_WRITE_OPS = 8;
+    public static final int NETWORK_RX_BYTES = 9;
+    public static final int NETWORK_TX_BYTES = 10;
+    public static final int NETWORK_RX_PACKETS = 11;
+    public static final int NETWORK_TX_PACKETS = 12;
+    public static final int COUNTER_COUNT = 13;
+
+    static final String[] COUNTER_NAMES = {
+            "cpuUsageNanos", "cpuUserNanos", "cpuSystemNanos", "cpuThrottledPeriods", "cpuThrottledNanos",
+            "blkioReadBytes", "blkioWriteBytes", "blkioReadOps", "blkioWriteOps",
+            "networkRxBytes", "networkTxBytes", "networkRxPackets", "networkTxPackets"
+    };
+
+    // 瞬时值序号
+    public static final int MEMORY_USAGE = 0;
+    public static final int MEMORY_WORKING_SET = 1;
+    public static final int MEMORY_RSS = 2;
+    public static final int MEMORY_CACHE = 3;
+    // 内存上限，-1 表示不限制
+    public static final int MEMORY_LIMIT = 4;
+    public static final int PIDS = 5;
+    public static final int GAUGE_COUNT = 6;
+
+    static final String[] GAUGE_NAMES = {
+            "memoryUsageBytes", "memoryWorkingSetBytes", "memoryRssBytes", "memoryCacheBytes",
+            "memoryLimitBytes", "pids"
+    };
+
+    // cgroup v1 的 cpuacct.stat 以 USER_HZ（固定为100）为单位
+    private static final long NANOS_PER_USER_HZ = 10_000_000L;
+    // cgroup v1 未设置内存上限时 memory.limit_in_bytes 为接近 Long.MAX_VALUE 的值
+    private static final long V1_UNLIMITED = 1L << 62;
+
+    private final DockerInventory dockerInventory;
+    private final File cgroupRoot;
+    private final File procRoot;
+    private final ProcFileReader reader = new ProcFileReader(4096);
+    private final long[] parsed = new long[1];
+    private final CollectorStats sampleStats;
+
+    // 0 表示尚未检测
+    private int cgroupVersion = 0;
+    // cgroup v1 各控制器目录
+    private File cpuacctRoot;
+    private File cpuRoot;
+    private File memoryRoot;
+    private File blkioRoot;
+    private File pidsRoot;
+
+    // 按完整容器ID缓存的 cgroup 路径和进程号，只在 sample() 中访问
+    private final Map<String, Tracked> tracked = new HashMap<>();
+
+    private volatile Sample latest = new Sample(0, 0, Collections.<String, ContainerStats>emptyMap());
+
+    public ContainerStatsCollector(DockerInventory dockerInventory,
+                                   @Value("${monitor.cgroup-root:/sys/fs/cgroup}") String cgroupRoot,
+                                   @Value("${monitor.proc-root:/proc}") String procRoot,
+                                   CollectorMetrics collectorMetrics) {
+        this.dockerInventory = dockerInventory;
+        this.cgroupRoot = new File(cgroupRoot);
+        this.procRoot = new File(procRoot);
+        this.sampleStats = collectorMetrics.stats("cgroup.containers");
+    }
+
+    public boolean isSupported() {
+        return cgroupRoot.isDirectory();
+    }
+
+    public Sample getLatest() {
+        return latest;
+    }
+
+    /**
+     * 采集所有运行中容器的统计并发布新样本，已停止的容器不再跟踪。
+     */
+    @Scheduled(fixedRateString = "${monitor.sampler.interval-ms:1000}")
+    public synchronized void sample() {
+        DockerInventory.Snapshot snapshot = dockerInventory.getSnapshot();
+        if (!snapshot.isAvailable() || !isSupported()) return;
+        if (cgroupVersion == 0) {
+            detectLayout();
+        }
+
+        long timestamp = System.currentTimeMillis();
+        long monotonicNanos = System.nanoTime();
+        IOException failure = null;
+        Map<String, ContainerStats> stats = new LinkedHashMap<>();
+        Set<String> running = new HashSet<>();
+        for (DockerContainer container : snapshot.getContainers().values()) {
+            if (!"running".equals(container.getState())) continue;
+            running.add(container.getId());
+            Tracked state = tracked.get(container.getId());
+            if (state == null) {
+                state = new Tracked();
+                tracked.put(container.getId(), state);
+            }
+            try {
+                ContainerStats current = read(state, container, timestamp, monotonicNanos);
+                stats.put(container.getId(), current);
+                state.previous = current;
+                state.failing = false;
+            } catch (IOException e) {
+                failure = e;
+                // 容器重启后 cgroup 会重建，下次重新查找
+                state.cgroupPath = null;
+                state.pid = 0;
+                if (!state.failing) {
+                    System.err.println("读取容器 " + container.getName() + " 的cgroup统计失败: " + e.getMessage());
+                    state.failing = true;
+                }
+            }
+        }
+        tracked.keySet().retainAll(running);
+        latest = new Sample(timestamp, cgroupVersion, stats);
+        // 任一容器读取失败即计为一次失败
+        if (failure != null) {
+            sampleStats.recordFailure(monotonicNanos, failure);
+        } else {
+            sampleStats.record(monotonicNanos);
+        }
+    }
+
+    // 判断 cgroup 版本，v1 下定位各控制器目录（cpuacct 可能与 cpu 合并挂载）
+    private void detectLayout() {
+        if (new File(cgroupRoot, "cgroup.controllers").isFile()) {
+            cgroupVersion = 2;
+        } else {
+            cgroupVersion = 1;
+            cpuacctRoot = firstDirectory("cpuacct", "cpu,cpuacct", "cpuacct,cpu");
+            cpuRoot = firstDirectory("cpu", "cpu,cpuacct", "cpuacct,cpu");
+            memoryRoot = firstDirectory("memory");
+            blkioRoot = firstDirectory("blkio");
+            pidsRoot = firstDirectory("pids");
+        }
+        System.out.println("容器统计使用 cgroup v" + cgroupVersion + "，根目录: " + cgroupRoot.getAbsolutePath());
+    }
+
+    private File firstDirectory(String... names) {
+        for (String name : names) {
+            File directory = new File(cgroupRoot, name);
+            if (directory.isDirectory()) return directory;
+        }
+        return new File(cgroupRoot, names[0]);
+    }
+
+    private ContainerStats read(Tracked state, DockerContainer container, long timestamp, long monotonicNanos)
+            throws IOException {
+        if (state.cgroupPath == null) {
+            state.cgroupPath = resolveCgroupPath(container.getId());
+            if (state.cgroupPath == null) {
+                throw new FileNotFoundException("找不到容器的cgroup目录");
+            }
+        }
+
+        long[] counters = new long[COUNTER_COUNT];
+        long[] gauges = new long[GAUGE_COUNT];
+        File procsFile;
+        if (cgroupVersion == 2) {
+            File directory = new File(cgroupRoot, state.cgroupPath);
+            readV2(directory, counters, gauges);
+            procsFile = new File(directory, "cgroup.procs");
+        } else {
+            readV1(state.cgroupPath, counters, gauges);
+            procsFile = new File(new File(memoryRoot, state.cgroupPath), "cgroup.procs");
+        }
+
+        // 网络计数器来自容器内任一进程所在的网络命名空间
+        boolean networkAvailable = false;
+        if (state.pid <= 0) {
+            state.pid = readFirstPid(procsFile);
+        }
+        if (state.pid > 0) {
+            try {
+                readNetDev(new File(procRoot, state.pid + "/net/dev"), counters);
+                networkAvailable = true;
+            } catch (IOException e) {
+                // 进程已退出，下次重新读取 cgroup.procs
+                state.pid = 0;
+            }
+        }
+
+        double[] rates = new double[COUNTER_COUNT];
+        double cpuPercent = 0;
+        ContainerStats previous = state.previous;
+        if (previous != null) {
+            double seconds = (monotonicNanos - previous.monotonicNanos) / 1e9;
+            if (seconds > 0) {
+                for (int i = 0; i < COUNTER_COUNT; i++) {
+                    rates[i] = delta(previous.counters[i], counters[i]) / seconds;
+                }
+                // 与 docker stats 一致：100% 表示占满一个CPU核
+                cpuPercent = rates[CPU_USAGE_NANOS] / 1e9 * 100.0;
+            }
+        }
+        return new ContainerStats(container.getId(), container.getName(), state.pid, timestamp, monotonicNanos,
+                counters, gauges, rates, cpuPercent, networkAvailable);
+    }
+
+    // cgroup 和网络计数器都是64位的，不会回绕；变小只可能是重置（如容器重启后 cgroup 重建），本次速率记为0
+    private static long delta(long previous, long current) {
+        return current >= previous ? current - previous : 0;
+    }
+
+    // 依次尝试 systemd 和 cgroupfs 两种驱动的目录布局，返回相对于 cgroup 根（v1 为控制器目录）的路径
+    private String resolveCgroupPath(String containerId) {
+        String[] candidates = {
+                "system.slice/docker-" + containerId + ".scope",
+                "docker/" + containerId
+        };
+        File base = cgroupVersion == 2 ? cgroupRoot : memoryRoot;
+        for (String candidate : candidates) {
+            if (new File(base, candidate).isDirectory()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void readV2(File directory, long[] counters, long[] gauges) throws IOException {
+        if (!directory.isDirectory()) {
+            throw new FileNotFoundException("cgroup目录不存在: " + directory);
+        }
+        if (readOptional(new File(directory, "cpu.stat"))) {
+            counters[CPU_USAGE_NANOS] = Math.max(0, reader.keyValue("usage_usec", parsed)) * 1000;
+            counters[CPU_USER_NANOS] = Math.max(0, reader.keyValue("user_usec", parsed)) * 1000;
+            counters[CPU_SYSTEM_NANOS] = Math.max(0, reader.keyValue("system_usec", parsed)) * 1000;
+            counters[CPU_THROTTLED_PERIODS] = Math.max(0, reader.keyValue("nr_throttled", parsed));
+            counters[CPU_THROTTLED_NANOS] = Math.max(0, reader.keyValue("throttled_usec", parsed)) * 1000;
+        }
+
+        if (readOptional(new File(directory, "memory.current"))) {
+            reader.parseLong(0, parsed);
+            gauges[MEMORY_USAGE] = parsed[0];
+        }
+        long inactiveFile = 0;
+        if (readOptional(new File(directory, "memory.stat"))) {
+            gauges[MEMORY_RSS] = Math.max(0, reader.keyValue("anon", parsed));
+            gauges[MEMORY_CACHE] = Math.max(0, reader.keyValue("file", parsed));
+            inactiveFile = Math.max(0, reader.keyValue("inactive_file", parsed));
+        }
+        gauges[MEMORY_WORKING_SET] = Math.max(0, gauges[MEMORY_USAGE] - inactiveFile);
+        gauges[MEMORY_LIMIT] = -1;
+        if (readOptional(new File(directory, "memory.max")) && !reader.regionStartsWith(0, reader.length(), "max")) {
+            reader.parseLong(0, parsed);
+            gauges[MEMORY_LIMIT] = parsed[0];
+        }
+        if (readOptional(new File(directory, "pids.current"))) {
+            reader.parseLong(0, parsed);
+            gauges[PIDS] = parsed[0];
+        }
+
+        // io.stat 每行一个设备：8:0 rbytes=.. wbytes=.. rios=.. wios=.. dbytes=.. dios=..
+        if (readOptional(new File(directory, "io.stat"))) {
+            int length = reader.length();
+            int pos = 0;
+            while (pos < length) {
+                int p = reader.skipField(pos);
+                while (true) {
+                    p = reader.skipSpaces(p);
+                    int end = reader.skipField(p);
+                    if (end == p) break;
+                    addIoField(p, end, "rbytes=", counters, BLKIO_READ_BYTES);
+                    addIoField(p, end, "wbytes=", counters, BLKIO_WRITE_BYTES);
+                    addIoField(p, end, "rios=", counters, BLKIO_READ_OPS);
+                    addIoField(p, end, "wios=", counters, BLKIO_WRITE_OPS);
+                    p = end;
+                }
+                pos = reader.nextLine(p);
+            }
+        }
+    }
+
+    private void addIoField(int start, int end, String key, long[] counters, int counter) {
+        if (reader.regionStartsWith(start, end, key)) {
+            reader.parseLong(start + key.length(), parsed);
+            counters[counter] += parsed[0];
+        }
+    }
+
+    private void readV1(String path, long[] counters, long[] gauges) throws IOException {
+        File memoryDirectory = new File(memoryRoot, path);
+        if (!memoryDirectory.isDirectory()) {
+            throw new FileNotFoundException("cgroup目录不存在: " + memoryDirectory);
+        }
+        File cpuacctDirectory = new File(cpuacctRoot, path);
+        if (readOptional(new File(cpuacctDirectory, "cpuacct.usage"))) {
+            reader.parseLong(0, parsed);
+            counters[CPU_USAGE_NANOS] = parsed[0];
+        }
+        if (readOptional(new File(cpuacctDirectory, "cpuacct.stat"))) {
+            counters[CPU_USER_NANOS] = Math.max(0, reader.keyValue("user", parsed)) * NANOS_PER_USER_HZ;
+            counters[CPU_SYSTEM_NANOS] = Math.max(0, reader.keyValue("system", parsed)) * NANOS_PER_USER_HZ;
+        }
+        if (readOptional(new File(new File(cpuRoot, path), "cpu.stat"))) {
+            counters[CPU_THROTTLED_PERIODS] = Math.max(0, reader.keyValue("nr_throttled", parsed));
+            counters[CPU_THROTTLED_NANOS] = Math.max(0, reader.keyValue("throttled_time", parsed));
+        }
+
+        if (readOptional(new File(memoryDirectory, "memory.usage_in_bytes"))) {
+            reader.parseLong(0, parsed);
+            gauges[MEMORY_USAGE] = parsed[0];
+        }
+        long inactiveFile = 0;
+        if (readOptional(new File(memoryDirectory, "memory.stat"))) {
+            // total_* 包含子 cgroup，容器通常没有子 cgroup，两者相同
+            gauges[MEMORY_RSS] = Math.max(0, firstValue("total_rss", "rss"));
+            gauges[MEMORY_CACHE] = Math.max(0, firstValue("total_cache", "cache"));
+            inactiveFile = Math.max(0, firstValue("total_inactive_file", "inactive_file"));
+        }
+        gauges[MEMORY_WORKING_SET] = Math.max(0, gauges[MEMORY_USAGE] - inactiveFile);
+        gauges[MEMORY_LIMIT] = -1;
+        if (readOptional(new File(memoryDirectory, "memory.limit_in_bytes"))) {
+            reader.parseLong(0, parsed);
+            gauges[MEMORY_LIMIT] = parsed[0] >= V1_UNLIMITED ? -1 : parsed[0];
+        }
+        if (readOptional(new File(new File(pidsRoot, path), "pids.current"))) {
+            reader.parseLong(0, parsed);
+            gauges[PIDS] = parsed[0];
+        }
+
+        // blkio 每行：8:0 Read 1024，末尾另有一行 Total
+        File blkioDirectory = new File(blkioRoot, path);
+        if (readOptional(new File(blkioDirectory, "blkio.throttle.io_service_bytes"))) {
+            sumBlkio(counters, BLKIO_READ_BYTES, BLKIO_WRITE_BYTES);
+        }
+        if (readOptional(new File(blkioDirectory, "blkio.throttle.io_serviced"))) {
+            sumBlkio(counters, BLKIO_READ_OPS, BLKIO_WRITE_OPS);
+        }
+    }
+
+    private long firstValue(String key, String fallbackKey) {
+        long value = reader.keyValue(key, parsed);
+        return value >= 0 ? value : reader.keyValue(fallbackKey, parsed);
+    }
+
+    private void sumBlkio(long[] counters, int readCounter, int writeCounter) {
+        int length = reader.length();
+        int pos = 0;
+        while (pos < length) {
+            int opStart = reader.skipSpaces(reader.skipField(pos));
+            int opEnd = reader.skipField(opStart);
+            if (reader.regionEquals(opStart, opEnd, "Read")) {
+                reader.parseLong(opEnd, parsed);
+                counters[readCounter] += parsed[0];
+            } else if (reader.regionEquals(opStart, opEnd, "Write")) {
+                reader.parseLong(opEnd, parsed);
+                counters[writeCounter] += parsed[0];
+            }
+            pos = reader.nextLine(opEnd);
+        }
+    }
+
+    // 汇总容器网络命名空间内除回环外所有接口的收发字节数和包数
+    private void readNetDev(File netDev, long[] counters) throws IOException {
+        reader.read(netDev);
+        int length = reader.length();
+        int pos = reader.nextLine(reader.nextLine(0));
+        while (pos < length) {
+            int colon = reader.indexOf(pos, (byte) ':');
+            if (colon < 0) {
+                pos = reader.nextLine(pos);
+                continue;
+            }
+            int nameStart = reader.skipSpaces(pos);
+            int p = colon + 1;
+            if (!reader.regionEquals(nameStart, colon, "lo")) {
+                p = reader.parseLong(p, parsed);
+                counters[NETWORK_RX_BYTES] += parsed[0];
+                p = reader.parseLong(p, parsed);
+                counters[NETWORK_RX_PACKETS] += parsed[0];
+                // 跳过接收方向的其余6列
+                for (int i = 0; i < 6; i++) {
+                    p = reader.skipField(p);
+                }
+                p = reader.parseLong(p, parsed);
+                counters[NETWORK_TX_BYTES] += parsed[0];
+                p = reader.parseLong(p, parsed);
+                counters[NETWORK_TX_PACKETS] += parsed[0];
+            }
+            pos = reader.nextLine(p);
+        }
+    }
+
+    private int readFirstPid(File procsFile) {
+        try {
+            if (!readOptional(procsFile) || reader.length() == 0) return 0;
+            reader.parseLong(0, parsed);
+            return (int) parsed[0];
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // 读取可选的统计文件（对应控制器未启用时文件不存在），不存在时返回 false
+    private boolean readOptional(File file) throws IOException {
+        try {
+            reader.read(file);
+            return true;
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 单个容器的跟踪状态。
+     */
+    private static final class Tracked {
+        private String cgroupPath;
+        private int pid;
+        private ContainerStats previous;
+        private boolean failing;
+    }
+
+    /**
+     * 单个容器一次采集的不可变结果。
+     */
+    public static final class ContainerStats {
+        private final String id;
+        private final String name;
+        private final int pid;
+        private final long timestamp;
+        private final long monotonicNanos;
+        private final long[] counters;
+        private final long[] gauges;
+        private final double[] rates;
+        private final double cpuPercent;
+        private final boolean networkAvailable;
+
+        ContainerStats(String id, String name, int pid, long timestamp, long monotonicNanos, long[] counters,
+                       long[] gauges, double[] rates, double cpuPercent, boolean networkAvailable) {
+            this.id = id;
+            this.name = name;
+            this.pid = pid;
+            this.timestamp = timestamp;
+            this.monotonicNanos = monotonicNanos;
+            this.counters = counters;
+            this.gauges = gauges;
+            this.rates = rates;
+            this.cpuPercent = cpuPercent;
+            this.networkAvailable = networkAvailable;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isNetworkAvailable() {
+            return networkAvailable;
+        }
+
+        public double getCpuPercent() {
+            return cpuPercent;
+        }
+
+        public long getCounter(int counter) {
+            return counters[counter];
+        }
+
+        public double getRate(int counter) {
+            return rates[counter];
+        }
+
+        public long getGauge(int gauge) {
+            return gauges[gauge];
+        }
+
+        // 内存占用（工作集）相对上限的百分比，未设置上限时返回 -1
+        public double getMemoryPercent() {
+            long limit = gauges[MEMORY_LIMIT];
+            return limit > 0 ? gauges[MEMORY_WORKING_SET] * 100.0 / limit : -1;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id.length() > 12 ? id.substring(0, 12) : id);
+            item.put("name", name);
+            item.put("pid", pid);
+            item.put("timestamp", timestamp);
+            item.put("cpuPercent", round2(cpuPercent));
+            double memoryPercent = getMemoryPercent();
+            item.put("memoryPercent", memoryPercent < 0 ? null : round2(memoryPercent));
+            for (int i = 0; i < GAUGE_COUNT; i++) {
+                long value = gauges[i];
+                item.put(GAUGE_NAMES[i], i == MEMORY_LIMIT && value < 0 ? null : value);
+            }
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                if (i >= NETWORK_RX_BYTES && !networkAvailable) continue;
+                item.put(COUNTER_NAMES[i], counters[i]);
+            }
+            for (int i = BLKIO_READ_BYTES; i < COUNTER_COUNT; i++) {
+                if (i >= NETWORK_RX_BYTES && !networkAvailable) continue;
+                item.put(COUNTER_NAMES[i] + "PerSecond", round2(rates[i]));
+            }
+            item.put("networkAvailable", networkAvailable);
+            return item;
+        }
+
+        private static double round2(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    /**
+     * 一次采集得到的所有容器统计。
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final int cgroupVersion;
+        // 按完整容器ID索引
+        private final Map<String, ContainerStats> containers;
+        // 按12位短ID索引，对应容器列表接口中的ID
+        private final Map<String, ContainerStats> byShortId;
+
+        Sample(long timestamp, int cgroupVersion, Map<String, ContainerStats> containers) {
+            this.timestamp = timestamp;
+            this.cgroupVersion = cgroupVersion;
+            this.containers = Collections.unmodifiableMap(containers);
+            Map<String, ContainerStats> shortIds = new HashMap<>();
+            for (ContainerStats stats : containers.values()) {
+                String id = stats.getId();
+                shortIds.put(id.length() > 12 ? id.substring(0, 12) : id, stats);
+            }
+            this.byShortId = shortIds;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getCgroupVersion() {
+            return cgroupVersion;
+        }
+
+        public Map<String, ContainerStats> getContainers() {
+            return containers;
+        }
+
+        public ContainerStats getByShortId(String shortId) {
+            return byShortId.get(shortId);
+        }
+
+        public Map<String, Object> toMap() {
+            List<Map<String, Object>> items = new ArrayList<>(containers.size());
+            for (ContainerStats stats : containers.values()) {
+                items.add(stats.toMap());
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timestamp", timestamp);
+            result.put("cgroupVersion", cgroupVersion);
+            result.put("containerCount", items.size());
+            result.put("containers", items);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,649 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * 磁盘和文件系统采集器。
+ * /proc/diskstats 读入复用的缓冲区按字节解析，设备名只在新设备出现时创建字符串，
+ * 根据相邻两次采集的计数器增量计算每个设备的 IOPS、吞吐量、平均等待时间（await）、利用率和平均队列长度；
+ * 汇总值只统计整盘，不重复计入分区。
+ * 文件系统列表来自 /proc/self/mounts，内容不变时沿用上一次的解析结果，容量通过 statvfs 读取；
+ * Java 无法读取 inode 数，由 df -P -i 在 I/O 线程池中按较长的间隔刷新。
+ * 网络文件系统挂起时 statvfs 会阻塞，因此采集在采样器的截止时间线程池中执行，由采样器控制截止时间。
+ */
+@Component
+public class DiskCollector {
+
+    // 每个设备保存的计数器序号（扇区已换算为字节，时间为毫秒）
+    public static final int READS = 0;
+    public static final int READ_BYTES = 1;
+    public static final int READ_TIME_MS = 2;
+    public static final int WRITES = 3;
+    public static final int WRITTEN_BYTES = 4;
+    public static final int WRITE_TIME_MS = 5;
+    // 正在进行的 I/O 数，瞬时值
+    public static final int IN_FLIGHT = 6;
+    public static final int IO_TIME_MS = 7;
+    public static final int WEIGHTED_IO_TIME_MS = 8;
+    public static final int FIELD_COUNT = 9;
+
+    static final String[] FIELD_NAMES = {
+            "reads", "readBytes", "readTimeMs", "writes", "writtenBytes", "writeTimeMs",
+            "inFlight", "ioTimeMs", "weightedIoTimeMs"
+    };
+
+    // 每个设备的派生指标序号
+    public static final int READ_IOPS = 0;
+    public static final int WRITE_IOPS = 1;
+    public static final int READ_BYTES_PER_SECOND = 2;
+    public static final int WRITE_BYTES_PER_SECOND = 3;
+    public static final int READ_AWAIT_MS = 4;
+    public static final int WRITE_AWAIT_MS = 5;
+    public static final int AWAIT_MS = 6;
+    public static final int UTIL_PERCENT = 7;
+    public static final int QUEUE_DEPTH = 8;
+    public static final int RATE_COUNT = 9;
+
+    static final String[] RATE_NAMES = {
+            "readIops", "writeIops", "readBytesPerSecond", "writeBytesPerSecond",
+            "readAwaitMs", "writeAwaitMs", "awaitMs", "utilPercent", "queueDepth"
+    };
+
+    // 每个文件系统的数值序号，inode 未知时为 -1
+    public static final int SIZE_BYTES = 0;
+    public static final int FREE_BYTES = 1;
+    public static final int AVAILABLE_BYTES = 2;
+    public static final int INODES = 3;
+    public static final int INODES_FREE = 4;
+    public static final int FS_FIELD_COUNT = 5;
+
+    // 主设备号、次设备号、设备名之后的前11列中，需要保留的列及其对应的计数器序号
+    private static final int[] COLUMN_TO_FIELD = {
+            READS, -1, READ_BYTES, READ_TIME_MS, WRITES, -1, WRITTEN_BYTES, WRITE_TIME_MS,
+            IN_FLIGHT, IO_TIME_MS, WEIGHTED_IO_TIME_MS
+    };
+    // diskstats 的扇区固定为512字节，与设备的实际扇区大小无关
+    private static final int SECTOR_BYTES = 512;
+
+    private static final byte DEVICE_DISK = 0;
+    private static final byte DEVICE_PARTITION = 1;
+    private static final byte DEVICE_IGNORED = 2;
+
+    private final File diskstatsFile;
+    private final File mountsFile;
+    private final Pattern ignoredDevices;
+    private final Set<String> ignoredFsTypes;
+    private final long inodeIntervalMs;
+    private final ExecutorService ioExecutor;
+    private final CollectorMetrics collectorMetrics;
+    private final ProcFileReader reader = new ProcFileReader(16 * 1024);
+    private final long[] parsed = new long[1];
+
+    // 已知设备名及其类别，避免每次解析都创建字符串
+    private String[] knownNames = new String[16];
+    private byte[] knownKinds = new byte[16];
+    private int knownCount = 0;
+
+    // 本次解析的临时数据
+    private String[] scratchNames = new String[16];
+    private boolean[] scratchPartitions = new boolean[16];
+    private long[] scratchCounters = new long[16 * FIELD_COUNT];
+
+    // 上一次解析的挂载表内容及结果，内容不变时直接沿用
+    private byte[] mountsContent = new byte[0];
+    private int mountsLength = -1;
+    private Mount[] mounts = new Mount[0];
+
+    // inode 数由 df 在后台刷新，按挂载点索引
+    private volatile Map<String, long[]> inodes = Collections.emptyMap();
+    private final AtomicBoolean inodeRefreshing = new AtomicBoolean(false);
+    private long lastInodeRefresh = 0;
+    private volatile boolean inodeUnavailable = false;
+
+    private volatile Sample latest;
+
+    public DiskCollector(@Value("${monitor.proc-root:/proc}") String procRoot,
+                         @Value("${monitor.disk.ignored-devices:^(ram|loop|fd|sr|zram|nbd)\\d+$}") String ignoredDevices,
+                         @Value("${monitor.disk.ignored-fs-types:proc,sysfs,devtmpfs,devpts,cgroup,cgroup2,securityfs,pstore,bpf,debugfs,tracefs,configfs,fusectl,mqueue,hugetlbfs,autofs,binfmt_misc,rpc_pipefs,nsfs,selinuxfs,squashfs}") String ignoredFsTypes,
+                         @Value("${monitor.disk.inode-interval-ms:60000}") long inodeIntervalMs,
+                         @Qualifier("ioExecutor") ExecutorService ioExecutor,
+                         CollectorMetrics collectorMetrics) {
+        this.diskstatsFile = new File(procRoot, "diskstats");
+        File selfMounts = new File(procRoot, "self/mounts");
+        this.mountsFile = selfMounts.canRead() ? selfMounts : new File(procRoot, "mounts");
+        this.ignoredDevices = Pattern.compile(ignoredDevices);
+        this.ignoredFsTypes = new HashSet<>();
+        for (String type : ignoredFsTypes.split(",")) {
+            if (!type.trim().isEmpty()) this.ignoredFsTypes.add(type.trim());
+        }
+        this.inodeIntervalMs = inodeIntervalMs;
+        this.ioExecutor = ioExecutor;
+        this.collectorMetrics = collectorMetrics;
+    }
+
+    public boolean isSupported() {
+        return diskstatsFile.canRead() || mountsFile.canRead();
+    }
+
+    public Sample getLatest() {
+        return latest;
+    }
+
+    /**
+     * 采集一次并发布新样本，速率基于上一次发布的样本计算。
+     */
+    public synchronized Sample collect() throws IOException {
+        long timestamp = System.currentTimeMillis();
+        long monotonicNanos = System.nanoTime();
+
+        int count = 0;
+        if (diskstatsFile.canRead()) {
+            reader.read(diskstatsFile);
+            count = parseDiskstats();
+        }
+        String[] names = Arrays.copyOf(scratchNames, count);
+        boolean[] partitions = Arrays.copyOf(scratchPartitions, count);
+        long[] counters = Arrays.copyOf(scratchCounters, count * FIELD_COUNT);
+
+        if (mountsFile.canRead()) {
+            reader.read(mountsFile);
+            refreshMounts();
+        }
+        Mount[] currentMounts = mounts;
+        Map<String, long[]> currentInodes = inodes;
+        long[] filesystems = new long[currentMounts.length * FS_FIELD_COUNT];
+        for (int i = 0; i < currentMounts.length; i++) {
+            File directory = currentMounts[i].directory;
+            int base = i * FS_FIELD_COUNT;
+            // 每个调用各执行一次 statvfs，失败时为0
+            filesystems[base + SIZE_BYTES] = directory.getTotalSpace();
+            filesystems[base + FREE_BYTES] = directory.getFreeSpace();
+            filesystems[base + AVAILABLE_BYTES] = directory.getUsableSpace();
+            long[] inodeCounts = currentInodes.get(currentMounts[i].mountPoint);
+            filesystems[base + INODES] = inodeCounts != null ? inodeCounts[0] : -1;
+            filesystems[base + INODES_FREE] = inodeCounts != null ? inodeCounts[1] : -1;
+        }
+        maybeRefreshInodes(timestamp);
+
+        Sample sample = new Sample(timestamp, monotonicNanos, names, partitions, counters, currentMounts,
+                filesystems, latest);
+        latest = sample;
+        return sample;
+    }
+
+    // 解析缓冲区中的 /proc/diskstats 内容，跳过忽略的设备，返回设备数量
+    private int parseDiskstats() {
+        int length = reader.length();
+        int pos = 0;
+        int count = 0;
+        while (pos < length) {
+            // 主设备号、次设备号
+            int p = reader.skipField(reader.skipField(pos));
+            int nameStart = reader.skipSpaces(p);
+            int nameEnd = reader.skipField(nameStart);
+            if (nameEnd == nameStart) {
+                pos = reader.nextLine(nameEnd);
+                continue;
+            }
+            int known = internName(nameStart, nameEnd);
+            if (knownKinds[known] == DEVICE_IGNORED) {
+                pos = reader.nextLine(nameEnd);
+                continue;
+            }
+
+            if (count == scratchNames.length) {
+                scratchNames = Arrays.copyOf(scratchNames, count * 2);
+                scratchPartitions = Arrays.copyOf(scratchPartitions, count * 2);
+                scratchCounters = Arrays.copyOf(scratchCounters, count * 2 * FIELD_COUNT);
+            }
+            scratchNames[count] = knownNames[known];
+            scratchPartitions[count] = knownKinds[known] == DEVICE_PARTITION;
+            p = nameEnd;
+            int base = count * FIELD_COUNT;
+            for (int column = 0; column < COLUMN_TO_FIELD.length; column++) {
+                p = reader.parseLong(p, parsed);
+                int field = COLUMN_TO_FIELD[column];
+                if (field >= 0) {
+                    scratchCounters[base + field] = parsed[0];
+                }
+            }
+            scratchCounters[base + READ_BYTES] *= SECTOR_BYTES;
+            scratchCounters[base + WRITTEN_BYTES] *= SECTOR_BYTES;
+            count++;
+            pos = reader.nextLine(p);
+        }
+        return count;
+    }
+
+    // 查找或登记设备名，返回其在已知设备中的序号；只有新设备出现时才分配字符串并重新分类
+    private int internName(int start, int end) {
+        for (int i = 0; i < knownCount; i++) {
+            if (reader.regionEquals(start, end, knownNames[i])) {
+                return i;
+            }
+        }
+        if (knownCount == knownNames.length) {
+            knownNames = Arrays.copyOf(knownNames, knownCount * 2);
+            knownKinds = Arrays.copyOf(knownKinds, knownCount * 2);
+        }
+        knownNames[knownCount++] = reader.string(start, end);
+        classifyDevices();
+        return knownCount - 1;
+    }
+
+    private void classifyDevices() {
+        for (int i = 0; i < knownCount; i++) {
+            String name = knownNames[i];
+            if (ignoredDevices.matcher(name).matches()) {
+                knownKinds[i] = DEVICE_IGNORED;
+                continue;
+            }
+            knownKinds[i] = DEVICE_DISK;
+            for (int j = 0; j < knownCount; j++) {
+                if (i != j && isPartitionOf(name, knownNames[j])) {
+                    knownKinds[i] = DEVICE_PARTITION;
+                    break;
+                }
+            }
+        }
+    }
+
+    // sda1 是 sda 的分区，nvme0n1p1 是 nvme0n1 的分区；dm-10 不是 dm-1 的分区
+    static boolean isPartitionOf(String name, String parent) {
+        if (name.length() <= parent.length() || !name.startsWith(parent)) return false;
+        int pos = parent.length();
+        if (Character.isDigit(parent.charAt(parent.length() - 1))) {
+            if (name.charAt(pos) != 'p') return false;
+            pos++;
+        }
+        if (pos == name.length()) return false;
+        for (int i = pos; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // 挂载表（缓冲区中的 /proc/self/mounts）有变化时重新解析；同一挂载点挂载多次时以最后一次为准
+    private void refreshMounts() {
+        int length = reader.length();
+        byte[] buffer = reader.buffer();
+        if (length == mountsLength && regionEquals(buffer, mountsContent, length)) return;
+        mountsContent = Arrays.copyOf(buffer, length);
+        mountsLength = length;
+
+        Map<String, Mount> parsedMounts = new LinkedHashMap<>();
+        int pos = 0;
+        while (pos < length) {
+            int deviceStart = reader.skipSpaces(pos);
+            int deviceEnd = reader.skipField(deviceStart);
+            int mountStart = reader.skipSpaces(deviceEnd);
+            int mountEnd = reader.skipField(mountStart);
+            int typeStart = reader.skipSpaces(mountEnd);
+            int typeEnd = reader.skipField(typeStart);
+            pos = reader.nextLine(typeEnd);
+            if (typeEnd == typeStart) continue;
+            String type = reader.string(typeStart, typeEnd);
+            if (ignoredFsTypes.contains(type)) continue;
+            String mountPoint = unescape(reader.string(mountStart, mountEnd));
+            parsedMounts.remove(mountPoint);
+            parsedMounts.put(mountPoint, new Mount(unescape(reader.string(deviceStart, deviceEnd)), mountPoint, type));
+        }
+        mounts = parsedMounts.values().toArray(new Mount[0]);
+    }
+
+    private static boolean regionEquals(byte[] a, byte[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+
+    // 挂载表中的空格、制表符、换行和反斜杠以 \040 形式的八进制转义
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 3 < value.length() && isOctal(value, i + 1)) {
+                result.append((char) Integer.parseInt(value.substring(i + 1, i + 4), 8));
+                i += 3;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isOctal(String value, int start) {
+        for (int i = start; i < start + 3; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '7') return false;
+        }
+        return true;
+    }
+
+    // inode 数变化缓慢，按 inode-interval-ms 在后台刷新一次；df 不可用时不再尝试
+    private void maybeRefreshInodes(long now) {
+        if (inodeIntervalMs <= 0 || inodeUnavailable || now - lastInodeRefresh < inodeIntervalMs) return;
+        if (!inodeRefreshing.compareAndSet(false, true)) return;
+        lastInodeRefresh = now;
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    inodes = readInodes();
+                } finally {
+                    inodeRefreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inodeRefreshing.set(false);
+        }
+    }
+
+    // 输出格式：Filesystem Inodes IUsed IFree IUse% Mounted on（挂载点可能包含空格）
+    private Map<String, long[]> readInodes() {
+        Process process = null;
+        try {
+            collectorMetrics.recordProcessSpawn("df");
+            process = new ProcessBuilder("df", "-P", "-i").redirectErrorStream(true).start();
+            Map<String, long[]> result = new HashMap<>();
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                in.readLine();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] parts = line.trim().split("\\s+", 6);
+                    if (parts.length < 6) continue;
+                    try {
+                        result.put(parts[5], new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[3])});
+                    } catch (NumberFormatException e) {
+                        // 不支持 inode 的文件系统显示为 "-"
+                    }
+                }
+            }
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                System.err.println("df 超过10秒未结束，inode 数暂不更新");
+                return inodes;
+            }
+            return result;
+        } catch (IOException e) {
+            inodeUnavailable = true;
+            System.err.println("无法执行 df 读取 inode 数，不再尝试: " + e.getMessage());
+            return inodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inodes;
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * 一个挂载点，挂载表不变时在各次采集之间共享。
+     */
+    static final class Mount {
+        private final String device;
+        private final String mountPoint;
+        private final String type;
+        private final File directory;
+
+        Mount(String device, String mountPoint, String type) {
+            this.device = device;
+            this.mountPoint = mountPoint;
+            this.type = type;
+            this.directory = new File(mountPoint);
+        }
+    }
+
+    /**
+     * 一次采集得到的不可变样本。
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final long monotonicNanos;
+        private final String[] names;
+        private final boolean[] partitions;
+        // counters[设备序号 * FIELD_COUNT + 计数器序号]
+        private final long[] counters;
+        // rates[设备序号 * RATE_COUNT + 派生指标序号]，首次采集或新设备为0
+        private final double[] rates;
+        private final Mount[] mounts;
+        // filesystems[文件系统序号 * FS_FIELD_COUNT + 数值序号]
+        private final long[] filesystems;
+
+        // 整盘（不含分区）的汇总
+        private double readIops;
+        private double writeIops;
+        private double readBytesPerSecond;
+        private double writeBytesPerSecond;
+        private double awaitMs;
+        private double maxUtilPercent;
+        private double maxFilesystemUsagePercent = Double.NaN;
+
+        Sample(long timestamp, long monotonicNanos, String[] names, boolean[] partitions, long[] counters,
+               Mount[] mounts, long[] filesystems, Sample previous) {
+            this.timestamp = timestamp;
+            this.monotonicNanos = monotonicNanos;
+            this.names = names;
+            this.partitions = partitions;
+            this.counters = counters;
+            this.mounts = mounts;
+            this.filesystems = filesystems;
+            this.rates = new double[names.length * RATE_COUNT];
+            computeRates(previous);
+            for (int i = 0; i < mounts.length; i++) {
+                double usage = getUsagePercent(i);
+                if (!Double.isNaN(usage) && (Double.isNaN(maxFilesystemUsagePercent) || usage > maxFilesystemUsagePercent)) {
+                    maxFilesystemUsagePercent = usage;
+                }
+            }
+        }
+
+        private void computeRates(Sample previous) {
+            if (previous == null) return;
+            double elapsedMs = (monotonicNanos - previous.monotonicNanos) / 1e6;
+            if (elapsedMs <= 0) return;
+            double seconds = elapsedMs / 1000.0;
+            long totalIos = 0;
+            long totalIoTimeMs = 0;
+            for (int i = 0; i < names.length; i++) {
+                int prevIndex = previous.indexOf(names[i]);
+                if (prevIndex < 0) continue;
+                int base = i * FIELD_COUNT;
+                int prevBase = prevIndex * FIELD_COUNT;
+                long reads = delta(previous, prevBase, base, READS);
+                long writes = delta(previous, prevBase, base, WRITES);
+                long readTime = delta(previous, prevBase, base, READ_TIME_MS);
+                long writeTime = delta(previous, prevBase, base, WRITE_TIME_MS);
+                int r = i * RATE_COUNT;
+                rates[r + READ_IOPS] = reads / seconds;
+                rates[r + WRITE_IOPS] = writes / seconds;
+                rates[r + READ_BYTES_PER_SECOND] = delta(previous, prevBase, base, READ_BYTES) / seconds;
+                rates[r + WRITE_BYTES_PER_SECOND] = delta(previous, prevBase, base, WRITTEN_BYTES) / seconds;
+                rates[r + READ_AWAIT_MS] = reads > 0 ? (double) readTime / reads : 0;
+                rates[r + WRITE_AWAIT_MS] = writes > 0 ? (double) writeTime / writes : 0;
+                rates[r + AWAIT_MS] = reads + writes > 0 ? (double) (readTime + writeTime) / (reads + writes) : 0;
+                rates[r + UTIL_PERCENT] = Math.min(100.0, delta(previous, prevBase, base, IO_TIME_MS) * 100.0 / elapsedMs);
+                rates[r + QUEUE_DEPTH] = delta(previous, prevBase, base, WEIGHTED_IO_TIME_MS) / elapsedMs;
+                if (partitions[i]) continue;
+                readIops += rates[r + READ_IOPS];
+                writeIops += rates[r + WRITE_IOPS];
+                readBytesPerSecond += rates[r + READ_BYTES_PER_SECOND];
+                writeBytesPerSecond += rates[r + WRITE_BYTES_PER_SECOND];
+                maxUtilPercent = Math.max(maxUtilPercent, rates[r + UTIL_PERCENT]);
+                totalIos += reads + writes;
+                totalIoTimeMs += readTime + writeTime;
+            }
+            awaitMs = totalIos > 0 ? (double) totalIoTimeMs / totalIos : 0;
+        }
+
+        private long delta(Sample previous, int prevBase, int base, int field) {
+            return NetworkCollector.delta(previous.counters[prevBase + field], counters[base + field]);
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == name || names[i].equals(name)) return i;
+            }
+            return -1;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getDeviceCount() {
+            return names.length;
+        }
+
+        public String getDeviceName(int index) {
+            return names[index];
+        }
+
+        public boolean isPartition(int index) {
+            return partitions[index];
+        }
+
+        public long getCounter(int index, int field) {
+            return counters[index * FIELD_COUNT + field];
+        }
+
+        public double getRate(int index, int rate) {
+            return rates[index * RATE_COUNT + rate];
+        }
+
+        public double getReadIops() {
+            return readIops;
+        }
+
+        public double getWriteIops() {
+            return writeIops;
+        }
+
+        public double getReadBytesPerSecond() {
+            return readBytesPerSecond;
+        }
+
+        public double getWriteBytesPerSecond() {
+            return writeBytesPerSecond;
+        }
+
+        // 所有整盘 I/O 的平均等待时间（按 I/O 数加权）
+        public double getAwaitMs() {
+            return awaitMs;
+        }
+
+        // 利用率最高的整盘
+        public double getMaxUtilPercent() {
+            return maxUtilPercent;
+        }
+
+        // 使用率最高的文件系统，没有文件系统时为 NaN
+        public double getMaxFilesystemUsagePercent() {
+            return maxFilesystemUsagePercent;
+        }
+
+        public int getFilesystemCount() {
+            return mounts.length;
+        }
+
+        public String getMountPoint(int index) {
+            return mounts[index].mountPoint;
+        }
+
+        public String getFilesystemDevice(int index) {
+            return mounts[index].device;
+        }
+
+        public String getFilesystemType(int index) {
+            return mounts[index].type;
+        }
+
+        public long getFilesystemValue(int index, int field) {
+            return filesystems[index * FS_FIELD_COUNT + field];
+        }
+
+        // 与 df 一致：已用 / (已用 + 普通用户可用)，不含为 root 保留的空间；容量为0时为 NaN
+        public double getUsagePercent(int index) {
+            long size = getFilesystemValue(index, SIZE_BYTES);
+            long used = size - getFilesystemValue(index, FREE_BYTES);
+            long total = used + getFilesystemValue(index, AVAILABLE_BYTES);
+            return size > 0 && total > 0 ? used * 100.0 / total : Double.NaN;
+        }
+
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeNumberField("readIops", round2(readIops));
+            g.writeNumberField("writeIops", round2(writeIops));
+            g.writeNumberField("readBytesPerSecond", round2(readBytesPerSecond));
+            g.writeNumberField("writeBytesPerSecond", round2(writeBytesPerSecond));
+            g.writeNumberField("awaitMs", round2(awaitMs));
+            g.writeNumberField("maxUtilPercent", round2(maxUtilPercent));
+            g.writeArrayFieldStart("devices");
+            for (int i = 0; i < names.length; i++) {
+                g.writeStartObject();
+                g.writeStringField("name", names[i]);
+                g.writeBooleanField("partition", partitions[i]);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    g.writeNumberField(FIELD_NAMES[f], getCounter(i, f));
+                }
+                for (int r = 0; r < RATE_COUNT; r++) {
+                    g.writeNumberField(RATE_NAMES[r], round2(getRate(i, r)));
+                }
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeArrayFieldStart("filesystems");
+            for (int i = 0; i < mounts.length; i++) {
+                g.writeStartObject();
+                g.writeStringField("mountPoint", mounts[i].mountPoint);
+                g.writeStringField("device", mounts[i].device);
+                g.writeStringField("type", mounts[i].type);
+                g.writeNumberField("sizeBytes", getFilesystemValue(i, SIZE_BYTES));
+                g.writeNumberField("freeBytes", getFilesystemValue(i, FREE_BYTES));
+                g.writeNumberField("availableBytes", getFilesystemValue(i, AVAILABLE_BYTES));
+                double usage = getUsagePercent(i);
+                if (!Double.isNaN(usage)) {
+                    g.writeNumberField("usagePercent", round2(usage));
+                }
+                long inodeCount = getFilesystemValue(i, INODES);
+                if (inodeCount > 0) {
+                    long inodesFree = getFilesystemValue(i, INODES_FREE);
+                    g.writeNumberField("inodes", inodeCount);
+                    g.writeNumberField("inodesFree", inodesFree);
+                    g.writeNumberField("inodeUsagePercent", round2((inodeCount - inodesFree) * 100.0 / inodeCount));
+                }
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+
+        private static double round2(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次垃圾回收（来自 GC 通知）：收集器、动作、原因、耗时，以及各内存池在回收前后的使用量。
+ */
+public final class GcEvent {
+
+    private final long id;
+    private final String gcName;
+    private final String action;
+    private final String cause;
+    private final long timestamp;
+    private final long durationMs;
+    // 并发周期（如 ZGC Cycles、G1 Concurrent GC）不是停顿，不计入停顿统计
+    private final boolean concurrent;
+    private final String[] pools;
+    private final long[] usedBefore;
+    private final long[] usedAfter;
+    // 本次回收归属的分配量（上次回收后年轻代的增长）和晋升量（老年代的增长），未知时为 -1
+    private final long allocatedBytes;
+    private final long promotedBytes;
+
+    GcEvent(long id, String gcName, String action, String cause, long timestamp, long durationMs,
+            boolean concurrent, String[] pools, long[] usedBefore, long[] usedAfter,
+            long allocatedBytes, long promotedBytes) {
+        this.id = id;
+        this.gcName = gcName;
+        this.action = action;
+        this.cause = cause;
+        this.timestamp = timestamp;
+        this.durationMs = durationMs;
+        this.concurrent = concurrent;
+        this.pools = pools;
+        this.usedBefore = usedBefore;
+        this.usedAfter = usedAfter;
+        this.allocatedBytes = allocatedBytes;
+        this.promotedBytes = promotedBytes;
+    }
+
+    public String getGcName() {
+        return gcName;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    // 开始时间（毫秒时间戳）
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("gc", gcName);
+        item.put("action", action);
+        item.put("cause", cause);
+        item.put("timestamp", timestamp);
+        item.put("durationMs", durationMs);
+        item.put("concurrent", concurrent);
+        item.put("allocatedBytes", allocatedBytes >= 0 ? allocatedBytes : null);
+        item.put("promotedBytes", promotedBytes >= 0 ? promotedBytes : null);
+        Map<String, Object> poolUsage = new LinkedHashMap<>();
+        for (int i = 0; i < pools.length; i++) {
+            Map<String, Object> usage = new LinkedHashMap<>();
+            usage.put("before", usedBefore[i]);
+            usage.put("after", usedAfter[i]);
+            poolUsage.put(pools[i], usage);
+        }
+        item.put("pools", poolUsage);
+        return item;
+    }
+}
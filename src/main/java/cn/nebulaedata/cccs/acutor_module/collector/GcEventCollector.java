@@ -0,0 +1,405 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 GC 通知的垃圾回收采集器。
+ * 每次回收结束时 JVM 通过通知给出收集器、原因、耗时和各内存池回收前后的使用量：
+ * 事件写入定长环形缓冲区，停顿耗时写入直方图；
+ * 分配量按“本次回收前年轻代使用量 − 上次回收后年轻代使用量”累计，采样时再加上自上次回收以来年轻代的增长，
+ * 晋升量按 minor GC 前后老年代的增长累计，相邻两次采样的差值即为分配速率和晋升速率。
+ * 没有 Eden 区的收集器（ZGC、Shenandoah）以整个堆计算分配量，不统计晋升。
+ */
+@Component
+public class GcEventCollector implements NotificationListener {
+
+    // 停顿直方图的桶上界（毫秒），供 OpenMetrics 导出
+    public static final long[] PAUSE_BUCKETS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+    // 只报告并发周期（不是停顿）的收集器；CMS 的 ConcurrentMarkSweep 报告的耗时包含并发标记和清除阶段，
+    // 其中的初始标记、重新标记停顿没有单独的通知，整体按并发周期统计
+    private static final Set<String> CONCURRENT_COLLECTORS = new HashSet<>(Arrays.asList(
+            "ZGC Cycles", "ZGC Minor Cycles", "ZGC Major Cycles", "Shenandoah Cycles", "G1 Concurrent GC",
+            "ConcurrentMarkSweep"));
+
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<MemoryPoolMXBean> youngPools = new ArrayList<>();
+    private final Set<String> youngNames = new HashSet<>();
+    private final Set<String> oldNames = new HashSet<>();
+    private final boolean generational;
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final LatencyHistogram pauseHistogram = new LatencyHistogram();
+    private final List<NotificationEmitter> registered = new ArrayList<>();
+
+    // 以下由 this 保护
+    private final GcEvent[] ring;
+    private int ringNext = 0;
+    private long eventCount = 0;
+    private long pauseCount = 0;
+    private long pauseTimeMs = 0;
+    private long concurrentCount = 0;
+    private final long[] pauseBuckets = new long[PAUSE_BUCKETS_MS.length + 1];
+    private long allocatedBytes = 0;
+    private long promotedBytes = 0;
+    private long youngAfterLastGc = 0;
+    // 自上一次采样以来的停顿
+    private long intervalPauseCount = 0;
+    private long intervalPauseMs = 0;
+    private long intervalMaxPauseMs = 0;
+    // 上一次采样时的累计值
+    private long previousAllocated = -1;
+    private long previousPromoted;
+    private long previousNanos;
+    private Sample latest;
+
+    public GcEventCollector(@Value("${monitor.gc.event-ring-size:256}") int ringSize) {
+        this.ring = new GcEvent[Math.max(16, ringSize)];
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            heapPools.add(pool);
+            String name = pool.getName();
+            if (name.contains("Eden")) {
+                youngPools.add(pool);
+                youngNames.add(name);
+            } else if (name.contains("Old Gen") || name.contains("Tenured")) {
+                oldNames.add(name);
+            }
+        }
+        this.generational = !youngPools.isEmpty();
+        if (!generational) {
+            // 不分代的收集器：分配量按整个堆计算
+            youngPools.addAll(heapPools);
+            for (MemoryPoolMXBean pool : heapPools) {
+                youngNames.add(pool.getName());
+            }
+            oldNames.clear();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            if (bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener(this, null, null);
+                registered.add((NotificationEmitter) bean);
+            }
+        }
+        if (registered.isEmpty()) {
+            System.err.println("当前JVM不支持GC通知，无法记录单次停顿和分配速率");
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (NotificationEmitter emitter : registered) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // 已移除
+            }
+        }
+        registered.clear();
+    }
+
+    public boolean isSupported() {
+        return !registered.isEmpty();
+    }
+
+    // 在 JVM 的通知线程中回调
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                (CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        String gcName = info.getGcName();
+        String action = info.getGcAction();
+        String cause = info.getGcCause();
+        boolean concurrent = CONCURRENT_COLLECTORS.contains(gcName) || "No GC".equals(cause);
+
+        Map<String, MemoryUsage> before = gcInfo.getMemoryUsageBeforeGc();
+        Map<String, MemoryUsage> after = gcInfo.getMemoryUsageAfterGc();
+        String[] pools = before.keySet().toArray(new String[0]);
+        long[] usedBefore = new long[pools.length];
+        long[] usedAfter = new long[pools.length];
+        long youngBefore = 0;
+        long youngAfter = 0;
+        long oldBefore = 0;
+        long oldAfter = 0;
+        for (int i = 0; i < pools.length; i++) {
+            MemoryUsage afterUsage = after.get(pools[i]);
+            usedBefore[i] = before.get(pools[i]).getUsed();
+            usedAfter[i] = afterUsage != null ? afterUsage.getUsed() : usedBefore[i];
+            if (youngNames.contains(pools[i])) {
+                youngBefore += usedBefore[i];
+                youngAfter += usedAfter[i];
+            } else if (oldNames.contains(pools[i])) {
+                oldBefore += usedBefore[i];
+                oldAfter += usedAfter[i];
+            }
+        }
+        // 同一次回收可能由两个收集器各报告一次（如 ZGC Cycles 和 ZGC Pauses），只按其中一个累计分配量：
+        // 分代收集器按停顿事件，不分代的收集器按周期事件
+        boolean accounts = generational ? !concurrent : !gcName.endsWith("Pauses");
+        long durationMs = gcInfo.getDuration();
+
+        synchronized (this) {
+            long allocated = -1;
+            long promoted = -1;
+            if (accounts) {
+                allocated = Math.max(0, youngBefore - youngAfterLastGc);
+                allocatedBytes += allocated;
+                youngAfterLastGc = youngAfter;
+                if (!oldNames.isEmpty() && !action.contains("major")) {
+                    promoted = Math.max(0, oldAfter - oldBefore);
+                    promotedBytes += promoted;
+                }
+            }
+            GcEvent event = new GcEvent(gcInfo.getId(), gcName, action, cause, jvmStartTime + gcInfo.getStartTime(),
+                    durationMs, concurrent, pools, usedBefore, usedAfter, allocated, promoted);
+            ring[ringNext] = event;
+            ringNext = (ringNext + 1) % ring.length;
+            eventCount++;
+            if (concurrent) {
+                concurrentCount++;
+            } else {
+                pauseCount++;
+                pauseTimeMs += durationMs;
+                pauseBuckets[bucket(durationMs)]++;
+                intervalPauseCount++;
+                intervalPauseMs += durationMs;
+                intervalMaxPauseMs = Math.max(intervalMaxPauseMs, durationMs);
+            }
+        }
+        if (!concurrent) {
+            pauseHistogram.record(durationMs * 1000L);
+        }
+    }
+
+    private static int bucket(long durationMs) {
+        for (int i = 0; i < PAUSE_BUCKETS_MS.length; i++) {
+            if (durationMs <= PAUSE_BUCKETS_MS[i]) return i;
+        }
+        return PAUSE_BUCKETS_MS.length;
+    }
+
+    /**
+     * 采样一次：累计量、与上一次采样之间的分配/晋升速率，以及这段时间内的停顿；首次采样没有速率。
+     */
+    public Sample collect() {
+        long youngNow = 0;
+        for (MemoryPoolMXBean pool : youngPools) {
+            youngNow += pool.getUsage().getUsed();
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            // 自上次回收以来年轻代的增长也是已分配的内存；结果保持单调
+            long allocated = allocatedBytes + Math.max(0, youngNow - youngAfterLastGc);
+            if (previousAllocated >= 0) {
+                allocated = Math.max(allocated, previousAllocated);
+            }
+            double allocationRate = Double.NaN;
+            double promotionRate = Double.NaN;
+            if (previousAllocated >= 0 && now > previousNanos) {
+                double seconds = (now - previousNanos) / 1e9;
+                allocationRate = (allocated - previousAllocated) / seconds;
+                promotionRate = oldNames.isEmpty() ? Double.NaN : (promotedBytes - previousPromoted) / seconds;
+            }
+            Sample sample = new Sample(allocated, promotedBytes, !oldNames.isEmpty(), allocationRate, promotionRate,
+                    pauseCount, pauseTimeMs, concurrentCount, intervalPauseCount, intervalPauseMs, intervalMaxPauseMs,
+                    pauseBuckets.clone());
+            previousAllocated = allocated;
+            previousPromoted = promotedBytes;
+            previousNanos = now;
+            intervalPauseCount = 0;
+            intervalPauseMs = 0;
+            intervalMaxPauseMs = 0;
+            latest = sample;
+            return sample;
+        }
+    }
+
+    /**
+     * 最近的至多 limit 个事件（从新到旧）、停顿分布和累计量。
+     */
+    public Map<String, Object> toMap(int limit) {
+        List<Map<String, Object>> events = new ArrayList<>();
+        Map<String, Object> result = new LinkedHashMap<>();
+        Sample sample;
+        long[] buckets;
+        synchronized (this) {
+            int available = (int) Math.min(eventCount, ring.length);
+            for (int i = 1; i <= Math.min(limit, available); i++) {
+                events.add(ring[(ringNext - i + ring.length) % ring.length].toMap());
+            }
+            result.put("eventCount", eventCount);
+            result.put("concurrentCycles", concurrentCount);
+            result.put("allocatedBytes", allocatedBytes);
+            result.put("promotedBytes", oldNames.isEmpty() ? null : promotedBytes);
+            buckets = pauseBuckets.clone();
+            sample = latest;
+        }
+        if (sample != null) {
+            result.put("allocationRateMBps", finite(round2(sample.getAllocationRateMBps())));
+            result.put("promotionRateMBps", finite(round2(sample.getPromotionRateMBps())));
+        }
+
+        LatencyHistogram.Snapshot snapshot = pauseHistogram.snapshot();
+        Map<String, Object> pauses = new LinkedHashMap<>();
+        pauses.put("count", snapshot.getCount());
+        pauses.put("totalMs", snapshot.getSumMicros() / 1000);
+        pauses.put("meanMs", round2(snapshot.getMeanMicros() / 1000.0));
+        pauses.put("p50Ms", snapshot.getPercentileMicros(50) / 1000.0);
+        pauses.put("p90Ms", snapshot.getPercentileMicros(90) / 1000.0);
+        pauses.put("p99Ms", snapshot.getPercentileMicros(99) / 1000.0);
+        pauses.put("maxMs", snapshot.getMaxMicros() / 1000.0);
+        // 各区间（不大于上界毫秒数）的停顿次数
+        Map<String, Object> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < PAUSE_BUCKETS_MS.length; i++) {
+            histogram.put("le" + PAUSE_BUCKETS_MS[i], buckets[i]);
+        }
+        histogram.put("gt" + PAUSE_BUCKETS_MS[PAUSE_BUCKETS_MS.length - 1], buckets[PAUSE_BUCKETS_MS.length]);
+        pauses.put("histogram", histogram);
+        result.put("pauses", pauses);
+        result.put("events", events);
+        return result;
+    }
+
+    private static Object finite(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 一次采样的结果（不可变）。
+     */
+    public static final class Sample {
+        private final long allocatedBytes;
+        private final long promotedBytes;
+        private final boolean promotionTracked;
+        private final double allocationRate;
+        private final double promotionRate;
+        private final long pauseCount;
+        private final long pauseTimeMs;
+        private final long concurrentCount;
+        private final long intervalPauseCount;
+        private final long intervalPauseMs;
+        private final long intervalMaxPauseMs;
+        private final long[] pauseBuckets;
+
+        Sample(long allocatedBytes, long promotedBytes, boolean promotionTracked, double allocationRate,
+               double promotionRate,
+               long pauseCount, long pauseTimeMs, long concurrentCount, long intervalPauseCount,
+               long intervalPauseMs, long intervalMaxPauseMs, long[] pauseBuckets) {
+            this.allocatedBytes = allocatedBytes;
+            this.promotedBytes = promotedBytes;
+            this.promotionTracked = promotionTracked;
+            this.allocationRate = allocationRate;
+            this.promotionRate = promotionRate;
+            this.pauseCount = pauseCount;
+            this.pauseTimeMs = pauseTimeMs;
+            this.concurrentCount = concurrentCount;
+            this.intervalPauseCount = intervalPauseCount;
+            this.intervalPauseMs = intervalPauseMs;
+            this.intervalMaxPauseMs = intervalMaxPauseMs;
+            this.pauseBuckets = pauseBuckets;
+        }
+
+        // 启动以来的累计分配量（字节）
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getPromotedBytes() {
+            return promotedBytes;
+        }
+
+        // 不分代的收集器不统计晋升
+        public boolean isPromotionTracked() {
+            return promotionTracked;
+        }
+
+        // 分配速率（MB/s），首次采样时为 NaN
+        public double getAllocationRateMBps() {
+            return allocationRate / (1024.0 * 1024.0);
+        }
+
+        // 晋升速率（MB/s），首次采样或不分代的收集器为 NaN
+        public double getPromotionRateMBps() {
+            return promotionRate / (1024.0 * 1024.0);
+        }
+
+        public long getPauseCount() {
+            return pauseCount;
+        }
+
+        public long getPauseTimeMs() {
+            return pauseTimeMs;
+        }
+
+        // 与上一次采样之间的停顿总时长和最长停顿
+        public long getIntervalPauseMs() {
+            return intervalPauseMs;
+        }
+
+        public long getIntervalMaxPauseMs() {
+            return intervalMaxPauseMs;
+        }
+
+        // 各桶（上界见 PAUSE_BUCKETS_MS，最后一个为超出上界）的停顿次数，非累积
+        public long getPauseBucket(int index) {
+            return pauseBuckets[index];
+        }
+
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeNumberField("allocatedBytes", allocatedBytes);
+            if (!Double.isNaN(allocationRate)) {
+                g.writeNumberField("allocationRateMBps", round2(getAllocationRateMBps()));
+            }
+            if (promotionTracked) {
+                g.writeNumberField("promotedBytes", promotedBytes);
+                if (!Double.isNaN(promotionRate)) {
+                    g.writeNumberField("promotionRateMBps", round2(getPromotionRateMBps()));
+                }
+            }
+            g.writeNumberField("pauseCount", pauseCount);
+            g.writeNumberField("pauseTimeMs", pauseTimeMs);
+            g.writeNumberField("concurrentCycles", concurrentCount);
+            g.writeNumberField("intervalPauseCount", intervalPauseCount);
+            g.writeNumberField("intervalPauseMs", intervalPauseMs);
+            g.writeNumberField("intervalMaxPauseMs", intervalMaxPauseMs);
+            g.writeEndObject();
+        }
+    }
+}
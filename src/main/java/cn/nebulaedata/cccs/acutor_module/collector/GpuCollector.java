@@ -0,0 +1,344 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 常驻的 GPU 遥测流。
+ * 启动一个长期运行的 {@code nvidia-smi --query-gpu=... -lms <间隔>} 子进程，逐行解析其输出，
+ * 写入每块 GPU 的数值状态；进程退出或长时间没有输出（驱动异常时会挂起）时强制结束并按退避间隔重启。
+ * 没有 GPU 的机器上可以通过 {@code monitor.gpu.command} 指向输出固定 CSV 行的脚本进行测试。
+ */
+@Component
+public class GpuCollector {
+
+    // 查询的列：序号、名称，之后为数值列，顺序与下面的数值序号一致
+    public static final String QUERY = "index,name,utilization.gpu,memory.used,memory.total,utilization.memory,"
+            + "temperature.gpu,power.draw,power.limit,clocks.sm,clocks.mem";
+
+    // 数值序号：使用率（%）、显存已用/总量（MiB）、显存带宽使用率（%）、温度（℃）、功耗/功耗上限（W）、SM/显存频率（MHz）
+    public static final int UTILIZATION = 0;
+    public static final int MEMORY_USED = 1;
+    public static final int MEMORY_TOTAL = 2;
+    public static final int MEMORY_ACTIVITY = 3;
+    public static final int TEMPERATURE = 4;
+    public static final int POWER_DRAW = 5;
+    public static final int POWER_LIMIT = 6;
+    public static final int SM_CLOCK = 7;
+    public static final int MEMORY_CLOCK = 8;
+    public static final int VALUE_COUNT = 9;
+
+    // 至少需要使用率和显存两项，较旧的驱动或测试脚本可能不输出后面的列
+    private static final int MIN_VALUES = 3;
+
+    private final String command;
+    private final long intervalMs;
+    private final long stallTimeoutMs;
+    private final long restartDelayMs;
+    private final long maxRestartDelayMs;
+    private final boolean enabled;
+    private final ExecutorService streamExecutor;
+    private final CollectorMetrics collectorMetrics;
+    private final CollectorStats stats;
+
+    // 按 GPU 序号排列，出现新的 GPU 时整体替换
+    private volatile GpuState[] gpus = new GpuState[0];
+    private volatile String error = "GPU采集尚未启动";
+
+    // 以下两个字段只在读取线程中使用
+    private final int[] commas = new int[VALUE_COUNT + 2];
+    private final double[] row = new double[VALUE_COUNT];
+
+    private volatile boolean running = false;
+    private volatile Process process;
+    private volatile long lastOutputNanos;
+    // 当前子进程是否被看门狗结束
+    private volatile boolean stalled;
+    private Future<?> supervisorTask;
+
+    public GpuCollector(@Value("${monitor.gpu.command:nvidia-smi}") String command,
+                        @Value("${monitor.gpu.interval-ms:1000}") long intervalMs,
+                        @Value("${monitor.gpu.stall-timeout-ms:10000}") long stallTimeoutMs,
+                        @Value("${monitor.gpu.restart-delay-ms:1000}") long restartDelayMs,
+                        @Value("${monitor.gpu.enabled:true}") boolean enabled,
+                        @Qualifier("streamExecutor") ExecutorService streamExecutor,
+                        CollectorMetrics collectorMetrics) {
+        this.command = command;
+        this.intervalMs = Math.max(100, intervalMs);
+        this.stallTimeoutMs = Math.max(this.intervalMs * 2, stallTimeoutMs);
+        this.restartDelayMs = Math.max(100, restartDelayMs);
+        this.maxRestartDelayMs = Math.max(this.restartDelayMs, 60000);
+        this.enabled = enabled;
+        this.streamExecutor = streamExecutor;
+        this.collectorMetrics = collectorMetrics;
+        this.stats = collectorMetrics.stats("gpu");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            error = "GPU采集已关闭";
+            return;
+        }
+        running = true;
+        // 子进程输出是长期阻塞读取，在流式读取线程池中执行
+        supervisorTask = streamExecutor.submit(this::supervise);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Process current = process;
+        if (current != null) {
+            current.destroyForcibly();
+        }
+        if (supervisorTask != null) {
+            supervisorTask.cancel(true);
+        }
+    }
+
+    /**
+     * 已发现的 GPU，按序号排列；没有收到过任何数据时为空数组，原因见 {@link #getError()}。
+     */
+    public GpuState[] getGpus() {
+        return gpus;
+    }
+
+    // 当前的错误信息，子进程正常输出时为null
+    public String getError() {
+        return error;
+    }
+
+    // 读数超过这个年龄（毫秒）即视为过期
+    public long getStaleAfterMs() {
+        return intervalMs * 3;
+    }
+
+    // 看门狗：子进程超过 stall-timeout-ms 没有任何输出时强制结束，由读取线程重启
+    @Scheduled(fixedDelayString = "${monitor.gpu.interval-ms:1000}")
+    public void watchdog() {
+        Process current = process;
+        if (current == null) return;
+        long silentNanos = System.nanoTime() - lastOutputNanos;
+        if (silentNanos > stallTimeoutMs * 1_000_000L) {
+            System.err.println("nvidia-smi 已 " + silentNanos / 1_000_000 + "ms 没有输出，强制结束并重启");
+            stalled = true;
+            current.destroyForcibly();
+        }
+    }
+
+    // 启动子进程并持续读取输出，退出后按退避间隔重启
+    private void supervise() {
+        long delay = restartDelayMs;
+        String lastLogged = null;
+        while (running) {
+            Process current = null;
+            String lastMessage = null;
+            try {
+                collectorMetrics.recordProcessSpawn("nvidia-smi");
+                current = new ProcessBuilder(command, "--query-gpu=" + QUERY, "--format=csv,noheader,nounits",
+                        "-lms", String.valueOf(intervalMs))
+                        .redirectErrorStream(true)
+                        .start();
+                lastOutputNanos = System.nanoTime();
+                stalled = false;
+                process = current;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(current.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while (running && (line = reader.readLine()) != null) {
+                    lastOutputNanos = System.nanoTime();
+                    if (onRow(line)) {
+                        if (error != null) {
+                            error = null;
+                            lastLogged = null;
+                            delay = restartDelayMs;
+                            System.out.println("GPU遥测已就绪: " + command);
+                        }
+                    } else if (!line.trim().isEmpty()) {
+                        // 不是数据行，通常是 nvidia-smi 的错误提示
+                        lastMessage = line.trim();
+                    }
+                }
+                if (!running) break;
+                int exitCode = current.waitFor();
+                if (stalled) {
+                    error = "nvidia-smi 超过 " + stallTimeoutMs + "ms 没有输出，已强制结束";
+                } else {
+                    error = "nvidia-smi 已退出（退出码 " + exitCode + "）" + (lastMessage != null ? ": " + lastMessage : "");
+                }
+            } catch (IOException e) {
+                if (!running) break;
+                error = "无法启动nvidia-smi: " + e.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                process = null;
+                if (current != null) {
+                    current.destroyForcibly();
+                }
+            }
+
+            // 耗时直方图记录的是每行的解析耗时，进程中断只计入失败次数
+            stats.recordFailure(System.nanoTime(), error);
+            // 相同的错误只打印一次（没有GPU的机器上会一直重试）
+            if (!error.equals(lastLogged)) {
+                System.err.println("GPU遥测中断: " + error + "，" + delay + "ms 后重启");
+                lastLogged = error;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, maxRestartDelayMs);
+        }
+    }
+
+    /**
+     * 解析一行 CSV 输出（index, name, 数值...）并更新对应 GPU 的状态，不是数据行时返回false。
+     * 数值中的 [N/A]、[Not Supported] 记为 NaN。只能由单个线程调用。
+     */
+    public boolean onRow(String line) {
+        long startNanos = System.nanoTime();
+        int count = 0;
+        for (int i = 0; i < line.length() && count < commas.length; i++) {
+            if (line.charAt(i) == ',') {
+                commas[count++] = i;
+            }
+        }
+        if (count < MIN_VALUES + 1) return false;
+        double index = parseNumber(line, 0, commas[0]);
+        if (Double.isNaN(index) || index < 0 || index != Math.floor(index)) return false;
+
+        int values = count - 1;
+        for (int v = 0; v < VALUE_COUNT; v++) {
+            if (v < values) {
+                int end = v + 2 < count ? commas[v + 2] : line.length();
+                row[v] = parseNumber(line, commas[v + 1] + 1, end);
+            } else {
+                row[v] = Double.NaN;
+            }
+        }
+        if (Double.isNaN(row[MEMORY_TOTAL])) return false;
+
+        GpuState state = stateFor((int) index, line, commas[0] + 1, commas[1]);
+        state.update(row, System.currentTimeMillis());
+        stats.record(startNanos);
+        return true;
+    }
+
+    // 查找（必要时创建）指定序号的 GPU，名称变化时更新
+    private GpuState stateFor(int index, String line, int nameStart, int nameEnd) {
+        while (nameStart < nameEnd && line.charAt(nameStart) == ' ') nameStart++;
+        while (nameEnd > nameStart && line.charAt(nameEnd - 1) == ' ') nameEnd--;
+        int nameLength = nameEnd - nameStart;
+
+        GpuState[] current = gpus;
+        for (GpuState state : current) {
+            if (state.index == index) {
+                String name = state.name;
+                if (name.length() != nameLength || !name.regionMatches(0, line, nameStart, nameLength)) {
+                    state.name = line.substring(nameStart, nameEnd);
+                }
+                return state;
+            }
+        }
+        GpuState created = new GpuState(index, line.substring(nameStart, nameEnd));
+        GpuState[] updated = Arrays.copyOf(current, current.length + 1);
+        int position = updated.length - 1;
+        while (position > 0 && updated[position - 1].index > index) {
+            updated[position] = updated[position - 1];
+            position--;
+        }
+        updated[position] = created;
+        gpus = updated;
+        return created;
+    }
+
+    // 解析 [from, to) 范围内的十进制数，忽略首尾空格，无法解析时返回 NaN
+    static double parseNumber(String line, int from, int to) {
+        while (from < to && line.charAt(from) == ' ') from++;
+        while (to > from && line.charAt(to - 1) == ' ') to--;
+        if (from >= to) return Double.NaN;
+        boolean negative = false;
+        if (line.charAt(from) == '-') {
+            negative = true;
+            from++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa < Long.MAX_VALUE / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) scale++;
+                }
+                digits = true;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!digits) return Double.NaN;
+        double value = mantissa;
+        for (int i = 0; i < scale; i++) {
+            value /= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 一块 GPU 的最新读数，数值按本类的数值序号存放。
+     */
+    public static final class GpuState {
+        private final int index;
+        private volatile String name;
+        private final double[] values = new double[VALUE_COUNT];
+        private long updatedAt;
+
+        GpuState(int index, String name) {
+            this.index = index;
+            this.name = name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        synchronized void update(double[] from, long timestamp) {
+            System.arraycopy(from, 0, values, 0, VALUE_COUNT);
+            updatedAt = timestamp;
+        }
+
+        /**
+         * 把当前读数复制到 into（长度至少为 VALUE_COUNT），返回读数的时间戳（毫秒）。
+         */
+        public synchronized long read(double[] into) {
+            System.arraycopy(values, 0, into, 0, VALUE_COUNT);
+            return updatedAt;
+        }
+    }
+}
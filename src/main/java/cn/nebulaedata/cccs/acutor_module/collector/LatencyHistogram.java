@@ -0,0 +1,134 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的对数-线性耗时直方图（与 HdrHistogram 相同的分桶方式），单位为微秒。
+ * 每个2的幂区间再均分为32个子桶，相对误差约3%；可记录到约12天。
+ * 记录只做原子自增，快照读取时不阻塞记录方，并发记录的少量样本可能只体现在部分统计中。
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 最大指数为40（约 2^40 微秒）
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    // 清空（用于时间窗口轮换），与并发记录之间不保证原子性
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * 复制当前计数，others 中的直方图一并合并进来。
+     */
+    public Snapshot snapshot(LatencyHistogram... others) {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        LatencyHistogram[] all = new LatencyHistogram[others.length + 1];
+        all[0] = this;
+        System.arraycopy(others, 0, all, 1, others.length);
+        for (LatencyHistogram histogram : all) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = histogram.counts.get(i);
+                copy[i] += c;
+                count += c;
+            }
+            sum += histogram.totalMicros.get();
+            max = Math.max(max, histogram.maxMicros.get());
+        }
+        return new Snapshot(copy, count, sum, max);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKET_COUNT - 1;
+        // 取最高的 SUB_BUCKET_BITS+1 位，范围 [32, 64)
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    // 桶内的最大值
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * 某一时刻的直方图副本。
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSumMicros() {
+            return sumMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getMeanMicros() {
+            return count > 0 ? (double) sumMicros / count : 0;
+        }
+
+        /**
+         * 分位数（0~100），返回所在桶的上界，不超过记录到的最大值；没有样本时返回0。
+         */
+        public long getPercentileMicros(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
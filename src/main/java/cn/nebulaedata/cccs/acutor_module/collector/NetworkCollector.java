@@ -0,0 +1,296 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 网络接口流量采集器。
+ * 直接读取 /proc/net/dev 到复用的缓冲区并按字节解析，不再启动 cat 进程；
+ * 每次采集生成一个不可变的 {@link Sample} 并原子发布，速率基于相邻两次发布的样本计算，
+ * 因此并发读取者看到的计数和速率总是来自同一对样本。
+ */
+@Component
+public class NetworkCollector {
+
+    // 每个接口保存的计数器序号
+    public static final int RX_BYTES = 0;
+    public static final int RX_PACKETS = 1;
+    public static final int RX_ERRORS = 2;
+    public static final int RX_DROPS = 3;
+    public static final int TX_BYTES = 4;
+    public static final int TX_PACKETS = 5;
+    public static final int TX_ERRORS = 6;
+    public static final int TX_DROPS = 7;
+    public static final int FIELD_COUNT = 8;
+
+    static final String[] FIELD_NAMES = {
+            "rxBytes", "rxPackets", "rxErrors", "rxDrops",
+            "txBytes", "txPackets", "txErrors", "txDrops"
+    };
+
+    // /proc/net/dev 每行冒号后的16列中，需要保留的列及其对应的计数器序号
+    private static final int[] COLUMN_TO_FIELD = {
+            RX_BYTES, RX_PACKETS, RX_ERRORS, RX_DROPS, -1, -1, -1, -1,
+            TX_BYTES, TX_PACKETS, TX_ERRORS, TX_DROPS, -1, -1, -1, -1
+    };
+
+    private static final long COUNTER_32_MAX = 0xFFFFFFFFL;
+    // 32位内核上 unsigned long 计数器会在 2^32 处回绕；容器与宿主机共用内核，按本机 /proc 判断即可
+    private static final boolean KERNEL_32_BIT = detect32BitKernel();
+
+    private final File netDevFile;
+    private final ProcFileReader reader = new ProcFileReader(16 * 1024);
+    private final long[] parsed = new long[1];
+
+    // 已知接口名缓存，避免每次解析都创建字符串；只保留上一次采集中出现的接口，已删除的接口（如容器的 veth）不会累积
+    private String[] knownNames = new String[16];
+    private int knownCount = 0;
+
+    // 本次解析的临时数据
+    private String[] scratchNames = new String[16];
+    private long[] scratchCounters = new long[16 * FIELD_COUNT];
+
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+
+    public NetworkCollector(@Value("${monitor.proc-root:/proc}") String procRoot) {
+        this.netDevFile = new File(procRoot, "net/dev");
+    }
+
+    public boolean isSupported() {
+        return netDevFile.canRead();
+    }
+
+    /**
+     * 采集一次并发布新样本。采集过程串行化，读取者通过 {@link #getLatest()} 无锁获取结果。
+     */
+    public synchronized Sample collect() throws IOException {
+        long timestamp = System.currentTimeMillis();
+        reader.read(netDevFile);
+        int count = parse();
+        retainKnownNames(count);
+
+        String[] names = new String[count];
+        long[] counters = new long[count * FIELD_COUNT];
+        System.arraycopy(scratchNames, 0, names, 0, count);
+        System.arraycopy(scratchCounters, 0, counters, 0, count * FIELD_COUNT);
+
+        Sample previous = latest.get();
+        Sample sample = new Sample(timestamp, names, counters, computeRates(previous, timestamp, names, counters));
+        latest.set(sample);
+        return sample;
+    }
+
+    public Sample getLatest() {
+        return latest.get();
+    }
+
+    // 解析缓冲区中的 /proc/net/dev 内容，返回接口数量
+    private int parse() {
+        int length = reader.length();
+        // 跳过两行表头
+        int pos = reader.nextLine(reader.nextLine(0));
+        int count = 0;
+
+        while (pos < length) {
+            int colon = reader.indexOf(pos, (byte) ':');
+            if (colon < 0) {
+                pos = reader.nextLine(pos);
+                continue;
+            }
+            int nameStart = reader.skipSpaces(pos);
+
+            if (count == scratchNames.length) {
+                scratchNames = Arrays.copyOf(scratchNames, count * 2);
+                scratchCounters = Arrays.copyOf(scratchCounters, count * 2 * FIELD_COUNT);
+            }
+            scratchNames[count] = internName(nameStart, colon);
+
+            int p = colon + 1;
+            int base = count * FIELD_COUNT;
+            for (int column = 0; column < COLUMN_TO_FIELD.length; column++) {
+                p = reader.parseLong(p, parsed);
+                int field = COLUMN_TO_FIELD[column];
+                if (field >= 0) {
+                    scratchCounters[base + field] = parsed[0];
+                }
+            }
+            count++;
+            pos = reader.nextLine(p);
+        }
+
+        return count;
+    }
+
+    // 查找或登记接口名，只有新接口出现时才分配字符串
+    private String internName(int start, int end) {
+        for (int i = 0; i < knownCount; i++) {
+            if (reader.regionEquals(start, end, knownNames[i])) {
+                return knownNames[i];
+            }
+        }
+        if (knownCount == knownNames.length) {
+            knownNames = Arrays.copyOf(knownNames, knownCount * 2);
+        }
+        String name = reader.string(start, end);
+        knownNames[knownCount++] = name;
+        return name;
+    }
+
+    // 已知接口名只保留本次出现的接口（本次的接口名都取自缓存或刚登记）
+    private void retainKnownNames(int count) {
+        if (knownCount == count) return;
+        knownNames = Arrays.copyOf(scratchNames, Math.max(16, count));
+        knownCount = count;
+    }
+
+    // 根据上一个样本计算每秒速率，新出现的接口速率为0
+    private double[] computeRates(Sample previous, long timestamp, String[] names, long[] counters) {
+        double[] rates = new double[counters.length];
+        if (previous == null) return rates;
+
+        double seconds = (timestamp - previous.timestamp) / 1000.0;
+        if (seconds <= 0) return rates;
+
+        for (int i = 0; i < names.length; i++) {
+            int prevIndex = previous.indexOf(names[i]);
+            if (prevIndex < 0) continue;
+            int base = i * FIELD_COUNT;
+            int prevBase = prevIndex * FIELD_COUNT;
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                rates[base + f] = delta(previous.counters[prevBase + f], counters[base + f]) / seconds;
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * 计算计数器增量：计数器变小视为被重置（例如接口重建），本次增量记为0；
+     * 只有32位内核上、旧值在32位范围内时才按32位计数器回绕处理。
+     */
+    static long delta(long previous, long current) {
+        if (current >= previous) return current - previous;
+        if (KERNEL_32_BIT && previous <= COUNTER_32_MAX) return (COUNTER_32_MAX - previous) + current + 1;
+        return 0;
+    }
+
+    // 优先读取内核架构（/proc/sys/kernel/arch），读不到时按 JVM 的架构判断
+    private static boolean detect32BitKernel() {
+        String arch;
+        try {
+            arch = new String(Files.readAllBytes(Paths.get("/proc/sys/kernel/arch")), StandardCharsets.US_ASCII).trim();
+        } catch (IOException | RuntimeException e) {
+            arch = System.getProperty("os.arch", "");
+        }
+        return !(arch.contains("64") || arch.equals("s390x"));
+    }
+
+    /**
+     * 一次采集得到的不可变样本。
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final String[] names;
+        // counters[接口序号 * FIELD_COUNT + 计数器序号]
+        private final long[] counters;
+        // 每秒速率，布局与 counters 相同
+        private final double[] rates;
+
+        Sample(long timestamp, String[] names, long[] counters, double[] rates) {
+            this.timestamp = timestamp;
+            this.names = names;
+            this.counters = counters;
+            this.rates = rates;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getInterfaceCount() {
+            return names.length;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public long getCounter(int index, int field) {
+            return counters[index * FIELD_COUNT + field];
+        }
+
+        public double getRate(int index, int field) {
+            return rates[index * FIELD_COUNT + field];
+        }
+
+        public boolean isLoopback(int index) {
+            return "lo".equals(names[index]);
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == name || names[i].equals(name)) return i;
+            }
+            return -1;
+        }
+
+        // 除回环接口外所有接口的计数器合计
+        public long getTotalCounter(int field) {
+            long total = 0;
+            for (int i = 0; i < names.length; i++) {
+                if (!isLoopback(i)) total += getCounter(i, field);
+            }
+            return total;
+        }
+
+        // 除回环接口外所有接口的每秒速率合计
+        public double getTotalRate(int field) {
+            double total = 0;
+            for (int i = 0; i < names.length; i++) {
+                if (!isLoopback(i)) total += getRate(i, field);
+            }
+            return total;
+        }
+
+        // 按接口返回的结构写出 JSON，汇总值不包含回环接口
+        public void writeTo(JsonGenerator g) throws IOException {
+            long totalReceivedBytes = getTotalCounter(RX_BYTES);
+            long totalSentBytes = getTotalCounter(TX_BYTES);
+
+            g.writeStartObject();
+            g.writeNumberField("receivedBytes", totalReceivedBytes);
+            g.writeNumberField("sentBytes", totalSentBytes);
+            g.writeNumberField("currentTimestamp", timestamp);
+            g.writeNumberField("receivedKbps", round2(getTotalRate(RX_BYTES) * 8.0 / 1000.0));
+            g.writeNumberField("sentKbps", round2(getTotalRate(TX_BYTES) * 8.0 / 1000.0));
+            g.writeNumberField("totalReceivedMB", round2(totalReceivedBytes / (1024.0 * 1024.0)));
+            g.writeNumberField("totalSentMB", round2(totalSentBytes / (1024.0 * 1024.0)));
+            g.writeArrayFieldStart("interfaces");
+            for (int i = 0; i < names.length; i++) {
+                g.writeStartObject();
+                g.writeStringField("name", names[i]);
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    g.writeNumberField(FIELD_NAMES[f], getCounter(i, f));
+                }
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    g.writeNumberField(FIELD_NAMES[f] + "PerSecond", round2(getRate(i, f)));
+                }
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+
+        private static double round2(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
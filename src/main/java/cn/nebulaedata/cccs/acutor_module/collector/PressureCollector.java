@@ -0,0 +1,152 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 压力阻塞信息（PSI）采集器，读取 /proc/pressure/{cpu,memory,io}。
+ * 每个文件两行：some（至少一个任务因该资源等待）和 full（所有非空闲任务同时等待），
+ * 各有 10 秒、60 秒、300 秒的平均等待时间占比（百分比）和累计等待时间（微秒）。
+ * 文件读入复用的缓冲区按字节解析；内核未启用 PSI（4.20 之前或 psi=0）时不支持。
+ */
+@Component
+public class PressureCollector {
+
+    public static final int CPU = 0;
+    public static final int MEMORY = 1;
+    public static final int IO = 2;
+    public static final int RESOURCE_COUNT = 3;
+
+    public static final int SOME = 0;
+    public static final int FULL = 1;
+
+    public static final int AVG10 = 0;
+    public static final int AVG60 = 1;
+    public static final int AVG300 = 2;
+
+    static final String[] RESOURCE_NAMES = {"cpu", "memory", "io"};
+    static final String[] KIND_NAMES = {"some", "full"};
+    static final String[] WINDOW_NAMES = {"avg10", "avg60", "avg300"};
+    private static final String[] WINDOW_KEYS = {"avg10=", "avg60=", "avg300="};
+
+    private final File[] files = new File[RESOURCE_COUNT];
+    private final ProcFileReader reader = new ProcFileReader(256);
+    private final long[] parsedLong = new long[1];
+    private final double[] parsedDouble = new double[1];
+
+    public PressureCollector(@Value("${monitor.proc-root:/proc}") String procRoot) {
+        File directory = new File(procRoot, "pressure");
+        for (int i = 0; i < RESOURCE_COUNT; i++) {
+            files[i] = new File(directory, RESOURCE_NAMES[i]);
+        }
+    }
+
+    public boolean isSupported() {
+        return files[CPU].canRead();
+    }
+
+    /**
+     * 读取三个资源的压力；某个文件不存在时对应的值为 NaN / -1。
+     */
+    public synchronized Sample collect() throws IOException {
+        double[] averages = new double[RESOURCE_COUNT * 2 * 3];
+        long[] totals = new long[RESOURCE_COUNT * 2];
+        Arrays.fill(averages, Double.NaN);
+        Arrays.fill(totals, -1);
+        for (int resource = 0; resource < RESOURCE_COUNT; resource++) {
+            try {
+                reader.read(files[resource]);
+            } catch (FileNotFoundException e) {
+                continue;
+            }
+            parse(resource, averages, totals);
+        }
+        return new Sample(averages, totals);
+    }
+
+    // 每行：some avg10=0.00 avg60=0.00 avg300=0.00 total=0
+    private void parse(int resource, double[] averages, long[] totals) {
+        int length = reader.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = reader.skipField(pos);
+            int start = reader.skipSpaces(pos);
+            int kind = reader.regionEquals(start, end, "some") ? SOME : reader.regionEquals(start, end, "full") ? FULL : -1;
+            int p = end;
+            while (kind >= 0) {
+                p = reader.skipSpaces(p);
+                int fieldEnd = reader.skipField(p);
+                if (fieldEnd == p) break;
+                for (int window = 0; window < WINDOW_KEYS.length; window++) {
+                    if (reader.regionStartsWith(p, fieldEnd, WINDOW_KEYS[window])) {
+                        reader.parseDecimal(p + WINDOW_KEYS[window].length(), parsedDouble);
+                        averages[index(resource, kind, window)] = parsedDouble[0];
+                    }
+                }
+                if (reader.regionStartsWith(p, fieldEnd, "total=")) {
+                    reader.parseLong(p + "total=".length(), parsedLong);
+                    totals[resource * 2 + kind] = parsedLong[0];
+                }
+                p = fieldEnd;
+            }
+            pos = reader.nextLine(p);
+        }
+    }
+
+    private static int index(int resource, int kind, int window) {
+        return (resource * 2 + kind) * 3 + window;
+    }
+
+    /**
+     * 一次采集的不可变结果。
+     */
+    public static final class Sample {
+        private final double[] averages;
+        private final long[] totals;
+
+        Sample(double[] averages, long[] totals) {
+            this.averages = averages;
+            this.totals = totals;
+        }
+
+        // 平均等待时间占比（百分比），不可用时为 NaN
+        public double getAverage(int resource, int kind, int window) {
+            return averages[index(resource, kind, window)];
+        }
+
+        // 累计等待时间（微秒），不可用时为 -1
+        public long getTotalMicros(int resource, int kind) {
+            return totals[resource * 2 + kind];
+        }
+
+        public void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            for (int resource = 0; resource < RESOURCE_COUNT; resource++) {
+                if (totals[resource * 2] < 0) continue;
+                g.writeObjectFieldStart(RESOURCE_NAMES[resource]);
+                for (int kind = SOME; kind <= FULL; kind++) {
+                    // cpu 的 full 行在 5.13 之前的内核中不存在
+                    if (totals[resource * 2 + kind] < 0) continue;
+                    g.writeObjectFieldStart(KIND_NAMES[kind]);
+                    for (int window = 0; window < WINDOW_NAMES.length; window++) {
+                        g.writeNumberField(WINDOW_NAMES[window], round2(getAverage(resource, kind, window)));
+                    }
+                    g.writeNumberField("totalMicros", totals[resource * 2 + kind]);
+                    g.writeEndObject();
+                }
+                g.writeEndObject();
+            }
+            g.writeEndObject();
+        }
+
+        private static double round2(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * /proc、/sys 等伪文件读取工具。
+ * 文件内容整体读入复用的字节缓冲区，配合下面的解析方法按字节解析，不产生中间字符串。
+ * 非线程安全，每个采集器持有自己的实例。
+ */
+public class ProcFileReader {
+
+    private byte[] buffer;
+    private int length;
+
+    public ProcFileReader(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    // 读取整个文件到缓冲区，返回读取的字节数
+    public int read(File file) throws IOException {
+        length = 0;
+        try (FileInputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += n;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+        }
+        return length;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // 返回从 pos 开始下一行的起始位置（跳过换行符），没有更多行时返回 length
+    public int nextLine(int pos) {
+        while (pos < length && buffer[pos] != '\n') pos++;
+        return pos < length ? pos + 1 : length;
+    }
+
+    // 跳过空白字符（空格、制表符）
+    public int skipSpaces(int pos) {
+        while (pos < length && (buffer[pos] == ' ' || buffer[pos] == '\t')) pos++;
+        return pos;
+    }
+
+    // 查找本行内的字符 c，找不到返回 -1
+    public int indexOf(int pos, byte c) {
+        while (pos < length && buffer[pos] != '\n') {
+            if (buffer[pos] == c) return pos;
+            pos++;
+        }
+        return -1;
+    }
+
+    // 查找整个内容中最后一个字符 c，找不到返回 -1
+    public int lastIndexOf(byte c) {
+        for (int pos = length - 1; pos >= 0; pos--) {
+            if (buffer[pos] == c) return pos;
+        }
+        return -1;
+    }
+
+    // 跳过一个由空白分隔的字段
+    public int skipField(int pos) {
+        pos = skipSpaces(pos);
+        while (pos < length && buffer[pos] != ' ' && buffer[pos] != '\t' && buffer[pos] != '\n') pos++;
+        return pos;
+    }
+
+    // 从 pos 开始解析一个非负十进制整数，结果写入 out[0]，返回解析结束的位置
+    public int parseLong(int pos, long[] out) {
+        pos = skipSpaces(pos);
+        long value = 0;
+        while (pos < length) {
+            int d = buffer[pos] - '0';
+            if (d < 0 || d > 9) break;
+            value = value * 10 + d;
+            pos++;
+        }
+        out[0] = value;
+        return pos;
+    }
+
+    // 从 pos 开始解析一个非负小数（如 PSI 的 "12.34"），结果写入 out[0]，返回解析结束的位置
+    public int parseDecimal(int pos, double[] out) {
+        pos = skipSpaces(pos);
+        long integer = 0;
+        while (pos < length && buffer[pos] >= '0' && buffer[pos] <= '9') {
+            integer = integer * 10 + (buffer[pos++] - '0');
+        }
+        double value = integer;
+        if (pos < length && buffer[pos] == '.') {
+            pos++;
+            double scale = 0.1;
+            while (pos < length && buffer[pos] >= '0' && buffer[pos] <= '9') {
+                value += (buffer[pos++] - '0') * scale;
+                scale /= 10;
+            }
+        }
+        out[0] = value;
+        return pos;
+    }
+
+    // 比较缓冲区 [start, end) 与字符串是否相同（仅限ASCII）
+    public boolean regionEquals(int start, int end, String s) {
+        if (end - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer[start + i] != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // 比较缓冲区 [start, end) 是否以字符串开头（仅限ASCII）
+    public boolean regionStartsWith(int start, int end, String s) {
+        if (end - start < s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer[start + i] != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // 在 "键 值" 格式的内容（如 cpu.stat、memory.stat）中查找键对应的数值，找不到时返回 -1
+    public long keyValue(String key, long[] out) {
+        int pos = 0;
+        while (pos < length) {
+            int end = pos + key.length();
+            if (end < length && buffer[end] == ' ' && regionStartsWith(pos, end, key)) {
+                parseLong(end, out);
+                return out[0];
+            }
+            pos = nextLine(pos);
+        }
+        return -1;
+    }
+
+    public String string(int start, int end) {
+        return new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+    }
+}
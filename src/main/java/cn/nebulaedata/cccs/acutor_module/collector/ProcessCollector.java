@@ -0,0 +1,517 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 主机进程表采集器。
+ * 每个采样周期列出 proc-root 下的进程目录，用同一个缓冲区逐个读取并按字节解析 /proc/&lt;pid&gt;/stat，
+ * 得到状态、线程数、累计 CPU 时间、虚拟内存和常驻内存，CPU 使用率按相邻两次采样的 CPU 时间差计算。
+ * 进程按 pid 保存在两张交替使用的开放寻址表中，本轮没有出现的进程随旧表一起丢弃；
+ * 启动时间变化说明 pid 已被新进程复用，此时丢弃该 pid 的全部缓存。
+ * 上一轮没有出现的进程，只有启动时间（与 /proc/uptime 比较，不受时钟调整影响）晚于上一次扫描时
+ * 才把累计 CPU 时间全部计入本次间隔，否则（如上一轮读取失败）CPU 使用率未知。
+ * 查询时用部分选择取出前 N 个进程，只为这些进程读取 statm（共享内存、代码段、数据段）、命令行和所属用户，
+ * 命令行和用户缓存到 pid 被复用为止。
+ * 扫描在共享 I/O 线程池中执行，不占用定时任务线程；上一次扫描未结束时跳过本次。
+ */
+@Component
+public class ProcessCollector {
+
+    public static final String SORT_CPU = "cpu";
+    public static final String SORT_MEMORY = "memory";
+    public static final String SORT_THREADS = "threads";
+    public static final String SORT_TIME = "time";
+
+    // /proc/<pid>/stat 中的 CPU 时间和启动时间以 USER_HZ（固定为100）为单位
+    private static final int USER_HZ = 100;
+
+    private final File procRoot;
+    private final boolean enabled;
+    private final long pageSize;
+    private final int maxCmdlineBytes;
+    private final ExecutorService ioExecutor;
+    private final CollectorStats sampleStats;
+    private final AtomicBoolean scanning = new AtomicBoolean(false);
+
+    // 以下只在 sample() 中访问
+    private final ProcFileReader reader = new ProcFileReader(1024);
+    private final long[] parsed = new long[1];
+    private final double[] parsedDecimal = new double[1];
+    private PidTable current = new PidTable();
+    private PidTable spare = new PidTable();
+    private long previousNanos = 0;
+    // 上一次扫描开始时的系统运行时间（USER_HZ），-1 表示未知
+    private long previousUptimeTicks = -1;
+    private long memoryTotalBytes = 0;
+    private long bootTimeMs = 0;
+    // 最近一次解析的 stat 字段
+    private int statPpid;
+    private byte statState;
+    private long statCpuTicks;
+    private int statThreads;
+    private long statStartTicks;
+    private long statVsize;
+    private long statRssPages;
+
+    // 查询时读取 statm、命令行和用户，由 detailReader 自身保护；与 sample() 在不同线程并发执行，不能共用上面的缓冲区
+    private final ProcFileReader detailReader = new ProcFileReader(4096);
+    private final long[] detailParsed = new long[1];
+
+    private volatile Sample latest = new Sample(0, 0, 0, 0);
+
+    public ProcessCollector(@Value("${monitor.proc-root:/proc}") String procRoot,
+                            @Value("${monitor.processes.enabled:true}") boolean enabled,
+                            @Value("${monitor.processes.page-size-bytes:4096}") long pageSize,
+                            @Value("${monitor.processes.max-cmdline-bytes:4096}") int maxCmdlineBytes,
+                            @Qualifier("ioExecutor") ExecutorService ioExecutor,
+                            CollectorMetrics collectorMetrics) {
+        this.procRoot = new File(procRoot);
+        this.enabled = enabled;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxCmdlineBytes = Math.max(64, maxCmdlineBytes);
+        this.ioExecutor = ioExecutor;
+        this.sampleStats = collectorMetrics.stats("proc.processes");
+    }
+
+    public boolean isSupported() {
+        return enabled && procRoot.isDirectory();
+    }
+
+    public Sample getLatest() {
+        return latest;
+    }
+
+    @Scheduled(fixedRateString = "${monitor.sampler.interval-ms:1000}")
+    public void schedule() {
+        if (!isSupported() || !scanning.compareAndSet(false, true)) return;
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    sample();
+                } finally {
+                    scanning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scanning.set(false);
+        }
+    }
+
+    /**
+     * 扫描一次进程表并发布新样本。
+     */
+    public synchronized void sample() {
+        long monotonicNanos = System.nanoTime();
+        // 在列出目录之前读取，本轮没有列出的进程若启动时间早于它，下一轮无法确定其 CPU 时间的归属
+        long uptimeTicks = readUptimeTicks();
+        String[] names = procRoot.list();
+        if (names == null) {
+            sampleStats.recordFailure(monotonicNanos, new IOException("无法列出目录: " + procRoot));
+            return;
+        }
+        if (memoryTotalBytes == 0) {
+            readSystemInfo();
+        }
+
+        // 首次扫描只记录基线，没有 CPU 使用率
+        double intervalTicks = previousNanos > 0 ? (monotonicNanos - previousNanos) / 1e9 * USER_HZ : 0;
+        Sample sample = new Sample(names.length, System.currentTimeMillis(), memoryTotalBytes, bootTimeMs);
+        PidTable next = spare;
+        next.clear();
+        int count = 0;
+        for (String name : names) {
+            int pid = parsePid(name);
+            if (pid <= 0) continue;
+            Proc proc = current.get(pid);
+            File directory = proc != null ? proc.directory : new File(procRoot, name);
+            try {
+                reader.read(proc != null ? proc.statFile : new File(directory, "stat"));
+            } catch (IOException e) {
+                // 列出目录之后进程已退出
+                continue;
+            }
+            int commStart = reader.indexOf(0, (byte) '(');
+            int commEnd = reader.lastIndexOf((byte) ')');
+            if (commStart < 0 || commEnd < commStart) continue;
+            parseStat(commEnd + 1);
+
+            long previousTicks = -1;
+            if (proc != null && proc.startTicks == statStartTicks) {
+                previousTicks = proc.cpuTicks;
+            } else {
+                // 新进程，或 pid 已被复用
+                proc = new Proc(pid, directory, statStartTicks);
+            }
+            if (proc.comm == null || !reader.regionEquals(commStart + 1, commEnd, proc.comm)) {
+                proc.comm = reader.string(commStart + 1, commEnd);
+            }
+            proc.cpuTicks = statCpuTicks;
+            next.put(pid, proc);
+
+            double cpuPercent = Double.NaN;
+            if (intervalTicks > 0 && (previousTicks >= 0
+                    || (previousUptimeTicks >= 0 && statStartTicks >= previousUptimeTicks))) {
+                // 上一次扫描之后才启动的进程，全部 CPU 时间都发生在本次间隔内
+                long delta = statCpuTicks - Math.max(0, previousTicks);
+                cpuPercent = Math.max(0, delta) * 100.0 / intervalTicks;
+                sample.totalCpuPercent += cpuPercent;
+            }
+            sample.procs[count] = proc;
+            sample.ppids[count] = statPpid;
+            sample.states[count] = statState;
+            sample.threads[count] = statThreads;
+            sample.cpuPercent[count] = cpuPercent;
+            sample.cpuTicks[count] = statCpuTicks;
+            sample.rssBytes[count] = statRssPages * pageSize;
+            sample.vsizeBytes[count] = statVsize;
+            sample.threadCount += statThreads;
+            if (statState == 'R') sample.runningCount++;
+            count++;
+        }
+        sample.count = count;
+        spare = current;
+        current = next;
+        previousNanos = monotonicNanos;
+        previousUptimeTicks = uptimeTicks;
+        latest = sample;
+        sampleStats.record(monotonicNanos);
+    }
+
+    // pid 目录名全部是数字，其余（self、net、sys 等）返回 -1
+    private static int parsePid(String name) {
+        int length = name.length();
+        if (length == 0 || length > 9) return -1;
+        int pid = 0;
+        for (int i = 0; i < length; i++) {
+            int d = name.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            pid = pid * 10 + d;
+        }
+        return pid;
+    }
+
+    // stat 中命令名之后的字段：state ppid pgrp session tty_nr tpgid flags minflt cminflt majflt cmajflt
+    // utime stime cutime cstime priority nice num_threads itrealvalue starttime vsize rss ...
+    // 只用 parseLong 解析非负字段，可能为负的字段（tpgid、priority、nice）直接跳过
+    private void parseStat(int pos) {
+        int p = reader.skipField(pos);
+        statState = reader.buffer()[p - 1];
+        p = reader.parseLong(p, parsed);
+        statPpid = (int) parsed[0];
+        for (int i = 0; i < 9; i++) {
+            p = reader.skipField(p);
+        }
+        p = reader.parseLong(p, parsed);
+        long utime = parsed[0];
+        p = reader.parseLong(p, parsed);
+        statCpuTicks = utime + parsed[0];
+        for (int i = 0; i < 4; i++) {
+            p = reader.skipField(p);
+        }
+        p = reader.parseLong(p, parsed);
+        statThreads = (int) parsed[0];
+        p = reader.skipField(p);
+        p = reader.parseLong(p, parsed);
+        statStartTicks = parsed[0];
+        p = reader.parseLong(p, parsed);
+        statVsize = parsed[0];
+        reader.parseLong(p, parsed);
+        statRssPages = parsed[0];
+    }
+
+    // 系统运行时间，与 stat 中的进程启动时间单位相同；读取失败返回 -1
+    private long readUptimeTicks() {
+        try {
+            reader.read(new File(procRoot, "uptime"));
+        } catch (IOException e) {
+            return -1;
+        }
+        reader.parseDecimal(0, parsedDecimal);
+        return Math.round(parsedDecimal[0] * USER_HZ);
+    }
+
+    // 物理内存总量（计算内存占比）和系统启动时间（换算进程启动时间）
+    private void readSystemInfo() {
+        try {
+            reader.read(new File(procRoot, "meminfo"));
+            memoryTotalBytes = Math.max(0, reader.keyValue("MemTotal:", parsed)) * 1024;
+        } catch (IOException e) {
+            memoryTotalBytes = -1;
+        }
+        try {
+            reader.read(new File(procRoot, "stat"));
+            bootTimeMs = Math.max(0, reader.keyValue("btime", parsed)) * 1000;
+        } catch (IOException e) {
+            bootTimeMs = 0;
+        }
+    }
+
+    /**
+     * 按 sort 取最新样本中的前 limit 个进程，附带命令行、用户和 statm 中的内存细分。
+     *
+     * @param sort cpu / memory / threads / time
+     * @throws IllegalArgumentException 不支持的排序字段
+     */
+    public Map<String, Object> top(String sort, int limit) {
+        if (!SORT_CPU.equals(sort) && !SORT_MEMORY.equals(sort) && !SORT_THREADS.equals(sort)
+                && !SORT_TIME.equals(sort)) {
+            throw new IllegalArgumentException("sort 只能是 cpu、memory、threads 或 time");
+        }
+        Sample sample = latest;
+        double[] keys = new double[sample.count];
+        for (int i = 0; i < sample.count; i++) {
+            if (SORT_CPU.equals(sort)) {
+                keys[i] = sample.cpuPercent[i];
+            } else if (SORT_MEMORY.equals(sort)) {
+                keys[i] = sample.rssBytes[i];
+            } else if (SORT_THREADS.equals(sort)) {
+                keys[i] = sample.threads[i];
+            } else {
+                keys[i] = sample.cpuTicks[i];
+            }
+        }
+        int[] top = TopN.select(keys, sample.count, limit);
+
+        List<Map<String, Object>> processes = new ArrayList<>(top.length);
+        synchronized (detailReader) {
+            for (int index : top) {
+                processes.add(row(sample, index));
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", sample.timestamp);
+        result.put("processCount", sample.count);
+        result.put("threadCount", sample.threadCount);
+        result.put("runningCount", sample.runningCount);
+        result.put("totalCpuPercent", round2(sample.totalCpuPercent));
+        result.put("memoryTotalBytes", sample.memoryTotalBytes > 0 ? sample.memoryTotalBytes : null);
+        result.put("sort", sort);
+        result.put("processes", processes);
+        return result;
+    }
+
+    private Map<String, Object> row(Sample sample, int index) {
+        Proc proc = sample.procs[index];
+        loadStatic(proc);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("pid", proc.pid);
+        row.put("ppid", sample.ppids[index]);
+        row.put("name", proc.comm);
+        row.put("state", String.valueOf((char) sample.states[index]));
+        row.put("user", proc.user);
+        row.put("uid", proc.uid >= 0 ? proc.uid : null);
+        double cpuPercent = sample.cpuPercent[index];
+        row.put("cpuPercent", Double.isNaN(cpuPercent) ? null : round2(cpuPercent));
+        row.put("cpuTimeMs", sample.cpuTicks[index] * 1000 / USER_HZ);
+        row.put("rssBytes", sample.rssBytes[index]);
+        row.put("memoryPercent", sample.memoryTotalBytes > 0
+                ? round2(sample.rssBytes[index] * 100.0 / sample.memoryTotalBytes) : null);
+        row.put("vsizeBytes", sample.vsizeBytes[index]);
+        // statm：size resident shared text lib data dt（单位为页）
+        try {
+            detailReader.read(new File(proc.directory, "statm"));
+            int p = detailReader.skipField(detailReader.skipField(0));
+            p = detailReader.parseLong(p, detailParsed);
+            row.put("sharedBytes", detailParsed[0] * pageSize);
+            p = detailReader.parseLong(p, detailParsed);
+            row.put("textBytes", detailParsed[0] * pageSize);
+            p = detailReader.skipField(p);
+            detailReader.parseLong(p, detailParsed);
+            row.put("dataBytes", detailParsed[0] * pageSize);
+        } catch (IOException e) {
+            // 进程已退出
+        }
+        row.put("threads", sample.threads[index]);
+        row.put("startTime", sample.bootTimeMs > 0 ? sample.bootTimeMs + proc.startTicks * 1000 / USER_HZ : null);
+        row.put("cmdline", proc.cmdline);
+        return row;
+    }
+
+    // 读取命令行和所属用户，每个进程只读一次
+    private void loadStatic(Proc proc) {
+        if (proc.staticLoaded) return;
+        proc.staticLoaded = true;
+        try {
+            detailReader.read(new File(proc.directory, "cmdline"));
+            byte[] buffer = detailReader.buffer();
+            int length = Math.min(detailReader.length(), maxCmdlineBytes);
+            // 参数以 NUL 分隔，末尾也有一个 NUL
+            while (length > 0 && buffer[length - 1] == 0) length--;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == 0) buffer[i] = ' ';
+            }
+            // 内核线程没有命令行，与 ps 一样显示为 [名称]
+            proc.cmdline = length > 0 ? new String(buffer, 0, length, StandardCharsets.UTF_8) : "[" + proc.comm + "]";
+        } catch (IOException e) {
+            proc.cmdline = null;
+        }
+        try {
+            Path path = proc.directory.toPath();
+            proc.uid = (Integer) Files.getAttribute(path, "unix:uid");
+            proc.user = Files.getOwner(path).getName();
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            proc.uid = -1;
+        }
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 一个进程的跟踪状态，pid 被复用时整体替换。
+     */
+    private static final class Proc {
+        private final int pid;
+        private final File directory;
+        private final File statFile;
+        private final long startTicks;
+        // 由 sample() 更新，命令名可能被进程自己修改
+        private volatile String comm;
+        private long cpuTicks;
+        // 由 detailReader 保护
+        private boolean staticLoaded;
+        private String cmdline;
+        private int uid = -1;
+        private String user;
+
+        private Proc(int pid, File directory, long startTicks) {
+            this.pid = pid;
+            this.directory = directory;
+            this.statFile = new File(directory, "stat");
+            this.startTicks = startTicks;
+        }
+    }
+
+    /**
+     * pid 到进程的开放寻址表（线性探测，容量为2的幂），每轮扫描后清空复用，不删除单个元素。
+     */
+    private static final class PidTable {
+        private int[] keys = new int[1024];
+        private Proc[] values = new Proc[1024];
+        private int size;
+
+        Proc get(int pid) {
+            int mask = keys.length - 1;
+            for (int i = hash(pid) & mask; ; i = (i + 1) & mask) {
+                int key = keys[i];
+                if (key == pid) return values[i];
+                if (key == 0) return null;
+            }
+        }
+
+        void put(int pid, Proc proc) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            insert(pid, proc);
+        }
+
+        void clear() {
+            if (size == 0) return;
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        private void insert(int pid, Proc proc) {
+            int mask = keys.length - 1;
+            int i = hash(pid) & mask;
+            while (keys[i] != 0 && keys[i] != pid) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) size++;
+            keys[i] = pid;
+            values[i] = proc;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            Proc[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new Proc[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) insert(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(int pid) {
+            int h = pid * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * 一次扫描的结果，按列存放；发布后不再修改。
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final long memoryTotalBytes;
+        private final long bootTimeMs;
+        private final Proc[] procs;
+        private final int[] ppids;
+        private final byte[] states;
+        private final int[] threads;
+        private final double[] cpuPercent;
+        private final long[] cpuTicks;
+        private final long[] rssBytes;
+        private final long[] vsizeBytes;
+        private int count;
+        private long threadCount;
+        private int runningCount;
+        private double totalCpuPercent;
+
+        private Sample(int capacity, long timestamp, long memoryTotalBytes, long bootTimeMs) {
+            this.timestamp = timestamp;
+            this.memoryTotalBytes = memoryTotalBytes;
+            this.bootTimeMs = bootTimeMs;
+            this.procs = new Proc[capacity];
+            this.ppids = new int[capacity];
+            this.states = new byte[capacity];
+            this.threads = new int[capacity];
+            this.cpuPercent = new double[capacity];
+            this.cpuTicks = new long[capacity];
+            this.rssBytes = new long[capacity];
+            this.vsizeBytes = new long[capacity];
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getProcessCount() {
+            return count;
+        }
+
+        public long getThreadCount() {
+            return threadCount;
+        }
+
+        public int getRunningCount() {
+            return runningCount;
+        }
+
+        // 所有进程的 CPU 使用率之和（相对单核的百分比）
+        public double getTotalCpuPercent() {
+            return totalCpuPercent;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+/**
+ * 部分选择：从 count 个键中选出最大的 n 个，用大小为 n 的小顶堆完成，
+ * 耗时 O(count·log n)，不对全部元素排序，也不装箱。
+ */
+public final class TopN {
+
+    private TopN() {
+    }
+
+    /**
+     * 返回键最大的至多 n 个下标，按键从大到小排列；NaN 视为最小，不会入选。
+     *
+     * @param keys  键数组，前 count 个有效
+     * @param count 有效元素个数
+     */
+    public static int[] select(double[] keys, int count, int n) {
+        int size = 0;
+        int[] heap = new int[Math.max(0, Math.min(n, count))];
+        if (heap.length == 0) return heap;
+        for (int i = 0; i < count; i++) {
+            double key = keys[i];
+            if (Double.isNaN(key)) continue;
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(keys, heap, size++);
+            } else if (key > keys[heap[0]]) {
+                heap[0] = i;
+                siftDown(keys, heap, size);
+            }
+        }
+        // 依次取出堆顶（最小值）放到末尾，得到从大到小的顺序
+        int[] result = new int[size];
+        for (int end = size - 1; end >= 0; end--) {
+            result[end] = heap[0];
+            heap[0] = heap[end];
+            siftDown(keys, heap, end);
+        }
+        return result;
+    }
+
+    private static void siftUp(double[] keys, int[] heap, int index) {
+        int item = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[item]) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = item;
+    }
+
+    private static void siftDown(double[] keys, int[] heap, int size) {
+        if (size == 0) return;
+        int index = 0;
+        int item = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+            if (keys[item] <= keys[heap[child]]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+}
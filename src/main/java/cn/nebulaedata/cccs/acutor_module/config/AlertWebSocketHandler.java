@@ -0,0 +1,128 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.alert.AlertEngine;
+import cn.nebulaedata.cccs.acutor_module.alert.AlertEvent;
+import cn.nebulaedata.cccs.acutor_module.alert.AlertListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 告警推送通道（/ws/alerts）。
+ * 连接建立后先发送当前等待中和触发中的告警（type=active），之后每次有告警触发或恢复时
+ * 发送一帧（type=events），一次评估产生的事件合并为一帧，所有会话共享同一份编码结果。
+ */
+@Component
+public class AlertWebSocketHandler extends TextWebSocketHandler implements AlertListener {
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${monitor.websocket.alerts.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${monitor.websocket.alerts.buffer-size-limit:262144}")
+    private int bufferSizeLimit;
+
+    // 发送在独立线程中执行，慢客户端不会阻塞采样线程
+    private final ExecutorService sendExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-alerts-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        alertEngine.addListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        alertEngine.removeListener(this);
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession decorated = WebSocketSessions.decorate(session, sendTimeLimitMs, bufferSizeLimit);
+        sessions.put(session.getId(), decorated);
+        try {
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "active");
+            frame.put("alerts", alertEngine.activeAlerts());
+            TextMessage message = new TextMessage(objectMapper.writeValueAsString(frame));
+            sendExecutor.execute(() -> send(decorated, message));
+        } catch (Exception e) {
+            System.err.println("发送当前告警时发生异常: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    @Override
+    public void onAlerts(List<AlertEvent> events) {
+        if (sessions.isEmpty()) return;
+        TextMessage message;
+        try {
+            List<Map<String, Object>> alerts = new ArrayList<>(events.size());
+            for (AlertEvent event : events) {
+                alerts.add(event.toMap());
+            }
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "events");
+            frame.put("alerts", alerts);
+            message = new TextMessage(objectMapper.writeValueAsString(frame));
+        } catch (Exception e) {
+            System.err.println("编码告警推送帧时发生异常: " + e.getMessage());
+            return;
+        }
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                sendExecutor.execute(() -> send(session, message));
+            } catch (Exception e) {
+                // 线程池已关闭
+                return;
+            }
+        }
+    }
+
+    private void send(WebSocketSession session, TextMessage message) {
+        try {
+            session.sendMessage(message);
+        } catch (Exception e) {
+            System.err.println("推送告警到会话 " + session.getId() + " 失败: " + e.getMessage());
+            sessions.remove(session.getId());
+            try {
+                if (session.isOpen()) {
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            } catch (IOException closeError) {
+                System.err.println("关闭告警推送会话时发生异常: " + closeError.getMessage());
+            }
+        }
+    }
+}
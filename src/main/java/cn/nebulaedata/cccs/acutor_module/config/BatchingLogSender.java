@@ -0,0 +1,233 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogSubscriber;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.websocket.RemoteEndpoint;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个 WebSocket 会话的日志发送器。
+ * 日志行先进入有界队列，按帧大小（UTF-8 字节数）或时间间隔合并成一帧发送（帧内以换行分隔），
+ * 跟随器线程只做入队操作，永远不会被慢客户端阻塞。队列的行数或字节数超过上限时按溢出策略丢弃最旧的行或断开会话。
+ * 有原生会话时通过异步发送（RemoteEndpoint.Async）发出，共享的发送线程池只负责组帧，不会被慢客户端占住；
+ * 每个会话同时最多一帧在发送中，超过发送时间限制时由容器报告失败并断开会话。
+ * 没有原生会话时退回到阻塞发送。
+ */
+class BatchingLogSender implements DockerLogSubscriber {
+
+    enum OverflowPolicy {
+        // 丢弃最旧的行，并在下一帧开头提示跳过的行数
+        DROP_OLDEST,
+        // 直接断开消费过慢的会话
+        DISCONNECT
+    }
+
+    private final WebSocketSession session;
+    // 原生会话的异步发送端，没有时为null
+    private final RemoteEndpoint.Async asyncRemote;
+    private final ScheduledExecutorService scheduler;
+    private final int maxQueuedLines;
+    private final int maxQueuedBytes;
+    private final int frameBytes;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+
+    // 以下字段由 this 保护
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    // 队列中各行的 UTF-8 字节数之和（每行另加一个换行符）
+    private int queuedBytes = 0;
+    private long skippedLines = 0;
+    // 是否已有待执行的发送任务或发送中的帧，保证同一会话同时只有一帧在发送
+    private boolean flushScheduled = false;
+    private boolean closed = false;
+
+    BatchingLogSender(WebSocketSession session, RemoteEndpoint.Async asyncRemote, ScheduledExecutorService scheduler,
+                      int maxQueuedLines, int maxQueuedBytes, int frameBytes, long flushIntervalMs,
+                      OverflowPolicy overflowPolicy) {
+        this.session = session;
+        this.asyncRemote = asyncRemote;
+        this.scheduler = scheduler;
+        this.maxQueuedLines = Math.max(1, maxQueuedLines);
+        this.frameBytes = Math.max(1024, frameBytes);
+        this.maxQueuedBytes = Math.max(this.frameBytes, maxQueuedBytes);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void onLine(long timestamp, String line) {
+        enqueue(line);
+    }
+
+    private void enqueue(String line) {
+        synchronized (this) {
+            if (closed) return;
+
+            int lineBytes = utf8Length(line) + 1;
+            if (isFull(lineBytes)) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    closed = true;
+                    queue.clear();
+                    queuedBytes = 0;
+                    System.err.println("日志会话 " + session.getId() + " 消费过慢，队列已满，断开连接");
+                    // 在发送线程中关闭，避免在跟随器线程中回调会话关闭逻辑
+                    scheduler.execute(() -> closeSession(new CloseStatus(1008, "客户端接收日志过慢")));
+                    return;
+                }
+                // 丢弃最旧的行直到放得下新行；超过字节上限的单行在清空队列后仍会入队
+                do {
+                    String dropped = queue.pollFirst();
+                    queuedBytes -= utf8Length(dropped) + 1;
+                    skippedLines++;
+                } while (isFull(lineBytes));
+            }
+
+            queue.addLast(line);
+            queuedBytes += lineBytes;
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                // 攒够一帧立即发送，否则等待合并间隔
+                long delay = queuedBytes >= frameBytes ? 0 : flushIntervalMs;
+                scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // 再加入一行后是否超过行数或字节数上限（空队列总能放下一行）
+    private boolean isFull(int lineBytes) {
+        return !queue.isEmpty() && (queue.size() >= maxQueuedLines || queuedBytes + lineBytes > maxQueuedBytes);
+    }
+
+    @Override
+    public void onError(Exception e) {
+        String errorMsg = "服务器内部错误: " + e.getMessage();
+        if (e.getMessage() != null && (e.getMessage().contains("Permission denied") ||
+            e.getMessage().contains("permission denied"))) {
+            errorMsg += "\n💡 权限被拒绝。请确保容器已正确配置Docker权限。";
+        }
+        enqueue(errorMsg);
+    }
+
+    // 从队列中取出一帧发送；异步发送完成后再发送下一帧，每个会话同时最多一帧在发送中
+    private void flush() {
+        String frame;
+        synchronized (this) {
+            if (closed || queue.isEmpty()) {
+                flushScheduled = false;
+                return;
+            }
+            StringBuilder builder = new StringBuilder(Math.min(queuedBytes + 64, frameBytes + 64));
+            int bytes = 0;
+            if (skippedLines > 0) {
+                builder.append("…… 客户端接收过慢，已跳过 ").append(skippedLines).append(" 行日志 ……");
+                bytes = utf8Length(builder);
+                skippedLines = 0;
+            }
+            while (!queue.isEmpty()) {
+                String line = queue.peekFirst();
+                int lineBytes = utf8Length(line) + 1;
+                if (builder.length() > 0 && bytes + lineBytes > frameBytes) break;
+                queue.pollFirst();
+                queuedBytes -= lineBytes;
+                if (builder.length() > 0) builder.append('\n');
+                builder.append(line);
+                bytes += lineBytes;
+            }
+            frame = builder.toString();
+        }
+
+        if (!session.isOpen()) {
+            close();
+            return;
+        }
+        if (asyncRemote != null) {
+            try {
+                asyncRemote.sendText(frame, result -> {
+                    if (result.isOK()) {
+                        sent();
+                    } else {
+                        failed(result.getException());
+                    }
+                });
+            } catch (Exception e) {
+                failed(e);
+            }
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(frame));
+        } catch (Exception e) {
+            failed(e);
+            return;
+        }
+        sent();
+    }
+
+    // 一帧发送完成：队列中还有数据时继续发送（在发送线程池中执行，不在完成回调的线程中递归发送）
+    private void sent() {
+        synchronized (this) {
+            if (closed || queue.isEmpty()) {
+                flushScheduled = false;
+                return;
+            }
+        }
+        try {
+            scheduler.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // 发送线程池已关闭
+            close();
+        }
+    }
+
+    // 超过发送时间或缓冲区限制、连接已断开时关闭会话
+    private void failed(Throwable e) {
+        String reason = e == null ? "未知错误" : e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        System.err.println("发送日志到客户端 " + session.getId() + " 时发生异常: " + reason);
+        close();
+        closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    // UTF-8 编码后的字节数
+    static int utf8Length(CharSequence text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // 代理对共4字节
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+        queuedBytes = 0;
+        flushScheduled = false;
+    }
+
+    private void closeSession(CloseStatus status) {
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (Exception e) {
+            System.err.println("关闭日志会话时发生异常: " + e.getMessage());
+        }
+    }
+}
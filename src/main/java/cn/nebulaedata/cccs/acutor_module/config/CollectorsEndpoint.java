@@ -0,0 +1,58 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogMultiplexer;
+import com.sun.management.OperatingSystemMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 监控程序自身的开销（/actuator/collectors）：各采集器的耗时分位数和失败次数、
+ * 启动外部进程的次数、活跃的日志跟随器数量，以及采集耗时占运行时间的比例。
+ */
+@Component
+@Endpoint(id = "collectors")
+public class CollectorsEndpoint {
+
+    private final OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    @Autowired
+    private CollectorMetrics collectorMetrics;
+
+    @Autowired
+    private DockerLogMultiplexer logMultiplexer;
+
+    @ReadOperation
+    public Map<String, Object> collectors() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowMs", collectorMetrics.getWindowMs());
+
+        double totalCollectorMs = 0;
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        for (Map.Entry<String, CollectorStats> entry : collectorMetrics.getCollectors().entrySet()) {
+            CollectorStats stats = entry.getValue();
+            collectors.put(entry.getKey(), stats.toMap());
+            totalCollectorMs += stats.getTotalSnapshot().getSumMicros() / 1000.0;
+        }
+        result.put("collectors", collectors);
+        result.put("processSpawns", collectorMetrics.getProcessSpawns());
+        result.put("logFollowers", logMultiplexer.getActiveFollowerCount());
+
+        // 采集耗时为墙钟时间（包括等待I/O），与进程CPU时间一起大致反映监控本身的开销
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        Map<String, Object> overhead = new LinkedHashMap<>();
+        overhead.put("uptimeMs", uptimeMs);
+        overhead.put("collectorTimeMs", Math.round(totalCollectorMs));
+        overhead.put("collectorTimePercent", uptimeMs > 0 ? Math.round(totalCollectorMs * 10000.0 / uptimeMs) / 100.0 : 0);
+        overhead.put("processCpuTimeMs", osBean.getProcessCpuTime() / 1_000_000);
+        result.put("overhead", overhead);
+        return result;
+    }
+}
@@ -1,20 +1,71 @@
 package cn.nebulaedata.cccs.acutor_module.config;
 
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogMultiplexer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Component
 public class DockerLogWebSocketHandler extends TextWebSocketHandler {
-    private final Map<String, Process> logProcesses = new ConcurrentHashMap<>();
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, DockerLogMultiplexer.Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, BatchingLogSender> senders = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private DockerLogMultiplexer logMultiplexer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // 单帧合并的最大字节数（UTF-8）
+    @Value("${monitor.websocket.logs.frame-bytes:65536}")
+    private int frameBytes;
+    
+    // 合并等待时间（毫秒）
+    @Value("${monitor.websocket.logs.flush-interval-ms:50}")
+    private long flushIntervalMs;
+    
+    // 每个会话最多排队的行数
+    @Value("${monitor.websocket.logs.max-queued-lines:10000}")
+    private int maxQueuedLines;
+    
+    // 每个会话排队日志的最大字节数（UTF-8），与行数上限任一超出即按溢出策略处理
+    @Value("${monitor.websocket.logs.max-queued-bytes:8388608}")
+    private int maxQueuedBytes;
+    
+    // 队列满时的处理策略: drop-oldest / disconnect
+    @Value("${monitor.websocket.logs.overflow-policy:drop-oldest}")
+    private String overflowPolicy;
+    
+    // 单次发送的最长时间（毫秒），超过后断开会话
+    @Value("${monitor.websocket.logs.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+    
+    // 发送缓冲区上限（字节），超过后断开会话；只用于不支持异步发送的会话
+    @Value("${monitor.websocket.logs.buffer-size-limit:1048576}")
+    private int bufferSizeLimit;
+    
+    // 所有日志会话共享的组帧线程池；帧通过异步发送发出，线程不会被慢客户端阻塞
+    private final ScheduledExecutorService sendScheduler = Executors.newScheduledThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                Thread thread = new Thread(runnable, "ws-log-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
     
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -23,104 +74,21 @@ public class DockerLogWebSocketHandler extends TextWebSocketHandler {
             System.out.println("尝试建立到容器 " + containerId + " 的日志连接");
             
             if (containerId != null) {
-                sessions.put(session.getId(), session);
-                
-                // 启动Docker日志进程
-                String[] command = {"docker", "logs", "-f", "--tail", "50", containerId};
-                System.out.println("执行命令: " + String.join(" ", command));
-                
-                Process process = Runtime.getRuntime().exec(command);
-                logProcesses.put(session.getId(), process);
+                // 同一容器的所有会话共享一个日志跟随器，新会话先收到最近的历史行
+                // 日志行经有界队列合并成帧后异步发送，慢客户端不会拖慢跟随器、发送线程池和其他会话
+                BatchingLogSender sender = new BatchingLogSender(
+                        WebSocketSessions.decorate(session, sendTimeLimitMs, bufferSizeLimit),
+                        WebSocketSessions.asyncRemote(session, sendTimeLimitMs), sendScheduler,
+                        maxQueuedLines, maxQueuedBytes, frameBytes, flushIntervalMs, parseOverflowPolicy(overflowPolicy));
+                senders.put(session.getId(), sender);
+                DockerLogMultiplexer.Subscription subscription = logMultiplexer.subscribe(containerId, sender);
+                subscriptions.put(session.getId(), subscription);
                 
-                // 启动线程读取日志输出
-                Thread logReaderThread = new Thread(() -> {
-                    BufferedReader reader = null;
-                    try {
-                        reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                        System.out.println("开始读取容器 " + containerId + " 的日志");
-                        
-                        String line;
-                        while ((line = reader.readLine()) != null && sessions.containsKey(session.getId())) {
-                            if (session.isOpen()) {
-                                session.sendMessage(new TextMessage(line));
-                            }
-                        }
-                        System.out.println("完成读取容器 " + containerId + " 的日志");
-                    } catch (Exception e) {
-                        System.err.println("读取Docker日志时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                        
-                        // 尝试通知客户端发生了错误
-                        try {
-                            if (session.isOpen()) {
-                                String errorMsg = "服务器内部错误: " + e.getMessage();
-                                // 特别处理权限相关的异常
-                                if (e.getMessage().contains("Permission denied") || 
-                                    e.getMessage().contains("permission denied")) {
-                                    errorMsg += "\n💡 权限被拒绝。请确保容器已正确配置Docker权限。";
-                                }
-                                session.sendMessage(new TextMessage(errorMsg));
-                            }
-                        } catch (Exception ex) {
-                            System.err.println("发送错误消息到客户端时发生异常: " + ex.getMessage());
-                            ex.printStackTrace();
-                        }
-                    } finally {
-                        if (reader != null) {
-                            try {
-                                reader.close();
-                            } catch (Exception e) {
-                                System.err.println("关闭日志读取器时发生异常: " + e.getMessage());
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-                });
-                logReaderThread.setDaemon(true);
-                logReaderThread.start();
-                
-                // 启动线程读取错误输出
-                Thread errorReaderThread = new Thread(() -> {
-                    BufferedReader errorReader = null;
-                    try {
-                        errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-                        String line;
-                        StringBuilder errorOutput = new StringBuilder();
-                        
-                        while ((line = errorReader.readLine()) != null) {
-                            errorOutput.append(line).append("\n");
-                        }
-                        
-                        if (errorOutput.length() > 0) {
-                            System.err.println("Docker命令错误输出: " + errorOutput.toString());
-                            // 发送错误信息到客户端
-                            if (session.isOpen()) {
-                                String errorMsg = "Docker错误: " + errorOutput.toString();
-                                // 特别处理权限问题
-                                if (errorOutput.toString().contains("permission denied") || 
-                                    errorOutput.toString().contains("access denied") ||
-                                    errorOutput.toString().contains("Are you trying to connect to a TLS-enabled daemon without TLS?")) {
-                                    errorMsg += "\n💡 权限被拒绝。请确保容器已正确配置Docker权限。";
-                                }
-                                session.sendMessage(new TextMessage(errorMsg));
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("读取Docker错误输出时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                    } finally {
-                        if (errorReader != null) {
-                            try {
-                                errorReader.close();
-                            } catch (Exception e) {
-                                System.err.println("关闭错误输出读取器时发生异常: " + e.getMessage());
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-                });
-                errorReaderThread.setDaemon(true);
-                errorReaderThread.start();
+                // 订阅期间会话可能已经关闭
+                if (!session.isOpen() && subscriptions.remove(session.getId(), subscription)) {
+                    logMultiplexer.unsubscribe(subscription);
+                    sender.close();
+                }
             } else {
                 System.err.println("无法从会话中获取有效的容器ID");
                 session.sendMessage(new TextMessage("错误: 无法获取容器ID"));
@@ -128,22 +96,45 @@ public class DockerLogWebSocketHandler extends TextWebSocketHandler {
         } catch (Exception e) {
             System.err.println("建立WebSocket连接时发生异常: " + e.getMessage());
             e.printStackTrace();
-            
-            // 尝试通知客户端发生了错误
-            try {
-                if (session.isOpen()) {
-                    String errorMsg = "服务器内部错误: " + e.getMessage();
-                    // 特别处理权限相关的异常
-                    if (e.getMessage().contains("Permission denied") || 
-                        e.getMessage().contains("permission denied")) {
-                        errorMsg += "\n💡 权限被拒绝。请确保容器已正确配置Docker权限。";
-                    }
-                    session.sendMessage(new TextMessage(errorMsg));
+            sendError(session, e);
+        }
+    }
+    
+    private BatchingLogSender.OverflowPolicy parseOverflowPolicy(String value) {
+        return "disconnect".equalsIgnoreCase(value)
+                ? BatchingLogSender.OverflowPolicy.DISCONNECT
+                : BatchingLogSender.OverflowPolicy.DROP_OLDEST;
+    }
+    
+    @PostConstruct
+    public void bindMetrics() {
+        // 发送线程池的队列和活跃任务指标（executor.* ，name=monitor.ws.sender）
+        new ExecutorServiceMetrics(sendScheduler, "monitor.ws.sender", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("monitor.ws.logs.sessions", senders, Map::size)
+                .description("当前日志 WebSocket 会话数")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sendScheduler.shutdownNow();
+    }
+    
+    // 尝试通知客户端发生了错误
+    private void sendError(WebSocketSession session, Exception e) {
+        try {
+            if (session.isOpen()) {
+                String errorMsg = "服务器内部错误: " + e.getMessage();
+                // 特别处理权限相关的异常
+                if (e.getMessage() != null && (e.getMessage().contains("Permission denied") ||
+                    e.getMessage().contains("permission denied"))) {
+                    errorMsg += "\n💡 权限被拒绝。请确保容器已正确配置Docker权限。";
                 }
-            } catch (Exception ex) {
-                System.err.println("发送错误消息到客户端时发生异常: " + ex.getMessage());
-                ex.printStackTrace();
+                session.sendMessage(new TextMessage(errorMsg));
             }
+        } catch (Exception ex) {
+            System.err.println("发送错误消息到客户端时发生异常: " + ex.getMessage());
+            ex.printStackTrace();
         }
     }
     
@@ -151,13 +142,15 @@ public class DockerLogWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         try {
             System.out.println("WebSocket连接已关闭: " + status.getCode() + " - " + status.getReason());
-            sessions.remove(session.getId());
             
-            // 停止Docker日志进程
-            Process process = logProcesses.remove(session.getId());
-            if (process != null && process.isAlive()) {
-                System.out.println("终止Docker日志进程");
-                process.destroyForcibly();
+            // 取消订阅，最后一个查看者离开时跟随器会停止
+            DockerLogMultiplexer.Subscription subscription = subscriptions.remove(session.getId());
+            if (subscription != null) {
+                logMultiplexer.unsubscribe(subscription);
+            }
+            BatchingLogSender sender = senders.remove(session.getId());
+            if (sender != null) {
+                sender.close();
             }
         } catch (Exception e) {
             System.err.println("关闭WebSocket连接时发生异常: " + e.getMessage());
@@ -186,4 +179,4 @@ public class DockerLogWebSocketHandler extends TextWebSocketHandler {
         }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 共享的有界 I/O 线程池，分为两个：
+ * streamExecutor 执行日志跟随、事件流、子进程输出等长期阻塞读取（每个任务长期占用一个线程）；
+ * ioExecutor 执行进程扫描、df、Webhook 发送等很快结束的短任务，不会被长期任务占满。
+ * 两者都不排队，任务直接交给空闲线程，线程数达到上限时立即拒绝（RejectedExecutionException），
+ * 调用方能马上知道线程池已满，而不是让任务在队列中无限期等待；
+ * 活跃任务数、拒绝次数等指标通过 actuator 的 /actuator/metrics 发布（executor.* ，name=monitor.io / monitor.stream）。
+ */
+@Configuration
+public class IoExecutorConfig {
+
+    public static final String IO_EXECUTOR_NAME = "monitor.io";
+    public static final String STREAM_EXECUTOR_NAME = "monitor.stream";
+
+    @Bean(name = "ioExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService ioExecutor(MeterRegistry meterRegistry,
+                                      @Value("${monitor.io-executor.max-threads:16}") int maxThreads) {
+        return handOffExecutor(meterRegistry, IO_EXECUTOR_NAME, "monitor-io-", "I/O线程池", maxThreads);
+    }
+
+    @Bean(name = "streamExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService streamExecutor(MeterRegistry meterRegistry,
+                                          @Value("${monitor.stream-executor.max-threads:128}") int maxThreads) {
+        return handOffExecutor(meterRegistry, STREAM_EXECUTOR_NAME, "monitor-stream-", "流式读取线程池", maxThreads);
+    }
+
+    private static ExecutorService handOffExecutor(MeterRegistry meterRegistry, String name, String threadPrefix,
+                                                   String label, int maxThreads) {
+        CountingAbortPolicy rejectionPolicy = new CountingAbortPolicy(label);
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = Math.max(1, maxThreads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, threadPrefix + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, rejectionPolicy);
+        // 空闲线程超时回收，线程数随负载伸缩但不超过上限
+        executor.allowCoreThreadTimeOut(true);
+
+        FunctionCounter.builder("executor.rejected", rejectionPolicy, CountingAbortPolicy::getRejectedCount)
+                .tags(Tags.of("name", name))
+                .description("因线程数达到上限被拒绝的任务数")
+                .register(meterRegistry);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+
+    /**
+     * 记录拒绝次数的中止策略。
+     */
+    static class CountingAbortPolicy extends ThreadPoolExecutor.AbortPolicy {
+        private final String label;
+        private final AtomicLong rejectedCount = new AtomicLong();
+
+        CountingAbortPolicy(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejectedCount.incrementAndGet();
+            System.err.println(label + "已满，拒绝任务（活跃 " + executor.getActiveCount()
+                    + "，上限 " + executor.getMaximumPoolSize() + "）");
+            throw new RejectedExecutionException(label + "已满，请稍后重试");
+        }
+
+        double getRejectedCount() {
+            return rejectedCount.get();
+        }
+    }
+}
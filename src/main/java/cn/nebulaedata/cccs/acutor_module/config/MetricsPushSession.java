@@ -0,0 +1,146 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一个指标推送会话的状态：推送间隔、上一次推送的快照以及是否有正在进行的发送。
+ * 每帧只包含相对该会话上一帧发生变化的字段；上一帧尚未发送完成时跳过本次推送，
+ * 保证增量帧按顺序到达，慢客户端自然降低推送频率。
+ */
+class MetricsPushSession {
+
+    private final WebSocketSession session;
+    private volatile long intervalMs;
+
+    // 以下两个字段只在采样线程中读写
+    private MetricsSnapshot lastSent;
+    private long lastSentAt = 0;
+    // 客户端可随时（在 WebSocket 线程中）请求完整帧，选定完整帧时原子地取走请求
+    private final AtomicBoolean fullFrameRequested = new AtomicBoolean(true);
+    private volatile boolean sending = false;
+
+    MetricsPushSession(WebSocketSession session, long intervalMs) {
+        this.session = session;
+        this.intervalMs = intervalMs;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    long getIntervalMs() {
+        return intervalMs;
+    }
+
+    void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    // 下一次推送发送完整快照（客户端重新同步时使用）
+    void requestFullFrame() {
+        fullFrameRequested.set(true);
+    }
+
+    // 判断本次采样是否需要推送，toleranceMs 用于避免采样抖动使推送周期翻倍
+    boolean isDue(long now, long toleranceMs) {
+        return !sending && session.isOpen() && now - lastSentAt >= intervalMs - toleranceMs;
+    }
+
+    // 选定本帧的增量基准：上一次推送的快照，null 表示发送完整快照并取走完整帧请求；
+    // 选定之后才到达的请求保留到下一帧
+    MetricsSnapshot takeBase() {
+        return fullFrameRequested.compareAndSet(true, false) ? null : lastSent;
+    }
+
+    void markSent(MetricsSnapshot snapshot, long now) {
+        lastSent = snapshot;
+        lastSentAt = now;
+        sending = true;
+    }
+
+    // 在发送线程中执行
+    void send(TextMessage frame) {
+        try {
+            session.sendMessage(frame);
+        } catch (Exception e) {
+            System.err.println("推送指标到会话 " + session.getId() + " 失败: " + e.getMessage());
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+        } finally {
+            sending = false;
+        }
+    }
+
+    void close(CloseStatus status) {
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (IOException e) {
+            System.err.println("关闭指标推送会话时发生异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 计算 current 相对 previous 的增量：嵌套的 Map 和长度不变的列表递归比较，只保留变化的部分；
+     * 其他值整体比较，变化时整体替换。被删除的键以点号路径记录在 removed 中。
+     * 两侧都是快照 JSON 解析出的普通值，可以直接编码。
+     */
+    static Map<String, Object> diff(Map<String, ?> previous, Map<String, ?> current, String prefix, List<String> removed) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : current.entrySet()) {
+            Object value = entry.getValue();
+            Object old = previous.get(entry.getKey());
+            if (value instanceof Map && old instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nested = diff((Map<String, ?>) old, (Map<String, ?>) value,
+                        prefix + entry.getKey() + ".", removed);
+                if (!nested.isEmpty()) {
+                    changed.put(entry.getKey(), nested);
+                }
+            } else if (value instanceof List && old instanceof List
+                    && ((List<?>) value).size() == ((List<?>) old).size()) {
+                // 长度不变的列表（如网卡列表）按下标比较，增量以 {"下标": 变化} 表示
+                Map<String, Object> nested = diffList((List<?>) old, (List<?>) value, prefix + entry.getKey() + ".", removed);
+                if (!nested.isEmpty()) {
+                    changed.put(entry.getKey(), nested);
+                }
+            } else if (!Objects.equals(value, old)) {
+                changed.put(entry.getKey(), value);
+            }
+        }
+        for (Map.Entry<String, ?> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                removed.add(prefix + entry.getKey());
+            }
+        }
+        return changed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> diffList(List<?> previous, List<?> current, String prefix, List<String> removed) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (int i = 0; i < current.size(); i++) {
+            Object value = current.get(i);
+            Object old = previous.get(i);
+            if (value instanceof Map && old instanceof Map) {
+                Map<String, Object> nested = diff((Map<String, ?>) old, (Map<String, ?>) value, prefix + i + ".", removed);
+                if (!nested.isEmpty()) {
+                    changed.put(String.valueOf(i), nested);
+                }
+            } else if (!Objects.equals(value, old)) {
+                changed.put(String.valueOf(i), value);
+            }
+        }
+        return changed;
+    }
+}
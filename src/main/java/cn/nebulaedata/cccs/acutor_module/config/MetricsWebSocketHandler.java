@@ -0,0 +1,199 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.service.MetricsListener;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 系统指标推送通道（/ws/metrics）。
+ * 后台采样完成后把新快照推送给所有到期的会话，每个会话按自己的间隔（如1s/5s/30s）接收，
+ * 首帧为完整快照（type=full），之后只发送相对该会话上一帧变化的字段（type=delta）。
+ * 完整帧直接嵌入快照预先编码好的 JSON，增量基准相同的会话共享同一份编码结果。
+ * 客户端可以发送 {"interval": 5000} 修改推送间隔，发送 {"resync": true} 请求完整快照。
+ */
+@Component
+public class MetricsWebSocketHandler extends TextWebSocketHandler implements MetricsListener {
+
+    private static final byte[] FULL_FRAME_PREFIX = "{\"type\":\"full\",\"data\":".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, MetricsPushSession> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MetricsSampler metricsSampler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 未指定时的推送间隔（毫秒）
+    @Value("${monitor.websocket.metrics.default-interval-ms:5000}")
+    private long defaultIntervalMs;
+
+    // 允许的最长推送间隔（毫秒），最短为采样间隔
+    @Value("${monitor.websocket.metrics.max-interval-ms:300000}")
+    private long maxIntervalMs;
+
+    @Value("${monitor.sampler.interval-ms:1000}")
+    private long samplerIntervalMs;
+
+    @Value("${monitor.websocket.metrics.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${monitor.websocket.metrics.buffer-size-limit:262144}")
+    private int bufferSizeLimit;
+
+    // 发送在独立线程池中执行，慢客户端不会阻塞采样线程
+    private final ExecutorService sendExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "ws-metrics-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        metricsSampler.addListener(this);
+        new ExecutorServiceMetrics(sendExecutor, "monitor.ws.metrics.sender", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("monitor.ws.metrics.sessions", sessions, Map::size)
+                .description("当前指标推送 WebSocket 会话数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        metricsSampler.removeListener(this);
+        sendExecutor.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        long intervalMs = parseInterval(WebSocketSessions.queryParameter(session, "interval"));
+        // 首帧在下一次采样时发送
+        sessions.put(session.getId(), new MetricsPushSession(
+                WebSocketSessions.decorate(session, sendTimeLimitMs, bufferSizeLimit), intervalMs));
+        System.out.println("指标推送会话已建立: " + session.getId() + "，推送间隔 " + intervalMs + "ms");
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        MetricsPushSession pushSession = sessions.get(session.getId());
+        if (pushSession == null) return;
+        try {
+            JsonNode command = objectMapper.readTree(message.getPayload());
+            if (command.has("interval")) {
+                pushSession.setIntervalMs(parseInterval(command.get("interval").asText()));
+            }
+            if (command.path("resync").asBoolean(false)) {
+                pushSession.requestFullFrame();
+            }
+        } catch (Exception e) {
+            System.err.println("无法解析指标推送会话的消息: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    /**
+     * 采样完成回调：为每个到期的会话生成帧并交给发送线程池。
+     */
+    @Override
+    public void onSample(MetricsSnapshot snapshot) {
+        if (sessions.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        long tolerance = samplerIntervalMs / 2;
+        // 按增量基准缓存编码结果，null 键对应完整快照
+        Map<MetricsSnapshot, TextMessage> frames = new IdentityHashMap<>();
+
+        for (MetricsPushSession session : sessions.values()) {
+            if (!session.isDue(now, tolerance)) continue;
+            MetricsSnapshot base = session.takeBase();
+            TextMessage frame = frames.get(base);
+            if (frame == null) {
+                try {
+                    frame = encode(base, snapshot);
+                } catch (Exception e) {
+                    System.err.println("编码指标推送帧时发生异常: " + e.getMessage());
+                    if (base == null) {
+                        // 完整帧没有发出，下次重新发送
+                        session.requestFullFrame();
+                    }
+                    continue;
+                }
+                frames.put(base, frame);
+            }
+            session.markSent(snapshot, now);
+            TextMessage message = frame;
+            try {
+                sendExecutor.execute(() -> session.send(message));
+            } catch (Exception e) {
+                // 线程池已关闭
+                session.close(CloseStatus.SERVICE_RESTARTED);
+            }
+        }
+    }
+
+    private TextMessage encode(MetricsSnapshot base, MetricsSnapshot snapshot) throws Exception {
+        if (base == null) {
+            // 完整帧直接拼接快照已编码的 JSON，无需再次序列化
+            byte[] json = snapshot.getJson();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + 32);
+            out.write(FULL_FRAME_PREFIX);
+            out.write(json);
+            out.write('}');
+            return new TextMessage(out.toByteArray());
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        List<String> removed = new ArrayList<>();
+        frame.put("type", "delta");
+        frame.put("changed", MetricsPushSession.diff(base.asMap(), snapshot.asMap(), "", removed));
+        if (!removed.isEmpty()) {
+            frame.put("removed", removed);
+        }
+        return new TextMessage(objectMapper.writeValueAsString(frame));
+    }
+
+    // 支持毫秒数或带单位的写法（如 5s），限制在采样间隔和最长间隔之间
+    private long parseInterval(String value) {
+        long intervalMs = defaultIntervalMs;
+        if (value != null && !value.isEmpty()) {
+            try {
+                intervalMs = value.endsWith("ms") ? Long.parseLong(value.substring(0, value.length() - 2))
+                        : value.endsWith("s") ? Long.parseLong(value.substring(0, value.length() - 1)) * 1000
+                        : Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                System.err.println("无效的推送间隔: " + value);
+            }
+        }
+        return Math.min(Math.max(intervalMs, samplerIntervalMs), maxIntervalMs);
+    }
+}
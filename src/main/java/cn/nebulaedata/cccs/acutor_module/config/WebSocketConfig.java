@@ -13,9 +13,19 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Autowired
     private DockerLogWebSocketHandler dockerLogWebSocketHandler;
 
+    @Autowired
+    private MetricsWebSocketHandler metricsWebSocketHandler;
+
+    @Autowired
+    private AlertWebSocketHandler alertWebSocketHandler;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(dockerLogWebSocketHandler, "/ws/docker/logs")
                 .setAllowedOrigins("*");
+        registry.addHandler(metricsWebSocketHandler, "/ws/metrics")
+                .setAllowedOrigins("*");
+        registry.addHandler(alertWebSocketHandler, "/ws/alerts")
+                .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+/**
+ * WebSocket 会话工具方法。
+ */
+final class WebSocketSessions {
+
+    private WebSocketSessions() {
+    }
+
+    // 限制发送时间和缓冲区大小，并保证多个线程对同一会话的发送串行执行
+    static WebSocketSession decorate(WebSocketSession session, int sendTimeLimitMs, int bufferSizeLimit) {
+        if (session instanceof NativeWebSocketSession) {
+            Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+            if (nativeSession != null) {
+                // Tomcat 阻塞发送的超时时间
+                nativeSession.getUserProperties().put("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT", (long) sendTimeLimitMs);
+            }
+        }
+        return new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit);
+    }
+
+    // 原生会话的异步发送端，并设置异步发送的超时时间（超时后发送回调报告失败）；没有原生会话时返回 null
+    static RemoteEndpoint.Async asyncRemote(WebSocketSession session, int sendTimeLimitMs) {
+        if (!(session instanceof NativeWebSocketSession)) return null;
+        Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
+        if (nativeSession == null) return null;
+        RemoteEndpoint.Async remote = nativeSession.getAsyncRemote();
+        remote.setSendTimeout(sendTimeLimitMs);
+        return remote;
+    }
+
+    // 读取握手地址中的查询参数，不存在时返回 null
+    static String queryParameter(WebSocketSession session, String name) {
+        if (session.getUri() == null) return null;
+        String query = session.getUri().getQuery();
+        if (query == null) return null;
+        for (String param : query.split("&")) {
+            if (param.startsWith(name + "=")) {
+                return param.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+}
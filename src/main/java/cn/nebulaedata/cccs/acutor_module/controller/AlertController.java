@@ -0,0 +1,74 @@
+package cn.nebulaedata.cccs.acutor_module.controller;
+
+import cn.nebulaedata.cccs.acutor_module.alert.AlertEngine;
+import cn.nebulaedata.cccs.acutor_module.alert.AlertRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 告警接口：规则和当前告警、最近的触发/恢复事件，以及运行时增删规则。
+ * 运行时修改的规则不会写回配置文件，重启后以 monitor.alerts.rules 为准。
+ */
+@Controller
+public class AlertController {
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    // 所有规则，以及等待中（pending）和触发中（firing）的告警
+    @GetMapping("/metrics/alerts")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getAlerts() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("rules", alertEngine.rules());
+        result.put("active", alertEngine.activeAlerts());
+        return ResponseEntity.ok(result);
+    }
+
+    // 最近的触发/恢复事件，从新到旧
+    @GetMapping("/metrics/alerts/events")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getEvents(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("events", alertEngine.recentEvents(Math.max(0, limit)));
+        return ResponseEntity.ok(result);
+    }
+
+    // 加入或替换规则，请求体：{"name": "cpu-high", "expression": "systemCpuLoadPercent > 90 for 2m clear 80"}
+    @PostMapping("/metrics/alerts/rules")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> putRule(@RequestBody Map<String, String> body) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            AlertRule rule = alertEngine.addRule(body.get("name"), body.get("expression"));
+            result.put("rule", rule.toMap());
+        } catch (IllegalArgumentException e) {
+            result.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/metrics/alerts/rules/{name}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> deleteRule(@PathVariable String name) {
+        Map<String, Object> result = new HashMap<>();
+        if (!alertEngine.removeRule(name)) {
+            result.put("error", "规则不存在: " + name);
+            return ResponseEntity.ok(result);
+        }
+        result.put("removed", name);
+        return ResponseEntity.ok(result);
+    }
+}
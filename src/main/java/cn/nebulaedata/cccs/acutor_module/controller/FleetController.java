@@ -0,0 +1,193 @@
+package cn.nebulaedata.cccs.acutor_module.controller;
+
+import cn.nebulaedata.cccs.acutor_module.fleet.FleetAggregator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 汇聚节点接口：接收代理节点推送、全局视图、单台主机详情，
+ * 以及把 /fleet/hosts/{hostId}/metrics/** 转发到该主机自身的 /metrics/** 接口（容器列表、统计、日志等）。
+ */
+@Controller
+public class FleetController {
+
+    private static final String NOT_AGGREGATOR = "当前实例不是汇聚节点，请设置 monitor.fleet.mode=aggregator";
+
+    @Autowired
+    private FleetAggregator fleetAggregator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${monitor.fleet.proxy.connect-timeout-ms:2000}")
+    private int proxyConnectTimeoutMs;
+
+    @Value("${monitor.fleet.proxy.read-timeout-ms:30000}")
+    private int proxyReadTimeoutMs;
+
+    // 接收代理节点推送的批量快照（请求体为 FleetCodec 编码的压缩数据，请求头 X-Fleet-Token 为共享令牌）
+    @PostMapping("/fleet/ingest")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> ingest(HttpServletRequest request) {
+        Map<String, Object> result = new HashMap<>();
+        if (!fleetAggregator.isEnabled()) {
+            result.put("error", NOT_AGGREGATOR);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
+        }
+        if (!fleetAggregator.hasToken()) {
+            result.put("error", "汇聚节点未配置 monitor.fleet.token，拒绝推送");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
+        }
+        if (!fleetAggregator.authorize(request.getHeader(FleetAggregator.TOKEN_HEADER))) {
+            result.put("error", "推送令牌无效");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(result);
+        }
+        try (InputStream body = request.getInputStream()) {
+            result.put("accepted", fleetAggregator.ingest(body, request.getRemoteAddr()));
+        } catch (IOException e) {
+            result.put("error", "推送数据无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // 全局视图：主机和容器数量、各序列跨主机的最新值汇总及最近1分钟/10分钟汇总
+    @GetMapping("/fleet/summary")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        if (!fleetAggregator.isEnabled()) {
+            return ResponseEntity.ok(error(NOT_AGGREGATOR));
+        }
+        return ResponseEntity.ok(fleetAggregator.summary());
+    }
+
+    // 所有主机的概要
+    @GetMapping("/fleet/hosts")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getHosts() {
+        if (!fleetAggregator.isEnabled()) {
+            return ResponseEntity.ok(error(NOT_AGGREGATOR));
+        }
+        List<Map<String, Object>> hosts = fleetAggregator.hosts();
+        Map<String, Object> result = new HashMap<>();
+        result.put("hosts", hosts);
+        result.put("count", hosts.size());
+        return ResponseEntity.ok(result);
+    }
+
+    // 单台主机详情：最新值、最近1分钟/10分钟汇总和容器列表
+    @GetMapping("/fleet/hosts/{hostId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getHost(@PathVariable String hostId) {
+        if (!fleetAggregator.isEnabled()) {
+            return ResponseEntity.ok(error(NOT_AGGREGATOR));
+        }
+        Map<String, Object> host = fleetAggregator.host(hostId);
+        return ResponseEntity.ok(host != null ? host : error("未知主机: " + hostId));
+    }
+
+    // 单台主机最近一次推送的容器列表
+    @GetMapping("/fleet/hosts/{hostId}/containers")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getHostContainers(@PathVariable String hostId) {
+        if (!fleetAggregator.isEnabled()) {
+            return ResponseEntity.ok(error(NOT_AGGREGATOR));
+        }
+        List<Map<String, Object>> containers = fleetAggregator.containers(hostId);
+        if (containers == null) {
+            return ResponseEntity.ok(error("未知主机: " + hostId));
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("hostId", hostId);
+        result.put("containers", containers);
+        result.put("count", containers.size());
+        return ResponseEntity.ok(result);
+    }
+
+    // 转发到主机自身的 /metrics/** 接口，响应以流的方式原样返回（大段日志不在汇聚节点缓存）
+    @GetMapping("/fleet/hosts/{hostId}/metrics/**")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> proxyHostMetrics(@PathVariable String hostId,
+                                                                  HttpServletRequest request) {
+        if (!fleetAggregator.isEnabled()) {
+            return jsonError(HttpStatus.SERVICE_UNAVAILABLE, NOT_AGGREGATOR);
+        }
+        String advertiseUrl = fleetAggregator.getAdvertiseUrl(hostId);
+        if (advertiseUrl == null) {
+            return jsonError(HttpStatus.NOT_FOUND, "未知主机或主机未公布访问地址: " + hostId);
+        }
+        String uri = request.getRequestURI();
+        int index = uri.indexOf("/metrics/", request.getContextPath().length() + "/fleet/hosts/".length());
+        String target = advertiseUrl.replaceAll("/+$", "") + uri.substring(index)
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(target).openConnection();
+            connection.setConnectTimeout(proxyConnectTimeoutMs);
+            connection.setReadTimeout(proxyReadTimeoutMs);
+            int status = connection.getResponseCode();
+            InputStream response = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            String contentType = connection.getContentType();
+            HttpURLConnection upstream = connection;
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+            if (contentType != null) {
+                builder.contentType(MediaType.parseMediaType(contentType));
+            }
+            return builder.body(outputStream -> {
+                try {
+                    if (response == null) return;
+                    try (InputStream in = response) {
+                        byte[] buffer = new byte[8192];
+                        int n;
+                        while ((n = in.read(buffer)) >= 0) {
+                            outputStream.write(buffer, 0, n);
+                            outputStream.flush();
+                        }
+                    }
+                } finally {
+                    upstream.disconnect();
+                }
+            });
+        } catch (Exception e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            System.err.println("转发请求到主机 " + hostId + " 失败: " + e.getMessage());
+            return jsonError(HttpStatus.BAD_GATEWAY, "转发请求到主机 " + hostId + " 失败: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("error", message);
+        return result;
+    }
+
+    // 转发接口的错误应答
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, String message) {
+        Map<String, Object> body = error(message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, body));
+    }
+}
@@ -0,0 +1,179 @@
+package cn.nebulaedata.cccs.acutor_module.controller;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogCursor;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogStream;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * 以流的方式输出一页容器日志。
+ * 日志边读边写入响应（JSON 结构与原接口一致：{"containerId", "logs", ...}），内存占用与行数无关；
+ * 输出结束时附带下一页（更早日志）的游标。
+ */
+class LogPageStreamer implements StreamingResponseBody {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final String containerId;
+    private final DockerLogStream logStream;
+    private final int pageSize;
+    private final boolean includeTimestamps;
+    // 来自游标：末尾需要丢弃的、时间戳等于 until 的行
+    private final DockerLogCursor cursor;
+    private final ArrayDeque<String> lookahead = new ArrayDeque<>();
+
+    private Writer writer;
+    private long lineCount = 0;
+    private String oldestTimestamp;
+    private int oldestTimestampCount = 0;
+
+    LogPageStreamer(String containerId, DockerLogStream logStream, int pageSize,
+                    boolean includeTimestamps, DockerLogCursor cursor) {
+        this.containerId = containerId;
+        this.logStream = logStream;
+        this.pageSize = pageSize;
+        this.includeTimestamps = includeTimestamps;
+        this.cursor = cursor;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        String error = null;
+        try {
+            writer.write("{\"containerId\":");
+            writeString(containerId);
+            writer.write(",\"logs\":\"");
+
+            int skip = cursor != null ? cursor.getSkip() : 0;
+            try {
+                logStream.pump((stderr, line) -> {
+                    // 需要丢弃的行只可能出现在末尾，延迟 skip 行输出
+                    if (skip > 0) {
+                        lookahead.addLast(line);
+                        if (lookahead.size() <= skip) return;
+                        line = lookahead.pollFirst();
+                    }
+                    emit(line);
+                });
+                while (!lookahead.isEmpty()) {
+                    String line = lookahead.pollFirst();
+                    if (!cursor.getUntil().equals(toUntilOrNull(timestampOf(line)))) {
+                        emit(line);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                // 客户端断开连接
+                throw e.getCause();
+            } catch (Exception e) {
+                System.err.println("流式读取容器 " + containerId + " 的日志时发生异常: " + e.getMessage());
+                error = "读取日志时发生错误: " + e.getMessage();
+            }
+
+            writer.write("\",\"lineCount\":");
+            writer.write(String.valueOf(lineCount));
+            // 本页不足 pageSize 行说明已经到达最早的日志
+            boolean hasMore = pageSize > 0 && lineCount >= pageSize && oldestTimestamp != null;
+            writer.write(",\"hasMore\":");
+            writer.write(String.valueOf(hasMore));
+            writer.write(",\"nextCursor\":");
+            if (hasMore) {
+                // 整页都与 until 同一时间戳时，下一页还要再跳过本页之前已跳过的行，否则会反复返回同一页
+                int nextSkip = oldestTimestampCount;
+                if (cursor != null && cursor.getUntil().equals(toUntilOrNull(oldestTimestamp))) {
+                    nextSkip += cursor.getSkip();
+                }
+                writeString(DockerLogCursor.fromTimestamp(oldestTimestamp, nextSkip).encode());
+            } else {
+                writer.write("null");
+            }
+            if (error != null) {
+                writer.write(",\"error\":");
+                writeString(error);
+            }
+            writer.write('}');
+            writer.flush();
+            System.out.println("成功返回日志，日志行数: " + lineCount);
+        } finally {
+            logStream.close();
+        }
+    }
+
+    // 输出一行日志，并记录本页最旧的时间戳及其出现次数
+    private void emit(String line) {
+        try {
+            String timestamp = timestampOf(line);
+            if (timestamp != null) {
+                if (oldestTimestamp == null) {
+                    oldestTimestamp = timestamp;
+                }
+                if (timestamp.equals(oldestTimestamp)) {
+                    oldestTimestampCount++;
+                }
+            }
+            escape(includeTimestamps || timestamp == null ? line : line.substring(timestamp.length() + 1));
+            writer.write("\\n");
+            lineCount++;
+        } catch (IOException e) {
+            logStream.close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 日志以 timestamps=1 读取，每行以 RFC3339Nano 时间戳和一个空格开头
+    private static String timestampOf(String line) {
+        int space = line.indexOf(' ');
+        if (space < 20 || line.charAt(4) != '-' || line.charAt(10) != 'T') return null;
+        return line.substring(0, space);
+    }
+
+    private static String toUntilOrNull(String timestamp) {
+        try {
+            return timestamp == null ? null : DockerLogCursor.toUntil(timestamp);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        escape(value);
+        writer.write('"');
+    }
+
+    // JSON 字符串转义
+    private void escape(String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            } else if (c == '\r') {
+                replacement = "\\r";
+            } else if (c == '\t') {
+                replacement = "\\t";
+            } else if (c < 0x20) {
+                replacement = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+    }
+}
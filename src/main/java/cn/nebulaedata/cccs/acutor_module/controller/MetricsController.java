@@ -1,316 +1,273 @@
 package cn.nebulaedata.cccs.acutor_module.controller;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.sun.management.OperatingSystemMXBean;
+import cn.nebulaedata.cccs.acutor_module.collector.ContainerStatsCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GcEventCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.ProcessCollector;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogCursor;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogOptions;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogStream;
+import cn.nebulaedata.cccs.acutor_module.profiler.Profile;
+import cn.nebulaedata.cccs.acutor_module.profiler.StackProfiler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.OpenMetricsExporter;
+import cn.nebulaedata.cccs.acutor_module.spool.LogSpool;
+import cn.nebulaedata.cccs.acutor_module.tsdb.MetricsStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.socket.CloseStatus;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStreamReader;
-import java.lang.management.*;
-import java.text.DecimalFormat;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.PatternSyntaxException;
 
 @Controller
 public class MetricsController {
     
-    private final OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-    private final ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
-    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final MediaType OPENMETRICS_TYPE = MediaType.parseMediaType(OpenMetricsExporter.CONTENT_TYPE);
+    // 从时序存储查询历史时缺省的时间范围
+    private static final long DEFAULT_HISTORY_RANGE_MS = TimeUnit.HOURS.toMillis(1);
     
-    // 存储上次网络数据，用于计算速度
-    private long lastReceivedBytes = 0;
-    private long lastSentBytes = 0;
-    private long lastTimestamp = 0;
+    @Autowired
+    private MetricsSampler metricsSampler;
     
-    // 四舍五入工具方法
-    private double round(double value, int places) {
+    @Autowired
+    private OpenMetricsExporter openMetricsExporter;
+    
+    @Autowired
+    private DockerEngineClient dockerClient;
+    
+    @Autowired
+    private DockerInventory dockerInventory;
+    
+    @Autowired
+    private ContainerStatsCollector containerStatsCollector;
+    
+    @Autowired
+    private LogSpool logSpool;
+    
+    @Autowired
+    private MetricsStore metricsStore;
+    
+    @Autowired
+    private StackProfiler stackProfiler;
+    
+    @Autowired
+    private GcEventCollector gcEventCollector;
+    
+    @Autowired
+    private ProcessCollector processCollector;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // 获取系统指标（返回后台采样器的最新快照）
+    @GetMapping("/metrics/system")
+    @ResponseBody
+    public ResponseEntity<byte[]> getMetrics() {
+        // 快照在采样时已编码为JSON，这里直接返回同一份字节
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(metricsSampler.getLatest().getJson());
+    }
+    
+    // OpenMetrics 格式的系统、网卡、GPU和容器指标，供 Prometheus 抓取
+    @GetMapping("/metrics/openmetrics")
+    @ResponseBody
+    public ResponseEntity<byte[]> getOpenMetrics() {
+        return ResponseEntity.ok()
+                .contentType(OPENMETRICS_TYPE)
+                .body(openMetricsExporter.render());
+    }
+    
+    // 获取系统指标历史（from/to 为毫秒时间戳）。启用时序存储时从存储中查询，缺省为最近1小时，
+    // resolution 可选 auto/raw/10s/1m/10m；否则查询内存缓冲区，缺省时返回缓冲区中的全部数据。
+    // 指定 maxPoints 时服务端按 LTTB 把每个序列降到最多 maxPoints 个点，供图表直接使用
+    @GetMapping("/metrics/system/history")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getMetricsHistory(@RequestParam(required = false) Long from,
+                                                                 @RequestParam(required = false) Long to,
+                                                                 @RequestParam(required = false) String resolution,
+                                                                 @RequestParam(required = false) Integer maxPoints) {
+        Map<String, Object> result;
         try {
-            if (places < 0) throw new IllegalArgumentException("小数位数不能为负数");
-            
-            long factor = (long) Math.pow(10, places);
-            value = value * factor;
-            long tmp = Math.round(value);
-            return (double) tmp / factor;
+            boolean stored = metricsStore.isEnabled();
+            long end = to != null ? to : (stored ? System.currentTimeMillis() : Long.MAX_VALUE);
+            long start = from != null ? from : (stored ? end - DEFAULT_HISTORY_RANGE_MS : 0L);
+            if (start > end) {
+                result = new HashMap<>();
+                result.put("error", "from 不能大于 to");
+                return ResponseEntity.ok(result);
+            }
+            if (stored) {
+                result = metricsStore.query(start, end, resolution, maxPoints);
+            } else if (maxPoints != null) {
+                result = metricsSampler.getHistory().query(start, end, maxPoints);
+            } else {
+                result = metricsSampler.getHistory().query(start, end);
+            }
+        } catch (IllegalArgumentException e) {
+            result = new HashMap<>();
+            result.put("error", e.getMessage());
         } catch (Exception e) {
-            System.err.println("四舍五入计算时发生异常: " + e.getMessage());
+            result = new HashMap<>();
+            result.put("error", "获取系统指标历史时发生错误: " + e.getMessage());
             e.printStackTrace();
-            return 0.0;
         }
+        
+        return ResponseEntity.ok(result);
     }
     
-    // 获取系统指标
-    @GetMapping("/metrics/system")
+    // 最近的垃圾回收事件（从新到旧，含原因和各内存池回收前后的使用量）、停顿分布和分配/晋升速率
+    @GetMapping("/metrics/jvm/gc")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getGcEvents(@RequestParam(defaultValue = "50") int limit) {
+        if (!gcEventCollector.isSupported()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("error", "当前JVM不支持GC通知");
+            return ResponseEntity.ok(result);
+        }
+        return ResponseEntity.ok(gcEventCollector.toMap(Math.max(0, limit)));
+    }
+    
+    // 按需对 JVM 做限时的栈采样分析（请求在采样结束后返回）
+    // mode=cpu 只统计运行中的线程，wall 统计全部线程；threads=true 时以线程名作为最外层帧
+    // format=collapsed 返回折叠栈文本（可交给 flamegraph.pl / speedscope），svg 返回火焰图，json 返回 d3-flame-graph 结构；
+    // 采样统计（实际频率、分析器开销等）在 json 中直接给出，其余格式放在 X-Profile-* 响应头中
+    @GetMapping("/metrics/jvm/profile")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getMetrics() {
-        Map<String, Object> metrics = new HashMap<>();
+    public ResponseEntity<byte[]> profileJvm(@RequestParam(required = false) Integer seconds,
+                                             @RequestParam(required = false) Integer hz,
+                                             @RequestParam(required = false) String mode,
+                                             @RequestParam(required = false) String format,
+                                             @RequestParam(required = false) Boolean threads) throws Exception {
+        String outputFormat = format != null ? format.toLowerCase() : "collapsed";
+        Map<String, Object> result = new HashMap<>();
+        if (!"collapsed".equals(outputFormat) && !"svg".equals(outputFormat) && !"json".equals(outputFormat)) {
+            result.put("error", "format 只能是 collapsed、svg 或 json");
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(objectMapper.writeValueAsBytes(result));
+        }
         
+        Profile profile;
         try {
-            // JVM堆内存信息
-            MemoryUsage heapUsage = memoryBean.getHeapMemoryUsage();
-            long heapUsedBytes = heapUsage.getUsed();
-            long heapMaxBytes = heapUsage.getMax(); // 可能为 -1 或 Long.MAX_VALUE
-            long heapCommittedBytes = heapUsage.getCommitted();
-            
-            metrics.put("heapUsedMB", round(heapUsedBytes / (1024.0 * 1024.0), 2));
-            metrics.put("heapMaxMB", heapMaxBytes > 0 ? round(heapMaxBytes / (1024.0 * 1024.0), 2) : -1);
-            metrics.put("heapCommittedMB", round(heapCommittedBytes / (1024.0 * 1024.0), 2));
-            
-            if (heapMaxBytes > 0) {
-                double heapUsagePercent = (heapUsedBytes * 100.0) / heapMaxBytes;
-                metrics.put("heapUsagePercent", round(heapUsagePercent, 2));
-            } else {
-                metrics.put("heapUsagePercent", -1);
-            }
-            
-            // JVM非堆内存信息
-            MemoryUsage nonHeapUsage = memoryBean.getNonHeapMemoryUsage();
-            long nonHeapUsedBytes = nonHeapUsage.getUsed();
-            metrics.put("nonHeapUsedMB", round(nonHeapUsedBytes / (1024.0 * 1024.0), 2));
-            
-            // CPU使用率信息
-            double systemCpuLoad = osBean.getSystemCpuLoad(); // 系统整体 CPU 使用率
-            double processCpuLoad = osBean.getProcessCpuLoad(); // 当前 JVM 进程 CPU 使用率
-            
-            metrics.put("systemCpuLoadPercent", systemCpuLoad >= 0 ? round(systemCpuLoad * 100.0, 2) : -1);
-            metrics.put("processCpuLoadPercent", processCpuLoad >= 0 ? round(processCpuLoad * 100.0, 2) : -1);
-            
-            // 系统信息
-            metrics.put("availableProcessors", osBean.getAvailableProcessors());
-            metrics.put("systemLoadAverage", osBean.getSystemLoadAverage()); // Unix/Linux 平均负载
-            
-            // 系统内存信息
-            long totalPhysicalMemorySize = osBean.getTotalPhysicalMemorySize();
-            long freePhysicalMemorySize = osBean.getFreePhysicalMemorySize();
-            long usedPhysicalMemorySize = totalPhysicalMemorySize - freePhysicalMemorySize;
-            double memoryUsagePercent = (usedPhysicalMemorySize * 100.0) / totalPhysicalMemorySize;
-            
-            metrics.put("totalPhysicalMemoryMB", round(totalPhysicalMemorySize / (1024.0 * 1024.0), 2));
-            metrics.put("freePhysicalMemoryMB", round(freePhysicalMemorySize / (1024.0 * 1024.0), 2));
-            metrics.put("usedPhysicalMemoryMB", round(usedPhysicalMemorySize / (1024.0 * 1024.0), 2));
-            metrics.put("systemMemoryUsagePercent", round(memoryUsagePercent, 2));
-            
-            // 线程信息
-            metrics.put("threadCount", threadBean.getThreadCount());
-            metrics.put("peakThreadCount", threadBean.getPeakThreadCount());
-            metrics.put("threads", threadBean); // 添加完整对象供前端使用
-            
-            // 类加载信息
-            metrics.put("loadedClassCount", classLoadingBean.getLoadedClassCount());
-            metrics.put("unloadedClassCount", classLoadingBean.getUnloadedClassCount());
-            metrics.put("classes", classLoadingBean); // 添加完整对象供前端使用
-            
-            // 垃圾回收信息
-            Map<String, Map<String, Object>> gcInfo = new HashMap<>();
-            long totalGcCount = 0;
-            long totalGcTime = 0;
-            
-            for (GarbageCollectorMXBean gcBean : gcBeans) {
-                Map<String, Object> gcData = new HashMap<>();
-                long gcCount = gcBean.getCollectionCount();
-                long gcTime = gcBean.getCollectionTime();
-                
-                gcData.put("collectionCount", gcCount);
-                gcData.put("collectionTime", gcTime);
-                
-                gcInfo.put(gcBean.getName(), gcData);
-                
-                totalGcCount += gcCount;
-                totalGcTime += gcTime;
-            }
-            
-            metrics.put("gc", gcInfo);
-            metrics.put("totalGcCount", totalGcCount);
-            metrics.put("totalGcTime", totalGcTime);
-            metrics.put("memory", memoryBean);
-            
-            // GPU信息
-            metrics.put("gpuInfo", getGpuInfo());
-            
-            // 网络速度信息
-            metrics.put("networkSpeed", getNetworkSpeed());
-            
-        } catch (Exception e) {
-            metrics.put("error", "获取系统指标时发生错误: " + e.getMessage());
-            e.printStackTrace();
+            profile = stackProfiler.profile(seconds, hz, mode, Boolean.TRUE.equals(threads));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result.put("error", e.getMessage());
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(objectMapper.writeValueAsBytes(result));
         }
         
-        return ResponseEntity.ok(metrics);
+        if ("json".equals(outputFormat)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsBytes(profile.toMap()));
+        }
+        StringWriter out = new StringWriter(64 * 1024);
+        MediaType type;
+        if ("svg".equals(outputFormat)) {
+            profile.writeSvg(out);
+            type = MediaType.parseMediaType("image/svg+xml;charset=UTF-8");
+        } else {
+            profile.writeCollapsed(out);
+            type = MediaType.parseMediaType("text/plain;charset=UTF-8");
+        }
+        Map<String, Object> stats = profile.statsMap();
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header("X-Profile-Samples", String.valueOf(stats.get("threadSamples")))
+                .header("X-Profile-Effective-Hz", String.valueOf(stats.get("effectiveHz")))
+                .header("X-Profile-Overhead-Percent", String.valueOf(stats.get("overheadPercent")))
+                .header("X-Profile-Truncated-Samples", String.valueOf(stats.get("truncatedSamples")))
+                .body(out.toString().getBytes(StandardCharsets.UTF_8));
     }
     
-    // 获取Docker容器信息
+    // 获取Docker容器信息（由事件驱动的清单缓存直接应答；传入 sinceVersion 时只返回该版本之后的变更）
     @GetMapping("/metrics/docker/containers")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getDockerContainers() {
+    public ResponseEntity<Map<String, Object>> getDockerContainers(@RequestParam(required = false) Long sinceVersion) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // 检查Docker是否可用
-            boolean dockerAvailable = checkDockerAvailability();
-            result.put("dockerAvailable", dockerAvailable);
+            DockerInventory.Snapshot snapshot = dockerInventory.getSnapshot();
+            result.put("dockerAvailable", snapshot.isAvailable());
+            result.put("version", snapshot.getVersion());
             
-            if (!dockerAvailable) {
+            if (!snapshot.isAvailable()) {
                 result.put("error", "Docker不可用");
                 // 添加操作系统信息
                 String osName = System.getProperty("os.name");
                 result.put("osName", osName);
                 
                 // 检查Docker套接字是否存在
-                File dockerSocket = new File("/var/run/docker.sock");
-                result.put("dockerSocketExists", dockerSocket.exists());
+                result.put("dockerSocketExists", dockerClient.getSocketFile().exists());
+                result.put("daemonCheckError", snapshot.getError());
                 
-                // 尝试检查Docker守护进程
-                try {
-                    Process process = Runtime.getRuntime().exec("docker info");
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-                    String errorLine = reader.readLine();
-                    if (errorLine != null) {
-                        result.put("daemonCheckError", errorLine);
-                    }
-                    reader.close();
-                } catch (Exception e) {
-                    System.err.println("检查Docker守护进程时发生异常: " + e.getMessage());
-                    e.printStackTrace();
-                    result.put("daemonCheckError", e.getMessage());
+                // 特别处理权限问题
+                if (isPermissionDenied(snapshot.getError())) {
+                    result.put("solution", "权限被拒绝。请尝试以下解决方案：\n" +
+                              "1. 将当前用户添加到docker组: sudo usermod -aG docker $USER\n" +
+                              "2. 重启Docker服务: sudo systemctl restart docker\n" +
+                              "3. 或者在运行容器时使用更高权限: docker run --privileged ...\n" +
+                              "4. 检查/var/run/docker.sock文件权限\n" +
+                              "5. 在docker-compose.yml中添加privileged: true配置项\n" +
+                              "6. 注销并重新登录，或者运行newgrp docker命令");
                 }
                 
                 return ResponseEntity.ok(result);
             }
             
-            // 执行docker ps命令获取容器信息
-            Process process = null;
-            BufferedReader reader = null;
-            BufferedReader errorReader = null;
-            
-            try {
-                process = Runtime.getRuntime().exec("docker ps --format \"{{.ID}}|{{.Names}}|{{.Status}}|{{.Image}}\"");
-                reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-                
-                String line;
-                List<Map<String, String>> containers = new ArrayList<>();
-                
-                // 读取容器信息
-                while ((line = reader.readLine()) != null) {
-                    if (!line.trim().isEmpty()) {
-                        String[] parts = line.split("\\|");
-                        if (parts.length >= 4) {
-                            Map<String, String> container = new HashMap<>();
-                            container.put("id", parts[0].trim());
-                            container.put("name", parts[1].trim());
-                            container.put("status", parts[2].trim());
-                            container.put("image", parts[3].trim());
-                            containers.add(container);
+            // 增量查询：返回 sinceVersion 之后的变更，超出变更日志保留范围时退回全量
+            if (sinceVersion != null) {
+                List<DockerInventory.Change> changes = dockerInventory.changesSince(sinceVersion);
+                if (changes != null) {
+                    List<Map<String, Object>> items = new ArrayList<>(changes.size());
+                    for (DockerInventory.Change change : changes) {
+                        Map<String, Object> item = new HashMap<>();
+                        item.put("version", change.getVersion());
+                        item.put("type", change.getType());
+                        item.put("id", change.getId());
+                        item.put("action", change.getAction());
+                        if (DockerInventory.ACTION_UPSERT.equals(change.getAction())) {
+                            if (DockerInventory.TYPE_CONTAINER.equals(change.getType())) {
+                                item.put("container", snapshot.getContainerView(change.getId()));
+                            } else {
+                                item.put("image", snapshot.getImages().get(change.getId()));
+                            }
                         }
+                        items.add(item);
                     }
-                }
-                
-                // 读取错误输出
-                StringBuilder errorOutput = new StringBuilder();
-                while ((line = errorReader.readLine()) != null) {
-                    errorOutput.append(line).append("\n");
-                }
-                
-                int exitCode = process.waitFor();
-                
-                // 如果命令执行出错，返回错误信息
-                if (exitCode != 0) {
-                    String errorMsg = "执行docker命令失败，退出码: " + exitCode;
-                    if (errorOutput.length() > 0) {
-                        errorMsg += "，错误信息: " + errorOutput.toString();
-                    }
-                    System.err.println(errorMsg);
-                    result.put("error", errorMsg);
-                    result.put("dockerAvailable", false);
-                    result.put("debug", "错误输出: " + errorOutput.toString());
-                    
-                    // 特别处理权限问题
-                    if (errorOutput.toString().contains("permission denied")) {
-                        result.put("solution", "权限被拒绝。请尝试以下解决方案：\n" +
-                                  "1. 将当前用户添加到docker组: sudo usermod -aG docker $USER\n" +
-                                  "2. 重启Docker服务: sudo systemctl restart docker\n" +
-                                  "3. 或者在运行容器时使用更高权限: docker run --privileged ...\n" +
-                                  "4. 检查/var/run/docker.sock文件权限\n" +
-                                  "5. 在docker-compose.yml中添加privileged: true配置项\n" +
-                                  "6. 注销并重新登录，或者运行newgrp docker命令");
-                    }
-                    
+                    result.put("full", false);
+                    result.put("changes", items);
                     return ResponseEntity.ok(result);
                 }
-                
-                // 获取镜像大小信息
-                Map<String, String> imageSizes = new HashMap<>();
-                try {
-                    Process imagesProcess = Runtime.getRuntime().exec("docker images --format \"{{.Repository}}:{{.Tag}}|{{.Size}}\"");
-                    BufferedReader imagesReader = new BufferedReader(new InputStreamReader(imagesProcess.getInputStream()));
-                    
-                    String imageLine;
-                    while ((imageLine = imagesReader.readLine()) != null) {
-                        String[] imageParts = imageLine.split("\\|");
-                        if (imageParts.length >= 2) {
-                            String imageName = imageParts[0].trim();
-                            String imageSize = imageParts[1].trim();
-                            imageSizes.put(imageName, imageSize);
-                        }
-                    }
-                    
-                    imagesProcess.waitFor();
-                    imagesReader.close();
-                } catch (Exception e) {
-                    System.err.println("获取镜像大小信息时发生异常: " + e.getMessage());
-                    e.printStackTrace();
-                }
-                
-                // 为每个容器添加镜像大小信息
-                for (Map<String, String> container : containers) {
-                    String image = container.get("image");
-                    if (imageSizes.containsKey(image)) {
-                        container.put("imageSize", imageSizes.get(image));
-                    } else {
-                        // 尝试查找不带标签的镜像
-                        String imageWithoutTag = image.contains(":") ? image.substring(0, image.lastIndexOf(":")) : image;
-                        container.put("imageSize", imageSizes.getOrDefault(imageWithoutTag, "未知"));
-                    }
-                }
-                
-                result.put("containerCount", containers.size());
-                // 直接返回容器数组而不是JSON字符串
-                result.put("containers", containers);
-            } finally {
-                // 确保资源被正确关闭
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (Exception e) {
-                        System.err.println("关闭标准输出读取器时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-                if (errorReader != null) {
-                    try {
-                        errorReader.close();
-                    } catch (Exception e) {
-                        System.err.println("关闭错误输出读取器时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                    }
+                result.put("full", true);
+            }
+            
+            List<Map<String, String>> views = snapshot.getRunningContainers();
+            ContainerStatsCollector.Sample stats = containerStatsCollector.getLatest();
+            List<Map<String, Object>> containers = new ArrayList<>(views.size());
+            for (Map<String, String> view : views) {
+                Map<String, Object> container = new HashMap<>(view);
+                // 附加最近一次采集的cgroup统计（CPU、内存、网络、块设备）
+                ContainerStatsCollector.ContainerStats containerStats = stats.getByShortId(view.get("id"));
+                if (containerStats != null) {
+                    container.put("stats", containerStats.toMap());
                 }
+                containers.add(container);
             }
+            result.put("containerCount", containers.size());
+            // 直接返回容器数组而不是JSON字符串
+            result.put("containers", containers);
             
         } catch (Exception e) {
             String errorMsg = "获取容器信息时发生错误: " + e.getMessage();
@@ -325,34 +282,84 @@ public class MetricsController {
         return ResponseEntity.ok(result);
     }
     
-    // 检查Docker是否可用
-    private boolean checkDockerAvailability() {
+    // 获取运行中容器的资源统计（直接读取cgroup，随后台采样周期更新）
+    @GetMapping("/metrics/docker/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getDockerStats() {
+        Map<String, Object> result;
         try {
-            Process process = Runtime.getRuntime().exec("docker version");
-            int exitCode = process.waitFor();
-            return exitCode == 0;
+            if (!containerStatsCollector.isSupported()) {
+                result = new HashMap<>();
+                result.put("error", "找不到cgroup目录，请检查 monitor.cgroup-root 配置");
+                return ResponseEntity.ok(result);
+            }
+            result = containerStatsCollector.getLatest().toMap();
         } catch (Exception e) {
-            System.err.println("检查Docker可用性时发生异常: " + e.getMessage());
+            result = new HashMap<>();
+            result.put("error", "获取容器资源统计时发生错误: " + e.getMessage());
             e.printStackTrace();
-            return false;
         }
+        
+        return ResponseEntity.ok(result);
+    }
+    
+    // 宿主机进程表：按 CPU 使用率、常驻内存、线程数或累计 CPU 时间取前 limit 个进程（后台扫描的最新结果）
+    @GetMapping("/metrics/processes")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getProcesses(@RequestParam(defaultValue = "cpu") String sort,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> result;
+        try {
+            if (!processCollector.isSupported()) {
+                result = new HashMap<>();
+                result.put("error", "进程采集未启用或找不到 proc 目录，请检查 monitor.processes.enabled 和 monitor.proc-root 配置");
+                return ResponseEntity.ok(result);
+            }
+            result = processCollector.top(sort.toLowerCase(), Math.max(1, limit));
+        } catch (IllegalArgumentException e) {
+            result = new HashMap<>();
+            result.put("error", e.getMessage());
+        }
+        
+        return ResponseEntity.ok(result);
+    }
+    
+    // 检查Docker是否可用，可用时返回null，否则返回失败原因
+    private String checkDockerAvailability() {
+        try {
+            dockerClient.checkAvailable();
+            return null;
+        } catch (Exception e) {
+            System.err.println("检查Docker可用性时发生异常: " + e.getMessage());
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        }
+    }
+    
+    private boolean isPermissionDenied(String message) {
+        return message != null && (message.contains("Permission denied") ||
+                message.contains("permission denied") ||
+                message.contains("access denied"));
     }
     
     // 获取特定容器的日志
+    // 日志边读边以流的方式写入响应，不再限制最大行数；支持 since/until 时间范围，
+    // 以及通过上一页返回的 nextCursor 继续向前翻页
     @GetMapping("/metrics/docker/logs")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getDockerLogs(String containerId, Integer lines) {
+    public ResponseEntity<StreamingResponseBody> getDockerLogs(String containerId, Integer lines, String since, String until,
+                                                               String cursor, Boolean timestamps) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            System.out.println("收到获取容器日志请求: containerId=" + containerId + ", lines=" + lines);
+            System.out.println("收到获取容器日志请求: containerId=" + containerId + ", lines=" + lines
+                    + ", since=" + since + ", until=" + until + ", cursor=" + cursor);
             
             // 改进参数验证
             if (containerId == null || containerId.trim().isEmpty()) {
                 String errorMsg = "容器ID不能为空";
                 System.out.println(errorMsg);
                 result.put("error", errorMsg);
-                return ResponseEntity.ok(result);
+                return jsonResponse(result);
             }
             
             // 去除容器ID两端的空格
@@ -363,125 +370,42 @@ public class MetricsController {
                 lines = 100;
             }
             
-            // 限制最大日志行数
-            if (lines > 1000) {
-                lines = 1000;
+            // 游标优先于 until：从上一页最旧一行的时间点继续向前读取
+            DockerLogCursor logCursor = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                try {
+                    logCursor = DockerLogCursor.decode(cursor);
+                } catch (IllegalArgumentException e) {
+                    result.put("error", e.getMessage());
+                    return jsonResponse(result);
+                }
+                until = logCursor.getUntil();
             }
             
             // 检查Docker是否可用
-            if (!checkDockerAvailability()) {
+            if (checkDockerAvailability() != null) {
                 String errorMsg = "Docker不可用，请检查权限配置";
                 System.err.println(errorMsg);
                 result.put("error", errorMsg);
                 result.put("solution", "请确保：\n" +
                           "1. 容器已挂载Docker套接字: -v /var/run/docker.sock:/var/run/docker.sock\n" +
                           "2. 容器以特权模式运行: --privileged\n" +
-                          "3. 应用用户已添加到docker组\n" +
-                          "4. Docker客户端已安装在容器中");
-                return ResponseEntity.ok(result);
-            }
-            
-            // 获取容器日志
-            String[] command = {"docker", "logs", "--tail", String.valueOf(lines), containerId};
-            System.out.println("执行命令: " + String.join(" ", command));
-            
-            Process process = Runtime.getRuntime().exec(command);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream(), "UTF-8"));
-            
-            StringBuilder logs = new StringBuilder();
-            StringBuilder errorOutput = new StringBuilder();
-            
-            // 使用线程分别读取标准输出和错误输出，避免阻塞
-            Thread outputThread = new Thread(() -> {
-                try {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        logs.append(line).append("\n");
-                    }
-                } catch (Exception e) {
-                    System.err.println("读取标准输出时发生异常: " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    try {
-                        if (reader != null) {
-                            reader.close();
-                        }
-                    } catch (Exception e) {
-                        System.err.println("关闭标准输出读取器时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-            });
-            
-            Thread errorThread = new Thread(() -> {
-                try {
-                    String line;
-                    while ((line = errorReader.readLine()) != null) {
-                        errorOutput.append(line).append("\n");
-                    }
-                } catch (Exception e) {
-                    System.err.println("读取错误输出时发生异常: " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    try {
-                        if (errorReader != null) {
-                            errorReader.close();
-                        }
-                    } catch (Exception e) {
-                        System.err.println("关闭错误输出读取器时发生异常: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-            });
-            
-            outputThread.start();
-            errorThread.start();
-            
-            // 等待线程执行完成，设置超时时间
-            try {
-                outputThread.join(10000); // 10秒超时
-                errorThread.join(10000);  // 10秒超时
-            } catch (InterruptedException e) {
-                System.err.println("等待线程完成时被中断: " + e.getMessage());
-                Thread.currentThread().interrupt(); // 恢复中断状态
-            }
-            
-            int exitCode = process.waitFor();
-            System.out.println("命令执行完成，退出码: " + exitCode);
-            
-            if (errorOutput.length() > 0) {
-                System.out.println("错误输出: " + errorOutput.toString());
+                          "3. 应用用户已添加到docker组");
+                return jsonResponse(result);
             }
             
-            // 如果命令执行出错，返回错误信息
-            if (exitCode != 0) {
-                String errorMsg = "执行docker logs命令失败，退出码: " + exitCode;
-                if (errorOutput.length() > 0) {
-                    errorMsg += "，错误信息: " + errorOutput.toString();
-                }
-                System.err.println(errorMsg);
-                
-                // 特别处理权限问题
-                if (errorOutput.toString().contains("permission denied") || 
-                    errorOutput.toString().contains("access denied") ||
-                    errorOutput.toString().contains("Are you trying to connect to a TLS-enabled daemon without TLS?")) {
-                    result.put("solution", "权限被拒绝。请尝试以下解决方案：\n" +
-                              "1. 确保容器已挂载Docker套接字: -v /var/run/docker.sock:/var/run/docker.sock\n" +
-                              "2. 确保容器以特权模式运行: --privileged\n" +
-                              "3. 确保应用用户已添加到docker组\n" +
-                              "4. 重启Docker服务: sudo systemctl restart docker\n" +
-                              "5. 检查/var/run/docker.sock文件权限\n" +
-                              "6. 在docker-compose.yml中添加privileged: true配置项");
-                }
-                
-                result.put("error", errorMsg);
-                return ResponseEntity.ok(result);
-            }
+            // 始终带时间戳读取，用于生成翻页游标；输出时按需去掉
+            DockerLogOptions options = new DockerLogOptions()
+                    .tail(lines + (logCursor != null ? logCursor.getSkip() : 0))
+                    .timestamps(true)
+                    .since(since)
+                    .until(until);
+            DockerLogStream logStream = dockerClient.openLogs(containerId, options);
             
-            result.put("logs", logs.toString());
-            result.put("containerId", containerId);
-            System.out.println("成功返回日志，日志行数: " + (logs.toString().split("\n").length - 1));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new LogPageStreamer(containerId, logStream, lines,
+                            Boolean.TRUE.equals(timestamps), logCursor));
             
         } catch (Exception e) {
             String errorMsg = "获取容器日志时发生错误: " + e.getMessage();
@@ -489,8 +413,7 @@ public class MetricsController {
             e.printStackTrace();
             
             // 特别处理权限相关的异常
-            if (e.getMessage() != null && (e.getMessage().contains("Permission denied") || 
-                e.getMessage().contains("permission denied"))) {
+            if (isPermissionDenied(e.getMessage())) {
                 result.put("solution", "权限被拒绝。请尝试以下解决方案：\n" +
                           "1. 确保容器已挂载Docker套接字: -v /var/run/docker.sock:/var/run/docker.sock\n" +
                           "2. 确保容器以特权模式运行: --privileged\n" +
@@ -503,217 +426,96 @@ public class MetricsController {
             result.put("error", errorMsg);
         }
         
-        return ResponseEntity.ok(result);
+        return jsonResponse(result);
     }
     
-    // 获取特定容器的实时日志流信息
-    @GetMapping("/metrics/docker/logs/stream")
+    // 流式接口的非流式应答（错误信息等）
+    private ResponseEntity<StreamingResponseBody> jsonResponse(Map<String, Object> body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, body));
+    }
+    
+    // 检索落盘的容器日志（需开启 monitor.spool.enabled）
+    // q 为子串，regex=true 时按正则表达式匹配；from/to 为毫秒时间戳，缺省时检索全部落盘日志
+    @GetMapping("/metrics/docker/logs/search")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> streamDockerLogs(String containerId) {
+    public ResponseEntity<Map<String, Object>> searchDockerLogs(String containerId, String q,
+                                                                @RequestParam(required = false) Long from,
+                                                                @RequestParam(required = false) Long to,
+                                                                Boolean regex, Boolean ignoreCase, Integer limit) {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            if (containerId == null || containerId.isEmpty()) {
+            if (!logSpool.isEnabled()) {
+                result.put("error", "日志落盘未启用，请设置 monitor.spool.enabled=true");
+                return ResponseEntity.ok(result);
+            }
+            if (containerId == null || containerId.trim().isEmpty()) {
                 result.put("error", "容器ID不能为空");
                 return ResponseEntity.ok(result);
             }
+            if (q == null || q.isEmpty()) {
+                result.put("error", "检索内容不能为空");
+                return ResponseEntity.ok(result);
+            }
+            long start = from != null ? TimeUnit.MILLISECONDS.toNanos(from) : Long.MIN_VALUE;
+            long end = to != null ? TimeUnit.MILLISECONDS.toNanos(to) + 999_999L : Long.MAX_VALUE;
+            if (start > end) {
+                result.put("error", "from 不能大于 to");
+                return ResponseEntity.ok(result);
+            }
+            // 默认最多返回500条，上限10000条
+            int maxHits = limit == null || limit <= 0 ? 500 : Math.min(limit, 10000);
             
-            result.put("wsEndpoint", "/ws/docker/logs");
-            result.put("containerId", containerId);
-            result.put("message", "请通过WebSocket连接获取实时日志");
+            Map<String, Object> found = logSpool.search(containerId.trim(), q, Boolean.TRUE.equals(regex),
+                    Boolean.TRUE.equals(ignoreCase), start, end, maxHits);
+            if (found == null) {
+                result.put("error", "没有容器 " + containerId + " 的落盘日志");
+                return ResponseEntity.ok(result);
+            }
+            result = found;
             
+        } catch (PatternSyntaxException e) {
+            result.put("error", "正则表达式无效: " + e.getDescription());
         } catch (Exception e) {
-            result.put("error", "获取日志流端点信息时发生错误: " + e.getMessage());
+            String errorMsg = "检索容器日志时发生错误: " + e.getMessage();
+            System.err.println(errorMsg);
             e.printStackTrace();
+            result.put("error", errorMsg);
         }
         
         return ResponseEntity.ok(result);
     }
     
-    // 获取GPU信息
-    private Map<String, Object> getGpuInfo() {
-        Map<String, Object> gpuInfo = new HashMap<>();
-        
-        try {
-            // 尝试执行nvidia-smi命令获取GPU信息
-            Process process = Runtime.getRuntime().exec("nvidia-smi --query-gpu=index,name,utilization.gpu,memory.used,memory.total --format=csv,noheader,nounits");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            
-            String line;
-            StringBuilder gpuData = new StringBuilder();
-            while ((line = reader.readLine()) != null) {
-                gpuData.append(line).append(";");
-            }
-            
-            process.waitFor();
-            reader.close();
-            
-            String[] gpuEntries = gpuData.toString().split(";");
-            gpuInfo.put("gpuCount", gpuEntries.length > 0 && !gpuEntries[0].isEmpty() ? gpuEntries.length : 0);
-            
-            // 解析第一个GPU的信息
-            if (gpuEntries.length > 0 && !gpuEntries[0].isEmpty()) {
-                String[] firstGpuData = gpuEntries[0].split(",");
-                if (firstGpuData.length >= 5) {
-                    gpuInfo.put("gpuName", firstGpuData[1].trim());
-                    gpuInfo.put("gpuUtilization", Integer.parseInt(firstGpuData[2].trim()));
-                    
-                    int memoryUsed = Integer.parseInt(firstGpuData[3].trim());
-                    int memoryTotal = Integer.parseInt(firstGpuData[4].trim());
-                    gpuInfo.put("gpuMemoryUsed", memoryUsed);
-                    gpuInfo.put("gpuMemoryTotal", memoryTotal);
-                    gpuInfo.put("gpuMemoryUtilization", memoryTotal > 0 ? round((memoryUsed * 100.0) / memoryTotal, 2) : 0);
-                }
-            }
-        } catch (NumberFormatException e) {
-            gpuInfo.put("error", "无CUDA配置: " + e.getMessage());
-            e.printStackTrace();
-            System.err.println("解析GPU信息时发生数字格式异常: " + e.getMessage());
-            gpuInfo.put("error", "无法解析GPU信息: " + e.getMessage());
-            gpuInfo.put("gpuCount", 0);
-        } catch (Exception e) {
-            System.err.println("获取GPU信息时发生异常: " + e.getMessage());
-            e.printStackTrace();
-            gpuInfo.put("error", "无法获取GPU信息: " + e.getMessage());
-            gpuInfo.put("gpuCount", 0);
-        }
-        
-        return gpuInfo;
+    // 日志落盘的跟随状态：正在跟随、超出上限未跟随、被线程池拒绝的容器
+    @GetMapping("/metrics/docker/logs/spool")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getLogSpoolStatus() {
+        return ResponseEntity.ok(logSpool.getStatus());
     }
     
-    // 获取网络速度信息
-    private Map<String, Object> getNetworkSpeed() {
-        Map<String, Object> networkSpeed = new HashMap<>();
-        BufferedReader reader = null; // 将reader声明在方法开始处，确保在整个方法中可见
+    // 获取特定容器的实时日志流信息
+    @GetMapping("/metrics/docker/logs/stream")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> streamDockerLogs(String containerId) {
+        Map<String, Object> result = new HashMap<>();
         
         try {
-            String osName = System.getProperty("os.name").toLowerCase();
-            Process process = null;
-            
-            if (osName.contains("win")) {
-                // Windows系统
-                process = Runtime.getRuntime().exec("netstat -e");
-                reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                
-                // 跳过前几行，读取包含字节统计的行
-                reader.readLine(); // 标题行
-                reader.readLine(); // 标题说明行
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains("Bytes")) {
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length >= 3) {
-                            long receivedBytes = Long.parseLong(parts[1]);
-                            long sentBytes = Long.parseLong(parts[2]);
-                            
-                            long currentTimestamp = System.currentTimeMillis();
-                            networkSpeed.put("receivedBytes", receivedBytes);
-                            networkSpeed.put("sentBytes", sentBytes);
-                            networkSpeed.put("lastReceivedBytes", lastReceivedBytes);
-                            networkSpeed.put("lastSentBytes", lastSentBytes);
-                            networkSpeed.put("lastTimestamp", lastTimestamp);
-                            networkSpeed.put("currentTimestamp", currentTimestamp);
-                            
-                            if (lastTimestamp > 0) {
-                                double timeDiffSeconds = (currentTimestamp - lastTimestamp) / 1000.0;
-                                if (timeDiffSeconds > 0) {
-                                    double receivedKbps = ((receivedBytes - lastReceivedBytes) * 8.0) / (timeDiffSeconds * 1000.0);
-                                    double sentKbps = ((sentBytes - lastSentBytes) * 8.0) / (timeDiffSeconds * 1000.0);
-                                    
-                                    networkSpeed.put("receivedKbps", round(receivedKbps, 2));
-                                    networkSpeed.put("sentKbps", round(sentKbps, 2));
-                                }
-                            }
-                            
-                            // 更新上次数据
-                            lastReceivedBytes = receivedBytes;
-                            lastSentBytes = sentBytes;
-                            lastTimestamp = currentTimestamp;
-                            
-                            networkSpeed.put("totalReceivedMB", round(receivedBytes / (1024.0 * 1024.0), 2));
-                            networkSpeed.put("totalSentMB", round(sentBytes / (1024.0 * 1024.0), 2));
-                            
-                            break;
-                        }
-                    }
-                }
-            } else {
-                // Unix/Linux/macOS系统
-                process = Runtime.getRuntime().exec("cat /proc/net/dev");
-                reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                
-                reader.readLine(); // 标题行
-                reader.readLine(); // 标题说明行
-                
-                long totalReceivedBytes = 0;
-                long totalSentBytes = 0;
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.startsWith("Inter") && !line.startsWith("face")) { // 跳过标题行
-                        String[] parts = line.split("\\s+");
-                        if (parts.length >= 10) {
-                            // 忽略lo接口
-                            if (!parts[0].startsWith("lo:")) {
-                                totalReceivedBytes += Long.parseLong(parts[1]);
-                                totalSentBytes += Long.parseLong(parts[9]);
-                            }
-                        }
-                    }
-                }
-                
-                long currentTimestamp = System.currentTimeMillis();
-                networkSpeed.put("receivedBytes", totalReceivedBytes);
-                networkSpeed.put("sentBytes", totalSentBytes);
-                networkSpeed.put("lastReceivedBytes", lastReceivedBytes);
-                networkSpeed.put("lastSentBytes", lastSentBytes);
-                networkSpeed.put("lastTimestamp", lastTimestamp);
-                networkSpeed.put("currentTimestamp", currentTimestamp);
-                
-                if (lastTimestamp > 0) {
-                    double timeDiffSeconds = (currentTimestamp - lastTimestamp) / 1000.0;
-                    if (timeDiffSeconds > 0) {
-                        double receivedKbps = ((totalReceivedBytes - lastReceivedBytes) * 8.0) / (timeDiffSeconds * 1000.0);
-                        double sentKbps = ((totalSentBytes - lastSentBytes) * 8.0) / (timeDiffSeconds * 1000.0);
-                        
-                        networkSpeed.put("receivedKbps", round(receivedKbps, 2));
-                        networkSpeed.put("sentKbps", round(sentKbps, 2));
-                    }
-                }
-                
-                // 更新上次数据
-                lastReceivedBytes = totalReceivedBytes;
-                lastSentBytes = totalSentBytes;
-                lastTimestamp = currentTimestamp;
-                
-                networkSpeed.put("totalReceivedMB", round(totalReceivedBytes / (1024.0 * 1024.0), 2));
-                networkSpeed.put("totalSentMB", round(totalSentBytes / (1024.0 * 1024.0), 2));
+            if (containerId == null || containerId.isEmpty()) {
+                result.put("error", "容器ID不能为空");
+                return ResponseEntity.ok(result);
             }
             
-            if (process != null) {
-                process.waitFor();
-            }
-        } catch (NumberFormatException e) {
-            System.err.println("解析网络速度信息时发生数字格式异常: " + e.getMessage());
-            e.printStackTrace();
-            networkSpeed.put("error", "无法解析网络速度信息: " + e.getMessage());
+            result.put("wsEndpoint", "/ws/docker/logs");
+            result.put("containerId", containerId);
+            result.put("message", "请通过WebSocket连接获取实时日志");
+            
         } catch (Exception e) {
-            System.err.println("获取网络速度信息时发生异常: " + e.getMessage());
+            result.put("error", "获取日志流端点信息时发生错误: " + e.getMessage());
             e.printStackTrace();
-            networkSpeed.put("error", "无法获取网络速度信息: " + e.getMessage());
-        } finally {
-            // 确保资源被正确关闭
-            try {
-                if (reader != null) {
-                    reader.close();
-                }
-            } catch (Exception e) {
-                System.err.println("关闭网络信息读取器时发生异常: " + e.getMessage());
-                e.printStackTrace();
-            }
         }
         
-        return networkSpeed;
+        return ResponseEntity.ok(result);
     }
 }
-
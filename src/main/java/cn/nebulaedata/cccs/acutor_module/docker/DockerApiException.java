@@ -0,0 +1,20 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.io.IOException;
+
+/**
+ * Docker Engine API 返回非 2xx 状态码时抛出。
+ */
+public class DockerApiException extends IOException {
+
+    private final int statusCode;
+
+    public DockerApiException(int statusCode, String message) {
+        super("Docker API错误(" + statusCode + "): " + message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,76 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 到 Docker 守护进程的一条 HTTP/1.1 连接，由 {@link DockerEngineClient} 池化复用。
+ */
+class DockerConnection {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    // 读取状态行和头部时复用的行缓冲
+    private final StringBuilder lineBuffer = new StringBuilder(128);
+
+    DockerConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 1024);
+    }
+
+    void writeRequest(String method, String path) throws IOException {
+        String request = method + " " + path + " HTTP/1.1\r\n"
+                + "Host: docker\r\n"
+                + "User-Agent: monitor_module\r\n"
+                + "Accept: application/json\r\n"
+                + "\r\n";
+        out.write(request.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    // 读取一行（不含 CRLF），连接已关闭时抛出 EOFException
+    String readLine() throws IOException {
+        lineBuffer.setLength(0);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int len = lineBuffer.length();
+                if (len > 0 && lineBuffer.charAt(len - 1) == '\r') {
+                    lineBuffer.setLength(len - 1);
+                }
+                return lineBuffer.toString();
+            }
+            lineBuffer.append((char) b);
+        }
+        throw new EOFException("Docker守护进程关闭了连接");
+    }
+
+    InputStream input() {
+        return in;
+    }
+
+    void setReadTimeout(int millis) throws SocketException {
+        socket.setSoTimeout(millis);
+    }
+
+    boolean isUsable() {
+        return !socket.isClosed() && socket.isConnected() && !socket.isInputShutdown();
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("关闭Docker连接时发生异常: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 容器摘要，来自 /containers/json 或 /containers/{id}/json。
+ * 状态文本会随时间变化（"Up 2 seconds"），由 {@link DockerInventory#statusText} 根据状态和时间戳在读取时生成，
+ * status 只在没有时间戳时使用，也不参与比较：列表接口带 status 而 inspect 不带，
+ * 否则同一个容器在全量对账和事件两条路径上会被当作不同而产生多余的变更。
+ */
+@Data
+public class DockerContainer {
+    private String id;
+    // 容器名（已去掉前导的 "/"）
+    private String name;
+    private String image;
+    private String imageId;
+    // running / exited / paused ...
+    private String state;
+    // 人类可读状态，如 "Up 2 hours"
+    @EqualsAndHashCode.Exclude
+    private String status;
+    // 创建时间（秒级时间戳）
+    private long created;
+    // 最近一次启动、退出的时间（毫秒时间戳），未知时为0；只有 inspect 返回
+    private long startedAt;
+    private long finishedAt;
+    private int exitCode;
+    // 健康检查状态：starting / healthy / unhealthy，未配置健康检查时为null
+    private String health;
+}
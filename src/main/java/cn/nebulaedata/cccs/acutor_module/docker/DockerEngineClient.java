@@ -0,0 +1,474 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.newsclub.net.unix.AFUNIXSocket;
+import org.newsclub.net.unix.AFUNIXSocketAddress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 进程内的 Docker Engine API 客户端。
+ * 通过 Unix 域套接字直接与守护进程通信（HTTP/1.1），连接池化复用，JSON 响应以流式方式解析，
+ * 取代原来每次请求都启动 docker 命令行进程的做法。
+ */
+@Component
+public class DockerEngineClient {
+
+    private final File socketFile;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final BlockingQueue<DockerConnection> idleConnections;
+
+    // 各接口的耗时统计
+    private final CollectorStats pingStats;
+    private final CollectorStats containersStats;
+    private final CollectorStats imagesStats;
+    private final CollectorStats inspectStats;
+
+    public DockerEngineClient(@Value("${monitor.docker.socket:/var/run/docker.sock}") String socketPath,
+                              @Value("${monitor.docker.pool-size:4}") int poolSize,
+                              @Value("${monitor.docker.connect-timeout-ms:2000}") int connectTimeoutMs,
+                              @Value("${monitor.docker.read-timeout-ms:10000}") int readTimeoutMs,
+                              CollectorMetrics collectorMetrics) {
+        this.socketFile = new File(socketPath);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.idleConnections = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.pingStats = collectorMetrics.stats("docker.ping");
+        this.containersStats = collectorMetrics.stats("docker.containers");
+        this.imagesStats = collectorMetrics.stats("docker.images");
+        this.inspectStats = collectorMetrics.stats("docker.inspect");
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    // 检查守护进程是否可用（GET /_ping）
+    public boolean ping() {
+        try {
+            checkAvailable();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // 与 ping 相同，但失败时抛出异常以便调用方展示原因
+    public void checkAvailable() throws IOException {
+        timed(pingStats, () -> {
+            try (DockerResponse response = execute("GET", "/_ping", readTimeoutMs)) {
+                checkStatus(response);
+                drain(response);
+                return null;
+            }
+        });
+    }
+
+    // 获取容器列表（GET /containers/json）
+    public List<DockerContainer> listContainers(boolean all) throws IOException {
+        return timed(containersStats, () -> {
+            try (DockerResponse response = execute("GET", "/containers/json?all=" + (all ? 1 : 0), readTimeoutMs)) {
+                checkStatus(response);
+                List<DockerContainer> containers = new ArrayList<>();
+                JsonReader reader = jsonReader(response);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    containers.add(readContainer(reader));
+                }
+                reader.endArray();
+                drain(response);
+                return containers;
+            }
+        });
+    }
+
+    // 获取镜像列表（GET /images/json）
+    public List<DockerImage> listImages() throws IOException {
+        return timed(imagesStats, () -> {
+            try (DockerResponse response = execute("GET", "/images/json", readTimeoutMs)) {
+                checkStatus(response);
+                List<DockerImage> images = new ArrayList<>();
+                JsonReader reader = jsonReader(response);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    images.add(readImage(reader));
+                }
+                reader.endArray();
+                drain(response);
+                return images;
+            }
+        });
+    }
+
+    // 按ID获取单个容器的详情（GET /containers/{id}/json，包含已停止的容器和健康状态），不存在时返回null
+    public DockerContainer inspectContainer(String containerId) throws IOException {
+        return timed(inspectStats, () -> {
+            try (DockerResponse response = execute("GET", "/containers/" + encode(containerId) + "/json", readTimeoutMs)) {
+                if (response.getStatusCode() == 404) {
+                    drain(response);
+                    return null;
+                }
+                checkStatus(response);
+                DockerContainer container = readInspect(jsonReader(response));
+                drain(response);
+                return container;
+            }
+        });
+    }
+
+    // 一次请求-响应调用
+    private interface Call<T> {
+        T call() throws IOException;
+    }
+
+    // 记录调用耗时，失败（包括守护进程返回错误状态）计入错误次数后原样抛出
+    private static <T> T timed(CollectorStats stats, Call<T> call) throws IOException {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            stats.record(start);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            stats.recordFailure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 订阅守护进程事件流（GET /events），只关注容器和镜像事件。
+     * since 为秒级时间戳，0 表示从当前时刻开始；调用方负责关闭返回的流。
+     */
+    public DockerEventStream openEvents(long since) throws IOException {
+        String filters = "{\"type\":[\"container\",\"image\"]}";
+        String path = "/events?filters=" + encode(filters) + (since > 0 ? "&since=" + since : "");
+        DockerResponse response = execute("GET", path, 0);
+        try {
+            checkStatus(response);
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+        return new DockerEventStream(response);
+    }
+
+    /**
+     * 打开容器日志流（GET /containers/{id}/logs）。
+     * 调用方负责关闭返回的流；跟随模式下不设置读超时。
+     */
+    public DockerLogStream openLogs(String containerId, DockerLogOptions options) throws IOException {
+        String path = "/containers/" + encode(containerId) + "/logs?" + options.toQuery();
+        DockerResponse response = execute("GET", path, options.isFollow() ? 0 : readTimeoutMs);
+        try {
+            checkStatus(response);
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+        return new DockerLogStream(response);
+    }
+
+    /**
+     * 发送请求并读取状态行和头部。
+     * 从连接池取出的连接可能已被守护进程关闭，此时换一条新连接重试一次。
+     */
+    DockerResponse execute(String method, String path, int readTimeout) throws IOException {
+        DockerConnection pooled = idleConnections.poll();
+        while (pooled != null && !pooled.isUsable()) {
+            pooled.close();
+            pooled = idleConnections.poll();
+        }
+        if (pooled != null) {
+            try {
+                return send(pooled, method, path, readTimeout);
+            } catch (IOException e) {
+                pooled.close();
+            }
+        }
+        DockerConnection connection = connect();
+        try {
+            return send(connection, method, path, readTimeout);
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private DockerResponse send(DockerConnection connection, String method, String path, int readTimeout) throws IOException {
+        connection.setReadTimeout(readTimeout);
+        connection.writeRequest(method, path);
+
+        String statusLine = connection.readLine();
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("无法解析Docker响应状态行: " + statusLine);
+        }
+        int statusCode = Integer.parseInt(parts[1]);
+
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = connection.readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+        }
+        return new DockerResponse(this, connection, statusCode, headers);
+    }
+
+    private DockerConnection connect() throws IOException {
+        if (!socketFile.exists()) {
+            throw new IOException("Docker套接字不存在: " + socketFile.getPath());
+        }
+        AFUNIXSocket socket = AFUNIXSocket.newInstance();
+        try {
+            socket.connect(AFUNIXSocketAddress.of(socketFile), connectTimeoutMs);
+            return new DockerConnection(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // 归还可复用的连接，连接池已满时直接关闭
+    void release(DockerConnection connection) {
+        if (!connection.isUsable() || !idleConnections.offer(connection)) {
+            connection.close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        DockerConnection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    // 非 2xx 响应时读取守护进程返回的 {"message": "..."} 并抛出异常
+    private void checkStatus(DockerResponse response) throws IOException {
+        int status = response.getStatusCode();
+        if (status >= 200 && status < 300) return;
+
+        String message = "HTTP " + status;
+        try {
+            JsonReader reader = jsonReader(response);
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("message".equals(reader.nextName())) {
+                        message = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            drain(response);
+        } catch (Exception e) {
+            // 错误体不是 JSON 时保留状态码信息
+        }
+        throw new DockerApiException(status, message);
+    }
+
+    private JsonReader jsonReader(DockerResponse response) {
+        return new JsonReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // 读完剩余的响应体，使连接可以复用
+    private void drain(DockerResponse response) throws IOException {
+        byte[] skip = new byte[1024];
+        while (response.getBody().read(skip, 0, skip.length) != -1) {
+            // 丢弃
+        }
+    }
+
+    private DockerContainer readContainer(JsonReader reader) throws IOException {
+        DockerContainer container = new DockerContainer();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    container.setId(reader.nextString());
+                    break;
+                case "Names":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        String name = reader.nextString();
+                        if (container.getName() == null) {
+                            container.setName(name.startsWith("/") ? name.substring(1) : name);
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                case "Image":
+                    container.setImage(reader.nextString());
+                    break;
+                case "ImageID":
+                    container.setImageId(reader.nextString());
+                    break;
+                case "State":
+                    container.setState(reader.nextString());
+                    break;
+                case "Status":
+                    container.setStatus(reader.nextString());
+                    break;
+                case "Created":
+                    container.setCreated(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return container;
+    }
+
+    // 解析 inspect 的结果，只读取容器摘要需要的字段
+    private DockerContainer readInspect(JsonReader reader) throws IOException {
+        DockerContainer container = new DockerContainer();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    container.setId(reader.nextString());
+                    break;
+                case "Name":
+                    String name = reader.nextString();
+                    container.setName(name.startsWith("/") ? name.substring(1) : name);
+                    break;
+                case "Created":
+                    container.setCreated(parseTime(reader.nextString()) / 1000);
+                    break;
+                case "Image":
+                    container.setImageId(reader.nextString());
+                    break;
+                case "Config":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("Image".equals(reader.nextName())) {
+                            container.setImage(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "State":
+                    readState(reader, container);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return container;
+    }
+
+    private void readState(JsonReader reader, DockerContainer container) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Status":
+                    container.setState(reader.nextString());
+                    break;
+                case "ExitCode":
+                    container.setExitCode(reader.nextInt());
+                    break;
+                case "StartedAt":
+                    container.setStartedAt(parseTime(reader.nextString()));
+                    break;
+                case "FinishedAt":
+                    container.setFinishedAt(parseTime(reader.nextString()));
+                    break;
+                case "Health":
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("Status".equals(reader.nextName())) {
+                            container.setHealth(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    // RFC 3339 时间转为毫秒时间戳；未设置时守护进程返回 0001-01-01T00:00:00Z，记为0
+    private static long parseTime(String value) {
+        try {
+            return Math.max(0, Instant.parse(value).toEpochMilli());
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    private DockerImage readImage(JsonReader reader) throws IOException {
+        DockerImage image = new DockerImage();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    image.setId(reader.nextString());
+                    break;
+                case "RepoTags":
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        image.getRepoTags().add(reader.nextString());
+                    }
+                    reader.endArray();
+                    break;
+                case "Size":
+                    image.setSize(reader.nextLong());
+                    break;
+                case "Created":
+                    image.setCreated(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return image;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import lombok.Data;
+
+/**
+ * /events 流中的一条事件。
+ */
+@Data
+public class DockerEvent {
+    // container / image / network ...
+    private String type;
+    // start / stop / die / destroy / pull / delete ...
+    private String action;
+    // 对象ID（容器ID或镜像ID/名称）
+    private String id;
+    // 事件时间（纳秒级时间戳）
+    private long timeNano;
+}
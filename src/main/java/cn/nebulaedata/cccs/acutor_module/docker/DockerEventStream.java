@@ -0,0 +1,75 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Docker 事件流。守护进程持续输出以换行分隔的 JSON 对象，这里按对象流式解析。
+ */
+public class DockerEventStream implements Closeable {
+
+    private final DockerResponse response;
+    private final JsonReader reader;
+
+    DockerEventStream(DockerResponse response) {
+        this.response = response;
+        this.reader = new JsonReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+        // 允许连续的多个顶层 JSON 值
+        this.reader.setLenient(true);
+    }
+
+    /**
+     * 阻塞读取下一条事件，流结束时返回 null。
+     */
+    public DockerEvent next() throws IOException {
+        if (reader.peek() == JsonToken.END_DOCUMENT) return null;
+
+        DockerEvent event = new DockerEvent();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Type":
+                    event.setType(reader.nextString());
+                    break;
+                case "Action":
+                    event.setAction(reader.nextString());
+                    break;
+                case "Actor":
+                    readActor(event);
+                    break;
+                case "timeNano":
+                    event.setTimeNano(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return event;
+    }
+
+    private void readActor(DockerEvent event) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("ID".equals(reader.nextName())) {
+                event.setId(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * 关闭事件流，可在其他线程调用以中断阻塞中的 {@link #next()}。
+     */
+    @Override
+    public void close() {
+        response.close();
+    }
+}
@@ -0,0 +1,18 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * /images/json 返回的镜像摘要。
+ */
+@Data
+public class DockerImage {
+    private String id;
+    private List<String> repoTags = new ArrayList<>();
+    private long size;
+    // 创建时间（秒级时间戳）
+    private long created;
+}
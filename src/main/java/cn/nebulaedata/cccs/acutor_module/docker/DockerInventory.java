@@ -0,0 +1,528 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 事件驱动的容器/镜像清单缓存。
+ * 启动时全量加载一次（每个容器再 inspect 一次以取得启动/退出时间和健康状态），之后订阅守护进程的事件流增量更新；
+ * 事件流断开后重新连接并全量对账。单个事件获取容器详情失败时只跳过该事件。
+ * 状态文本（"Up 2 seconds"）在读取视图时根据状态和时间戳生成，不会随缓存变旧。
+ * 每次变更递增版本号并记录到有界的变更日志中，客户端可以查询某个版本之后的变更。
+ * 同时按事件统计每个容器的重启次数（die 之后再次 start，包括重启策略触发的重启和 docker restart）。
+ */
+@Component
+public class DockerInventory {
+
+    public static final String TYPE_CONTAINER = "container";
+    public static final String TYPE_IMAGE = "image";
+    public static final String ACTION_UPSERT = "upsert";
+    public static final String ACTION_REMOVE = "remove";
+
+    // 会改变容器状态的事件，其余（exec_*、attach、resize 等）忽略
+    private static final Set<String> CONTAINER_ACTIONS = new HashSet<>(Arrays.asList(
+            "create", "start", "restart", "stop", "die", "kill", "pause", "unpause",
+            "rename", "update", "oom", "destroy", "health_status"));
+    // 会改变镜像列表的事件
+    private static final Set<String> IMAGE_ACTIONS = new HashSet<>(Arrays.asList(
+            "pull", "delete", "tag", "untag", "load", "import", "save", "build"));
+
+    private final DockerEngineClient dockerClient;
+    private final int changeLogCapacity;
+    private final long reconnectDelayMs;
+    private final long maxReconnectDelayMs;
+
+    private volatile Snapshot snapshot = new Snapshot(0, false, "清单尚未加载",
+            Collections.<String, DockerContainer>emptyMap(), Collections.<String, DockerImage>emptyMap());
+
+    // 变更日志，按版本号递增排列，由 this 保护
+    private final ArrayDeque<Change> changeLog = new ArrayDeque<>();
+    // 已被淘汰的最大版本号，早于它的增量查询需要全量返回
+    private long trimmedVersion = 0;
+
+    // 每个容器自本进程启动以来的重启次数，最近一次事件为 die 的容器，以及被手动 stop / kill 后尚未再次启动的容器
+    private final Map<String, Long> restartCounts = new ConcurrentHashMap<>();
+    private final Set<String> exitedContainers = ConcurrentHashMap.newKeySet();
+    private final Set<String> stoppedContainers = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running = false;
+    private volatile DockerEventStream currentStream;
+    private final ExecutorService streamExecutor;
+    private Future<?> watcherTask;
+
+    public DockerInventory(DockerEngineClient dockerClient,
+                           @Qualifier("streamExecutor") ExecutorService streamExecutor,
+                           @Value("${monitor.docker.inventory.change-log-size:4096}") int changeLogCapacity,
+                           @Value("${monitor.docker.inventory.reconnect-delay-ms:1000}") long reconnectDelayMs) {
+        this.dockerClient = dockerClient;
+        this.streamExecutor = streamExecutor;
+        this.changeLogCapacity = Math.max(16, changeLogCapacity);
+        this.reconnectDelayMs = Math.max(100, reconnectDelayMs);
+        this.maxReconnectDelayMs = Math.max(this.reconnectDelayMs, 30000);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        // 事件流是长期阻塞读取，在流式读取线程池中执行
+        watcherTask = streamExecutor.submit(this::watch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        DockerEventStream stream = currentStream;
+        if (stream != null) {
+            stream.close();
+        }
+        if (watcherTask != null) {
+            watcherTask.cancel(true);
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // 容器自本进程启动以来的重启次数
+    public long getRestartCount(String containerId) {
+        Long count = restartCounts.get(containerId);
+        return count != null ? count : 0;
+    }
+
+    // 订阅事件流并维护清单，连接断开后按退避间隔重连并全量对账
+    private void watch() {
+        long delay = reconnectDelayMs;
+        while (running) {
+            DockerEventStream stream = null;
+            try {
+                // 先订阅再全量加载，保证加载期间发生的事件不会丢失
+                stream = dockerClient.openEvents(0);
+                currentStream = stream;
+                resync();
+                delay = reconnectDelayMs;
+
+                DockerEvent event;
+                while (running && (event = stream.next()) != null) {
+                    apply(event);
+                }
+                if (running) {
+                    System.err.println("Docker事件流已结束，准备重新连接");
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                System.err.println("Docker事件流异常: " + e.getMessage());
+                markUnavailable(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            } finally {
+                currentStream = null;
+                if (stream != null) {
+                    stream.close();
+                }
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, maxReconnectDelayMs);
+        }
+    }
+
+    // 全量加载容器和镜像，并与当前清单对账生成变更
+    private void resync() throws Exception {
+        Map<String, DockerContainer> containers = new HashMap<>();
+        for (DockerContainer container : dockerClient.listContainers(true)) {
+            // 列表接口没有时间戳和健康状态，逐个 inspect；失败时保留列表中的摘要
+            DockerContainer inspected = null;
+            try {
+                inspected = dockerClient.inspectContainer(container.getId());
+            } catch (IOException e) {
+                System.err.println("获取容器 " + container.getId() + " 的详情失败: " + e.getMessage());
+            }
+            if (inspected != null) {
+                inspected.setStatus(container.getStatus());
+                container = inspected;
+            }
+            containers.put(container.getId(), container);
+        }
+        Map<String, DockerImage> images = new HashMap<>();
+        for (DockerImage image : dockerClient.listImages()) {
+            images.put(image.getId(), image);
+        }
+
+        synchronized (this) {
+            Snapshot current = snapshot;
+            long version = current.version;
+            version = diff(TYPE_CONTAINER, current.containers, containers, version);
+            version = diff(TYPE_IMAGE, current.images, images, version);
+            snapshot = new Snapshot(version, true, null, containers, images);
+        }
+        System.out.println("Docker清单已同步: 容器 " + containers.size() + " 个, 镜像 " + images.size() + " 个");
+    }
+
+    private void apply(DockerEvent event) throws Exception {
+        if (event.getId() == null) return;
+        String action = event.getAction() == null ? "" : event.getAction();
+        // health_status 等带参数的事件形如 "health_status: healthy"
+        int colon = action.indexOf(':');
+        if (colon >= 0) action = action.substring(0, colon);
+
+        if (TYPE_CONTAINER.equals(event.getType()) && CONTAINER_ACTIONS.contains(action)) {
+            countRestart(event.getId(), action);
+            // destroy 之后容器已不存在，其余事件重新获取一次容器详情；获取失败时跳过该事件，不中断事件流
+            DockerContainer container = null;
+            if (!"destroy".equals(action)) {
+                try {
+                    container = dockerClient.inspectContainer(event.getId());
+                } catch (IOException e) {
+                    System.err.println("处理容器 " + event.getId() + " 的 " + action + " 事件时获取详情失败，跳过: "
+                            + e.getMessage());
+                    return;
+                }
+            }
+            synchronized (this) {
+                Snapshot current = snapshot;
+                Map<String, DockerContainer> containers = new HashMap<>(current.containers);
+                if (container == null) {
+                    containers.remove(event.getId());
+                } else {
+                    containers.put(container.getId(), container);
+                }
+                long version = diff(TYPE_CONTAINER, current.containers, containers, current.version);
+                if (version != current.version) {
+                    snapshot = new Snapshot(version, true, null, containers, current.images);
+                }
+            }
+        } else if (TYPE_IMAGE.equals(event.getType()) && IMAGE_ACTIONS.contains(action)) {
+            // 镜像事件较少，直接重新获取镜像列表
+            Map<String, DockerImage> images = new HashMap<>();
+            for (DockerImage image : dockerClient.listImages()) {
+                images.put(image.getId(), image);
+            }
+            synchronized (this) {
+                Snapshot current = snapshot;
+                long version = diff(TYPE_IMAGE, current.images, images, current.version);
+                if (version != current.version) {
+                    snapshot = new Snapshot(version, true, null, current.containers, images);
+                }
+            }
+        }
+    }
+
+    // 只有 die 之后直接 start（重启策略拉起）才算一次重启；
+    // docker stop / kill / restart 的事件顺序为 kill → die → stop → start，中间出现 stop 或 kill 的不计
+    private void countRestart(String id, String action) {
+        switch (action) {
+            case "kill":
+            case "stop":
+                stoppedContainers.add(id);
+                exitedContainers.remove(id);
+                break;
+            case "die":
+                if (!stoppedContainers.contains(id)) {
+                    exitedContainers.add(id);
+                }
+                break;
+            case "start":
+                stoppedContainers.remove(id);
+                if (exitedContainers.remove(id)) {
+                    restartCounts.merge(id, 1L, Long::sum);
+                }
+                break;
+            case "destroy":
+                stoppedContainers.remove(id);
+                exitedContainers.remove(id);
+                restartCounts.remove(id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private synchronized void markUnavailable(String error) {
+        Snapshot current = snapshot;
+        if (current.available || !error.equals(current.error)) {
+            snapshot = new Snapshot(current.version, false, error, current.containers, current.images);
+        }
+    }
+
+    // 比较新旧两份数据，为每个新增/修改/删除的对象记录变更，返回最新版本号
+    private <T> long diff(String type, Map<String, T> before, Map<String, T> after, long version) {
+        for (Map.Entry<String, T> entry : after.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                record(new Change(++version, type, entry.getKey(), ACTION_UPSERT));
+            }
+        }
+        for (String id : before.keySet()) {
+            if (!after.containsKey(id)) {
+                record(new Change(++version, type, id, ACTION_REMOVE));
+            }
+        }
+        return version;
+    }
+
+    private void record(Change change) {
+        changeLog.addLast(change);
+        while (changeLog.size() > changeLogCapacity) {
+            trimmedVersion = changeLog.removeFirst().version;
+        }
+    }
+
+    /**
+     * 返回版本号大于 sinceVersion 的变更，同一对象只保留最后一次变更。
+     * 请求的版本已超出变更日志的保留范围时返回 null，调用方应改为全量获取。
+     */
+    public synchronized List<Change> changesSince(long sinceVersion) {
+        if (sinceVersion < trimmedVersion || sinceVersion > snapshot.version) {
+            return null;
+        }
+        Map<String, Change> latest = new LinkedHashMap<>();
+        Iterator<Change> iterator = changeLog.descendingIterator();
+        while (iterator.hasNext()) {
+            Change change = iterator.next();
+            if (change.version <= sinceVersion) break;
+            latest.putIfAbsent(change.type + "/" + change.id, change);
+        }
+        List<Change> result = new ArrayList<>(latest.values());
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 清单中的一次变更。
+     */
+    public static final class Change {
+        private final long version;
+        private final String type;
+        private final String id;
+        private final String action;
+
+        Change(long version, String type, String id, String action) {
+            this.version = version;
+            this.type = type;
+            this.id = id;
+            this.action = action;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getAction() {
+            return action;
+        }
+    }
+
+    /**
+     * 不可变的清单快照，容器列表接口需要的视图在构建时预先生成。
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final boolean available;
+        private final String error;
+        private final Map<String, DockerContainer> containers;
+        private final Map<String, DockerImage> images;
+        // 按完整容器ID索引的容器视图（不含随时间变化的 status）
+        private final Map<String, Map<String, String>> containerViews;
+        // 运行中的容器，对应 docker ps 的结果
+        private final List<DockerContainer> runningContainers;
+
+        Snapshot(long version, boolean available, String error,
+                 Map<String, DockerContainer> containers, Map<String, DockerImage> images) {
+            this.version = version;
+            this.available = available;
+            this.error = error;
+            this.containers = Collections.unmodifiableMap(containers);
+            this.images = Collections.unmodifiableMap(images);
+
+            Map<String, String> imageSizes = new HashMap<>();
+            for (DockerImage image : images.values()) {
+                String imageSize = formatSize(image.getSize());
+                imageSizes.put(image.getId(), imageSize);
+                for (String repoTag : image.getRepoTags()) {
+                    imageSizes.put(repoTag, imageSize);
+                }
+            }
+
+            Map<String, Map<String, String>> views = new HashMap<>();
+            List<DockerContainer> running = new ArrayList<>();
+            for (DockerContainer container : containers.values()) {
+                views.put(container.getId(), toView(container, imageSizes));
+                if ("running".equals(container.getState())) {
+                    running.add(container);
+                }
+            }
+            // 与 docker ps 一致，最新创建的容器排在前面
+            running.sort((a, b) -> Long.compare(b.getCreated(), a.getCreated()));
+            this.containerViews = Collections.unmodifiableMap(views);
+            this.runningContainers = Collections.unmodifiableList(running);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public Map<String, DockerContainer> getContainers() {
+            return containers;
+        }
+
+        public Map<String, DockerImage> getImages() {
+            return images;
+        }
+
+        public Map<String, String> getContainerView(String containerId) {
+            Map<String, String> view = containerViews.get(containerId);
+            return view == null ? null : withStatus(view, containers.get(containerId), System.currentTimeMillis());
+        }
+
+        public List<Map<String, String>> getRunningContainers() {
+            long now = System.currentTimeMillis();
+            List<Map<String, String>> views = new ArrayList<>(runningContainers.size());
+            for (DockerContainer container : runningContainers) {
+                views.add(withStatus(containerViews.get(container.getId()), container, now));
+            }
+            return views;
+        }
+
+        private static Map<String, String> withStatus(Map<String, String> view, DockerContainer container, long now) {
+            Map<String, String> result = new HashMap<>(view);
+            result.put("status", statusText(container, now));
+            return result;
+        }
+
+        private static Map<String, String> toView(DockerContainer container, Map<String, String> imageSizes) {
+            Map<String, String> view = new HashMap<>();
+            view.put("id", shortId(container.getId()));
+            view.put("name", container.getName());
+            view.put("state", container.getState());
+            if (container.getHealth() != null) {
+                view.put("health", container.getHealth());
+            }
+            view.put("image", container.getImage());
+
+            String image = container.getImage() == null ? "" : container.getImage();
+            String imageSize = imageSizes.get(image);
+            if (imageSize == null) {
+                // 未指定标签的镜像默认为latest
+                imageSize = imageSizes.get(image + ":latest");
+            }
+            if (imageSize == null) {
+                imageSize = imageSizes.get(container.getImageId());
+            }
+            view.put("imageSize", imageSize != null ? imageSize : "未知");
+            return Collections.unmodifiableMap(view);
+        }
+    }
+
+    /**
+     * 按 docker ps 的格式根据状态和时间戳生成状态文本，如 "Up 2 hours (healthy)"、"Exited (0) 5 minutes ago"；
+     * 没有时间戳时（inspect 失败）使用列表接口返回的文本。
+     */
+    public static String statusText(DockerContainer container, long now) {
+        String state = container.getState() == null ? "" : container.getState();
+        long startedAt = container.getStartedAt();
+        long finishedAt = container.getFinishedAt();
+        switch (state) {
+            case "running":
+            case "paused":
+                if (startedAt <= 0) break;
+                StringBuilder text = new StringBuilder("Up ").append(humanDuration(now - startedAt));
+                if ("paused".equals(state)) {
+                    text.append(" (Paused)");
+                } else if ("starting".equals(container.getHealth())) {
+                    text.append(" (health: starting)");
+                } else if (container.getHealth() != null) {
+                    text.append(" (").append(container.getHealth()).append(')');
+                }
+                return text.toString();
+            case "restarting":
+                if (finishedAt <= 0) break;
+                return "Restarting (" + container.getExitCode() + ") " + humanDuration(now - finishedAt) + " ago";
+            case "exited":
+                if (finishedAt <= 0) break;
+                return "Exited (" + container.getExitCode() + ") " + humanDuration(now - finishedAt) + " ago";
+            case "created":
+                return "Created";
+            case "removing":
+                return "Removal In Progress";
+            case "dead":
+                return "Dead";
+            default:
+                break;
+        }
+        return container.getStatus();
+    }
+
+    // 与 docker 的 HumanDuration 一致的相对时间
+    static String humanDuration(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 1) return "Less than a second";
+        if (seconds == 1) return "1 second";
+        if (seconds < 60) return seconds + " seconds";
+        long minutes = seconds / 60;
+        if (minutes == 1) return "About a minute";
+        if (minutes < 60) return minutes + " minutes";
+        long hours = Math.round(millis / 3_600_000.0);
+        if (hours == 1) return "About an hour";
+        if (hours < 48) return hours + " hours";
+        if (hours < 24 * 7 * 2) return hours / 24 + " days";
+        if (hours < 24 * 30 * 2) return hours / 24 / 7 + " weeks";
+        if (hours < 24 * 365 * 2) return hours / 24 / 30 + " months";
+        return millis / 3_600_000 / 24 / 365 + " years";
+    }
+
+    // 与 docker ps 一致，显示12位短ID
+    static String shortId(String id) {
+        return id != null && id.length() > 12 ? id.substring(0, 12) : id;
+    }
+
+    // 与 docker images 一致，按十进制单位格式化镜像大小
+    static String formatSize(long bytes) {
+        String[] units = {"B", "kB", "MB", "GB", "TB"};
+        double size = bytes;
+        int unit = 0;
+        while (size >= 1000 && unit < units.length - 1) {
+            size /= 1000;
+            unit++;
+        }
+        return new DecimalFormat("#.##").format(size) + units[unit];
+    }
+}
@@ -0,0 +1,70 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 向前翻页读取日志的游标。
+ * 记录当前页最旧一行的时间戳，以及当前页中与该时间戳相同的行数：
+ * 下一页以该时间戳作为 until（Docker 的 until 包含边界），多取这些行并在末尾丢弃，保证不重复不遗漏。
+ * 对客户端而言是不透明的字符串。
+ */
+public class DockerLogCursor {
+
+    private static final String VERSION = "v1";
+
+    // until 边界，格式为 "秒.纳秒"
+    private final String until;
+    // 下一页末尾需要丢弃的、时间戳等于 until 的行数
+    private final int skip;
+
+    public DockerLogCursor(String until, int skip) {
+        this.until = until;
+        this.skip = skip;
+    }
+
+    public String getUntil() {
+        return until;
+    }
+
+    public int getSkip() {
+        return skip;
+    }
+
+    // 由日志行的 RFC3339Nano 时间戳构造游标
+    public static DockerLogCursor fromTimestamp(String rfc3339, int skip) {
+        return new DockerLogCursor(toUntil(rfc3339), skip);
+    }
+
+    // 把 RFC3339Nano 时间戳转换为 Docker 接受的 "秒.纳秒" 格式
+    public static String toUntil(String rfc3339) {
+        Instant instant = Instant.parse(rfc3339);
+        String nanos = String.valueOf(instant.getNano());
+        StringBuilder builder = new StringBuilder().append(instant.getEpochSecond()).append('.');
+        for (int i = nanos.length(); i < 9; i++) builder.append('0');
+        return builder.append(nanos).toString();
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + until + ":" + skip;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 解析客户端传回的游标，格式不正确时抛出 IllegalArgumentException。
+     */
+    public static DockerLogCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的日志游标");
+        }
+        String[] parts = raw.split(":");
+        if (parts.length != 3 || !VERSION.equals(parts[0]) || !parts[1].matches("\\d+\\.\\d{9}") || !parts[2].matches("\\d{1,6}")) {
+            throw new IllegalArgumentException("无效的日志游标");
+        }
+        return new DockerLogCursor(parts[1], Integer.parseInt(parts[2]));
+    }
+}
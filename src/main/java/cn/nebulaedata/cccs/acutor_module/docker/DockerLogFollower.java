@@ -0,0 +1,145 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 单个容器的共享日志跟随器。
+ * 每个容器只维持一条跟随日志流，读到的每一行分发给所有订阅者，
+ * 同时保存在有界的最近行环形缓冲区中，新加入的订阅者可以立即拿到这些历史行而无需再次向守护进程读取。
+ */
+public class DockerLogFollower {
+
+    private final String containerId;
+    private final DockerEngineClient dockerClient;
+    private final List<DockerLogSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // 最近行环形缓冲区及每行的纳秒时间戳，由 this 保护
+    private final String[] recentLines;
+    private final long[] recentTimestamps;
+    private long lineCount = 0;
+
+    // 引用计数，由 DockerLogMultiplexer 在其锁内维护
+    int refCount = 0;
+
+    private volatile boolean stopped = false;
+    // 跟随失败的原因，之后加入的订阅者也会收到
+    private volatile Exception failure;
+    private volatile DockerLogStream logStream;
+
+    DockerLogFollower(String containerId, DockerEngineClient dockerClient, int backlogLines) {
+        this.containerId = containerId;
+        this.dockerClient = dockerClient;
+        this.recentLines = new String[Math.max(1, backlogLines)];
+        this.recentTimestamps = new long[recentLines.length];
+    }
+
+    public String getContainerId() {
+        return containerId;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // 在流式读取线程池中跟随日志，线程池已满时通知订阅者
+    void start(ExecutorService streamExecutor) {
+        try {
+            streamExecutor.execute(this::follow);
+        } catch (RejectedExecutionException e) {
+            failure = e;
+            stopped = true;
+            for (DockerLogSubscriber subscriber : subscribers) {
+                subscriber.onError(e);
+            }
+        }
+    }
+
+    private void follow() {
+        try {
+            System.out.println("开始跟随容器 " + containerId + " 的日志");
+            logStream = dockerClient.openLogs(containerId,
+                    new DockerLogOptions().tail(recentLines.length).follow(true).timestamps(true));
+            if (stopped) {
+                logStream.close();
+                return;
+            }
+            logStream.pump((stderr, line) -> {
+                // 去掉守护进程添加的时间戳前缀，时间戳单独传给订阅者
+                int prefix = DockerTimestamps.prefixLength(line);
+                long timestamp = prefix > 0 ? DockerTimestamps.parseNanos(line) : -1;
+                if (timestamp < 0) {
+                    publish(System.currentTimeMillis() * 1_000_000L, line);
+                } else {
+                    publish(timestamp, line.substring(prefix + 1));
+                }
+            });
+            System.out.println("完成读取容器 " + containerId + " 的日志");
+        } catch (Exception e) {
+            if (stopped) return;
+            System.err.println("跟随容器 " + containerId + " 的日志时发生异常: " + e.getMessage());
+            failure = e;
+            for (DockerLogSubscriber subscriber : subscribers) {
+                subscriber.onError(e);
+            }
+        } finally {
+            stopped = true;
+            DockerLogStream stream = logStream;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    // 记录新行并分发给当前所有订阅者
+    private synchronized void publish(long timestamp, String line) {
+        int slot = (int) (lineCount % recentLines.length);
+        recentLines[slot] = line;
+        recentTimestamps[slot] = timestamp;
+        lineCount++;
+        for (DockerLogSubscriber subscriber : subscribers) {
+            subscriber.onLine(timestamp, line);
+        }
+    }
+
+    /**
+     * 加入订阅：先补发缓冲区中的历史行，再接收后续新行。
+     * 与 {@link #publish(long, String)} 在同一把锁下执行，保证历史行和新行之间既不重复也不遗漏。
+     */
+    synchronized void addSubscriber(DockerLogSubscriber subscriber) {
+        long count = Math.min(lineCount, recentLines.length);
+        for (long i = lineCount - count; i < lineCount; i++) {
+            int slot = (int) (i % recentLines.length);
+            subscriber.onLine(recentTimestamps[slot], recentLines[slot]);
+        }
+        subscribers.add(subscriber);
+        if (failure != null) {
+            subscriber.onError(failure);
+        }
+    }
+
+    void removeSubscriber(DockerLogSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    // 跟随失败的原因（线程池已满时为 RejectedExecutionException），没有失败时为null
+    Exception getFailure() {
+        return failure;
+    }
+
+    // 停止跟随，关闭日志流
+    void stop() {
+        stopped = true;
+        DockerLogStream stream = logStream;
+        if (stream != null) {
+            stream.close();
+        }
+        System.out.println("停止跟随容器 " + containerId + " 的日志");
+    }
+}
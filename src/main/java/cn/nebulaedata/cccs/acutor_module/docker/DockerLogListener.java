@@ -0,0 +1,13 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+/**
+ * 容器日志行回调。
+ */
+public interface DockerLogListener {
+
+    /**
+     * @param stderr 该行是否来自标准错误输出
+     * @param line   日志内容（不含换行符）
+     */
+    void onLine(boolean stderr, String line);
+}
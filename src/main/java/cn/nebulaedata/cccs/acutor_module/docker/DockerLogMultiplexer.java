@@ -0,0 +1,138 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 容器日志多路复用器。
+ * 同一容器的所有查看者共享一个 {@link DockerLogFollower}，按订阅者数量引用计数，
+ * 最后一个查看者离开时停止跟随。
+ */
+@Component
+public class DockerLogMultiplexer {
+
+    private final DockerEngineClient dockerClient;
+    private final DockerInventory dockerInventory;
+    private final ExecutorService streamExecutor;
+    private final MeterRegistry meterRegistry;
+    private final int backlogLines;
+
+    // 按完整容器ID索引的跟随器，由 this 保护
+    private final Map<String, DockerLogFollower> followers = new HashMap<>();
+
+    public DockerLogMultiplexer(DockerEngineClient dockerClient, DockerInventory dockerInventory,
+                                @Qualifier("streamExecutor") ExecutorService streamExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${monitor.docker.logs.backlog-lines:100}") int backlogLines) {
+        this.dockerClient = dockerClient;
+        this.dockerInventory = dockerInventory;
+        this.streamExecutor = streamExecutor;
+        this.meterRegistry = meterRegistry;
+        this.backlogLines = backlogLines;
+    }
+
+    /**
+     * 订阅容器日志，返回的订阅句柄用于取消订阅。
+     */
+    public Subscription subscribe(String containerId, DockerLogSubscriber subscriber) {
+        String resolvedId = resolveContainerId(containerId);
+        DockerLogFollower follower;
+        synchronized (this) {
+            follower = followers.get(resolvedId);
+            // 容器停止后日志流会结束，此时重新创建跟随器
+            if (follower == null || follower.isStopped()) {
+                follower = new DockerLogFollower(resolvedId, dockerClient, backlogLines);
+                followers.put(resolvedId, follower);
+                follower.start(streamExecutor);
+            }
+            follower.refCount++;
+        }
+        // 补发历史行可能较慢，不在多路复用器的锁内执行
+        follower.addSubscriber(subscriber);
+        return new Subscription(follower, subscriber);
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        DockerLogFollower follower = subscription.follower;
+        follower.removeSubscriber(subscription.subscriber);
+        synchronized (this) {
+            if (--follower.refCount == 0) {
+                follower.stop();
+                followers.remove(follower.getContainerId(), follower);
+            }
+        }
+    }
+
+    // 当前活跃的跟随器数量
+    public synchronized int getActiveFollowerCount() {
+        return followers.size();
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        Gauge.builder("monitor.docker.log.followers", this, DockerLogMultiplexer::getActiveFollowerCount)
+                .description("当前活跃的容器日志跟随器数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 把短ID或容器名解析为完整ID，使不同写法的查看者共享同一个跟随器；解析不到时原样返回。
+     */
+    private String resolveContainerId(String containerId) {
+        DockerInventory.Snapshot snapshot = dockerInventory.getSnapshot();
+        if (snapshot.getContainers().containsKey(containerId)) {
+            return containerId;
+        }
+        for (DockerContainer container : snapshot.getContainers().values()) {
+            if (container.getId().startsWith(containerId) || containerId.equals(container.getName())) {
+                return container.getId();
+            }
+        }
+        return containerId;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        for (DockerLogFollower follower : followers.values()) {
+            follower.stop();
+        }
+        followers.clear();
+    }
+
+    /**
+     * 订阅句柄。
+     */
+    public static final class Subscription {
+        private final DockerLogFollower follower;
+        private final DockerLogSubscriber subscriber;
+
+        Subscription(DockerLogFollower follower, DockerLogSubscriber subscriber) {
+            this.follower = follower;
+            this.subscriber = subscriber;
+        }
+
+        public String getContainerId() {
+            return follower.getContainerId();
+        }
+
+        // 跟随器仍在读取日志（容器停止后日志流结束，需要重新订阅）
+        public boolean isActive() {
+            return !follower.isStopped();
+        }
+
+        // 流式读取线程池已满，跟随器没有启动
+        public boolean isRejected() {
+            return follower.getFailure() instanceof RejectedExecutionException;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * /containers/{id}/logs 的查询参数。
+ */
+public class DockerLogOptions {
+
+    // 末尾行数，小于0表示全部
+    private int tail = -1;
+    private boolean follow = false;
+    private boolean timestamps = false;
+    // 起止时间，支持秒级时间戳（可带小数，如 1700000000.123456789）、RFC3339 时间或 "10m" 这样的相对时间，null 表示不限制
+    private String since;
+    private String until;
+
+    public DockerLogOptions tail(int tail) {
+        this.tail = tail;
+        return this;
+    }
+
+    public DockerLogOptions follow(boolean follow) {
+        this.follow = follow;
+        return this;
+    }
+
+    public DockerLogOptions timestamps(boolean timestamps) {
+        this.timestamps = timestamps;
+        return this;
+    }
+
+    public DockerLogOptions since(String since) {
+        this.since = since;
+        return this;
+    }
+
+    public DockerLogOptions until(String until) {
+        this.until = until;
+        return this;
+    }
+
+    public boolean isFollow() {
+        return follow;
+    }
+
+    String toQuery() {
+        StringBuilder query = new StringBuilder("stdout=1&stderr=1");
+        query.append("&follow=").append(follow ? 1 : 0);
+        query.append("&timestamps=").append(timestamps ? 1 : 0);
+        query.append("&tail=").append(tail < 0 ? "all" : String.valueOf(tail));
+        if (since != null && !since.isEmpty()) query.append("&since=").append(encode(since));
+        if (until != null && !until.isEmpty()) query.append("&until=").append(encode(until));
+        return query.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
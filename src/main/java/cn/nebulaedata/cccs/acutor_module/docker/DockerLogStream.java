@@ -0,0 +1,162 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 容器日志流。
+ * 非 TTY 容器的日志使用 Docker 多路复用格式（每帧8字节头：流类型 + 3字节填充 + 4字节大端长度），
+ * TTY 容器则是原始字节流；这里统一解码为按行回调。
+ */
+public class DockerLogStream implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final DockerResponse response;
+    private final InputStream in;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    private final LineAccumulator stdout = new LineAccumulator(false);
+    private final LineAccumulator stderr = new LineAccumulator(true);
+
+    DockerLogStream(DockerResponse response) {
+        this.response = response;
+        this.in = response.getBody();
+    }
+
+    /**
+     * 阻塞读取日志直到流结束或被 {@link #close()}，每读到一行回调一次。
+     */
+    public void pump(DockerLogListener listener) throws IOException {
+        try {
+            String contentType = response.getHeader("content-type");
+            byte[] header = new byte[8];
+            int headerLength = readFully(header, 0, 8);
+            if (headerLength == 0) return;
+
+            boolean multiplexed;
+            if (contentType != null && contentType.contains("multiplexed-stream")) {
+                multiplexed = true;
+            } else if (contentType != null && contentType.contains("raw-stream")) {
+                multiplexed = false;
+            } else {
+                // 旧版本守护进程不返回流类型，按帧头特征判断
+                multiplexed = headerLength == 8 && header[0] >= 0 && header[0] <= 2
+                        && header[1] == 0 && header[2] == 0 && header[3] == 0;
+            }
+
+            if (multiplexed) {
+                pumpMultiplexed(header, headerLength, listener);
+            } else {
+                stdout.append(header, 0, headerLength, listener);
+                int n;
+                while ((n = in.read(readBuffer, 0, readBuffer.length)) != -1) {
+                    stdout.append(readBuffer, 0, n, listener);
+                }
+            }
+            stdout.flush(listener);
+            stderr.flush(listener);
+        } catch (IOException e) {
+            // 主动关闭导致的读取异常不视为错误
+            if (!response.isClosed()) throw e;
+        }
+    }
+
+    private void pumpMultiplexed(byte[] header, int headerLength, DockerLogListener listener) throws IOException {
+        while (headerLength == 8) {
+            LineAccumulator target = header[0] == 2 ? stderr : stdout;
+            long frameLength = ((header[4] & 0xFFL) << 24) | ((header[5] & 0xFF) << 16)
+                    | ((header[6] & 0xFF) << 8) | (header[7] & 0xFF);
+            while (frameLength > 0) {
+                int n = in.read(readBuffer, 0, (int) Math.min(readBuffer.length, frameLength));
+                if (n == -1) throw new EOFException("日志帧提前结束");
+                target.append(readBuffer, 0, n, listener);
+                frameLength -= n;
+            }
+            headerLength = readFully(header, 0, 8);
+        }
+    }
+
+    // 尽量读满 len 个字节，返回实际读取的字节数（流结束时可能小于 len）
+    private int readFully(byte[] b, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = in.read(b, off + total, len - total);
+            if (n == -1) break;
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * 关闭日志流，可在其他线程调用以中断阻塞中的 {@link #pump(DockerLogListener)}。
+     */
+    @Override
+    public void close() {
+        response.close();
+    }
+
+    /**
+     * 把字节流切分为行，半行数据保留到下一次追加。
+     */
+    private static final class LineAccumulator {
+        private final boolean stderr;
+        private byte[] pending = new byte[256];
+        private int pendingLength = 0;
+
+        LineAccumulator(boolean stderr) {
+            this.stderr = stderr;
+        }
+
+        void append(byte[] data, int off, int len, DockerLogListener listener) {
+            int end = off + len;
+            int lineStart = off;
+            for (int i = off; i < end; i++) {
+                if (data[i] == '\n') {
+                    emit(data, lineStart, i, listener);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < end) {
+                ensureCapacity(pendingLength + end - lineStart);
+                System.arraycopy(data, lineStart, pending, pendingLength, end - lineStart);
+                pendingLength += end - lineStart;
+            }
+        }
+
+        void flush(DockerLogListener listener) {
+            if (pendingLength > 0) {
+                String line = decode(pending, 0, pendingLength);
+                pendingLength = 0;
+                listener.onLine(stderr, line);
+            }
+        }
+
+        private void emit(byte[] data, int start, int end, DockerLogListener listener) {
+            String line;
+            if (pendingLength > 0) {
+                ensureCapacity(pendingLength + end - start);
+                System.arraycopy(data, start, pending, pendingLength, end - start);
+                line = decode(pending, 0, pendingLength + end - start);
+                pendingLength = 0;
+            } else {
+                line = decode(data, start, end - start);
+            }
+            listener.onLine(stderr, line);
+        }
+
+        private static String decode(byte[] data, int off, int len) {
+            if (len > 0 && data[off + len - 1] == '\r') len--;
+            return new String(data, off, len, StandardCharsets.UTF_8);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(capacity, pending.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+/**
+ * 共享日志跟随器的订阅者（如一个 WebSocket 会话）。
+ * 回调在跟随器线程中执行，实现方不应长时间阻塞。
+ */
+public interface DockerLogSubscriber {
+
+    // 收到一行日志（包括加入时补发的历史行），timestamp 为守护进程记录的纳秒时间戳
+    void onLine(long timestamp, String line);
+
+    // 跟随日志时发生错误
+    void onError(Exception e);
+}
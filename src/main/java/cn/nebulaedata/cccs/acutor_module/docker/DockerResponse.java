@@ -0,0 +1,170 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Docker Engine API 的一次响应。
+ * 响应体以流的形式按需读取；关闭时如果响应体已读完且连接可复用，则把连接归还连接池，否则直接关闭连接。
+ */
+public class DockerResponse implements Closeable {
+
+    private final DockerEngineClient client;
+    private final DockerConnection connection;
+    private final int statusCode;
+    // 头部名称统一为小写
+    private final Map<String, String> headers;
+    private final BodyInputStream body;
+    private volatile boolean closed = false;
+
+    DockerResponse(DockerEngineClient client, DockerConnection connection, int statusCode, Map<String, String> headers) {
+        this.client = client;
+        this.connection = connection;
+        this.statusCode = statusCode;
+        this.headers = headers;
+
+        String transferEncoding = headers.get("transfer-encoding");
+        String contentLength = headers.get("content-length");
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            this.body = new ChunkedInputStream(connection);
+        } else if (contentLength != null) {
+            this.body = new FixedLengthInputStream(connection.input(), Long.parseLong(contentLength.trim()));
+        } else {
+            // 既没有长度也不是分块传输，只能读到连接关闭为止
+            this.body = new UntilCloseInputStream(connection.input());
+        }
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 释放响应。可在其他线程调用，用于中断正在阻塞读取的跟随流。
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        boolean keepAlive = !"close".equalsIgnoreCase(headers.get("connection"));
+        if (keepAlive && body.isComplete()) {
+            client.release(connection);
+        } else {
+            connection.close();
+        }
+    }
+
+    /**
+     * 响应体输入流基类，记录响应体是否已被完整读取。
+     */
+    abstract static class BodyInputStream extends InputStream {
+        abstract boolean isComplete();
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xFF;
+        }
+    }
+
+    static class FixedLengthInputStream extends BodyInputStream {
+        private final InputStream in;
+        private long remaining;
+
+        FixedLengthInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n == -1) throw new EOFException("响应体提前结束");
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        boolean isComplete() {
+            return remaining <= 0;
+        }
+    }
+
+    static class ChunkedInputStream extends BodyInputStream {
+        private final DockerConnection connection;
+        private long chunkRemaining = 0;
+        private boolean finished = false;
+
+        ChunkedInputStream(DockerConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (finished) return -1;
+            if (chunkRemaining == 0) {
+                String sizeLine = connection.readLine();
+                int semicolon = sizeLine.indexOf(';');
+                long size = Long.parseLong((semicolon >= 0 ? sizeLine.substring(0, semicolon) : sizeLine).trim(), 16);
+                if (size == 0) {
+                    // 读取可能存在的 trailer 直到空行
+                    while (!connection.readLine().isEmpty()) {
+                        // 忽略 trailer
+                    }
+                    finished = true;
+                    return -1;
+                }
+                chunkRemaining = size;
+            }
+            int n = connection.input().read(b, off, (int) Math.min(len, chunkRemaining));
+            if (n == -1) throw new EOFException("分块响应提前结束");
+            chunkRemaining -= n;
+            if (chunkRemaining == 0) {
+                // 每个分块后跟随一个 CRLF
+                connection.readLine();
+            }
+            return n;
+        }
+
+        @Override
+        boolean isComplete() {
+            return finished;
+        }
+    }
+
+    static class UntilCloseInputStream extends BodyInputStream {
+        private final InputStream in;
+
+        UntilCloseInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        boolean isComplete() {
+            // 连接不可复用
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+/**
+ * Docker 日志时间戳（RFC3339Nano，UTC，如 2024-01-01T08:00:00.123456789Z）与纳秒时间戳之间的转换。
+ * 按字符直接解析，不创建中间对象。
+ */
+public final class DockerTimestamps {
+
+    private DockerTimestamps() {
+    }
+
+    /**
+     * 解析行首的时间戳，返回纳秒级时间戳；格式不符时返回 -1。
+     * 时间戳结束位置（空格）通过 {@link #prefixLength(String)} 获取。
+     */
+    public static long parseNanos(CharSequence s) {
+        int length = s.length();
+        if (length < 20 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return -1;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || day < 1 || hour < 0 || minute < 0 || second < 0) return -1;
+
+        int pos = 19;
+        long nanos = 0;
+        if (pos < length && s.charAt(pos) == '.') {
+            pos++;
+            int scale = 100_000_000;
+            while (pos < length) {
+                int d = s.charAt(pos) - '0';
+                if (d < 0 || d > 9) break;
+                nanos += (long) d * scale;
+                scale /= 10;
+                pos++;
+            }
+        }
+        if (pos >= length || s.charAt(pos) != 'Z') return -1;
+
+        long epochDay = epochDay(year, month, day);
+        long epochSecond = epochDay * 86400L + hour * 3600L + minute * 60L + second;
+        return epochSecond * 1_000_000_000L + nanos;
+    }
+
+    // 行首时间戳的长度（到第一个空格为止），不以时间戳开头时返回 -1
+    public static int prefixLength(String line) {
+        int space = line.indexOf(' ');
+        if (space < 20 || line.charAt(4) != '-' || line.charAt(10) != 'T' || line.charAt(space - 1) != 'Z') return -1;
+        return space;
+    }
+
+    // 格式化为固定9位小数的 RFC3339Nano
+    public static String format(long epochNanos) {
+        long epochSecond = Math.floorDiv(epochNanos, 1_000_000_000L);
+        long nanos = Math.floorMod(epochNanos, 1_000_000_000L);
+        long epochDay = Math.floorDiv(epochSecond, 86400L);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+
+        // 由 epochDay 反推年月日（与 java.time.LocalDate.ofEpochDay 相同的算法）
+        long zeroDay = epochDay + 719528 - 60;
+        long yearEst = (400 * zeroDay + 591) / 146097;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        long year = yearEst + marchMonth0 / 10;
+
+        StringBuilder builder = new StringBuilder(30);
+        pad(builder, year, 4).append('-');
+        pad(builder, month, 2).append('-');
+        pad(builder, day, 2).append('T');
+        pad(builder, secondOfDay / 3600, 2).append(':');
+        pad(builder, secondOfDay / 60 % 60, 2).append(':');
+        pad(builder, secondOfDay % 60, 2).append('.');
+        pad(builder, nanos, 9).append('Z');
+        return builder.toString();
+    }
+
+    private static StringBuilder pad(StringBuilder builder, long value, int width) {
+        String digits = String.valueOf(value);
+        for (int i = digits.length(); i < width; i++) builder.append('0');
+        return builder.append(digits);
+    }
+
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    // 公历日期转换为距1970-01-01的天数
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            boolean leap = (y % 4 == 0) && (y % 100 != 0 || y % 400 == 0);
+            if (!leap) total--;
+        }
+        return total - 719528;
+    }
+}
@@ -0,0 +1,78 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 代理节点随快照推送的容器摘要：清单中的基本信息，以及运行中容器最近一次的资源统计。
+ */
+public final class ContainerSummary {
+
+    private final String id;
+    private final String name;
+    private final String image;
+    private final String state;
+    // 没有资源统计（容器未运行或宿主机不支持 cgroup 采集）时为 false
+    private final boolean hasStats;
+    private final float cpuPercent;
+    private final long memoryUsage;
+    private final long memoryLimit;
+
+    public ContainerSummary(String id, String name, String image, String state,
+                            boolean hasStats, float cpuPercent, long memoryUsage, long memoryLimit) {
+        this.id = id;
+        this.name = name;
+        this.image = image;
+        this.state = state;
+        this.hasStats = hasStats;
+        this.cpuPercent = cpuPercent;
+        this.memoryUsage = memoryUsage;
+        this.memoryLimit = memoryLimit;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public boolean hasStats() {
+        return hasStats;
+    }
+
+    public float getCpuPercent() {
+        return cpuPercent;
+    }
+
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("name", name);
+        item.put("image", image);
+        item.put("state", state);
+        if (hasStats) {
+            item.put("cpuPercent", Math.round(cpuPercent * 100.0) / 100.0);
+            item.put("memoryUsage", memoryUsage);
+            item.put("memoryLimit", memoryLimit < 0 ? null : memoryLimit);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,323 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.collector.ContainerStatsCollector;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerContainer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsListener;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 代理节点（monitor.fleet.mode=agent）：把每次采样的历史序列缓存在本地队列中，
+ * 按 push-interval-ms 批量编码、压缩后推送给汇聚节点，同时附带本机的容器摘要。
+ * 网络异常、汇聚节点返回 5xx 或 429 时数据留在队列中，按退避间隔重试；
+ * 其他 4xx（令牌错误、格式不被接受等）重试也不会成功，这批数据记录日志后丢弃。
+ * 队列超过上限时丢弃最旧的快照。
+ */
+@Component
+public class FleetAgent implements MetricsListener {
+
+    private static final String INGEST_PATH = "/fleet/ingest";
+
+    private final MetricsSampler metricsSampler;
+    private final DockerInventory dockerInventory;
+    private final ContainerStatsCollector containerStatsCollector;
+    private final ExecutorService streamExecutor;
+    private final CollectorStats pushStats;
+
+    private final boolean enabled;
+    private final String ingestUrl;
+    private final String hostId;
+    private final String advertiseUrl;
+    private final String token;
+    private final long pushIntervalMs;
+    private final long maxBackoffMs;
+    private final int maxPendingSnapshots;
+    private final int maxBatchSnapshots;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+
+    // 待推送的快照，由 this 保护
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private long dropped = 0;
+
+    private volatile boolean running = false;
+    private Future<?> pushTask;
+
+    public FleetAgent(MetricsSampler metricsSampler, DockerInventory dockerInventory,
+                      ContainerStatsCollector containerStatsCollector, CollectorMetrics collectorMetrics,
+                      @Qualifier("streamExecutor") ExecutorService streamExecutor,
+                      @Value("${monitor.fleet.mode:standalone}") String mode,
+                      @Value("${monitor.fleet.aggregator-url:}") String aggregatorUrl,
+                      @Value("${monitor.fleet.host-id:}") String hostId,
+                      @Value("${monitor.fleet.advertise-url:}") String advertiseUrl,
+                      @Value("${monitor.fleet.token:}") String token,
+                      @Value("${server.port:8080}") int serverPort,
+                      @Value("${monitor.fleet.agent.push-interval-ms:1000}") long pushIntervalMs,
+                      @Value("${monitor.fleet.agent.max-pending-snapshots:3600}") int maxPendingSnapshots,
+                      @Value("${monitor.fleet.agent.max-batch-snapshots:600}") int maxBatchSnapshots,
+                      @Value("${monitor.fleet.agent.connect-timeout-ms:2000}") int connectTimeoutMs,
+                      @Value("${monitor.fleet.agent.read-timeout-ms:5000}") int readTimeoutMs) {
+        this.metricsSampler = metricsSampler;
+        this.dockerInventory = dockerInventory;
+        this.containerStatsCollector = containerStatsCollector;
+        this.streamExecutor = streamExecutor;
+        this.pushStats = collectorMetrics.stats("fleet.push");
+        this.enabled = "agent".equalsIgnoreCase(mode);
+        String base = aggregatorUrl.trim();
+        while (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        this.ingestUrl = base.isEmpty() ? null : base + INGEST_PATH;
+        String hostname = localHostName();
+        this.hostId = hostId.trim().isEmpty() ? hostname : hostId.trim();
+        this.advertiseUrl = advertiseUrl.trim().isEmpty() ? "http://" + hostname + ":" + serverPort : advertiseUrl.trim();
+        this.token = token.trim();
+        this.pushIntervalMs = Math.max(100, pushIntervalMs);
+        this.maxBackoffMs = Math.max(this.pushIntervalMs, 60_000L);
+        this.maxPendingSnapshots = Math.max(1, maxPendingSnapshots);
+        this.maxBatchSnapshots = Math.max(1, maxBatchSnapshots);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        if (ingestUrl == null) {
+            System.err.println("代理模式未配置 monitor.fleet.aggregator-url，不会推送数据");
+            return;
+        }
+        if (token.isEmpty()) {
+            System.err.println("代理模式未配置 monitor.fleet.token，汇聚节点会拒绝推送");
+        }
+        running = true;
+        metricsSampler.addListener(this);
+        // 推送循环长期运行（阻塞的 HTTP 请求），在流式读取线程池中执行
+        pushTask = streamExecutor.submit(this::pushLoop);
+        System.out.println("代理模式已启用，主机ID: " + hostId + "，汇聚节点: " + ingestUrl);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) return;
+        running = false;
+        metricsSampler.removeListener(this);
+        if (pushTask != null) {
+            pushTask.cancel(true);
+        }
+    }
+
+    @Override
+    public void onSample(MetricsSnapshot snapshot) {
+        Pending item = new Pending(snapshot.getTimestamp(), MetricsSampler.toHistoryRow(snapshot));
+        synchronized (this) {
+            if (pending.size() >= maxPendingSnapshots) {
+                pending.pollFirst();
+                dropped++;
+            }
+            pending.addLast(item);
+        }
+    }
+
+    // 按间隔推送，失败后退避重试，恢复后立即补推积压的数据
+    private void pushLoop() {
+        long delay = pushIntervalMs;
+        boolean failing = false;
+        while (running) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                while (running && pushBatch()) {
+                    // 队列中还有数据，继续推送下一批
+                }
+                if (failing) {
+                    System.out.println("已恢复向汇聚节点推送数据");
+                    failing = false;
+                }
+                delay = pushIntervalMs;
+            } catch (Exception e) {
+                if (!running) break;
+                if (!failing) {
+                    System.err.println("向汇聚节点推送数据失败，将退避重试: " + e.getMessage());
+                    failing = true;
+                }
+                delay = Math.min(delay * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    // 推送一批，返回队列中是否还有剩余；可重试的失败时这批数据放回队首并抛出异常，不可重试的失败时丢弃
+    private boolean pushBatch() throws IOException {
+        List<Pending> batch;
+        long droppedSinceLast;
+        synchronized (this) {
+            if (pending.isEmpty()) return false;
+            int size = Math.min(pending.size(), maxBatchSnapshots);
+            batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                batch.add(pending.pollFirst());
+            }
+            droppedSinceLast = dropped;
+            dropped = 0;
+        }
+        if (droppedSinceLast > 0) {
+            System.err.println("推送队列已满，丢弃了 " + droppedSinceLast + " 个最旧的快照");
+        }
+
+        long start = System.nanoTime();
+        int count = batch.size();
+        int status;
+        try {
+            long[] timestamps = new long[count];
+            double[][] rows = new double[count][];
+            for (int i = 0; i < count; i++) {
+                timestamps[i] = batch.get(i).timestamp;
+                rows[i] = batch.get(i).row;
+            }
+            byte[] body = FleetCodec.encode(hostId, advertiseUrl, MetricsSampler.HISTORY_SERIES,
+                    timestamps, rows, count, containers());
+            status = post(body);
+        } catch (IOException e) {
+            pushStats.recordFailure(start, e);
+            requeue(batch);
+            throw e;
+        } catch (RuntimeException e) {
+            // 编码失败，重试结果相同
+            pushStats.recordFailure(start, e);
+            System.err.println("编码推送数据失败，丢弃 " + count + " 个快照: " + e);
+            return hasPending();
+        }
+
+        if (status == HttpURLConnection.HTTP_OK) {
+            pushStats.record(start);
+        } else if (isRetryable(status)) {
+            IOException e = new IOException("汇聚节点返回 HTTP " + status);
+            pushStats.recordFailure(start, e);
+            requeue(batch);
+            throw e;
+        } else {
+            pushStats.recordFailure(start, "汇聚节点返回 HTTP " + status);
+            System.err.println("汇聚节点拒绝了推送数据（HTTP " + status + "），不再重试，丢弃 " + count + " 个快照");
+        }
+        return hasPending();
+    }
+
+    // 服务端错误和限流可以重试，其他状态码（4xx 等）重试也不会成功
+    static boolean isRetryable(int status) {
+        return status >= 500 || status == 429;
+    }
+
+    private synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    // 放回队首，保持时间顺序；放不下的部分丢弃最旧的
+    private synchronized void requeue(List<Pending> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (pending.size() >= maxPendingSnapshots) {
+                dropped += i + 1;
+                break;
+            }
+            pending.addFirst(batch.get(i));
+        }
+    }
+
+    // 发送一批数据，返回 HTTP 状态码；连接或读写失败时抛出异常
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(ingestUrl).openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", FleetCodec.CONTENT_TYPE);
+            if (!token.isEmpty()) {
+                connection.setRequestProperty(FleetAggregator.TOKEN_HEADER, token);
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            InputStream response = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (response != null) {
+                // 读完响应体，便于连接复用
+                byte[] buffer = new byte[1024];
+                try (InputStream in = response) {
+                    while (in.read(buffer) >= 0) {
+                        // 丢弃
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    // 当前容器清单，运行中的容器附带最近一次资源统计
+    private List<ContainerSummary> containers() {
+        DockerInventory.Snapshot inventory = dockerInventory.getSnapshot();
+        if (!inventory.isAvailable()) return Collections.emptyList();
+        ContainerStatsCollector.Sample stats = containerStatsCollector.getLatest();
+        List<ContainerSummary> summaries = new ArrayList<>(inventory.getContainers().size());
+        for (DockerContainer container : inventory.getContainers().values()) {
+            ContainerStatsCollector.ContainerStats containerStats =
+                    stats == null ? null : stats.getContainers().get(container.getId());
+            if (containerStats == null) {
+                summaries.add(new ContainerSummary(container.getId(), container.getName(), container.getImage(),
+                        container.getState(), false, Float.NaN, -1, -1));
+            } else {
+                summaries.add(new ContainerSummary(container.getId(), container.getName(), container.getImage(),
+                        container.getState(), true, (float) containerStats.getCpuPercent(),
+                        containerStats.getGauge(ContainerStatsCollector.MEMORY_WORKING_SET),
+                        containerStats.getGauge(ContainerStatsCollector.MEMORY_LIMIT)));
+            }
+        }
+        return summaries;
+    }
+
+    private static final class Pending {
+        private final long timestamp;
+        private final double[] row;
+
+        private Pending(long timestamp, double[] row) {
+            this.timestamp = timestamp;
+            this.row = row;
+        }
+    }
+}
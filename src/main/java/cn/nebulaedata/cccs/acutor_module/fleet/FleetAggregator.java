@@ -0,0 +1,291 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 汇聚节点（monitor.fleet.mode=aggregator）：接收各代理节点推送的批量快照，合并为全局视图。
+ * 主机状态按主机ID分散到多个分片，每个分片一把锁，不同主机的推送可以并行合并；
+ * 解压和解码在锁外完成，锁内只做数组更新。
+ * 超过 stale-after-ms 没有推送的主机标记为过期、不计入全局最新值，超过 expire-after-ms 后移除。
+ * 推送须携带与 monitor.fleet.token 一致的令牌（未配置令牌时拒绝所有推送）；
+ * 主机公布的访问地址只接受 http(s)，主机部分默认替换为推送连接的来源地址，
+ * 转发接口不会被任意推送方引向内网的其他地址。
+ */
+@Component
+public class FleetAggregator {
+
+    private static final String[] SERIES = MetricsSampler.HISTORY_SERIES;
+    private static final String[] WINDOW_NAMES = {"1m", "10m"};
+    private static final long[] WINDOWS_MS = {60_000L, 600_000L};
+
+    // 推送请求携带令牌的请求头
+    public static final String TOKEN_HEADER = "X-Fleet-Token";
+
+    private final boolean enabled;
+    private final byte[] token;
+    private final boolean trustAdvertisedHost;
+    private final long staleAfterMs;
+    private final long expireAfterMs;
+    private final Stripe[] stripes;
+    private final CollectorStats ingestStats;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public FleetAggregator(CollectorMetrics collectorMetrics,
+                           @Value("${monitor.fleet.mode:standalone}") String mode,
+                           @Value("${monitor.fleet.token:}") String token,
+                           @Value("${monitor.fleet.aggregator.trust-advertised-host:false}") boolean trustAdvertisedHost,
+                           @Value("${monitor.fleet.aggregator.stripes:16}") int stripeCount,
+                           @Value("${monitor.fleet.aggregator.stale-after-ms:10000}") long staleAfterMs,
+                           @Value("${monitor.fleet.aggregator.expire-after-ms:3600000}") long expireAfterMs) {
+        this.enabled = "aggregator".equalsIgnoreCase(mode);
+        this.token = token.trim().isEmpty() ? null : token.trim().getBytes(StandardCharsets.UTF_8);
+        this.trustAdvertisedHost = trustAdvertisedHost;
+        this.staleAfterMs = Math.max(1000, staleAfterMs);
+        this.expireAfterMs = Math.max(this.staleAfterMs, expireAfterMs);
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.ingestStats = collectorMetrics.stats("fleet.ingest");
+        if (enabled) {
+            System.out.println("汇聚模式已启用，分片数: " + stripes.length);
+            if (this.token == null) {
+                System.err.println("汇聚节点未配置 monitor.fleet.token，将拒绝所有推送");
+            }
+        }
+    }
+
+    // 汇聚节点是否配置了推送令牌
+    public boolean hasToken() {
+        return token != null;
+    }
+
+    // 校验推送令牌（按常量时间比较）
+    public boolean authorize(String presented) {
+        return token != null && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private Stripe stripeFor(String hostId) {
+        return stripes[(hostId.hashCode() & 0x7FFFFFFF) % stripes.length];
+    }
+
+    /**
+     * 合并一批推送数据，返回其中的快照数。调用方需先用 {@link #authorize} 校验令牌。
+     *
+     * @param remoteAddress 推送连接的来源地址，用于替换公布地址中的主机部分
+     * @throws IOException 数据格式错误
+     */
+    public int ingest(InputStream body, String remoteAddress) throws IOException {
+        long start = System.nanoTime();
+        FleetCodec.Batch batch;
+        try {
+            batch = FleetCodec.decode(body);
+        } catch (IOException | RuntimeException e) {
+            rejected.increment();
+            ingestStats.recordFailure(start, e);
+            throw e;
+        }
+        String advertiseUrl = advertiseUrl(batch.advertiseUrl, remoteAddress);
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripeFor(batch.hostId);
+        synchronized (stripe) {
+            HostState host = stripe.hosts.get(batch.hostId);
+            if (host == null) {
+                host = new HostState(batch.hostId, now, SERIES.length);
+                stripe.hosts.put(batch.hostId, host);
+                System.out.println("汇聚节点发现新主机: " + batch.hostId
+                        + (advertiseUrl != null ? " (" + advertiseUrl + ")"
+                        : batch.advertiseUrl.isEmpty() ? "" : "，公布地址无效，不转发请求: " + batch.advertiseUrl));
+            }
+            host.apply(batch, now, SERIES, advertiseUrl);
+        }
+        batches.increment();
+        snapshots.add(batch.count);
+        ingestStats.record(start);
+        return batch.count;
+    }
+
+    /**
+     * 校验并规范化主机公布的访问地址：只接受不带用户信息、查询参数和片段的 http(s) 地址；
+     * 未开启 trust-advertised-host 时主机部分替换为推送连接的来源地址。无效时返回 null（不转发请求）。
+     */
+    String advertiseUrl(String advertised, String remoteAddress) {
+        if (advertised == null || advertised.isEmpty()) return null;
+        try {
+            URI uri = new URI(advertised);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+            if (!scheme.equals("http") && !scheme.equals("https")) return null;
+            if (uri.getHost() == null || uri.getRawUserInfo() != null
+                    || uri.getRawQuery() != null || uri.getRawFragment() != null) {
+                return null;
+            }
+            String host = uri.getHost();
+            if (!trustAdvertisedHost) {
+                if (remoteAddress == null || remoteAddress.isEmpty()) return null;
+                host = remoteAddress.indexOf(':') >= 0 ? "[" + remoteAddress + "]" : remoteAddress;
+            }
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            return scheme + "://" + host + (uri.getPort() >= 0 ? ":" + uri.getPort() : "") + path;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    // 所有主机的概要，按主机ID排序
+    public List<Map<String, Object>> hosts() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Object>> sorted = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<String, HostState> entry : stripe.hosts.entrySet()) {
+                    sorted.put(entry.getKey(), entry.getValue().toMap(SERIES, now, staleAfterMs, false,
+                            WINDOW_NAMES, WINDOWS_MS));
+                }
+            }
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    // 单台主机的详情（含时间窗口汇总和容器列表），主机未知时返回 null
+    public Map<String, Object> host(String hostId) {
+        Stripe stripe = stripeFor(hostId);
+        synchronized (stripe) {
+            HostState host = stripe.hosts.get(hostId);
+            return host == null ? null : host.toMap(SERIES, System.currentTimeMillis(), staleAfterMs, true,
+                    WINDOW_NAMES, WINDOWS_MS);
+        }
+    }
+
+    // 主机的容器列表，主机未知时返回 null
+    public List<Map<String, Object>> containers(String hostId) {
+        Stripe stripe = stripeFor(hostId);
+        List<ContainerSummary> containers;
+        synchronized (stripe) {
+            HostState host = stripe.hosts.get(hostId);
+            if (host == null) return null;
+            containers = host.getContainers();
+        }
+        List<Map<String, Object>> items = new ArrayList<>(containers.size());
+        for (ContainerSummary container : containers) {
+            items.add(container.toMap());
+        }
+        return items;
+    }
+
+    // 代理节点对外公布的地址，主机未知或未公布时返回 null
+    public String getAdvertiseUrl(String hostId) {
+        Stripe stripe = stripeFor(hostId);
+        synchronized (stripe) {
+            HostState host = stripe.hosts.get(hostId);
+            return host == null ? null : host.getAdvertiseUrl();
+        }
+    }
+
+    /**
+     * 全局视图：主机和容器数量、未过期主机最新值的汇总（最小/最大/平均/总和），
+     * 所有主机最近1分钟和10分钟的汇总，以及接收统计。
+     */
+    public Map<String, Object> summary() {
+        long now = System.currentTimeMillis();
+        int hostCount = 0;
+        int staleHosts = 0;
+        int containerCount = 0;
+        int runningContainers = 0;
+        SeriesAggregate latest = new SeriesAggregate(SERIES.length);
+        SeriesAggregate[] windows = new SeriesAggregate[WINDOWS_MS.length];
+        for (int w = 0; w < windows.length; w++) {
+            windows[w] = new SeriesAggregate(SERIES.length);
+        }
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (HostState host : stripe.hosts.values()) {
+                    hostCount++;
+                    for (ContainerSummary container : host.getContainers()) {
+                        containerCount++;
+                        if ("running".equals(container.getState())) runningContainers++;
+                    }
+                    for (int w = 0; w < windows.length; w++) {
+                        host.addWindow(WINDOWS_MS[w], windows[w]);
+                    }
+                    if (now - host.getLastSeen() > staleAfterMs) {
+                        staleHosts++;
+                    } else {
+                        host.addLatest(latest);
+                    }
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", now);
+        result.put("hosts", hostCount);
+        result.put("staleHosts", staleHosts);
+        result.put("containers", containerCount);
+        result.put("runningContainers", runningContainers);
+        result.put("latest", latest.toMap(SERIES, true));
+        Map<String, Object> rollups = new LinkedHashMap<>();
+        for (int w = 0; w < windows.length; w++) {
+            rollups.put(WINDOW_NAMES[w], windows[w].toMap(SERIES, false));
+        }
+        result.put("rollups", rollups);
+
+        Map<String, Object> ingest = new LinkedHashMap<>();
+        ingest.put("batches", batches.sum());
+        ingest.put("snapshots", snapshots.sum());
+        ingest.put("rejected", rejected.sum());
+        result.put("ingest", ingest);
+        return result;
+    }
+
+    // 移除长时间没有推送的主机
+    @Scheduled(fixedDelayString = "${monitor.fleet.aggregator.expire-check-interval-ms:60000}")
+    public void expire() {
+        if (!enabled) return;
+        long cutoff = System.currentTimeMillis() - expireAfterMs;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Map.Entry<String, HostState>> iterator = stripe.hosts.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, HostState> entry = iterator.next();
+                    if (entry.getValue().getLastSeen() < cutoff) {
+                        iterator.remove();
+                        System.out.println("主机 " + entry.getKey() + " 长时间没有推送，已从汇聚视图中移除");
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, HostState> hosts = new HashMap<>();
+    }
+}
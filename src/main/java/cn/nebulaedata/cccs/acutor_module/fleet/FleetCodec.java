@@ -0,0 +1,169 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 代理节点推送给汇聚节点的批量快照，二进制编码后整体 gzip 压缩：
+ * <pre>
+ * magic(4) version(1) hostId(UTF) advertiseUrl(UTF)
+ * seriesCount(2) seriesName(UTF)*seriesCount
+ * snapshotCount(4) { timestamp(8) value(float 4)*seriesCount }*snapshotCount
+ * containerCount(4) { id(UTF) name(UTF) image(UTF) state(UTF) hasStats(1) [cpuPercent(4) memoryUsage(8) memoryLimit(8)] }*
+ * </pre>
+ * 序列名每批给出一次，汇聚节点按名称对齐，代理节点和汇聚节点版本不同（序列增减）时也能正确合并。
+ * 数值使用单精度浮点，缺失为NaN；容器列表只保留批次中最新的一份。
+ */
+public final class FleetCodec {
+
+    public static final String CONTENT_TYPE = "application/x-monitor-fleet";
+    private static final int MAGIC = 0x464C5431;   // "FLT1"
+    private static final int VERSION = 1;
+    // 解码时的上限，防止错误或恶意的数据导致超大分配
+    private static final int MAX_SERIES = 1024;
+    private static final int MAX_SNAPSHOTS = 100_000;
+    private static final int MAX_VALUES = 4_000_000;
+    private static final int MAX_CONTAINERS = 100_000;
+
+    private FleetCodec() {
+    }
+
+    /**
+     * 编码一批快照。
+     *
+     * @param timestamps 快照时间戳，前 count 个有效
+     * @param rows       与 timestamps 对应的数值行，顺序与 series 一致
+     */
+    public static byte[] encode(String hostId, String advertiseUrl, String[] series,
+                                long[] timestamps, double[][] rows, int count,
+                                List<ContainerSummary> containers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + count * (8 + series.length * 4) / 4);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes, 8192))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(hostId);
+            out.writeUTF(advertiseUrl == null ? "" : advertiseUrl);
+            out.writeShort(series.length);
+            for (String name : series) {
+                out.writeUTF(name);
+            }
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(timestamps[i]);
+                double[] row = rows[i];
+                for (int s = 0; s < series.length; s++) {
+                    out.writeFloat(s < row.length ? (float) row[s] : Float.NaN);
+                }
+            }
+            out.writeInt(containers.size());
+            for (ContainerSummary container : containers) {
+                out.writeUTF(nullToEmpty(container.getId()));
+                out.writeUTF(nullToEmpty(container.getName()));
+                out.writeUTF(nullToEmpty(container.getImage()));
+                out.writeUTF(nullToEmpty(container.getState()));
+                out.writeBoolean(container.hasStats());
+                if (container.hasStats()) {
+                    out.writeFloat(container.getCpuPercent());
+                    out.writeLong(container.getMemoryUsage());
+                    out.writeLong(container.getMemoryLimit());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // 解码一批快照（输入为压缩后的数据），格式错误时抛出 IOException
+    public static Batch decode(InputStream compressed) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(compressed, 8192), 8192));
+        if (in.readInt() != MAGIC) throw new IOException("不是汇聚推送数据");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("不支持的推送数据版本: " + version);
+        String hostId = in.readUTF();
+        String advertiseUrl = in.readUTF();
+        if (hostId.isEmpty()) throw new IOException("主机ID不能为空");
+
+        int seriesCount = in.readUnsignedShort();
+        if (seriesCount > MAX_SERIES) throw new IOException("序列数过多: " + seriesCount);
+        String[] series = new String[seriesCount];
+        for (int s = 0; s < seriesCount; s++) {
+            series[s] = in.readUTF();
+        }
+
+        int count = in.readInt();
+        if (count < 0 || count > MAX_SNAPSHOTS || (long) count * seriesCount > MAX_VALUES) {
+            throw new IOException("快照数无效: " + count);
+        }
+        long[] timestamps = new long[count];
+        float[] values = new float[count * seriesCount];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = in.readLong();
+            int base = i * seriesCount;
+            for (int s = 0; s < seriesCount; s++) {
+                values[base + s] = in.readFloat();
+            }
+        }
+
+        int containerCount = in.readInt();
+        if (containerCount < 0 || containerCount > MAX_CONTAINERS) {
+            throw new IOException("容器数无效: " + containerCount);
+        }
+        List<ContainerSummary> containers = new ArrayList<>(containerCount);
+        for (int i = 0; i < containerCount; i++) {
+            String id = in.readUTF();
+            String name = in.readUTF();
+            String image = in.readUTF();
+            String state = in.readUTF();
+            boolean hasStats = in.readBoolean();
+            float cpuPercent = hasStats ? in.readFloat() : Float.NaN;
+            long memoryUsage = hasStats ? in.readLong() : -1;
+            long memoryLimit = hasStats ? in.readLong() : -1;
+            containers.add(new ContainerSummary(id, name, image, state, hasStats, cpuPercent, memoryUsage, memoryLimit));
+        }
+        return new Batch(hostId, advertiseUrl, series, count, timestamps, values, containers);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * 解码后的一批快照，数值按快照顺序平铺：第 i 个快照的第 s 个序列为 values[i * 序列数 + s]。
+     */
+    public static final class Batch {
+        final String hostId;
+        final String advertiseUrl;
+        final String[] series;
+        final int count;
+        final long[] timestamps;
+        final float[] values;
+        final List<ContainerSummary> containers;
+
+        Batch(String hostId, String advertiseUrl, String[] series, int count, long[] timestamps,
+              float[] values, List<ContainerSummary> containers) {
+            this.hostId = hostId;
+            this.advertiseUrl = advertiseUrl;
+            this.series = series;
+            this.count = count;
+            this.timestamps = timestamps;
+            this.values = values;
+            this.containers = Collections.unmodifiableList(containers);
+        }
+
+        public String getHostId() {
+            return hostId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 汇聚节点上一台主机的状态：最新的一行数值、最近10分钟按30秒分桶的汇总，以及最新的容器列表。
+ * 时间窗口按该主机自己的快照时间计算，不受主机之间时钟偏差的影响。
+ * 由所属分片的锁保护。
+ */
+final class HostState {
+
+    static final long BUCKET_MS = 30_000L;
+    static final int BUCKETS = 20;
+
+    private final String hostId;
+    private final int seriesCount;
+    private String advertiseUrl;
+    private final long firstSeen;
+    private long lastSeen;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long snapshots = 0;
+    // 按单精度保存，与推送数据一致，输出时不会出现 41.439998626708984 这样的展开值
+    private final float[] latest;
+
+    // 分桶汇总：bucketStart[桶] 为桶的起始时间，其余为 [桶][序列]
+    private final long[] bucketStart = new long[BUCKETS];
+    private final double[][] bucketMin;
+    private final double[][] bucketMax;
+    private final double[][] bucketSum;
+    private final int[][] bucketCount;
+
+    private List<ContainerSummary> containers = Collections.emptyList();
+
+    // 上一批的序列名及其到统一序列的映射，序列名不变时直接复用
+    private String[] mappedSeries;
+    private int[] mapping;
+
+    HostState(String hostId, long now, int seriesCount) {
+        this.hostId = hostId;
+        this.seriesCount = seriesCount;
+        this.firstSeen = now;
+        this.latest = new float[seriesCount];
+        Arrays.fill(latest, Float.NaN);
+        Arrays.fill(bucketStart, Long.MIN_VALUE);
+        this.bucketMin = new double[BUCKETS][seriesCount];
+        this.bucketMax = new double[BUCKETS][seriesCount];
+        this.bucketSum = new double[BUCKETS][seriesCount];
+        this.bucketCount = new int[BUCKETS][seriesCount];
+    }
+
+    String getAdvertiseUrl() {
+        return advertiseUrl;
+    }
+
+    long getLastSeen() {
+        return lastSeen;
+    }
+
+    List<ContainerSummary> getContainers() {
+        return containers;
+    }
+
+    // 合并一批快照，时间戳不晚于已合并数据的快照（重发的批次）被忽略；advertiseUrl 为校验后的访问地址
+    void apply(FleetCodec.Batch batch, long now, String[] series, String advertiseUrl) {
+        int[] columns = mapping(batch.series, series);
+        int width = batch.series.length;
+        int newest = -1;
+        for (int i = 0; i < batch.count; i++) {
+            long timestamp = batch.timestamps[i];
+            if (timestamp <= lastTimestamp) continue;
+            int slot = slot(timestamp);
+            int base = i * width;
+            for (int s = 0; s < width; s++) {
+                int column = columns[s];
+                float value = batch.values[base + s];
+                if (column < 0 || Float.isNaN(value)) continue;
+                bucketMin[slot][column] = Math.min(bucketMin[slot][column], value);
+                bucketMax[slot][column] = Math.max(bucketMax[slot][column], value);
+                bucketSum[slot][column] += value;
+                bucketCount[slot][column]++;
+            }
+            lastTimestamp = timestamp;
+            snapshots++;
+            newest = i;
+        }
+        if (newest >= 0) {
+            Arrays.fill(latest, Float.NaN);
+            for (int s = 0; s < width; s++) {
+                if (columns[s] >= 0) {
+                    latest[columns[s]] = batch.values[newest * width + s];
+                }
+            }
+        }
+        this.advertiseUrl = advertiseUrl;
+        containers = batch.containers;
+        lastSeen = now;
+    }
+
+    // 取得时间戳所在的桶，桶已属于更早的时间段时先清空
+    private int slot(long timestamp) {
+        long start = timestamp - Math.floorMod(timestamp, BUCKET_MS);
+        int slot = (int) Math.floorMod(start / BUCKET_MS, (long) BUCKETS);
+        if (bucketStart[slot] != start) {
+            bucketStart[slot] = start;
+            Arrays.fill(bucketMin[slot], Double.POSITIVE_INFINITY);
+            Arrays.fill(bucketMax[slot], Double.NEGATIVE_INFINITY);
+            Arrays.fill(bucketSum[slot], 0);
+            Arrays.fill(bucketCount[slot], 0);
+        }
+        return slot;
+    }
+
+    private int[] mapping(String[] batchSeries, String[] series) {
+        if (Arrays.equals(batchSeries, mappedSeries)) return mapping;
+        int[] columns = new int[batchSeries.length];
+        for (int s = 0; s < batchSeries.length; s++) {
+            columns[s] = -1;
+            for (int c = 0; c < series.length; c++) {
+                if (series[c].equals(batchSeries[s])) {
+                    columns[s] = c;
+                    break;
+                }
+            }
+        }
+        mappedSeries = batchSeries;
+        mapping = columns;
+        return columns;
+    }
+
+    // 把最新一行数值加入全局汇总
+    void addLatest(SeriesAggregate into) {
+        for (int c = 0; c < seriesCount; c++) {
+            into.add(c, latest[c]);
+        }
+    }
+
+    // 把最近 windowMs（按桶粒度，含当前桶）内的数据加入汇总
+    void addWindow(long windowMs, SeriesAggregate into) {
+        if (lastTimestamp == Long.MIN_VALUE) return;
+        long newestBucket = lastTimestamp - Math.floorMod(lastTimestamp, BUCKET_MS);
+        long oldestBucket = newestBucket - Math.max(0, windowMs - BUCKET_MS);
+        for (int b = 0; b < BUCKETS; b++) {
+            if (bucketStart[b] < oldestBucket || bucketStart[b] > newestBucket) continue;
+            for (int c = 0; c < seriesCount; c++) {
+                into.merge(c, bucketMin[b][c], bucketMax[b][c], bucketSum[b][c], bucketCount[b][c]);
+            }
+        }
+    }
+
+    /**
+     * 主机信息；detail 为 true 时附带时间窗口汇总和容器列表。
+     */
+    Map<String, Object> toMap(String[] series, long now, long staleAfterMs, boolean detail,
+                              String[] windowNames, long[] windowsMs) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("hostId", hostId);
+        item.put("advertiseUrl", advertiseUrl);
+        item.put("firstSeen", firstSeen);
+        item.put("lastSeen", lastSeen);
+        item.put("lastTimestamp", lastTimestamp == Long.MIN_VALUE ? null : lastTimestamp);
+        item.put("stale", now - lastSeen > staleAfterMs);
+        item.put("snapshots", snapshots);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int c = 0; c < seriesCount; c++) {
+            if (!Float.isNaN(latest[c])) {
+                values.put(series[c], latest[c]);
+            }
+        }
+        item.put("latest", values);
+
+        int running = 0;
+        for (ContainerSummary container : containers) {
+            if ("running".equals(container.getState())) running++;
+        }
+        item.put("containerCount", containers.size());
+        item.put("runningContainers", running);
+
+        if (detail) {
+            Map<String, Object> rollups = new LinkedHashMap<>();
+            for (int w = 0; w < windowsMs.length; w++) {
+                SeriesAggregate aggregate = new SeriesAggregate(seriesCount);
+                addWindow(windowsMs[w], aggregate);
+                rollups.put(windowNames[w], aggregate.toMap(series, false));
+            }
+            item.put("rollups", rollups);
+            List<Map<String, Object>> items = new ArrayList<>(containers.size());
+            for (ContainerSummary container : containers) {
+                items.add(container.toMap());
+            }
+            item.put("containers", items);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,68 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各序列的最小值、最大值、总和和点数，用于主机窗口汇总和全局汇总的合并。
+ */
+final class SeriesAggregate {
+
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final long[] count;
+
+    SeriesAggregate(int seriesCount) {
+        this.min = new double[seriesCount];
+        this.max = new double[seriesCount];
+        this.sum = new double[seriesCount];
+        this.count = new long[seriesCount];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    void add(int series, double value) {
+        if (Double.isNaN(value)) return;
+        min[series] = Math.min(min[series], value);
+        max[series] = Math.max(max[series], value);
+        sum[series] += value;
+        count[series]++;
+    }
+
+    // 合并另一组已汇总的数据
+    void merge(int series, double otherMin, double otherMax, double otherSum, long otherCount) {
+        if (otherCount == 0) return;
+        min[series] = Math.min(min[series], otherMin);
+        max[series] = Math.max(max[series], otherMax);
+        sum[series] += otherSum;
+        count[series] += otherCount;
+    }
+
+    /**
+     * 转为 {序列名: {min, max, avg[, sum], count}}，没有数据的序列省略。
+     *
+     * @param withSum 是否输出总和（跨主机的最新值求和有意义，时间窗口内的求和没有意义）
+     */
+    Map<String, Object> toMap(String[] names, boolean withSum) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int s = 0; s < names.length; s++) {
+            if (count[s] == 0) continue;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("min", round(min[s]));
+            item.put("max", round(max[s]));
+            item.put("avg", round(sum[s] / count[s]));
+            if (withSum) {
+                item.put("sum", round(sum[s]));
+            }
+            item.put("count", count[s]);
+            result.put(names[s], item);
+        }
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,96 @@
+package cn.nebulaedata.cccs.acutor_module.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * 把调用栈前缀树渲染为静态 SVG 火焰图（与 flamegraph.pl 的布局一致：根在底部，宽度正比于样本数），
+ * 不依赖脚本，悬停时通过 title 显示帧名、样本数和占比；窄于 minWidth 像素的帧省略。
+ */
+final class FlameGraphSvg {
+
+    private static final int WIDTH = 1200;
+    private static final int PADDING = 10;
+    private static final int FRAME_HEIGHT = 16;
+    private static final int HEADER = 44;
+    private static final double MIN_WIDTH = 0.1;
+    private static final double CHAR_WIDTH = 6.6;
+
+    private FlameGraphSvg() {
+    }
+
+    static void write(StackTrie trie, String title, String subtitle, Writer out) throws IOException {
+        long samples = Math.max(1, trie.getSampleCount());
+        double scale = (WIDTH - 2.0 * PADDING) / samples;
+        long minSamples = (long) Math.ceil(MIN_WIDTH / scale);
+
+        int[] maxDepth = {0};
+        trie.visitLayout((depth, start, width, name, self) -> {
+            if (width >= minSamples && depth > maxDepth[0]) maxDepth[0] = depth;
+        });
+        int height = HEADER + (maxDepth[0] + 1) * FRAME_HEIGHT + PADDING * 2;
+
+        out.write("<?xml version=\"1.0\" standalone=\"no\"?>\n");
+        out.write("<svg version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\" width=\"" + WIDTH
+                + "\" height=\"" + height + "\" viewBox=\"0 0 " + WIDTH + " " + height + "\">\n");
+        out.write("<style>text{font-family:Verdana,sans-serif;font-size:12px;fill:#000}"
+                + ".t{font-size:17px;text-anchor:middle}.s{fill:#555;text-anchor:middle}</style>\n");
+        out.write("<rect x=\"0\" y=\"0\" width=\"100%\" height=\"100%\" fill=\"#f8f8f8\"/>\n");
+        out.write("<text class=\"t\" x=\"" + WIDTH / 2 + "\" y=\"22\">" + escape(title) + "</text>\n");
+        out.write("<text class=\"s\" x=\"" + WIDTH / 2 + "\" y=\"38\">" + escape(subtitle) + "</text>\n");
+
+        StringBuilder svg = new StringBuilder(256);
+        IOException[] failure = new IOException[1];
+        trie.visitLayout((depth, start, width, name, self) -> {
+            if (failure[0] != null || width < minSamples) return;
+            double x = PADDING + start * scale;
+            double w = width * scale;
+            double y = height - PADDING - (depth + 1) * FRAME_HEIGHT;
+            svg.setLength(0);
+            svg.append("<g><title>").append(escape(name)).append(" (").append(width).append(" 个样本, ")
+                    .append(String.format(Locale.ROOT, "%.2f", width * 100.0 / samples)).append("%)</title>");
+            svg.append(String.format(Locale.ROOT,
+                    "<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%d\" fill=\"%s\" rx=\"2\" ry=\"2\"/>",
+                    x, y, w, FRAME_HEIGHT - 1, color(name)));
+            int chars = (int) ((w - 6) / CHAR_WIDTH);
+            if (chars >= 3) {
+                String label = name.length() <= chars ? name : name.substring(0, chars - 2) + "..";
+                svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%.1f\">", x + 3, y + 11.5))
+                        .append(escape(label)).append("</text>");
+            }
+            svg.append("</g>\n");
+            try {
+                out.write(svg.toString());
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) throw failure[0];
+        out.write("</svg>\n");
+    }
+
+    // 按帧名散列出暖色，同名帧颜色固定
+    private static String color(String name) {
+        int hash = name.hashCode() * 0x9E3779B9;
+        int r = 205 + ((hash >>> 24) & 0xFF) % 50;
+        int g = ((hash >>> 12) & 0xFF) % 230;
+        int b = (hash & 0xFF) % 55;
+        return "rgb(" + r + "," + g + "," + b + ")";
+    }
+
+    private static String escape(String text) {
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': result.append("&amp;"); break;
+                case '<': result.append("&lt;"); break;
+                case '>': result.append("&gt;"); break;
+                case '"': result.append("&quot;"); break;
+                default: result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package cn.nebulaedata.cccs.acutor_module.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一次栈采样分析的结果：折叠后的调用栈，以及采样频率、样本数和分析器自身开销等统计。
+ */
+public final class Profile {
+
+    private final StackTrie trie;
+    private final String mode;
+    private final int seconds;
+    private final int requestedHz;
+    private final long elapsedNanos;
+    private final long ticks;
+    private final long threadSamples;
+    private final long truncatedStacks;
+    private final long throttledTicks;
+    private final long sampleNanos;
+    private final long maxSampleNanos;
+    private final double maxOverheadPercent;
+
+    Profile(StackTrie trie, String mode, int seconds, int requestedHz, long elapsedNanos, long ticks,
+            long threadSamples, long truncatedStacks, long throttledTicks, long sampleNanos, long maxSampleNanos,
+            double maxOverheadPercent) {
+        this.trie = trie;
+        this.mode = mode;
+        this.seconds = seconds;
+        this.requestedHz = requestedHz;
+        this.elapsedNanos = elapsedNanos;
+        this.ticks = ticks;
+        this.threadSamples = threadSamples;
+        this.truncatedStacks = truncatedStacks;
+        this.throttledTicks = throttledTicks;
+        this.sampleNanos = sampleNanos;
+        this.maxSampleNanos = maxSampleNanos;
+        this.maxOverheadPercent = maxOverheadPercent;
+    }
+
+    // 实际采样频率（开销超出预算时低于请求的频率）
+    public double getEffectiveHz() {
+        return elapsedNanos > 0 ? ticks * 1e9 / elapsedNanos : 0;
+    }
+
+    // 取栈耗时占采样时长的百分比
+    public double getOverheadPercent() {
+        return elapsedNanos > 0 ? sampleNanos * 100.0 / elapsedNanos : 0;
+    }
+
+    public long getThreadSamples() {
+        return threadSamples;
+    }
+
+    /**
+     * 采样统计（不含调用栈）。
+     */
+    public Map<String, Object> statsMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("seconds", seconds);
+        stats.put("elapsedMs", round2(elapsedNanos / 1e6));
+        stats.put("requestedHz", requestedHz);
+        stats.put("effectiveHz", round2(getEffectiveHz()));
+        stats.put("ticks", ticks);
+        stats.put("throttledTicks", throttledTicks);
+        stats.put("threadSamples", threadSamples);
+        stats.put("overheadPercent", round2(getOverheadPercent()));
+        stats.put("maxOverheadPercent", maxOverheadPercent);
+        stats.put("meanSampleMs", ticks > 0 ? round2(sampleNanos / 1e6 / ticks) : 0);
+        stats.put("maxSampleMs", round2(maxSampleNanos / 1e6));
+        stats.put("truncatedStacks", truncatedStacks);
+        stats.put("truncatedSamples", trie.getTruncatedSamples());
+        stats.put("nodes", trie.getNodeCount());
+        return stats;
+    }
+
+    /**
+     * 统计信息加 d3-flame-graph 格式的调用树（flameGraph 字段）。
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = statsMap();
+        result.put("flameGraph", trie.toTree());
+        return result;
+    }
+
+    // 折叠栈文本
+    public void writeCollapsed(Writer out) throws IOException {
+        trie.writeCollapsed(out);
+    }
+
+    // SVG 火焰图
+    public void writeSvg(Writer out) throws IOException {
+        String subtitle = String.format(Locale.ROOT,
+                "%s 模式, %d 秒, %d 个样本, 实际频率 %.1f Hz (请求 %d Hz), 分析器开销 %.2f%%",
+                mode, seconds, threadSamples, getEffectiveHz(), requestedHz, getOverheadPercent());
+        FlameGraphSvg.write(trie, "火焰图", subtitle, out);
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
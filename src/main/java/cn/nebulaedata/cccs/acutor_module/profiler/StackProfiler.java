@@ -0,0 +1,141 @@
+package cn.nebulaedata.cccs.acutor_module.profiler;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按需启动、限时的栈采样分析器。
+ * 以 hz 的频率取得所有线程的调用栈（限制深度），折叠进 {@link StackTrie}；同一时间只允许一个分析任务。
+ * 每次取栈都需要进入安全点，因此开销有上限：单次取栈耗时 t 时，下一次至少间隔 t / 开销上限，
+ * 超出预算时自动降低实际频率，结果中给出实际频率和开销占比。
+ * cpu 模式只统计 RUNNABLE 状态的线程（阻塞在本地 I/O 调用中的线程同样是 RUNNABLE），wall 模式统计全部线程。
+ */
+@Component
+public class StackProfiler {
+
+    public static final String MODE_CPU = "cpu";
+    public static final String MODE_WALL = "wall";
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final int defaultSeconds;
+    private final int maxSeconds;
+    private final int defaultHz;
+    private final int maxHz;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final double maxOverheadPercent;
+    private final CollectorStats sampleStats;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public StackProfiler(CollectorMetrics collectorMetrics,
+                         @Value("${monitor.profiler.default-seconds:10}") int defaultSeconds,
+                         @Value("${monitor.profiler.max-seconds:60}") int maxSeconds,
+                         @Value("${monitor.profiler.default-hz:99}") int defaultHz,
+                         @Value("${monitor.profiler.max-hz:1000}") int maxHz,
+                         @Value("${monitor.profiler.max-depth:256}") int maxDepth,
+                         @Value("${monitor.profiler.max-nodes:200000}") int maxNodes,
+                         @Value("${monitor.profiler.max-overhead-percent:5}") double maxOverheadPercent) {
+        this.maxSeconds = Math.max(1, maxSeconds);
+        this.defaultSeconds = Math.min(Math.max(1, defaultSeconds), this.maxSeconds);
+        this.maxHz = Math.max(1, maxHz);
+        this.defaultHz = Math.min(Math.max(1, defaultHz), this.maxHz);
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxNodes = Math.max(1024, maxNodes);
+        this.maxOverheadPercent = Math.min(Math.max(0.1, maxOverheadPercent), 100);
+        this.sampleStats = collectorMetrics.stats("profiler.sample");
+    }
+
+    /**
+     * 在当前线程中采样 seconds 秒后返回结果。
+     *
+     * @param seconds   采样时长，null 时使用默认值
+     * @param hz        采样频率，null 时使用默认值
+     * @param mode      cpu / wall，null 时为 cpu
+     * @param perThread 是否以线程名作为最外层帧
+     * @throws IllegalArgumentException 参数超出范围
+     * @throws IllegalStateException    已有分析任务在运行
+     */
+    public Profile profile(Integer seconds, Integer hz, String mode, boolean perThread) throws InterruptedException {
+        int duration = seconds != null ? seconds : defaultSeconds;
+        int frequency = hz != null ? hz : defaultHz;
+        String sampleMode = mode != null ? mode.toLowerCase() : MODE_CPU;
+        if (duration < 1 || duration > maxSeconds) {
+            throw new IllegalArgumentException("seconds 必须在 1 到 " + maxSeconds + " 之间");
+        }
+        if (frequency < 1 || frequency > maxHz) {
+            throw new IllegalArgumentException("hz 必须在 1 到 " + maxHz + " 之间");
+        }
+        if (!MODE_CPU.equals(sampleMode) && !MODE_WALL.equals(sampleMode)) {
+            throw new IllegalArgumentException("mode 只能是 cpu 或 wall");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有分析任务在运行，请稍后再试");
+        }
+        try {
+            return sample(duration, frequency, MODE_CPU.equals(sampleMode), perThread, sampleMode);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Profile sample(int seconds, int hz, boolean runnableOnly, boolean perThread, String mode)
+            throws InterruptedException {
+        StackTrie trie = new StackTrie(maxNodes);
+        long self = Thread.currentThread().getId();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / hz;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        long ticks = 0;
+        long threadSamples = 0;
+        long truncatedStacks = 0;
+        long throttledTicks = 0;
+        long sampleNanos = 0;
+        long maxSampleNanos = 0;
+        long now = start;
+        while (now < deadline) {
+            long tickStart = System.nanoTime();
+            ThreadInfo[] infos = threadBean.getThreadInfo(threadBean.getAllThreadIds(), maxDepth);
+            for (ThreadInfo info : infos) {
+                if (info == null || info.getThreadId() == self) continue;
+                if (runnableOnly && info.getThreadState() != Thread.State.RUNNABLE) continue;
+                StackTraceElement[] stack = info.getStackTrace();
+                if (stack.length == 0) continue;
+                if (stack.length >= maxDepth) truncatedStacks++;
+                trie.add(perThread ? info.getThreadName() : null, stack);
+                threadSamples++;
+            }
+            long tickEnd = System.nanoTime();
+            long cost = tickEnd - tickStart;
+            sampleStats.record(tickStart);
+            ticks++;
+            sampleNanos += cost;
+            maxSampleNanos = Math.max(maxSampleNanos, cost);
+
+            // 本次耗时占下一个间隔的比例不超过开销上限
+            long wait = intervalNanos;
+            long budgetWait = (long) (cost * 100.0 / maxOverheadPercent);
+            if (budgetWait > wait) {
+                wait = budgetWait;
+                throttledTicks++;
+            }
+            long next = Math.min(tickStart + wait, deadline);
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+                if (Thread.interrupted()) throw new InterruptedException("分析任务被中断");
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Profile(trie, mode, seconds, hz, elapsed, ticks, threadSamples, truncatedStacks,
+                throttledTicks, sampleNanos, maxSampleNanos, maxOverheadPercent);
+    }
+}
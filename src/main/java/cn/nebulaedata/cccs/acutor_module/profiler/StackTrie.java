@@ -0,0 +1,262 @@
+package cn.nebulaedata.cccs.acutor_module.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 折叠调用栈的前缀树：每条采样栈从最外层帧开始逐帧下行，相同前缀共享节点，
+ * 节点只保存帧序号、父节点和计数（平行的基本类型数组），子节点通过以 (父节点, 帧序号) 为键的开放寻址表查找。
+ * 帧名称（类名.方法名）只在第一次遇到某个栈帧时生成一次，之后按 StackTraceElement 直接查到帧序号。
+ * 节点数达到上限后，新路径在已有的最深节点处截断，并计入 truncatedSamples。
+ */
+final class StackTrie {
+
+    private static final int ROOT = 0;
+
+    private final int maxNodes;
+    private int size = 1;
+    private int[] frame = new int[1024];
+    private int[] parent = new int[1024];
+    // 以该节点结尾的样本数，以及经过该节点的样本数
+    private long[] self = new long[1024];
+    private long[] total = new long[1024];
+
+    // 子节点索引：键为 (父节点 << 32 | 帧序号)，值为子节点序号，0 表示空位（根节点不会是子节点）
+    private long[] childKeys = new long[2048];
+    private int[] childValues = new int[2048];
+
+    private final Map<StackTraceElement, Integer> elementFrames = new HashMap<>();
+    private final Map<String, Integer> nameFrames = new HashMap<>();
+    private final List<String> frameNames = new ArrayList<>();
+
+    private long truncatedSamples = 0;
+
+    StackTrie(int maxNodes) {
+        this.maxNodes = Math.max(2, maxNodes);
+        frame[ROOT] = -1;
+        parent[ROOT] = -1;
+    }
+
+    int getNodeCount() {
+        return size;
+    }
+
+    long getSampleCount() {
+        return total[ROOT];
+    }
+
+    long getTruncatedSamples() {
+        return truncatedSamples;
+    }
+
+    /**
+     * 加入一条采样栈，stack[0] 为最内层（正在执行的）帧；rootFrame 不为 null 时作为最外层的一帧（如线程名）。
+     */
+    void add(String rootFrame, StackTraceElement[] stack) {
+        int node = ROOT;
+        total[ROOT]++;
+        if (rootFrame != null) {
+            int child = child(node, nameFrame(rootFrame));
+            if (child < 0) {
+                truncatedSamples++;
+                self[node]++;
+                return;
+            }
+            node = child;
+            total[node]++;
+        }
+        for (int i = stack.length - 1; i >= 0; i--) {
+            int child = child(node, elementFrame(stack[i]));
+            if (child < 0) {
+                truncatedSamples++;
+                break;
+            }
+            node = child;
+            total[node]++;
+        }
+        self[node]++;
+    }
+
+    private int elementFrame(StackTraceElement element) {
+        Integer id = elementFrames.get(element);
+        if (id == null) {
+            id = nameFrame(element.getClassName() + "." + element.getMethodName());
+            elementFrames.put(element, id);
+        }
+        return id;
+    }
+
+    private int nameFrame(String name) {
+        Integer id = nameFrames.get(name);
+        if (id == null) {
+            id = frameNames.size();
+            frameNames.add(name);
+            nameFrames.put(name, id);
+        }
+        return id;
+    }
+
+    // 查找或创建子节点，节点数已达上限时返回 -1
+    private int child(int node, int frameId) {
+        long key = ((long) node << 32) | (frameId & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (childValues[slot] != 0) {
+            if (childKeys[slot] == key) return childValues[slot];
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxNodes) return -1;
+        int child = size++;
+        if (child == frame.length) {
+            int capacity = Math.min(frame.length * 2, maxNodes);
+            frame = Arrays.copyOf(frame, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            self = Arrays.copyOf(self, capacity);
+            total = Arrays.copyOf(total, capacity);
+        }
+        frame[child] = frameId;
+        parent[child] = node;
+        childKeys[slot] = key;
+        childValues[slot] = child;
+        // 装载因子不超过 1/2
+        if (size * 2 > childKeys.length) {
+            rehash();
+        }
+        return child;
+    }
+
+    private void rehash() {
+        long[] keys = childKeys;
+        int[] values = childValues;
+        childKeys = new long[keys.length * 2];
+        childValues = new int[keys.length * 2];
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == 0) continue;
+            int slot = mix(keys[i]) & mask;
+            while (childValues[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            childKeys[slot] = keys[i];
+            childValues[slot] = values[i];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // 按父节点串起子节点链表（节点总是在父节点之后创建，逆序遍历使链表保持创建顺序）
+    private int[][] children() {
+        int[] firstChild = new int[size];
+        int[] nextSibling = new int[size];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        for (int node = size - 1; node > ROOT; node--) {
+            nextSibling[node] = firstChild[parent[node]];
+            firstChild[parent[node]] = node;
+        }
+        return new int[][]{firstChild, nextSibling};
+    }
+
+    /**
+     * 输出折叠栈格式（每行 "帧1;帧2;...;帧n 样本数"），可直接交给 flamegraph.pl、speedscope 等工具。
+     */
+    void writeCollapsed(Writer out) throws IOException {
+        int[][] links = children();
+        int[] firstChild = links[0];
+        int[] nextSibling = links[1];
+        // 深度优先遍历，path 保存从根到当前节点的帧名
+        List<String> path = new ArrayList<>();
+        int[] stack = new int[size];
+        int[] depth = new int[size];
+        int top = 0;
+        for (int child = firstChild[ROOT]; child >= 0; child = nextSibling[child]) {
+            stack[top] = child;
+            depth[top++] = 0;
+        }
+        StringBuilder line = new StringBuilder(256);
+        while (top > 0) {
+            int node = stack[--top];
+            int level = depth[top];
+            while (path.size() > level) {
+                path.remove(path.size() - 1);
+            }
+            path.add(frameNames.get(frame[node]));
+            if (self[node] > 0) {
+                line.setLength(0);
+                for (int i = 0; i < path.size(); i++) {
+                    if (i > 0) line.append(';');
+                    line.append(path.get(i));
+                }
+                line.append(' ').append(self[node]).append('\n');
+                out.write(line.toString());
+            }
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                stack[top] = child;
+                depth[top++] = level + 1;
+            }
+        }
+    }
+
+    /**
+     * 转为 d3-flame-graph 使用的嵌套结构 {name, value, children}，value 为经过该帧的样本数。
+     */
+    Map<String, Object> toTree() {
+        int[][] links = children();
+        return toTree(ROOT, "all", links[0], links[1]);
+    }
+
+    private Map<String, Object> toTree(int node, String name, int[] firstChild, int[] nextSibling) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("name", name);
+        item.put("value", total[node]);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            items.add(toTree(child, frameNames.get(frame[child]), firstChild, nextSibling));
+        }
+        item.put("children", items);
+        return item;
+    }
+
+    /**
+     * 按火焰图的布局依次回调每个节点：深度、在父节点范围内按样本数累加得到的起始位置（样本数）和宽度（样本数）。
+     */
+    void visitLayout(LayoutVisitor visitor) {
+        int[][] links = children();
+        int[] firstChild = links[0];
+        int[] nextSibling = links[1];
+        int[] stack = new int[size];
+        int[] depth = new int[size];
+        long[] start = new long[size];
+        int top = 0;
+        stack[top] = ROOT;
+        depth[top] = 0;
+        start[top++] = 0;
+        while (top > 0) {
+            top--;
+            int node = stack[top];
+            int level = depth[top];
+            long offset = start[top];
+            visitor.visit(level, offset, total[node], node == ROOT ? "all" : frameNames.get(frame[node]), self[node]);
+            long childOffset = offset;
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                stack[top] = child;
+                depth[top] = level + 1;
+                start[top++] = childOffset;
+                childOffset += total[child];
+            }
+        }
+    }
+
+    interface LayoutVisitor {
+        void visit(int depth, long start, long width, String name, long self);
+    }
+}
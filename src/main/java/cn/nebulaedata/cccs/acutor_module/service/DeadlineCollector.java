@@ -0,0 +1,122 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 在采样器专用线程池中执行、带截止时间的采集器（外部进程、可能阻塞的文件读取）。
+ * 采样线程先 {@link #start} 提交，与其他采集并行，再 {@link #await} 等到截止时间为止；
+ * 超时时返回上一次成功的结果并给出其年龄，同时调用超时处理（如强制结束挂起的子进程）。
+ * 上一次提交的任务未结束前不会重复提交，挂起的采集器不会占用更多线程；
+ * 线程池拒绝提交时本次采集记为失败（见 {@link #getFailure()}），不会返回过期结果。
+ * 只在采样线程中使用，不是线程安全的。
+ */
+final class DeadlineCollector<T> {
+
+    private final String name;
+    private final Callable<T> task;
+    private final long timeoutNanos;
+    private final CollectorStats stats;
+    private final Runnable onTimeout;
+
+    private Future<T> inFlight;
+    private long startNanos;
+    // 当前任务是否已按超时处理过（避免挂起期间每次采样重复计数和重复终止）
+    private boolean timedOut;
+
+    private T lastGood;
+    private long lastGoodAt;
+
+    // 最近一次 await 的结果状态
+    private long staleAgeMs = -1;
+    private Throwable failure;
+
+    // 没有超时处理：阻塞在文件读取上的线程无法中断，超时时只沿用上一次的结果
+    DeadlineCollector(String name, Callable<T> task, long timeoutMs, CollectorStats stats) {
+        this(name, task, timeoutMs, stats, () -> { });
+    }
+
+    DeadlineCollector(String name, Callable<T> task, long timeoutMs, CollectorStats stats, Runnable onTimeout) {
+        this.name = name;
+        this.task = task;
+        this.timeoutNanos = Math.max(1, timeoutMs) * 1_000_000L;
+        this.stats = stats;
+        this.onTimeout = onTimeout;
+    }
+
+    // 提交一次采集，上一次的任务仍在执行时不重复提交
+    void start(ExecutorService executor) {
+        if (inFlight != null && !inFlight.isDone()) return;
+        startNanos = System.nanoTime();
+        timedOut = false;
+        try {
+            inFlight = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            inFlight = null;
+            stats.recordFailure(startNanos, e);
+        }
+    }
+
+    /**
+     * 等待本次采集结果，最迟到提交时间加超时时间。
+     * 成功时返回新结果；失败时返回null，原因见 {@link #getFailure()}；
+     * 超时时返回上一次成功的结果（没有时为null），其年龄见 {@link #getStaleAgeMs()}。
+     */
+    T await() {
+        staleAgeMs = -1;
+        failure = null;
+        if (inFlight == null) {
+            failure = new RejectedExecutionException(name + " 采集任务未能提交");
+            return null;
+        }
+        long remaining = startNanos + timeoutNanos - System.nanoTime();
+        try {
+            T value = inFlight.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            inFlight = null;
+            stats.record(startNanos);
+            lastGood = value;
+            lastGoodAt = System.currentTimeMillis();
+            return value;
+        } catch (ExecutionException e) {
+            inFlight = null;
+            failure = e.getCause();
+            stats.recordFailure(startNanos, failure);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback();
+        } catch (TimeoutException e) {
+            if (!timedOut) {
+                timedOut = true;
+                stats.recordFailure(startNanos, "超过 " + timeoutNanos / 1_000_000 + "ms 未完成");
+                System.err.println(name + " 采集超过 " + timeoutNanos / 1_000_000 + "ms 未完成，使用上一次的结果");
+                onTimeout.run();
+            }
+            return fallback();
+        }
+    }
+
+    private T fallback() {
+        failure = new TimeoutException(name + " 采集超过 " + timeoutNanos / 1_000_000 + "ms 未完成");
+        if (lastGood == null) return null;
+        staleAgeMs = System.currentTimeMillis() - lastGoodAt;
+        return lastGood;
+    }
+
+    // 最近一次 await 返回的是过期结果时为其年龄（毫秒），否则为 -1
+    long getStaleAgeMs() {
+        return staleAgeMs;
+    }
+
+    // 最近一次 await 的失败原因（超时为 TimeoutException），成功时为null
+    Throwable getFailure() {
+        return failure;
+    }
+}
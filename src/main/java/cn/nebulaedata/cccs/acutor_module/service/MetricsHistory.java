@@ -0,0 +1,134 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.tsdb.LttbDownsampler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 固定容量的指标历史环形缓冲区。
+ * 每个采样点占用一个槽位，时间戳和各指标值都保存在基本类型数组中，写满后覆盖最旧的数据。
+ */
+public class MetricsHistory {
+
+    private final String[] seriesNames;
+    private final int capacity;
+    private final long[] timestamps;
+    // values[指标序号][槽位]
+    private final double[][] values;
+    // 累计写入次数，下一次写入的槽位为 writeCount % capacity
+    private long writeCount = 0;
+
+    public MetricsHistory(String[] seriesNames, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("历史容量必须大于0");
+        this.seriesNames = seriesNames.clone();
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[seriesNames.length][capacity];
+    }
+
+    // 追加一个采样点，row 的顺序与 seriesNames 一致
+    public synchronized void append(long timestamp, double[] row) {
+        int slot = (int) (writeCount % capacity);
+        timestamps[slot] = timestamp;
+        for (int i = 0; i < values.length; i++) {
+            values[i][slot] = i < row.length ? row[i] : Double.NaN;
+        }
+        writeCount++;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(writeCount, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public String[] getSeriesNames() {
+        return seriesNames.clone();
+    }
+
+    // 查询 [from, to] 范围内的采样点（毫秒时间戳，闭区间）
+    public synchronized Map<String, Object> query(long from, long to) {
+        int size = (int) Math.min(writeCount, capacity);
+        long oldest = writeCount - size;
+
+        // 时间戳单调递增，二分查找起止位置
+        long start = lowerBound(oldest, writeCount, from);
+        long end = lowerBound(start, writeCount, to == Long.MAX_VALUE ? to : to + 1);
+        int count = (int) (end - start);
+
+        long[] ts = new long[count];
+        double[][] series = new double[values.length][count];
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((start + i) % capacity);
+            ts[i] = timestamps[slot];
+            for (int s = 0; s < values.length; s++) {
+                series[s][i] = values[s][slot];
+            }
+        }
+
+        Map<String, Object> seriesMap = new LinkedHashMap<>();
+        for (int s = 0; s < seriesNames.length; s++) {
+            seriesMap.put(seriesNames[s], series[s]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("count", count);
+        result.put("timestamps", ts);
+        result.put("series", seriesMap);
+        return result;
+    }
+
+    // 查询 [from, to] 范围内的采样点，并按 LTTB 把每个序列降到最多 maxPoints 个点
+    public Map<String, Object> query(long from, long to, int maxPoints) {
+        LttbDownsampler downsampler;
+        synchronized (this) {
+            int size = (int) Math.min(writeCount, capacity);
+            long start = lowerBound(writeCount - size, writeCount, from);
+            long end = lowerBound(start, writeCount, to == Long.MAX_VALUE ? to : to + 1);
+            // 按实际有数据的范围划分时间桶
+            long first = start < end ? timestamps[(int) (start % capacity)] : from;
+            long last = start < end ? timestamps[(int) ((end - 1) % capacity)] : to;
+            downsampler = new LttbDownsampler(values.length, first, last, maxPoints);
+            double[] row = new double[values.length];
+            for (long i = start; i < end; i++) {
+                int slot = (int) (i % capacity);
+                for (int s = 0; s < values.length; s++) {
+                    row[s] = values[s][slot];
+                }
+                downsampler.visit(timestamps[slot], row);
+            }
+        }
+        downsampler.finish();
+
+        Map<String, Object> seriesMap = new LinkedHashMap<>();
+        for (int s = 0; s < seriesNames.length; s++) {
+            seriesMap.put(seriesNames[s], downsampler.series(s));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("maxPoints", maxPoints);
+        result.put("sourceCount", downsampler.getSourceCount());
+        result.put("series", seriesMap);
+        return result;
+    }
+
+    // 返回 [lo, hi) 中第一个时间戳 >= target 的逻辑序号
+    private long lowerBound(long lo, long hi, long target) {
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestamps[(int) (mid % capacity)] < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
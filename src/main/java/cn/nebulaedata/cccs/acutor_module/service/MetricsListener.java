@@ -0,0 +1,11 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+/**
+ * 采样完成监听器。
+ * 回调在采样线程中执行，实现方不应阻塞。
+ */
+public interface MetricsListener {
+
+    // 每次采样完成后回调，snapshot 为本次采样的不可变快照
+    void onSample(MetricsSnapshot snapshot);
+}
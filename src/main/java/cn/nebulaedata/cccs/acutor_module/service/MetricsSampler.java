@@ -0,0 +1,493 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.collector.DiskCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GcEventCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GpuCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.NetworkCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.PressureCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.ThreadCpuCollector;
+import com.sun.management.OperatingSystemMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 系统指标后台采样器。
+ * 按固定间隔采集一次系统指标，保存最新快照并写入历史环形缓冲区，
+ * 请求线程只读取已采集好的结果，不再执行任何采集工作。
+ * 需要读取文件的采集（操作系统 CPU 和内存、网络、磁盘、线程 CPU、压力阻塞信息）在专用线程池中并行执行，
+ * 各自有截止时间，超时时沿用上一次的结果并在快照的 stale 字段中标记；
+ * 内存、线程数、类加载和 GC 只读取 JVM 内部的计数器（MXBean），不做任何 I/O，
+ * 在采样线程中直接执行，不经过线程池。
+ */
+@Component
+public class MetricsSampler {
+
+    // 写入历史缓冲区的数值指标
+    public static final String[] HISTORY_SERIES = {
+            "heapUsedMB", "heapUsagePercent", "nonHeapUsedMB",
+            "systemCpuLoadPercent", "processCpuLoadPercent", "systemLoadAverage",
+            "usedPhysicalMemoryMB", "systemMemoryUsagePercent",
+            "threadCount", "loadedClassCount", "totalGcCount", "totalGcTime",
+            "gpuUtilization", "gpuMemoryUtilization",
+            "receivedKbps", "sentKbps",
+            "allocationRateMBps", "promotionRateMBps", "gcPauseTimeMs", "gcMaxPauseMs",
+            "diskReadIops", "diskWriteIops", "diskReadMBps", "diskWriteMBps", "diskAwaitMs", "diskUtilPercent",
+            "filesystemUsagePercent", "cpuPressurePercent", "memoryPressurePercent", "ioPressurePercent"
+    };
+
+    private final OperatingSystemMXBean osBean = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final NetworkCollector networkCollector;
+    private final ThreadCpuCollector threadCpuCollector;
+    private final GcEventCollector gcEventCollector;
+    private final PressureCollector pressureCollector;
+    private final MetricsHistory history;
+
+    // 各部分的耗时统计
+    private final CollectorStats memoryStats;
+    private final CollectorStats threadStats;
+    private final CollectorStats classStats;
+    private final CollectorStats gcStats;
+    private final CollectorStats encodeStats;
+
+    // 可能阻塞的采集器在采样器专用的小线程池中执行，各自有截止时间，超时时沿用上一次的结果；
+    // 不与其他任务共享，也不排队，线程全部被挂起的采集占用时立即拒绝并记为采集失败。
+    // 每个采集器同时最多占用一个线程，默认的 5 个线程足够全部并行
+    private final ThreadPoolExecutor deadlineExecutor;
+    // 操作系统 MXBean 在 Linux 上读取 /proc/stat、/proc/meminfo 和 cgroup 文件
+    private final DeadlineCollector<OsReading> osTask;
+    private final DeadlineCollector<NetworkCollector.Sample> networkTask;
+    // statvfs 在网络文件系统挂起时会阻塞
+    private final DiskCollector diskCollector;
+    private final DeadlineCollector<DiskCollector.Sample> diskTask;
+    // 开启用户态时间时逐个读取 /proc/self/task/<tid>/stat
+    private final DeadlineCollector<ThreadCpuCollector.Sample> threadCpuTask;
+    // 读取 /proc/pressure/*
+    private final DeadlineCollector<PressureCollector.Sample> pressureTask;
+    // GPU 读数来自常驻的 nvidia-smi 遥测流，采样时只复制其最新状态
+    private final GpuCollector gpuCollector;
+
+    // 最新一次采样结果，采样完成后整体替换
+    private volatile MetricsSnapshot latest;
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    public MetricsSampler(NetworkCollector networkCollector, GpuCollector gpuCollector,
+                          ThreadCpuCollector threadCpuCollector, GcEventCollector gcEventCollector,
+                          DiskCollector diskCollector, PressureCollector pressureCollector,
+                          CollectorMetrics collectorMetrics,
+                          @Value("${monitor.sampler.deadline-threads:5}") int deadlineThreads,
+                          @Value("${monitor.sampler.history-size:3600}") int historySize,
+                          @Value("${monitor.sampler.os-timeout-ms:200}") long osTimeoutMs,
+                          @Value("${monitor.sampler.network-timeout-ms:500}") long networkTimeoutMs,
+                          @Value("${monitor.sampler.disk-timeout-ms:500}") long diskTimeoutMs,
+                          @Value("${monitor.sampler.thread-cpu-timeout-ms:500}") long threadCpuTimeoutMs,
+                          @Value("${monitor.sampler.pressure-timeout-ms:200}") long pressureTimeoutMs) {
+        this.networkCollector = networkCollector;
+        this.gpuCollector = gpuCollector;
+        this.threadCpuCollector = threadCpuCollector;
+        this.gcEventCollector = gcEventCollector;
+        this.diskCollector = diskCollector;
+        this.pressureCollector = pressureCollector;
+        this.memoryStats = collectorMetrics.stats("jvm.memory");
+        this.threadStats = collectorMetrics.stats("jvm.threads");
+        this.classStats = collectorMetrics.stats("jvm.classes");
+        this.gcStats = collectorMetrics.stats("jvm.gc");
+        this.encodeStats = collectorMetrics.stats("snapshot.encode");
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = Math.max(1, deadlineThreads);
+        this.deadlineExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sampler-deadline-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.deadlineExecutor.allowCoreThreadTimeOut(true);
+        // 阻塞在文件读取上的线程无法中断，超时处理只是沿用上一次的结果，挂起的任务结束前不会重复提交
+        this.osTask = new DeadlineCollector<>("操作系统", this::readOs, osTimeoutMs, collectorMetrics.stats("os"));
+        this.networkTask = new DeadlineCollector<>("网络", networkCollector::collect, networkTimeoutMs,
+                collectorMetrics.stats("network"));
+        this.diskTask = new DeadlineCollector<>("磁盘", diskCollector::collect, diskTimeoutMs,
+                collectorMetrics.stats("disk"));
+        this.threadCpuTask = new DeadlineCollector<>("线程CPU", threadCpuCollector::collect, threadCpuTimeoutMs,
+                collectorMetrics.stats("jvm.threadCpu"));
+        this.pressureTask = new DeadlineCollector<>("压力阻塞信息", pressureCollector::collect, pressureTimeoutMs,
+                collectorMetrics.stats("pressure"));
+        this.history = new MetricsHistory(HISTORY_SERIES, historySize);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 启动时先采集一次，保证首个请求就有数据
+        sample();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineExecutor.shutdownNow();
+    }
+
+    // 定时采样
+    @Scheduled(fixedRateString = "${monitor.sampler.interval-ms:1000}")
+    public synchronized void sample() {
+        MetricsSnapshot snapshot = collect();
+        snapshot.timestamp = System.currentTimeMillis();
+        long encodeStart = System.nanoTime();
+        snapshot.encode();
+        encodeStats.record(encodeStart);
+        latest = snapshot;
+        history.append(snapshot.timestamp, toHistoryRow(snapshot));
+        for (MetricsListener listener : listeners) {
+            try {
+                listener.onSample(snapshot);
+            } catch (Exception e) {
+                System.err.println("通知采样监听器时发生异常: " + e.getMessage());
+            }
+        }
+    }
+
+    // 注册采样完成监听器（如指标推送通道）
+    public void addListener(MetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    public MetricsSnapshot getLatest() {
+        return latest;
+    }
+
+    public MetricsHistory getHistory() {
+        return history;
+    }
+
+    // 四舍五入工具方法
+    private double round(double value, int places) {
+        try {
+            if (places < 0) throw new IllegalArgumentException("小数位数不能为负数");
+            
+            long factor = (long) Math.pow(10, places);
+            value = value * factor;
+            long tmp = Math.round(value);
+            return (double) tmp / factor;
+        } catch (Exception e) {
+            System.err.println("四舍五入计算时发生异常: " + e.getMessage());
+            e.printStackTrace();
+            return 0.0;
+        }
+    }
+
+    // 采集一次系统指标，每一部分单独计时，某一部分失败不影响其余部分；
+    // 读取文件的部分在截止时间线程池中与JVM指标并行采集，耗时不超过各自的截止时间
+    private MetricsSnapshot collect() {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        osTask.start(deadlineExecutor);
+        boolean networkSupported = networkCollector.isSupported();
+        if (networkSupported) {
+            networkTask.start(deadlineExecutor);
+        }
+        boolean diskSupported = diskCollector.isSupported();
+        if (diskSupported) {
+            diskTask.start(deadlineExecutor);
+        }
+        boolean threadCpuSupported = threadCpuCollector.isSupported();
+        if (threadCpuSupported) {
+            threadCpuTask.start(deadlineExecutor);
+        }
+        boolean pressureSupported = pressureCollector.isSupported();
+        if (pressureSupported) {
+            pressureTask.start(deadlineExecutor);
+        }
+        
+        timed(memoryStats, snapshot, this::collectMemory);
+        timed(threadStats, snapshot, this::collectThreads);
+        timed(classStats, snapshot, this::collectClasses);
+        timed(gcStats, snapshot, this::collectGc);
+        
+        // 操作系统 CPU 和内存
+        collectOs(snapshot);
+        
+        // 各线程的 CPU 使用率
+        if (threadCpuSupported) {
+            collectThreadCpu(snapshot);
+        }
+        
+        // 压力阻塞信息（PSI），内核未启用时没有该字段
+        if (pressureSupported) {
+            collectPressure(snapshot);
+        }
+        
+        // GPU信息
+        collectGpus(snapshot);
+        
+        // 网络速度信息
+        collectNetwork(snapshot, networkSupported);
+        
+        // 磁盘和文件系统
+        collectDisk(snapshot, diskSupported);
+        
+        return snapshot;
+    }
+
+    // 采集的一个部分
+    private interface Phase {
+        void collect(MetricsSnapshot snapshot) throws Exception;
+    }
+
+    private void timed(CollectorStats stats, MetricsSnapshot snapshot, Phase phase) {
+        long start = System.nanoTime();
+        try {
+            phase.collect(snapshot);
+            stats.record(start);
+        } catch (Exception e) {
+            stats.recordFailure(start, e);
+            if (snapshot.error == null) {
+                snapshot.error = "获取系统指标时发生错误: " + e.getMessage();
+            }
+            e.printStackTrace();
+        }
+    }
+
+    private void collectMemory(MetricsSnapshot snapshot) {
+        // JVM堆内存信息
+        MemoryUsage heapUsage = memoryBean.getHeapMemoryUsage();
+        long heapUsedBytes = heapUsage.getUsed();
+        long heapMaxBytes = heapUsage.getMax(); // 可能为 -1 或 Long.MAX_VALUE
+        long heapCommittedBytes = heapUsage.getCommitted();
+        
+        snapshot.heapUsedMB = round(heapUsedBytes / (1024.0 * 1024.0), 2);
+        snapshot.heapMaxMB = heapMaxBytes > 0 ? round(heapMaxBytes / (1024.0 * 1024.0), 2) : -1;
+        snapshot.heapCommittedMB = round(heapCommittedBytes / (1024.0 * 1024.0), 2);
+        snapshot.heapUsagePercent = heapMaxBytes > 0 ? round((heapUsedBytes * 100.0) / heapMaxBytes, 2) : -1;
+        snapshot.heapUsedBytes = heapUsedBytes;
+        snapshot.heapMaxBytes = heapMaxBytes > 0 ? heapMaxBytes : -1;
+        snapshot.heapCommittedBytes = heapCommittedBytes;
+        
+        // JVM非堆内存信息
+        MemoryUsage nonHeapUsage = memoryBean.getNonHeapMemoryUsage();
+        snapshot.nonHeapUsedMB = round(nonHeapUsage.getUsed() / (1024.0 * 1024.0), 2);
+        snapshot.nonHeapUsedBytes = nonHeapUsage.getUsed();
+    }
+
+    // 在截止时间线程池中读取操作系统指标
+    private OsReading readOs() {
+        OsReading reading = new OsReading();
+        reading.systemCpuLoad = osBean.getSystemCpuLoad(); // 系统整体 CPU 使用率
+        reading.processCpuLoad = osBean.getProcessCpuLoad(); // 当前 JVM 进程 CPU 使用率
+        reading.availableProcessors = osBean.getAvailableProcessors();
+        reading.systemLoadAverage = osBean.getSystemLoadAverage(); // Unix/Linux 平均负载
+        reading.totalPhysicalMemorySize = osBean.getTotalPhysicalMemorySize();
+        reading.freePhysicalMemorySize = osBean.getFreePhysicalMemorySize();
+        return reading;
+    }
+
+    // 操作系统指标，超时时沿用上一次的结果并标记为过期
+    private void collectOs(MetricsSnapshot snapshot) {
+        OsReading reading = osTask.await();
+        if (reading == null) {
+            Throwable e = osTask.getFailure();
+            System.err.println("获取操作系统指标时发生异常: " + e.getMessage());
+            if (snapshot.error == null) {
+                snapshot.error = "获取系统指标时发生错误: " + e.getMessage();
+            }
+            return;
+        }
+        snapshot.osStaleMs = osTask.getStaleAgeMs();
+
+        // CPU使用率信息
+        double systemCpuLoad = reading.systemCpuLoad;
+        double processCpuLoad = reading.processCpuLoad;
+        snapshot.systemCpuLoadPercent = systemCpuLoad >= 0 ? round(systemCpuLoad * 100.0, 2) : -1;
+        snapshot.processCpuLoadPercent = processCpuLoad >= 0 ? round(processCpuLoad * 100.0, 2) : -1;
+        snapshot.systemCpuLoad = systemCpuLoad;
+        snapshot.processCpuLoad = processCpuLoad;
+        
+        // 系统信息
+        snapshot.availableProcessors = reading.availableProcessors;
+        snapshot.systemLoadAverage = reading.systemLoadAverage;
+        
+        // 系统内存信息
+        long totalPhysicalMemorySize = reading.totalPhysicalMemorySize;
+        long freePhysicalMemorySize = reading.freePhysicalMemorySize;
+        long usedPhysicalMemorySize = totalPhysicalMemorySize - freePhysicalMemorySize;
+        snapshot.totalPhysicalMemoryMB = round(totalPhysicalMemorySize / (1024.0 * 1024.0), 2);
+        snapshot.freePhysicalMemoryMB = round(freePhysicalMemorySize / (1024.0 * 1024.0), 2);
+        snapshot.usedPhysicalMemoryMB = round(usedPhysicalMemorySize / (1024.0 * 1024.0), 2);
+        snapshot.systemMemoryUsagePercent = round((usedPhysicalMemorySize * 100.0) / totalPhysicalMemorySize, 2);
+        snapshot.totalPhysicalMemoryBytes = totalPhysicalMemorySize;
+        snapshot.freePhysicalMemoryBytes = freePhysicalMemorySize;
+    }
+
+    // 一次操作系统 MXBean 读数
+    private static final class OsReading {
+        double systemCpuLoad;
+        double processCpuLoad;
+        int availableProcessors;
+        double systemLoadAverage;
+        long totalPhysicalMemorySize;
+        long freePhysicalMemorySize;
+    }
+
+    private void collectThreads(MetricsSnapshot snapshot) {
+        // 线程信息（只读取计数，不再把整个 MXBean 交给序列化器反射遍历）
+        snapshot.threadCount = threadBean.getThreadCount();
+        snapshot.peakThreadCount = threadBean.getPeakThreadCount();
+        snapshot.daemonThreadCount = threadBean.getDaemonThreadCount();
+    }
+
+
+    private void collectClasses(MetricsSnapshot snapshot) {
+        // 类加载信息
+        snapshot.loadedClassCount = classLoadingBean.getLoadedClassCount();
+        snapshot.totalLoadedClassCount = classLoadingBean.getTotalLoadedClassCount();
+        snapshot.unloadedClassCount = classLoadingBean.getUnloadedClassCount();
+    }
+
+    private void collectGc(MetricsSnapshot snapshot) {
+        // 垃圾回收信息
+        int gcCount = gcBeans.size();
+        snapshot.gcNames = new String[gcCount];
+        snapshot.gcCounts = new long[gcCount];
+        snapshot.gcTimes = new long[gcCount];
+        for (int i = 0; i < gcCount; i++) {
+            GarbageCollectorMXBean gcBean = gcBeans.get(i);
+            snapshot.gcNames[i] = gcBean.getName();
+            snapshot.gcCounts[i] = gcBean.getCollectionCount();
+            snapshot.gcTimes[i] = gcBean.getCollectionTime();
+            snapshot.totalGcCount += snapshot.gcCounts[i];
+            snapshot.totalGcTime += snapshot.gcTimes[i];
+        }
+        // 单次停顿和分配/晋升速率来自 GC 通知
+        if (gcEventCollector.isSupported()) {
+            snapshot.gcActivity = gcEventCollector.collect();
+        }
+    }
+
+
+    // 提取写入历史缓冲区的数值（顺序与 HISTORY_SERIES 一致），缺失或过期的指标记为NaN
+    public static double[] toHistoryRow(MetricsSnapshot snapshot) {
+        MetricsSnapshot.GpuInfo gpu = snapshot.gpuInfo;
+        boolean gpuFresh = gpu.parsed && snapshot.gpuStaleMs < 0;
+        boolean networkFresh = snapshot.networkStaleMs < 0;
+        boolean osFresh = snapshot.osStaleMs < 0;
+        GcEventCollector.Sample gc = snapshot.gcActivity;
+        DiskCollector.Sample disk = snapshot.diskStaleMs < 0 ? snapshot.disk : null;
+        PressureCollector.Sample pressure = snapshot.pressureStaleMs < 0 ? snapshot.pressure : null;
+        return new double[]{
+                snapshot.heapUsedMB, snapshot.heapUsagePercent, snapshot.nonHeapUsedMB,
+                osFresh ? snapshot.systemCpuLoadPercent : Double.NaN, osFresh ? snapshot.processCpuLoadPercent : Double.NaN,
+                osFresh ? snapshot.systemLoadAverage : Double.NaN,
+                osFresh ? snapshot.usedPhysicalMemoryMB : Double.NaN, osFresh ? snapshot.systemMemoryUsagePercent : Double.NaN,
+                snapshot.threadCount, snapshot.loadedClassCount, snapshot.totalGcCount, snapshot.totalGcTime,
+                gpuFresh ? gpu.gpuUtilization : Double.NaN, gpuFresh ? gpu.gpuMemoryUtilization : Double.NaN,
+                networkFresh ? snapshot.getReceivedKbps() : Double.NaN, networkFresh ? snapshot.getSentKbps() : Double.NaN,
+                gc != null ? MetricsSnapshot.round2(gc.getAllocationRateMBps()) : Double.NaN,
+                gc != null ? MetricsSnapshot.round2(gc.getPromotionRateMBps()) : Double.NaN,
+                gc != null ? gc.getIntervalPauseMs() : Double.NaN, gc != null ? gc.getIntervalMaxPauseMs() : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getReadIops()) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getWriteIops()) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getReadBytesPerSecond() / (1024.0 * 1024.0)) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getWriteBytesPerSecond() / (1024.0 * 1024.0)) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getAwaitMs()) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getMaxUtilPercent()) : Double.NaN,
+                disk != null ? MetricsSnapshot.round2(disk.getMaxFilesystemUsagePercent()) : Double.NaN,
+                pressure != null ? pressure.getAverage(PressureCollector.CPU, PressureCollector.SOME, PressureCollector.AVG10) : Double.NaN,
+                pressure != null ? pressure.getAverage(PressureCollector.MEMORY, PressureCollector.SOME, PressureCollector.AVG10) : Double.NaN,
+                pressure != null ? pressure.getAverage(PressureCollector.IO, PressureCollector.SOME, PressureCollector.AVG10) : Double.NaN
+        };
+    }
+
+    // 复制所有GPU的最新读数，gpuInfo 保留第一块；遥测流中断时读数标记为过期
+    private void collectGpus(MetricsSnapshot snapshot) {
+        GpuCollector.GpuState[] states = gpuCollector.getGpus();
+        if (states.length == 0) {
+            snapshot.gpuInfo = new MetricsSnapshot.GpuInfo();
+            snapshot.gpuInfo.error = "无法获取GPU信息: " + gpuCollector.getError();
+            return;
+        }
+        MetricsSnapshot.GpuInfo[] gpus = new MetricsSnapshot.GpuInfo[states.length];
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < states.length; i++) {
+            double[] values = new double[GpuCollector.VALUE_COUNT];
+            long updatedAt = states[i].read(values);
+            oldest = Math.min(oldest, updatedAt);
+            gpus[i] = MetricsSnapshot.GpuInfo.of(states[i].getIndex(), states[i].getName(), values, states.length);
+        }
+        snapshot.gpus = gpus;
+        snapshot.gpuInfo = gpus[0];
+        long age = System.currentTimeMillis() - oldest;
+        if (age > gpuCollector.getStaleAfterMs()) {
+            snapshot.gpuStaleMs = age;
+        }
+    }
+
+    // 获取网络速度信息，超时时沿用上一次的结果并标记为过期
+    private void collectNetwork(MetricsSnapshot snapshot, boolean supported) {
+        if (!supported) {
+            snapshot.networkError = "当前系统不支持读取/proc/net/dev";
+            return;
+        }
+        snapshot.network = networkTask.await();
+        if (snapshot.network != null) {
+            snapshot.networkStaleMs = networkTask.getStaleAgeMs();
+        } else {
+            Throwable e = networkTask.getFailure();
+            System.err.println("获取网络速度信息时发生异常: " + e.getMessage());
+            snapshot.networkError = "无法获取网络速度信息: " + e.getMessage();
+        }
+    }
+
+    // 获取磁盘和文件系统信息，超时时沿用上一次的结果并标记为过期
+    private void collectDisk(MetricsSnapshot snapshot, boolean supported) {
+        if (!supported) {
+            snapshot.diskError = "当前系统不支持读取/proc/diskstats";
+            return;
+        }
+        snapshot.disk = diskTask.await();
+        if (snapshot.disk != null) {
+            snapshot.diskStaleMs = diskTask.getStaleAgeMs();
+        } else {
+            Throwable e = diskTask.getFailure();
+            System.err.println("获取磁盘信息时发生异常: " + e.getMessage());
+            snapshot.diskError = "无法获取磁盘信息: " + e.getMessage();
+        }
+    }
+
+    // 各线程在采样间隔内的 CPU 使用率（只保留占用最高的几个），超时时沿用上一次的结果并标记为过期
+    private void collectThreadCpu(MetricsSnapshot snapshot) {
+        snapshot.threadCpu = threadCpuTask.await();
+        if (snapshot.threadCpu != null) {
+            snapshot.threadCpuStaleMs = threadCpuTask.getStaleAgeMs();
+        } else {
+            System.err.println("获取线程CPU使用率时发生异常: " + threadCpuTask.getFailure().getMessage());
+        }
+    }
+
+    // 压力阻塞信息，超时时沿用上一次的结果并标记为过期
+    private void collectPressure(MetricsSnapshot snapshot) {
+        snapshot.pressure = pressureTask.await();
+        if (snapshot.pressure != null) {
+            snapshot.pressureStaleMs = pressureTask.getStaleAgeMs();
+        } else {
+            System.err.println("获取压力阻塞信息时发生异常: " + pressureTask.getFailure().getMessage());
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.collector.DiskCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GcEventCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GpuCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.NetworkCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.PressureCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.ThreadCpuCollector;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次采样得到的系统指标快照。
+ * 字段在采样线程中填充，随后调用 {@link #encode()} 按固定的字段顺序编码为 JSON；
+ * 发布后不再修改，所有请求共享同一份编码结果，不再在请求线程中反射序列化。
+ */
+@Getter
+public final class MetricsSnapshot {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper MAP_READER = new ObjectMapper();
+
+    long timestamp;
+
+    // JVM 内存（MB），未知时为 -1
+    double heapUsedMB;
+    double heapMaxMB = -1;
+    double heapCommittedMB;
+    double heapUsagePercent = -1;
+    double nonHeapUsedMB;
+    // 原始字节数（供 OpenMetrics 导出，JSON 中只保留 MB），未知时为 -1
+    long heapUsedBytes;
+    long heapMaxBytes = -1;
+    long heapCommittedBytes;
+    long nonHeapUsedBytes;
+
+    // CPU，未知时为 -1
+    double systemCpuLoadPercent = -1;
+    double processCpuLoadPercent = -1;
+    int availableProcessors;
+    double systemLoadAverage = -1;
+    // 未取整的 CPU 使用率（0~1），未知时为负数
+    double systemCpuLoad = -1;
+    double processCpuLoad = -1;
+
+    // 系统内存（MB）
+    double totalPhysicalMemoryMB;
+    double freePhysicalMemoryMB;
+    double usedPhysicalMemoryMB;
+    double systemMemoryUsagePercent;
+    long totalPhysicalMemoryBytes;
+    long freePhysicalMemoryBytes;
+
+    // 线程和类加载
+    int threadCount;
+    int peakThreadCount;
+    int daemonThreadCount;
+    // 各线程的 CPU 占用（top-n），不支持线程 CPU 计时时为 null
+    ThreadCpuCollector.Sample threadCpu;
+    int loadedClassCount;
+    long totalLoadedClassCount;
+    long unloadedClassCount;
+
+    // 垃圾回收，三个数组按收集器一一对应
+    String[] gcNames = new String[0];
+    long[] gcCounts = new long[0];
+    long[] gcTimes = new long[0];
+    long totalGcCount;
+    long totalGcTime;
+    // 基于 GC 通知的停顿和分配/晋升速率，不支持 GC 通知时为 null
+    GcEventCollector.Sample gcActivity;
+
+    // 第一块 GPU（兼容原有的 gpuInfo 字段），gpus 包含全部 GPU
+    GpuInfo gpuInfo = new GpuInfo();
+    GpuInfo[] gpus = new GpuInfo[0];
+
+    // 网络流量样本，不可用时 networkError 给出原因
+    NetworkCollector.Sample network;
+    String networkError;
+
+    // 磁盘和文件系统样本，不可用时 diskError 给出原因
+    DiskCollector.Sample disk;
+    String diskError;
+    // 压力阻塞信息（PSI），内核不支持时为 null
+    PressureCollector.Sample pressure;
+
+    // 采集超时而沿用上一次结果时为该结果的年龄（毫秒），否则为 -1
+    long osStaleMs = -1;
+    long gpuStaleMs = -1;
+    long networkStaleMs = -1;
+    long diskStaleMs = -1;
+    long threadCpuStaleMs = -1;
+    long pressureStaleMs = -1;
+
+    // 采集过程中的错误
+    String error;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private byte[] json;
+    @Getter(lombok.AccessLevel.NONE)
+    private volatile Map<String, Object> map;
+
+    // 网络接收/发送速率（Kbps），不可用时为 NaN
+    public double getReceivedKbps() {
+        return network != null ? round2(network.getTotalRate(NetworkCollector.RX_BYTES) * 8.0 / 1000.0) : Double.NaN;
+    }
+
+    public double getSentKbps() {
+        return network != null ? round2(network.getTotalRate(NetworkCollector.TX_BYTES) * 8.0 / 1000.0) : Double.NaN;
+    }
+
+    // 编码为 JSON，采样线程在发布前调用一次
+    void encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writeTo(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        json = out.toByteArray();
+    }
+
+    /**
+     * 已编码的 JSON，所有读取者共享同一个数组，调用方不得修改。
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * Map 形式的快照（推送通道做增量比较时使用），由已编码的 JSON 解析得到，
+     * 与 HTTP 接口的结构完全一致；首次调用时生成并缓存。
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> asMap() {
+        Map<String, Object> result = map;
+        if (result == null) {
+            try {
+                result = Collections.unmodifiableMap(MAP_READER.readValue(json, LinkedHashMap.class));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            map = result;
+        }
+        return result;
+    }
+
+    // 字段顺序固定，新增字段只追加，不改变已有字段的含义
+    private void writeTo(JsonGenerator g) throws IOException {
+        g.writeStartObject();
+        g.writeNumberField("timestamp", timestamp);
+        g.writeNumberField("heapUsedMB", heapUsedMB);
+        g.writeNumberField("heapMaxMB", heapMaxMB);
+        g.writeNumberField("heapCommittedMB", heapCommittedMB);
+        g.writeNumberField("heapUsagePercent", heapUsagePercent);
+        g.writeNumberField("nonHeapUsedMB", nonHeapUsedMB);
+        g.writeNumberField("systemCpuLoadPercent", systemCpuLoadPercent);
+        g.writeNumberField("processCpuLoadPercent", processCpuLoadPercent);
+        g.writeNumberField("availableProcessors", availableProcessors);
+        g.writeNumberField("systemLoadAverage", systemLoadAverage);
+        g.writeNumberField("totalPhysicalMemoryMB", totalPhysicalMemoryMB);
+        g.writeNumberField("freePhysicalMemoryMB", freePhysicalMemoryMB);
+        g.writeNumberField("usedPhysicalMemoryMB", usedPhysicalMemoryMB);
+        g.writeNumberField("systemMemoryUsagePercent", systemMemoryUsagePercent);
+        g.writeNumberField("threadCount", threadCount);
+        g.writeNumberField("peakThreadCount", peakThreadCount);
+        g.writeNumberField("daemonThreadCount", daemonThreadCount);
+        g.writeNumberField("loadedClassCount", loadedClassCount);
+        g.writeNumberField("totalLoadedClassCount", totalLoadedClassCount);
+        g.writeNumberField("unloadedClassCount", unloadedClassCount);
+
+        g.writeObjectFieldStart("gc");
+        for (int i = 0; i < gcNames.length; i++) {
+            g.writeObjectFieldStart(gcNames[i]);
+            g.writeNumberField("collectionCount", gcCounts[i]);
+            g.writeNumberField("collectionTime", gcTimes[i]);
+            g.writeEndObject();
+        }
+        g.writeEndObject();
+        g.writeNumberField("totalGcCount", totalGcCount);
+        g.writeNumberField("totalGcTime", totalGcTime);
+
+        g.writeFieldName("gpuInfo");
+        gpuInfo.writeTo(g);
+
+        g.writeFieldName("networkSpeed");
+        if (network != null) {
+            network.writeTo(g);
+        } else {
+            g.writeStartObject();
+            g.writeStringField("error", networkError);
+            g.writeEndObject();
+        }
+
+        if (error != null) {
+            g.writeStringField("error", error);
+        }
+        // 全部GPU（gpuInfo 只是其中第一块）
+        g.writeArrayFieldStart("gpus");
+        for (GpuInfo gpu : gpus) {
+            gpu.writeTo(g);
+        }
+        g.writeEndArray();
+        if (osStaleMs >= 0 || gpuStaleMs >= 0 || networkStaleMs >= 0 || diskStaleMs >= 0 || threadCpuStaleMs >= 0
+                || pressureStaleMs >= 0) {
+            // 过期的部分及其年龄（毫秒）
+            g.writeObjectFieldStart("stale");
+            if (osStaleMs >= 0) g.writeNumberField("os", osStaleMs);
+            if (gpuStaleMs >= 0) g.writeNumberField("gpuInfo", gpuStaleMs);
+            if (networkStaleMs >= 0) g.writeNumberField("networkSpeed", networkStaleMs);
+            if (diskStaleMs >= 0) g.writeNumberField("disk", diskStaleMs);
+            if (threadCpuStaleMs >= 0) g.writeNumberField("threadCpu", threadCpuStaleMs);
+            if (pressureStaleMs >= 0) g.writeNumberField("pressure", pressureStaleMs);
+            g.writeEndObject();
+        }
+        if (threadCpu != null) {
+            g.writeFieldName("threadCpu");
+            threadCpu.writeTo(g);
+        }
+        if (gcActivity != null) {
+            g.writeFieldName("gcActivity");
+            gcActivity.writeTo(g);
+        }
+        g.writeFieldName("disk");
+        if (disk != null) {
+            disk.writeTo(g);
+        } else {
+            g.writeStartObject();
+            g.writeStringField("error", diskError);
+            g.writeEndObject();
+        }
+        if (pressure != null) {
+            g.writeFieldName("pressure");
+            pressure.writeTo(g);
+        }
+        g.writeEndObject();
+    }
+
+    static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 一块 GPU 的信息，index 为 nvidia-smi 给出的序号。
+     */
+    @Getter
+    public static final class GpuInfo {
+        // 温度、功耗等附加读数在 JSON 中的字段名，顺序与 GpuCollector 的数值序号一致（前三项另有字段）
+        private static final String[] EXTRA_FIELDS = {
+                null, null, null, "memoryActivityPercent", "temperatureC", "powerDrawW", "powerLimitW",
+                "smClockMHz", "memoryClockMHz"
+        };
+
+        int index;
+        int gpuCount;
+        // 以下字段仅在成功解析时有效，未知的整数读数为 -1
+        boolean parsed;
+        String gpuName;
+        int gpuUtilization;
+        int gpuMemoryUsed;
+        int gpuMemoryTotal;
+        double gpuMemoryUtilization;
+        // 全部数值读数，按 GpuCollector 的数值序号存放，未知为 NaN
+        double[] values = new double[0];
+        String error;
+
+        static GpuInfo of(int index, String name, double[] values, int gpuCount) {
+            GpuInfo gpu = new GpuInfo();
+            gpu.index = index;
+            gpu.gpuCount = gpuCount;
+            gpu.gpuName = name;
+            gpu.values = values;
+            gpu.gpuUtilization = toInt(values[GpuCollector.UTILIZATION]);
+            gpu.gpuMemoryUsed = toInt(values[GpuCollector.MEMORY_USED]);
+            gpu.gpuMemoryTotal = toInt(values[GpuCollector.MEMORY_TOTAL]);
+            gpu.gpuMemoryUtilization = gpu.gpuMemoryTotal > 0 && gpu.gpuMemoryUsed >= 0
+                    ? round2((gpu.gpuMemoryUsed * 100.0) / gpu.gpuMemoryTotal) : 0;
+            gpu.parsed = true;
+            return gpu;
+        }
+
+        private static int toInt(double value) {
+            return Double.isNaN(value) ? -1 : (int) Math.round(value);
+        }
+
+        // 数值读数，未知或不存在时为 NaN
+        public double getValue(int valueIndex) {
+            return valueIndex < values.length ? values[valueIndex] : Double.NaN;
+        }
+
+        void writeTo(JsonGenerator g) throws IOException {
+            g.writeStartObject();
+            g.writeNumberField("gpuCount", gpuCount);
+            if (parsed) {
+                g.writeStringField("gpuName", gpuName);
+                g.writeNumberField("gpuUtilization", gpuUtilization);
+                g.writeNumberField("gpuMemoryUsed", gpuMemoryUsed);
+                g.writeNumberField("gpuMemoryTotal", gpuMemoryTotal);
+                g.writeNumberField("gpuMemoryUtilization", gpuMemoryUtilization);
+                g.writeNumberField("index", index);
+                for (int i = 0; i < values.length; i++) {
+                    if (EXTRA_FIELDS[i] != null && !Double.isNaN(values[i])) {
+                        g.writeNumberField(EXTRA_FIELDS[i], values[i]);
+                    }
+                }
+            }
+            if (error != null) {
+                g.writeStringField("error", error);
+            }
+            g.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import java.util.Arrays;
+
+/**
+ * 可重复使用的 OpenMetrics 文本缓冲区。
+ * 数值和标签直接写成 UTF-8 字节，不创建中间字符串；reset() 后保留已分配的容量。
+ * 非线程安全，由调用方加锁。
+ */
+final class OpenMetricsBuffer {
+
+    private static final byte[] DIGITS = "0123456789".getBytes();
+
+    private byte[] bytes;
+    private int length = 0;
+    // 浮点数格式化使用的临时缓冲，StringBuilder.append(double) 不创建字符串
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    OpenMetricsBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    // # TYPE 和 # HELP 行，help 为 null 时省略
+    OpenMetricsBuffer family(String name, String type, String unit, String help) {
+        ascii("# TYPE ").ascii(name).ascii(" ").ascii(type).ascii("\n");
+        if (unit != null) {
+            ascii("# UNIT ").ascii(name).ascii(" ").ascii(unit).ascii("\n");
+        }
+        if (help != null) {
+            ascii("# HELP ").ascii(name).ascii(" ").text(help, help.length(), false).ascii("\n");
+        }
+        return this;
+    }
+
+    // 样本名（计数器需要调用方追加 _total）
+    OpenMetricsBuffer sample(String name) {
+        return ascii(name);
+    }
+
+    // 第一个标签写 {，后续标签写 ,
+    OpenMetricsBuffer label(boolean first, String name, String value) {
+        return label(first, name, value, Integer.MAX_VALUE);
+    }
+
+    // 只写出标签值的前 maxLength 个字符（如容器短ID）
+    OpenMetricsBuffer label(boolean first, String name, String value, int maxLength) {
+        String text = value != null ? value : "";
+        ensure(1);
+        bytes[length++] = (byte) (first ? '{' : ',');
+        ascii(name).ascii("=\"").text(text, Math.min(maxLength, text.length()), true);
+        ensure(1);
+        bytes[length++] = '"';
+        return this;
+    }
+
+    OpenMetricsBuffer label(boolean first, String name, long value) {
+        ensure(1);
+        bytes[length++] = (byte) (first ? '{' : ',');
+        ascii(name).ascii("=\"");
+        ensure(21);
+        writeLong(value);
+        bytes[length++] = '"';
+        return this;
+    }
+
+    OpenMetricsBuffer endLabels() {
+        ensure(1);
+        bytes[length++] = '}';
+        return this;
+    }
+
+    OpenMetricsBuffer value(long value) {
+        ensure(22);
+        bytes[length++] = ' ';
+        writeLong(value);
+        bytes[length++] = '\n';
+        return this;
+    }
+
+    OpenMetricsBuffer value(double value) {
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            return value((long) value);
+        }
+        ascii(" ");
+        if (Double.isNaN(value)) {
+            ascii("NaN");
+        } else if (Double.isInfinite(value)) {
+            ascii(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            scratch.setLength(0);
+            scratch.append(value);
+            ensure(scratch.length());
+            for (int i = 0; i < scratch.length(); i++) {
+                bytes[length++] = (byte) scratch.charAt(i);
+            }
+        }
+        return ascii("\n");
+    }
+
+    OpenMetricsBuffer ascii(String value) {
+        int n = value.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) {
+            bytes[length++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    // 写出 UTF-8 文本，标签值需要转义反斜杠、双引号和换行，HELP 文本只转义反斜杠和换行；
+    // 每个字符最多占3字节（代理对两个字符占4字节），因此预先按 3 倍扩容
+    private OpenMetricsBuffer text(String value, int n, boolean quoted) {
+        ensure(n * 3);
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '\n' || (quoted && c == '"')) {
+                bytes[length++] = '\\';
+                bytes[length++] = (byte) (c == '\n' ? 'n' : c);
+            } else if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[length++] = '?';
+            } else {
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            bytes[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            bytes[length++] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        } while (value != 0);
+        // 逆序写入后翻转
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = tmp;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
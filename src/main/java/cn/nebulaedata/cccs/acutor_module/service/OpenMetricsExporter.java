@@ -0,0 +1,342 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.collector.ContainerStatsCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.DiskCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GcEventCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GpuCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.NetworkCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.PressureCollector;
+import org.springframework.stereotype.Component;
+
+/**
+ * 把后台采样结果导出为 OpenMetrics 文本（Prometheus 抓取格式）。
+ * 只有系统快照或容器统计更新后才重新渲染：渲染写入同一个可复用的缓冲区，
+ * 结果复制为一个定长数组后发布；同一采样周期内的所有抓取直接返回这个数组，
+ * 多个 Prometheus 副本频繁抓取也不会重复渲染或分配。
+ */
+@Component
+public class OpenMetricsExporter {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    // 网卡计数器，顺序与 NetworkCollector 的计数器序号一致
+    private static final String[] NETWORK_FAMILIES = {
+            "monitor_network_receive_bytes", "monitor_network_receive_packets",
+            "monitor_network_receive_errors", "monitor_network_receive_drops",
+            "monitor_network_transmit_bytes", "monitor_network_transmit_packets",
+            "monitor_network_transmit_errors", "monitor_network_transmit_drops"
+    };
+
+    // 磁盘计数器，顺序与 DiskCollector 的计数器序号一致，正在进行的 I/O 数单独作为瞬时值输出
+    private static final String[] DISK_FAMILIES = {
+            "monitor_disk_reads_completed", "monitor_disk_read_bytes", "monitor_disk_read_time_seconds",
+            "monitor_disk_writes_completed", "monitor_disk_written_bytes", "monitor_disk_write_time_seconds",
+            null, "monitor_disk_io_time_seconds", "monitor_disk_io_time_weighted_seconds"
+    };
+    private static final String[] DISK_UNITS = {
+            null, "bytes", "seconds", null, "bytes", "seconds", null, "seconds", "seconds"
+    };
+
+    // 文件系统容量，顺序与 DiskCollector 的文件系统数值序号一致
+    private static final String[] FILESYSTEM_FAMILIES = {
+            "monitor_filesystem_size_bytes", "monitor_filesystem_free_bytes", "monitor_filesystem_avail_bytes",
+            "monitor_filesystem_files", "monitor_filesystem_files_free"
+    };
+
+    // GPU读数，顺序与 GpuCollector 的数值序号一致，乘以 GPU_SCALES 再除以 GPU_DIVISORS 换算为基本单位
+    private static final String[] GPU_FAMILIES = {
+            "monitor_gpu_utilization_ratio", "monitor_gpu_memory_used_bytes", "monitor_gpu_memory_total_bytes",
+            "monitor_gpu_memory_activity_ratio", "monitor_gpu_temperature_celsius",
+            "monitor_gpu_power_usage_watts", "monitor_gpu_power_limit_watts",
+            "monitor_gpu_sm_clock_hertz", "monitor_gpu_memory_clock_hertz"
+    };
+    private static final String[] GPU_UNITS = {
+            "ratio", "bytes", "bytes", "ratio", "celsius", "watts", "watts", "hertz", "hertz"
+    };
+    private static final double[] GPU_SCALES = {1, 1024.0 * 1024.0, 1024.0 * 1024.0, 1, 1, 1, 1, 1e6, 1e6};
+    private static final double[] GPU_DIVISORS = {100, 1, 1, 100, 1, 1, 1, 1, 1};
+
+    // 容器累计计数器，顺序与 ContainerStatsCollector 的计数器序号一致
+    private static final String[] CONTAINER_COUNTER_FAMILIES = {
+            "monitor_container_cpu_usage_seconds", "monitor_container_cpu_user_seconds",
+            "monitor_container_cpu_system_seconds", "monitor_container_cpu_throttled_periods",
+            "monitor_container_cpu_throttled_seconds",
+            "monitor_container_blkio_read_bytes", "monitor_container_blkio_write_bytes",
+            "monitor_container_blkio_read_operations", "monitor_container_blkio_write_operations",
+            "monitor_container_network_receive_bytes", "monitor_container_network_transmit_bytes",
+            "monitor_container_network_receive_packets", "monitor_container_network_transmit_packets"
+    };
+    private static final String[] CONTAINER_COUNTER_UNITS = {
+            "seconds", "seconds", "seconds", null, "seconds",
+            "bytes", "bytes", null, null,
+            "bytes", "bytes", null, null
+    };
+    // 以纳秒为单位的计数器需要换算为秒
+    private static final boolean[] CONTAINER_COUNTER_NANOS = {
+            true, true, true, false, true,
+            false, false, false, false,
+            false, false, false, false
+    };
+
+    // 容器瞬时值，顺序与 ContainerStatsCollector 的瞬时值序号一致
+    private static final String[] CONTAINER_GAUGE_FAMILIES = {
+            "monitor_container_memory_usage_bytes", "monitor_container_memory_working_set_bytes",
+            "monitor_container_memory_rss_bytes", "monitor_container_memory_cache_bytes",
+            "monitor_container_memory_limit_bytes", "monitor_container_pids"
+    };
+
+    private static final String[] PRESSURE_RESOURCES = {"cpu", "memory", "io"};
+
+    // GC 停顿直方图各桶的 le 标签（秒）
+    private static final String[] GC_PAUSE_LE = new String[GcEventCollector.PAUSE_BUCKETS_MS.length + 1];
+
+    static {
+        for (int i = 0; i < GcEventCollector.PAUSE_BUCKETS_MS.length; i++) {
+            GC_PAUSE_LE[i] = Double.toString(GcEventCollector.PAUSE_BUCKETS_MS[i] / 1000.0);
+        }
+        GC_PAUSE_LE[GcEventCollector.PAUSE_BUCKETS_MS.length] = "+Inf";
+    }
+
+    private final MetricsSampler metricsSampler;
+    private final ContainerStatsCollector containerStatsCollector;
+
+    // 以下字段由 this 保护
+    private final OpenMetricsBuffer buffer = new OpenMetricsBuffer(16384);
+    private MetricsSnapshot renderedSnapshot;
+    private ContainerStatsCollector.Sample renderedContainers;
+    private byte[] rendered;
+
+    public OpenMetricsExporter(MetricsSampler metricsSampler, ContainerStatsCollector containerStatsCollector) {
+        this.metricsSampler = metricsSampler;
+        this.containerStatsCollector = containerStatsCollector;
+    }
+
+    /**
+     * 返回最新采样结果的 OpenMetrics 文本，调用方不得修改返回的数组。
+     */
+    public synchronized byte[] render() {
+        MetricsSnapshot snapshot = metricsSampler.getLatest();
+        ContainerStatsCollector.Sample containers = containerStatsCollector.getLatest();
+        if (rendered == null || snapshot != renderedSnapshot || containers != renderedContainers) {
+            buffer.reset();
+            writeSystem(snapshot);
+            writeJvm(snapshot);
+            writeNetwork(snapshot.getNetwork());
+            writeDisk(snapshot.getDisk());
+            writePressure(snapshot.getPressure());
+            writeGpus(snapshot.getGpus());
+            writeContainers(containers);
+            buffer.ascii("# EOF\n");
+            rendered = buffer.toByteArray();
+            renderedSnapshot = snapshot;
+            renderedContainers = containers;
+        }
+        return rendered;
+    }
+
+    private void writeSystem(MetricsSnapshot snapshot) {
+        if (snapshot.systemCpuLoad >= 0) {
+            gauge("monitor_system_cpu_usage_ratio", "ratio", "系统整体CPU使用率", snapshot.systemCpuLoad);
+        }
+        if (snapshot.processCpuLoad >= 0) {
+            gauge("monitor_process_cpu_usage_ratio", "ratio", "监控进程CPU使用率", snapshot.processCpuLoad);
+        }
+        gauge("monitor_system_cpus", null, "可用处理器数量", snapshot.availableProcessors);
+        if (snapshot.systemLoadAverage >= 0) {
+            gauge("monitor_system_load_average_1m", null, "系统1分钟平均负载", snapshot.systemLoadAverage);
+        }
+        gauge("monitor_system_memory_total_bytes", "bytes", "物理内存总量", snapshot.totalPhysicalMemoryBytes);
+        gauge("monitor_system_memory_free_bytes", "bytes", "空闲物理内存", snapshot.freePhysicalMemoryBytes);
+    }
+
+    private void writeJvm(MetricsSnapshot snapshot) {
+        gauge("monitor_jvm_heap_used_bytes", "bytes", "JVM堆内存使用量", snapshot.heapUsedBytes);
+        gauge("monitor_jvm_heap_committed_bytes", "bytes", "JVM堆内存已提交量", snapshot.heapCommittedBytes);
+        if (snapshot.heapMaxBytes > 0) {
+            gauge("monitor_jvm_heap_max_bytes", "bytes", "JVM堆内存上限", snapshot.heapMaxBytes);
+        }
+        gauge("monitor_jvm_nonheap_used_bytes", "bytes", "JVM非堆内存使用量", snapshot.nonHeapUsedBytes);
+        gauge("monitor_jvm_threads", null, "JVM活动线程数", snapshot.threadCount);
+        gauge("monitor_jvm_threads_daemon", null, "JVM守护线程数", snapshot.daemonThreadCount);
+        gauge("monitor_jvm_threads_peak", null, "JVM峰值线程数", snapshot.peakThreadCount);
+        gauge("monitor_jvm_classes_loaded", null, "当前已加载类数量", snapshot.loadedClassCount);
+        buffer.family("monitor_jvm_classes_unloaded", "counter", null, "累计卸载类数量");
+        buffer.sample("monitor_jvm_classes_unloaded_total").value(snapshot.unloadedClassCount);
+
+        String[] gcNames = snapshot.gcNames;
+        buffer.family("monitor_jvm_gc_collections", "counter", null, "垃圾回收次数");
+        for (int i = 0; i < gcNames.length; i++) {
+            buffer.sample("monitor_jvm_gc_collections_total").label(true, "gc", gcNames[i]).endLabels()
+                    .value(snapshot.gcCounts[i]);
+        }
+        buffer.family("monitor_jvm_gc_collection_seconds", "counter", "seconds", "垃圾回收累计耗时");
+        for (int i = 0; i < gcNames.length; i++) {
+            buffer.sample("monitor_jvm_gc_collection_seconds_total").label(true, "gc", gcNames[i]).endLabels()
+                    .value(snapshot.gcTimes[i] / 1000.0);
+        }
+        writeGcActivity(snapshot.gcActivity);
+    }
+
+    // 基于 GC 通知的停顿直方图和分配/晋升量
+    private void writeGcActivity(GcEventCollector.Sample gc) {
+        if (gc == null) return;
+        buffer.family("monitor_jvm_gc_pause_seconds", "histogram", "seconds", "单次垃圾回收停顿时长");
+        long cumulative = 0;
+        for (int i = 0; i < GC_PAUSE_LE.length; i++) {
+            cumulative += gc.getPauseBucket(i);
+            buffer.sample("monitor_jvm_gc_pause_seconds_bucket").label(true, "le", GC_PAUSE_LE[i]).endLabels()
+                    .value(cumulative);
+        }
+        buffer.sample("monitor_jvm_gc_pause_seconds_count").value(gc.getPauseCount());
+        buffer.sample("monitor_jvm_gc_pause_seconds_sum").value(gc.getPauseTimeMs() / 1000.0);
+        buffer.family("monitor_jvm_memory_allocated_bytes", "counter", "bytes", "累计分配的堆内存");
+        buffer.sample("monitor_jvm_memory_allocated_bytes_total").value(gc.getAllocatedBytes());
+        if (gc.isPromotionTracked()) {
+            buffer.family("monitor_jvm_memory_promoted_bytes", "counter", "bytes", "累计晋升到老年代的内存");
+            buffer.sample("monitor_jvm_memory_promoted_bytes_total").value(gc.getPromotedBytes());
+        }
+    }
+
+    // 每个网卡一组序列，包含回环接口，由查询方按 interface 标签过滤
+    private void writeNetwork(NetworkCollector.Sample network) {
+        if (network == null) return;
+        int interfaces = network.getInterfaceCount();
+        for (int field = 0; field < NetworkCollector.FIELD_COUNT; field++) {
+            String family = NETWORK_FAMILIES[field];
+            boolean bytes = field == NetworkCollector.RX_BYTES || field == NetworkCollector.TX_BYTES;
+            buffer.family(family, "counter", bytes ? "bytes" : null, null);
+            for (int i = 0; i < interfaces; i++) {
+                buffer.sample(family).ascii("_total").label(true, "interface", network.getName(i)).endLabels()
+                        .value(network.getCounter(i, field));
+            }
+        }
+    }
+
+    // 每个块设备一组序列（含分区，由查询方按 device 标签过滤），以及每个挂载点的容量
+    private void writeDisk(DiskCollector.Sample disk) {
+        if (disk == null) return;
+        int devices = disk.getDeviceCount();
+        for (int field = 0; field < DiskCollector.FIELD_COUNT; field++) {
+            String family = DISK_FAMILIES[field];
+            if (family == null) continue;
+            boolean millis = "seconds".equals(DISK_UNITS[field]);
+            buffer.family(family, "counter", DISK_UNITS[field], null);
+            for (int i = 0; i < devices; i++) {
+                buffer.sample(family).ascii("_total").label(true, "device", disk.getDeviceName(i)).endLabels();
+                long value = disk.getCounter(i, field);
+                if (millis) {
+                    buffer.value(value / 1000.0);
+                } else {
+                    buffer.value(value);
+                }
+            }
+        }
+        buffer.family("monitor_disk_io_now", "gauge", null, "正在进行的I/O数");
+        for (int i = 0; i < devices; i++) {
+            buffer.sample("monitor_disk_io_now").label(true, "device", disk.getDeviceName(i)).endLabels()
+                    .value(disk.getCounter(i, DiskCollector.IN_FLIGHT));
+        }
+
+        int filesystems = disk.getFilesystemCount();
+        for (int field = 0; field < DiskCollector.FS_FIELD_COUNT; field++) {
+            String family = FILESYSTEM_FAMILIES[field];
+            buffer.family(family, "gauge", family.endsWith("_bytes") ? "bytes" : null, null);
+            for (int i = 0; i < filesystems; i++) {
+                long value = disk.getFilesystemValue(i, field);
+                // inode 数尚未读取或 df 不可用时不输出
+                if (value < 0) continue;
+                buffer.sample(family).label(true, "mountpoint", disk.getMountPoint(i))
+                        .label(false, "device", disk.getFilesystemDevice(i))
+                        .label(false, "fstype", disk.getFilesystemType(i)).endLabels().value(value);
+            }
+        }
+    }
+
+    // PSI 累计等待时间：some 为至少一个任务等待，full 为所有非空闲任务同时等待
+    private void writePressure(PressureCollector.Sample pressure) {
+        if (pressure == null) return;
+        writePressureTotals(pressure, PressureCollector.SOME, "monitor_pressure_waiting_seconds", "至少一个任务因资源不足等待的累计时间");
+        writePressureTotals(pressure, PressureCollector.FULL, "monitor_pressure_stalled_seconds", "所有非空闲任务同时因资源不足等待的累计时间");
+    }
+
+    private void writePressureTotals(PressureCollector.Sample pressure, int kind, String family, String help) {
+        buffer.family(family, "counter", "seconds", help);
+        for (int resource = 0; resource < PressureCollector.RESOURCE_COUNT; resource++) {
+            long micros = pressure.getTotalMicros(resource, kind);
+            if (micros < 0) continue;
+            buffer.sample(family).ascii("_total").label(true, "resource", PRESSURE_RESOURCES[resource]).endLabels()
+                    .value(micros / 1e6);
+        }
+    }
+
+    private void writeGpus(MetricsSnapshot.GpuInfo[] gpus) {
+        gauge("monitor_gpus", null, "GPU数量", gpus.length);
+        if (gpus.length == 0) return;
+        buffer.family("monitor_gpu_info", "gauge", null, "GPU型号");
+        for (MetricsSnapshot.GpuInfo gpu : gpus) {
+            gpuLabels("monitor_gpu_info", gpu).label(false, "name", gpu.gpuName).endLabels().value(1);
+        }
+        for (int value = 0; value < GpuCollector.VALUE_COUNT; value++) {
+            String family = GPU_FAMILIES[value];
+            buffer.family(family, "gauge", GPU_UNITS[value], null);
+            for (MetricsSnapshot.GpuInfo gpu : gpus) {
+                double reading = gpu.getValue(value);
+                // 不支持的读数（[N/A]）不输出
+                if (Double.isNaN(reading)) continue;
+                gpuLabels(family, gpu).endLabels().value(reading * GPU_SCALES[value] / GPU_DIVISORS[value]);
+            }
+        }
+    }
+
+    private OpenMetricsBuffer gpuLabels(String name, MetricsSnapshot.GpuInfo gpu) {
+        return buffer.sample(name).label(true, "gpu", gpu.index);
+    }
+
+    // 每个运行中的容器一组序列，以短ID和名称作为标签
+    private void writeContainers(ContainerStatsCollector.Sample sample) {
+        gauge("monitor_containers", null, "已采集统计的运行中容器数量", sample.getContainers().size());
+        if (sample.getContainers().isEmpty()) return;
+        for (int counter = 0; counter < ContainerStatsCollector.COUNTER_COUNT; counter++) {
+            String family = CONTAINER_COUNTER_FAMILIES[counter];
+            boolean network = counter >= ContainerStatsCollector.NETWORK_RX_BYTES;
+            buffer.family(family, "counter", CONTAINER_COUNTER_UNITS[counter], null);
+            for (ContainerStatsCollector.ContainerStats stats : sample.getContainers().values()) {
+                if (network && !stats.isNetworkAvailable()) continue;
+                containerLabels(family, stats).endLabels();
+                long value = stats.getCounter(counter);
+                if (CONTAINER_COUNTER_NANOS[counter]) {
+                    buffer.value(value / 1e9);
+                } else {
+                    buffer.value(value);
+                }
+            }
+        }
+        for (int gauge = 0; gauge < ContainerStatsCollector.GAUGE_COUNT; gauge++) {
+            String family = CONTAINER_GAUGE_FAMILIES[gauge];
+            buffer.family(family, "gauge", family.endsWith("_bytes") ? "bytes" : null, null);
+            for (ContainerStatsCollector.ContainerStats stats : sample.getContainers().values()) {
+                long value = stats.getGauge(gauge);
+                // 未设置内存上限时不输出
+                if (value < 0) continue;
+                buffer.sample(family);
+                containerLabelValues(stats).endLabels().value(value);
+            }
+        }
+    }
+
+    // 计数器样本名追加 _total
+    private OpenMetricsBuffer containerLabels(String family, ContainerStatsCollector.ContainerStats stats) {
+        buffer.sample(family).ascii("_total");
+        return containerLabelValues(stats);
+    }
+
+    private OpenMetricsBuffer containerLabelValues(ContainerStatsCollector.ContainerStats stats) {
+        buffer.label(true, "id", stats.getId(), 12);
+        return buffer.label(false, "name", stats.getName());
+    }
+
+    private void gauge(String name, String unit, String help, double value) {
+        buffer.family(name, "gauge", unit, help);
+        buffer.sample(name).value(value);
+    }
+}
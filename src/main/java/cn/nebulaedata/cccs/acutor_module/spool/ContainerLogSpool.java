@@ -0,0 +1,300 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerTimestamps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 单个容器的日志落盘目录。
+ * 日志行先写入内存中的当前块，块写满或空闲超过刷新间隔后连同索引记录一起追加到当前分段；
+ * 分段超过大小或时长上限后轮转，之后不再修改。
+ */
+final class ContainerLogSpool {
+
+    private final String containerId;
+    private final File directory;
+    private final int blockBytes;
+    private final long segmentBytes;
+    private final long segmentDurationMs;
+
+    // 按时间排序的分段（含当前分段），由 this 保护
+    private final List<SpoolSegment> segments = new ArrayList<>();
+    private SpoolSegment active;
+    private long activeOpenedAt;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+
+    // 当前块
+    private byte[] block;
+    private int blockLength = 0;
+    private int blockLines = 0;
+    private long blockMinTs = Long.MAX_VALUE;
+    private long blockMaxTs = Long.MIN_VALUE;
+    private long blockStartedAt = 0;
+    private final long[] bloom = new long[TrigramBloom.MAX_WORDS];
+
+    // 已落盘（含当前块）的最新时间戳及该时间戳的行数，用于重新订阅时跳过补发的重复行
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long lastTimestampLines = 0;
+
+    private ContainerLogSpool(String containerId, File directory, int blockBytes,
+                              long segmentBytes, long segmentDurationMs) {
+        this.containerId = containerId;
+        this.directory = directory;
+        this.blockBytes = blockBytes;
+        this.segmentBytes = segmentBytes;
+        this.segmentDurationMs = segmentDurationMs;
+        this.block = new byte[blockBytes + 4096];
+    }
+
+    // 打开容器目录并加载已有分段，新日志总是写入新的分段
+    static ContainerLogSpool open(String containerId, File directory, int blockBytes,
+                                  long segmentBytes, long segmentDurationMs) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("无法创建日志落盘目录: " + directory);
+        }
+        ContainerLogSpool spool = new ContainerLogSpool(containerId, directory, blockBytes, segmentBytes, segmentDurationMs);
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SpoolSegment.DATA_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                SpoolSegment segment = SpoolSegment.load(file);
+                if (segment.blockCount == 0) {
+                    // 没有任何已索引块的分段无法检索，直接清理
+                    segment.delete();
+                    continue;
+                }
+                spool.segments.add(segment);
+                spool.lastTimestamp = Math.max(spool.lastTimestamp, segment.maxTimestamp);
+            }
+        }
+        spool.segments.sort(Comparator.comparingLong(s -> s.minTimestamp));
+        for (SpoolSegment segment : spool.segments) {
+            if (segment.maxTimestamp != spool.lastTimestamp) continue;
+            try {
+                spool.lastTimestampLines += segment.countLinesAt(spool.lastTimestamp);
+            } catch (IOException e) {
+                // 无法确定时跳过补发的所有同一时间戳的行，宁可少落盘也不重复
+                spool.lastTimestampLines = Long.MAX_VALUE;
+                break;
+            }
+        }
+        return spool;
+    }
+
+    String getContainerId() {
+        return containerId;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    synchronized long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    // 已落盘的时间戳为 getLastTimestamp() 的行数
+    synchronized long getLastTimestampLines() {
+        return lastTimestampLines;
+    }
+
+    // 追加一行日志
+    synchronized void append(long timestamp, String line) throws IOException {
+        byte[] message = line.getBytes(StandardCharsets.UTF_8);
+        int needed = LogSearch.TIMESTAMP_LENGTH + 1 + message.length + 1;
+        if (blockLength + needed > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + needed));
+        }
+        if (blockLines == 0) {
+            blockStartedAt = System.currentTimeMillis();
+        }
+
+        String prefix = DockerTimestamps.format(timestamp);
+        for (int i = 0; i < LogSearch.TIMESTAMP_LENGTH; i++) {
+            block[blockLength + i] = (byte) prefix.charAt(i);
+        }
+        block[blockLength + LogSearch.TIMESTAMP_LENGTH] = ' ';
+        int messageStart = blockLength + LogSearch.TIMESTAMP_LENGTH + 1;
+        System.arraycopy(message, 0, block, messageStart, message.length);
+        block[messageStart + message.length] = '\n';
+        TrigramBloom.add(bloom, block, messageStart, messageStart + message.length);
+
+        blockLength += needed;
+        blockLines++;
+        blockMinTs = Math.min(blockMinTs, timestamp);
+        blockMaxTs = Math.max(blockMaxTs, timestamp);
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+            lastTimestampLines = 1;
+        } else if (timestamp == lastTimestamp) {
+            lastTimestampLines++;
+        }
+
+        if (blockLength >= blockBytes) {
+            sealBlock();
+        }
+    }
+
+    // 当前块空闲超过刷新间隔时落盘，使其可被检索并在异常退出时不丢失
+    synchronized void flushIdle(long now, long flushIntervalMs) throws IOException {
+        if (blockLines > 0 && now - blockStartedAt >= flushIntervalMs) {
+            sealBlock();
+        }
+        if (active != null && now - activeOpenedAt >= segmentDurationMs) {
+            closeActive();
+        }
+    }
+
+    // 把当前块写入分段并追加索引记录
+    private void sealBlock() throws IOException {
+        if (blockLines == 0) return;
+        if (active == null) {
+            openActive();
+        }
+        long offset = active.dataLength;
+        ByteBuffer data = ByteBuffer.wrap(block, 0, blockLength);
+        long position = offset;
+        while (data.hasRemaining()) {
+            position += dataChannel.write(data, position);
+        }
+        int recordBytes = SpoolSegment.writeRecord(indexChannel, active.indexLength, offset, blockLength, blockLines,
+                blockMinTs, blockMaxTs, TrigramBloom.fold(bloom));
+        active.addBlock(blockLength, blockLines, blockMinTs, blockMaxTs, recordBytes);
+
+        blockLength = 0;
+        blockLines = 0;
+        blockMinTs = Long.MAX_VALUE;
+        blockMaxTs = Long.MIN_VALUE;
+        Arrays.fill(bloom, 0L);
+        if (block.length > blockBytes * 4) {
+            // 超长行撑大的缓冲区不长期保留
+            block = new byte[blockBytes + 4096];
+        }
+
+        if (active.dataLength >= segmentBytes) {
+            closeActive();
+        }
+    }
+
+    private void openActive() throws IOException {
+        // 分段以首块的纳秒时间戳命名，补零使文件名按时间排序
+        String name = String.format("%019d", Math.max(0, blockMinTs));
+        File dataFile = new File(directory, name + SpoolSegment.DATA_SUFFIX);
+        for (int i = 1; dataFile.exists(); i++) {
+            dataFile = new File(directory, name + "-" + i + SpoolSegment.DATA_SUFFIX);
+        }
+        SpoolSegment segment = new SpoolSegment(dataFile);
+        dataChannel = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            indexChannel = FileChannel.open(segment.getIndexFile().toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            dataChannel.close();
+            dataChannel = null;
+            throw e;
+        }
+        active = segment;
+        activeOpenedAt = System.currentTimeMillis();
+        segments.add(segment);
+    }
+
+    private void closeActive() {
+        closeQuietly(dataChannel);
+        closeQuietly(indexChannel);
+        dataChannel = null;
+        indexChannel = null;
+        active = null;
+    }
+
+    // 写入失败后放弃当前分段，下一块写入新的分段
+    synchronized void abandonActive() {
+        closeActive();
+    }
+
+    // 落盘当前块并关闭文件
+    synchronized void close() {
+        try {
+            sealBlock();
+        } catch (IOException e) {
+            System.err.println("容器 " + containerId + " 的日志落盘失败: " + e.getMessage());
+        }
+        closeActive();
+    }
+
+    synchronized long sizeOnDisk() {
+        long size = 0;
+        for (SpoolSegment segment : segments) {
+            size += segment.sizeOnDisk();
+        }
+        return size;
+    }
+
+    synchronized boolean isEmpty() {
+        return segments.isEmpty() && blockLines == 0;
+    }
+
+    // 已轮转（不再写入）的分段，供保留策略清理
+    synchronized List<SpoolSegment> getSealedSegments() {
+        List<SpoolSegment> sealed = new ArrayList<>(segments.size());
+        for (SpoolSegment segment : segments) {
+            if (segment != active) {
+                sealed.add(segment);
+            }
+        }
+        return sealed;
+    }
+
+    synchronized void deleteSegment(SpoolSegment segment) {
+        if (segment != active && segments.remove(segment)) {
+            segment.delete();
+        }
+    }
+
+    /**
+     * 按时间顺序检索已落盘的分段和内存中的当前块。
+     * 只在锁内复制分段列表和当前块，扫描在锁外进行，不阻塞日志写入。
+     */
+    void search(LogSearch search) throws IOException {
+        List<SpoolSegment> candidates = new ArrayList<>();
+        List<Long> indexLengths = new ArrayList<>();
+        byte[] pending = null;
+        int pendingLength = 0;
+        synchronized (this) {
+            for (SpoolSegment segment : segments) {
+                if (segment.blockCount > 0 && search.overlaps(segment.minTimestamp, segment.maxTimestamp)) {
+                    candidates.add(segment);
+                    indexLengths.add(segment.indexLength);
+                }
+            }
+            if (blockLines > 0 && search.overlaps(blockMinTs, blockMaxTs)) {
+                pending = Arrays.copyOf(block, blockLength);
+                pendingLength = blockLength;
+            }
+        }
+
+        for (int i = 0; i < candidates.size() && !search.isFull(); i++) {
+            candidates.get(i).search(search, indexLengths.get(i));
+        }
+        if (pending != null && !search.isFull()) {
+            search.scanBlock(pending, pendingLength);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("关闭日志落盘文件失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 日志检索条件：子串或正则表达式。
+ * 直接在落盘文件的字节上查找字面量（正则表达式取其中必须出现的最长字面量），
+ * 命中后才解码该行并用正则表达式确认，同时用字面量的三元组跳过不可能命中的块。
+ */
+final class LogMatcher {
+
+    // 必须出现的字面量（忽略大小写时已转为小写），为空表示无法用字面量过滤
+    private final byte[] literal;
+    private final int[] trigramKeys;
+    private final Pattern pattern;
+    private final boolean ignoreCase;
+
+    private LogMatcher(String literal, Pattern pattern, boolean ignoreCase) {
+        byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+        if (ignoreCase) {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = TrigramBloom.lower(bytes[i]);
+            }
+        }
+        this.literal = bytes;
+        this.trigramKeys = TrigramBloom.keys(bytes);
+        this.pattern = pattern;
+        this.ignoreCase = ignoreCase;
+    }
+
+    static LogMatcher substring(String query, boolean ignoreCase) {
+        return new LogMatcher(query, null, ignoreCase);
+    }
+
+    /**
+     * 正则表达式语法错误时抛出 PatternSyntaxException。
+     * 内联标志 (?i) 使字面量按忽略大小写查找；(?x)、(?c) 改变了字面量的含义，不使用字面量过滤。
+     * 忽略大小写时只能按 ASCII 折叠字节，字面量含非 ASCII 字符时同样不使用字面量过滤。
+     */
+    static LogMatcher regex(String query, boolean ignoreCase) {
+        Pattern pattern = Pattern.compile(query, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        String flags = inlineFlags(query);
+        boolean foldCase = ignoreCase || flags.indexOf('i') >= 0;
+        String literal = flags.indexOf('x') >= 0 || flags.indexOf('c') >= 0 ? "" : requiredLiteral(query);
+        if (foldCase && !isAscii(literal)) {
+            literal = "";
+        }
+        return new LogMatcher(literal, pattern, foldCase);
+    }
+
+    // 根据块的三元组过滤器判断该块是否可能包含匹配行
+    boolean mayMatch(ByteBuffer index, int bloomPosition, int bloomWords) {
+        return trigramKeys.length == 0 || TrigramBloom.containsAll(index, bloomPosition, bloomWords, trigramKeys);
+    }
+
+    /**
+     * 扫描 bytes 的 [start, end) 区间，区间由完整的日志行组成，
+     * 每行格式为 "<30字节时间戳> <正文>\n"。
+     */
+    void scan(byte[] bytes, int start, int end, LogSearch search) {
+        int pos = start;
+        while (pos < end && !search.isFull()) {
+            int lineStart;
+            int lineEnd;
+            if (literal.length > 0) {
+                int hit = indexOf(bytes, pos, end);
+                if (hit < 0) return;
+                lineStart = hit;
+                while (lineStart > start && bytes[lineStart - 1] != '\n') lineStart--;
+                lineEnd = hit;
+                while (lineEnd < end && bytes[lineEnd] != '\n') lineEnd++;
+                // 字面量落在时间戳里不算命中
+                if (hit < lineStart + LogSearch.TIMESTAMP_LENGTH + 1) {
+                    int next = lineStart + LogSearch.TIMESTAMP_LENGTH + 1;
+                    if (next > hit && next < lineEnd) {
+                        // 同一行的正文里可能还有命中，从正文开头继续找
+                        pos = next;
+                        continue;
+                    }
+                    pos = lineEnd + 1;
+                    continue;
+                }
+            } else {
+                lineStart = pos;
+                lineEnd = pos;
+                while (lineEnd < end && bytes[lineEnd] != '\n') lineEnd++;
+            }
+            pos = lineEnd + 1;
+
+            int messageStart = lineStart + LogSearch.TIMESTAMP_LENGTH + 1;
+            if (messageStart > lineEnd) continue;
+            long timestamp = search.parseTimestamp(bytes, lineStart);
+            if (!search.inRange(timestamp)) continue;
+            String message = new String(bytes, messageStart, lineEnd - messageStart, StandardCharsets.UTF_8);
+            if (pattern != null && !matches(message)) continue;
+            search.addHit(timestamp, message);
+        }
+    }
+
+    private boolean matches(String message) {
+        Matcher matcher = pattern.matcher(message);
+        return matcher.find();
+    }
+
+    // 在 [from, end) 中查找字面量，返回起始位置
+    private int indexOf(byte[] bytes, int from, int end) {
+        byte first = literal[0];
+        int last = end - literal.length;
+        for (int i = from; i <= last; i++) {
+            byte b = ignoreCase ? TrigramBloom.lower(bytes[i]) : bytes[i];
+            if (b != first) continue;
+            int j = 1;
+            while (j < literal.length) {
+                byte c = ignoreCase ? TrigramBloom.lower(bytes[i + j]) : bytes[i + j];
+                if (c != literal[j]) break;
+                j++;
+            }
+            if (j == literal.length) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 提取正则表达式中每个匹配都必须包含的最长字面量。
+     * 只做保守的分析：含有分支（|）时放弃；分组（包括内联标志）和字符类整体跳过；
+     * \Q...\E 中的内容按字面量处理；后面跟着 ?、*、{ 的字符可能不出现，不计入字面量。
+     */
+    static String requiredLiteral(String regex) {
+        if (regex.indexOf('|') >= 0) return "";
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\' && i + 1 < regex.length()) {
+                char escaped = regex.charAt(i + 1);
+                if (escaped == 'Q') {
+                    int end = regex.indexOf("\\E", i + 2);
+                    run.append(regex, i + 2, end < 0 ? regex.length() : end);
+                    i = end < 0 ? regex.length() : end + 2;
+                    continue;
+                }
+                if (Character.isLetterOrDigit(escaped)) {
+                    best = longer(best, run);
+                    run.setLength(0);
+                } else {
+                    run.append(escaped);
+                }
+                i += 2;
+                continue;
+            }
+            switch (c) {
+                case '?':
+                case '*':
+                case '{':
+                    // 前一个字符是可选的
+                    if (run.length() > 0) run.setLength(run.length() - 1);
+                    best = longer(best, run);
+                    run.setLength(0);
+                    if (c == '{') {
+                        int close = regex.indexOf('}', i);
+                        i = close < 0 ? regex.length() : close + 1;
+                    } else {
+                        i++;
+                    }
+                    continue;
+                case '[':
+                    best = longer(best, run);
+                    run.setLength(0);
+                    i = skipClass(regex, i);
+                    continue;
+                case '(':
+                    best = longer(best, run);
+                    run.setLength(0);
+                    i = skipGroup(regex, i);
+                    continue;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                case ')':
+                case ']':
+                case '}':
+                    best = longer(best, run);
+                    run.setLength(0);
+                    i++;
+                    continue;
+                default:
+                    run.append(c);
+                    i++;
+            }
+        }
+        return longer(best, run);
+    }
+
+    /**
+     * 收集正则表达式中 (?flags) 和 (?flags:...) 开启的内联标志（不含 - 之后关闭的标志），
+     * 跳过转义字符、\Q...\E 和字符类。
+     */
+    static String inlineFlags(String regex) {
+        StringBuilder flags = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regex, i);
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                continue;
+            }
+            if (c == '(' && i + 1 < regex.length() && regex.charAt(i + 1) == '?') {
+                int j = i + 2;
+                boolean negated = false;
+                while (j < regex.length() && "idmsuxcU-".indexOf(regex.charAt(j)) >= 0) {
+                    if (regex.charAt(j) == '-') {
+                        negated = true;
+                    } else if (!negated) {
+                        flags.append(regex.charAt(j));
+                    }
+                    j++;
+                }
+            }
+            i++;
+        }
+        return flags.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    // 跳过从 i 开始的转义序列，\Q 跳到对应的 \E 之后
+    private static int skipEscape(String regex, int i) {
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+            int end = regex.indexOf("\\E", i + 2);
+            return end < 0 ? regex.length() : end + 2;
+        }
+        return i + 2;
+    }
+
+    private static String longer(String best, StringBuilder run) {
+        return run.length() > best.length() ? run.toString() : best;
+    }
+
+    private static int skipClass(String regex, int i) {
+        int j = i + 1;
+        if (j < regex.length() && regex.charAt(j) == '^') j++;
+        if (j < regex.length() && regex.charAt(j) == ']') j++;
+        while (j < regex.length() && regex.charAt(j) != ']') {
+            if (regex.charAt(j) == '\\') {
+                j = skipEscape(regex, j);
+                continue;
+            }
+            j++;
+        }
+        return j + 1;
+    }
+
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j = skipEscape(regex, j);
+                continue;
+            }
+            if (c == '[') {
+                j = skipClass(regex, j);
+                continue;
+            }
+            if (c == '(') depth++;
+            if (c == ')' && --depth == 0) return j + 1;
+            j++;
+        }
+        return j;
+    }
+}
@@ -0,0 +1,93 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerTimestamps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次日志检索的执行状态：时间范围、结果上限、命中行以及扫描统计。
+ */
+final class LogSearch {
+
+    // 落盘行首时间戳的固定长度，如 2024-01-01T08:00:00.123456789Z
+    static final int TIMESTAMP_LENGTH = 30;
+
+    private final LogMatcher matcher;
+    private final long fromNanos;
+    private final long toNanos;
+    private final int limit;
+
+    private final List<Map<String, Object>> hits = new ArrayList<>();
+    private int scannedBlocks = 0;
+    private int skippedBlocks = 0;
+    private long scannedBytes = 0;
+    // 从映射文件复制块内容的复用缓冲区
+    private byte[] buffer = new byte[0];
+
+    LogSearch(LogMatcher matcher, long fromNanos, long toNanos, int limit) {
+        this.matcher = matcher;
+        this.fromNanos = fromNanos;
+        this.toNanos = toNanos;
+        this.limit = limit;
+    }
+
+    LogMatcher getMatcher() {
+        return matcher;
+    }
+
+    boolean isFull() {
+        return hits.size() >= limit;
+    }
+
+    boolean overlaps(long minTimestamp, long maxTimestamp) {
+        return maxTimestamp >= fromNanos && minTimestamp <= toNanos;
+    }
+
+    boolean inRange(long timestamp) {
+        return timestamp >= fromNanos && timestamp <= toNanos;
+    }
+
+    byte[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        return buffer;
+    }
+
+    // 扫描一个块（完整的若干行）
+    void scanBlock(byte[] bytes, int length) {
+        scannedBlocks++;
+        scannedBytes += length;
+        matcher.scan(bytes, 0, length, this);
+    }
+
+    void skipBlock() {
+        skippedBlocks++;
+    }
+
+    long parseTimestamp(byte[] bytes, int lineStart) {
+        return DockerTimestamps.parseNanos(new String(bytes, lineStart, TIMESTAMP_LENGTH, StandardCharsets.US_ASCII));
+    }
+
+    void addHit(long timestamp, String line) {
+        Map<String, Object> hit = new LinkedHashMap<>();
+        hit.put("timestamp", DockerTimestamps.format(timestamp));
+        hit.put("line", line);
+        hits.add(hit);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", hits.size());
+        result.put("truncated", isFull());
+        result.put("scannedBlocks", scannedBlocks);
+        result.put("skippedBlocks", skippedBlocks);
+        result.put("scannedBytes", scannedBytes);
+        result.put("hits", hits);
+        return result;
+    }
+}
@@ -0,0 +1,420 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerContainer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogMultiplexer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogSubscriber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 容器日志落盘（可选，默认关闭）。
+ * 通过日志多路复用器订阅所有运行中容器的日志，按容器分段写入磁盘并建立块级索引
+ * （时间范围 + 三元组过滤器），供按时间范围的子串/正则检索使用；
+ * 总大小和保存时长超出上限时从最旧的分段开始删除。
+ * 每个跟随器长期占用流式读取线程池的一个线程，因此同时落盘的容器数不超过 max-containers；
+ * 超出上限而未跟随的容器、因线程池已满未能启动跟随器的容器见 {@link #getStatus()}，下次维护时重试。
+ * 跟随器线程只把日志行放入有界队列，由单独的写入线程按顺序落盘，磁盘缓慢时不会拖慢其他日志查看者；
+ * 队列满时丢弃新行并计数。
+ */
+@Component
+public class LogSpool {
+
+    private final DockerLogMultiplexer logMultiplexer;
+    private final DockerInventory dockerInventory;
+    private final boolean enabled;
+    private final File rootDirectory;
+    private final int blockBytes;
+    private final long segmentBytes;
+    private final long segmentDurationMs;
+    private final long flushIntervalMs;
+    private final long retentionBytes;
+    private final long retentionMs;
+    private final int maxContainers;
+
+    // 待落盘的日志行，所有容器共用一个队列和写入线程，保证重新订阅时旧订阅的行先于新订阅的行写入
+    private final BlockingQueue<PendingLine> pending;
+    private final AtomicLong droppedLines = new AtomicLong();
+    private volatile boolean running = false;
+    private Thread writerThread;
+
+    // 按完整容器ID索引的落盘目录
+    private final Map<String, ContainerLogSpool> spools = new ConcurrentHashMap<>();
+    // 当前的日志订阅，由 this 保护
+    private final Map<String, DockerLogMultiplexer.Subscription> subscriptions = new HashMap<>();
+    // 超出 max-containers 而未跟随的容器、跟随器被线程池拒绝的容器，由 this 保护
+    private final Set<String> skipped = new LinkedHashSet<>();
+    private final Set<String> rejected = new LinkedHashSet<>();
+
+    public LogSpool(DockerLogMultiplexer logMultiplexer, DockerInventory dockerInventory,
+                    @Value("${monitor.spool.enabled:false}") boolean enabled,
+                    @Value("${monitor.spool.dir:./data/log-spool}") String directory,
+                    @Value("${monitor.spool.block-bytes:65536}") int blockBytes,
+                    @Value("${monitor.spool.segment-bytes:67108864}") long segmentBytes,
+                    @Value("${monitor.spool.segment-duration-ms:3600000}") long segmentDurationMs,
+                    @Value("${monitor.spool.flush-interval-ms:5000}") long flushIntervalMs,
+                    @Value("${monitor.spool.retention-bytes:1073741824}") long retentionBytes,
+                    @Value("${monitor.spool.retention-hours:168}") long retentionHours,
+                    @Value("${monitor.spool.max-containers:32}") int maxContainers,
+                    @Value("${monitor.spool.queue-lines:10000}") int queueLines) {
+        this.logMultiplexer = logMultiplexer;
+        this.dockerInventory = dockerInventory;
+        this.enabled = enabled;
+        this.rootDirectory = new File(directory);
+        this.blockBytes = Math.max(4096, blockBytes);
+        // 分段整体内存映射，不能超过 1GB
+        this.segmentBytes = Math.min(Math.max(this.blockBytes, segmentBytes), 1L << 30);
+        this.segmentDurationMs = Math.max(1000, segmentDurationMs);
+        this.flushIntervalMs = Math.max(100, flushIntervalMs);
+        this.retentionBytes = retentionBytes;
+        this.retentionMs = TimeUnit.HOURS.toMillis(retentionHours);
+        this.maxContainers = Math.max(1, maxContainers);
+        this.pending = new ArrayBlockingQueue<>(Math.max(1, queueLines));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        if (!rootDirectory.isDirectory() && !rootDirectory.mkdirs()) {
+            System.err.println("无法创建日志落盘目录: " + rootDirectory.getAbsolutePath());
+            return;
+        }
+        File[] directories = rootDirectory.listFiles(File::isDirectory);
+        if (directories != null) {
+            for (File directory : directories) {
+                try {
+                    spools.put(directory.getName(), openSpool(directory.getName()));
+                } catch (IOException e) {
+                    System.err.println("加载日志落盘目录 " + directory + " 失败: " + e.getMessage());
+                }
+            }
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "log-spool-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        System.out.println("日志落盘已启用，目录: " + rootDirectory.getAbsolutePath() + "，已有容器: " + spools.size());
+    }
+
+    // 写入线程：按入队顺序逐行落盘，关闭时写完队列中剩余的行
+    private void writeLoop() {
+        while (running || !pending.isEmpty()) {
+            PendingLine line;
+            try {
+                line = pending.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (line != null) {
+                line.writer.write(line.timestamp, line.line);
+            }
+        }
+    }
+
+    /**
+     * 定期维护：跟随新启动的容器、释放已停止容器的订阅、落盘空闲块并执行保留策略。
+     */
+    @Scheduled(fixedDelayString = "${monitor.spool.maintenance-interval-ms:5000}")
+    public void maintain() {
+        if (!enabled) return;
+        reconcile();
+
+        long now = System.currentTimeMillis();
+        for (ContainerLogSpool spool : spools.values()) {
+            try {
+                spool.flushIdle(now, flushIntervalMs);
+            } catch (IOException e) {
+                System.err.println("容器 " + spool.getContainerId() + " 的日志落盘失败: " + e.getMessage());
+                spool.abandonActive();
+            }
+        }
+        enforceRetention(now);
+    }
+
+    // 让订阅与当前运行中的容器保持一致
+    private synchronized void reconcile() {
+        DockerInventory.Snapshot snapshot = dockerInventory.getSnapshot();
+        if (!snapshot.isAvailable()) return;
+
+        Map<String, DockerContainer> running = new HashMap<>();
+        for (DockerContainer container : snapshot.getContainers().values()) {
+            if ("running".equals(container.getState())) {
+                running.put(container.getId(), container);
+            }
+        }
+
+        Iterator<Map.Entry<String, DockerLogMultiplexer.Subscription>> iterator = subscriptions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, DockerLogMultiplexer.Subscription> entry = iterator.next();
+            if (!running.containsKey(entry.getKey()) || !entry.getValue().isActive()) {
+                logMultiplexer.unsubscribe(entry.getValue());
+                iterator.remove();
+            }
+        }
+        skipped.retainAll(running.keySet());
+        rejected.retainAll(running.keySet());
+
+        for (String containerId : running.keySet()) {
+            if (subscriptions.containsKey(containerId)) continue;
+            if (subscriptions.size() >= maxContainers) {
+                if (skipped.add(containerId)) {
+                    System.err.println("落盘跟随的容器数已达上限 " + maxContainers + "，不跟随容器 " + containerId);
+                }
+                continue;
+            }
+            try {
+                ContainerLogSpool spool = spools.get(containerId);
+                if (spool == null) {
+                    spool = openSpool(containerId);
+                    spools.put(containerId, spool);
+                }
+                DockerLogMultiplexer.Subscription subscription = logMultiplexer.subscribe(containerId, new SpoolWriter(spool));
+                if (subscription.isRejected()) {
+                    // 流式读取线程池已满，下次维护时重试
+                    logMultiplexer.unsubscribe(subscription);
+                    rejected.add(containerId);
+                    continue;
+                }
+                skipped.remove(containerId);
+                rejected.remove(containerId);
+                subscriptions.put(containerId, subscription);
+            } catch (IOException e) {
+                System.err.println("为容器 " + containerId + " 创建日志落盘目录失败: " + e.getMessage());
+            }
+        }
+    }
+
+    // 删除超过保存时长的分段，再从最旧的分段开始删除直到总大小不超过上限
+    private void enforceRetention(long now) {
+        long cutoff = TimeUnit.MILLISECONDS.toNanos(now - retentionMs);
+        long total = 0;
+        List<SpoolSegment> sealed = new ArrayList<>();
+        Map<SpoolSegment, ContainerLogSpool> owners = new IdentityHashMap<>();
+        for (ContainerLogSpool spool : spools.values()) {
+            total += spool.sizeOnDisk();
+            for (SpoolSegment segment : spool.getSealedSegments()) {
+                sealed.add(segment);
+                owners.put(segment, spool);
+            }
+        }
+        sealed.sort(Comparator.comparingLong(segment -> segment.maxTimestamp));
+
+        for (SpoolSegment segment : sealed) {
+            if (segment.maxTimestamp >= cutoff && total <= retentionBytes) break;
+            total -= segment.sizeOnDisk();
+            owners.get(segment).deleteSegment(segment);
+        }
+
+        // 已不再跟随且没有任何分段的容器目录一并删除
+        synchronized (this) {
+            Iterator<Map.Entry<String, ContainerLogSpool>> iterator = spools.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, ContainerLogSpool> entry = iterator.next();
+                if (!subscriptions.containsKey(entry.getKey()) && entry.getValue().isEmpty()) {
+                    iterator.remove();
+                    File directory = entry.getValue().getDirectory();
+                    if (!directory.delete()) {
+                        System.err.println("删除日志落盘目录失败: " + directory);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 落盘跟随状态：正在跟随的容器，超出上限未跟随的容器（skipped），跟随器被线程池拒绝的容器（rejected）。
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("maxContainers", maxContainers);
+        status.put("following", new ArrayList<>(subscriptions.keySet()));
+        status.put("skipped", new ArrayList<>(skipped));
+        status.put("rejected", new ArrayList<>(rejected));
+        status.put("spooledContainers", spools.size());
+        status.put("queuedLines", pending.size());
+        status.put("droppedLines", droppedLines.get());
+        return status;
+    }
+
+    private synchronized boolean isFollowing(String containerId) {
+        return subscriptions.containsKey(containerId);
+    }
+
+    /**
+     * 检索容器的落盘日志。
+     *
+     * @param containerId 容器ID、短ID或容器名
+     * @param regex       query 是否为正则表达式（语法错误时抛出 PatternSyntaxException）
+     * @param fromNanos   起始时间（纳秒，含）
+     * @param toNanos     结束时间（纳秒，含）
+     * @return 检索结果；容器没有落盘日志时返回 null
+     */
+    public Map<String, Object> search(String containerId, String query, boolean regex, boolean ignoreCase,
+                                      long fromNanos, long toNanos, int limit) throws IOException {
+        ContainerLogSpool spool = findSpool(containerId);
+        if (spool == null) return null;
+
+        long start = System.nanoTime();
+        LogMatcher matcher = regex ? LogMatcher.regex(query, ignoreCase) : LogMatcher.substring(query, ignoreCase);
+        LogSearch search = new LogSearch(matcher, fromNanos, toNanos, limit);
+        spool.search(search);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("containerId", spool.getContainerId());
+        result.put("query", query);
+        result.put("regex", regex);
+        // 未在跟随时（容器已停止、超出上限或线程池已满）结果不包含最新的日志
+        result.put("following", isFollowing(spool.getContainerId()));
+        result.putAll(search.toMap());
+        result.put("tookMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    // 按完整ID、ID前缀或容器名查找落盘目录
+    private ContainerLogSpool findSpool(String containerId) {
+        ContainerLogSpool spool = spools.get(containerId);
+        if (spool != null) return spool;
+        for (DockerContainer container : dockerInventory.getSnapshot().getContainers().values()) {
+            if (containerId.equals(container.getName())) {
+                return spools.get(container.getId());
+            }
+        }
+        for (Map.Entry<String, ContainerLogSpool> entry : spools.entrySet()) {
+            if (entry.getKey().startsWith(containerId)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private ContainerLogSpool openSpool(String containerId) throws IOException {
+        return ContainerLogSpool.open(containerId, new File(rootDirectory, containerId),
+                blockBytes, segmentBytes, segmentDurationMs);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!enabled) return;
+        for (DockerLogMultiplexer.Subscription subscription : subscriptions.values()) {
+            logMultiplexer.unsubscribe(subscription);
+        }
+        subscriptions.clear();
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (ContainerLogSpool spool : spools.values()) {
+            spool.close();
+        }
+    }
+
+    private static final class PendingLine {
+        final SpoolWriter writer;
+        final long timestamp;
+        final String line;
+
+        PendingLine(SpoolWriter writer, long timestamp, String line) {
+            this.writer = writer;
+            this.timestamp = timestamp;
+            this.line = line;
+        }
+    }
+
+    /**
+     * 把跟随器分发的日志行交给写入线程落盘。
+     * 订阅时补发的历史行中已经落盘的部分被跳过：时间戳早于已落盘的最新一行，
+     * 或与之相同且不超过已落盘的同一时间戳的行数（同一时间戳可能有多行）。
+     */
+    private final class SpoolWriter implements DockerLogSubscriber {
+        private final ContainerLogSpool spool;
+        // 以下字段只在写入线程中访问
+        private boolean caughtUp = false;
+        private long skipUntil;
+        private long skipLines = -1;
+        private boolean failing = false;
+        // 队列满时是否已提示，由跟随器线程访问
+        private boolean dropping = false;
+
+        SpoolWriter(ContainerLogSpool spool) {
+            this.spool = spool;
+        }
+
+        // 在跟随器线程中调用，只做入队
+        @Override
+        public void onLine(long timestamp, String line) {
+            if (pending.offer(new PendingLine(this, timestamp, line))) {
+                dropping = false;
+                return;
+            }
+            droppedLines.incrementAndGet();
+            if (!dropping) {
+                System.err.println("日志落盘队列已满，丢弃容器 " + spool.getContainerId() + " 的新日志");
+                dropping = true;
+            }
+        }
+
+        // 在写入线程中调用
+        void write(long timestamp, String line) {
+            if (!caughtUp) {
+                if (skipLines < 0) {
+                    // 之前入队的行此时都已写入
+                    skipUntil = spool.getLastTimestamp();
+                    skipLines = spool.getLastTimestampLines();
+                }
+                if (timestamp < skipUntil) return;
+                if (timestamp == skipUntil && skipLines > 0) {
+                    skipLines--;
+                    return;
+                }
+                caughtUp = true;
+            }
+            try {
+                spool.append(timestamp, line);
+                failing = false;
+            } catch (IOException e) {
+                // 只在首次失败时输出，避免磁盘写满时每行都打印
+                if (!failing) {
+                    System.err.println("容器 " + spool.getContainerId() + " 的日志落盘失败: " + e.getMessage());
+                    failing = true;
+                }
+                spool.abandonActive();
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            System.err.println("落盘跟随容器 " + spool.getContainerId() + " 的日志时发生异常: " + e.getMessage());
+        }
+    }
+}
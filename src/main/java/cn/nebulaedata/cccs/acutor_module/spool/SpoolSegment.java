@@ -0,0 +1,203 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerTimestamps;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 日志落盘的一个分段：数据文件（*.log）保存日志行，索引文件（*.idx）按块记录
+ * 偏移、行数、时间范围和三元组过滤器。
+ * 索引记录格式：offset(8) length(4) lines(4) minTs(8) maxTs(8) words(4) bloom(words*8)。
+ */
+final class SpoolSegment {
+
+    static final int RECORD_HEADER_BYTES = 36;
+    static final String DATA_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final File dataFile;
+    private final File indexFile;
+
+    // 以下字段只由所属 ContainerLogSpool 在其锁内修改
+    long minTimestamp = Long.MAX_VALUE;
+    long maxTimestamp = Long.MIN_VALUE;
+    long dataLength = 0;
+    long indexLength = 0;
+    int blockCount = 0;
+    long lineCount = 0;
+
+    SpoolSegment(File dataFile) {
+        this.dataFile = dataFile;
+        String name = dataFile.getName();
+        this.indexFile = new File(dataFile.getParentFile(),
+                name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    File getDataFile() {
+        return dataFile;
+    }
+
+    File getIndexFile() {
+        return indexFile;
+    }
+
+    long sizeOnDisk() {
+        return dataLength + indexLength;
+    }
+
+    // 记录一个已写入的块
+    void addBlock(int length, int lines, long minTs, long maxTs, int recordBytes) {
+        dataLength += length;
+        indexLength += recordBytes;
+        blockCount++;
+        lineCount += lines;
+        minTimestamp = Math.min(minTimestamp, minTs);
+        maxTimestamp = Math.max(maxTimestamp, maxTs);
+    }
+
+    /**
+     * 从已有的索引文件恢复分段信息；索引之后未建索引的数据（如进程异常退出时）被忽略。
+     */
+    static SpoolSegment load(File dataFile) throws IOException {
+        SpoolSegment segment = new SpoolSegment(dataFile);
+        if (!segment.indexFile.isFile()) return segment;
+        try (RandomAccessFile index = new RandomAccessFile(segment.indexFile, "r")) {
+            long size = index.length();
+            MappedByteBuffer buffer = index.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int pos = 0;
+            while (pos + RECORD_HEADER_BYTES <= size) {
+                int length = buffer.getInt(pos + 8);
+                int lines = buffer.getInt(pos + 12);
+                long minTs = buffer.getLong(pos + 16);
+                long maxTs = buffer.getLong(pos + 24);
+                int words = buffer.getInt(pos + 32);
+                int recordBytes = RECORD_HEADER_BYTES + words * 8;
+                if (pos + recordBytes > size) break;
+                segment.addBlock(length, lines, minTs, maxTs, recordBytes);
+                pos += recordBytes;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * 统计本分段中时间戳恰好为 timestamp 的行数（只读取时间范围覆盖它的块），
+     * 用于重启后重新订阅时判断补发的同一时间戳的行中有多少已经落盘。
+     */
+    int countLinesAt(long timestamp) throws IOException {
+        if (!indexFile.isFile() || timestamp < minTimestamp || timestamp > maxTimestamp) return 0;
+        byte[] prefix = DockerTimestamps.format(timestamp).getBytes(StandardCharsets.US_ASCII);
+        int count = 0;
+        try (RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+             RandomAccessFile data = new RandomAccessFile(dataFile, "r")) {
+            long size = index.length();
+            MappedByteBuffer indexBuffer = index.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int pos = 0;
+            while (pos + RECORD_HEADER_BYTES <= size) {
+                long offset = indexBuffer.getLong(pos);
+                int length = indexBuffer.getInt(pos + 8);
+                long minTs = indexBuffer.getLong(pos + 16);
+                long maxTs = indexBuffer.getLong(pos + 24);
+                int words = indexBuffer.getInt(pos + 32);
+                if (minTs <= timestamp && timestamp <= maxTs) {
+                    byte[] block = new byte[length];
+                    data.seek(offset);
+                    data.readFully(block);
+                    // 每行以固定长度的时间戳开头，以换行结尾
+                    for (int lineStart = 0; lineStart + prefix.length <= length; ) {
+                        int i = 0;
+                        while (i < prefix.length && block[lineStart + i] == prefix[i]) i++;
+                        if (i == prefix.length) count++;
+                        int end = lineStart + prefix.length;
+                        while (end < length && block[end] != '\n') end++;
+                        lineStart = end + 1;
+                    }
+                }
+                pos += RECORD_HEADER_BYTES + words * 8;
+            }
+        }
+        return count;
+    }
+
+    // 写入一条块索引记录，返回记录字节数
+    static int writeRecord(FileChannel channel, long position, long offset, int length, int lines,
+                           long minTs, long maxTs, long[] bloom) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bloom.length * 8);
+        record.putLong(offset).putInt(length).putInt(lines).putLong(minTs).putLong(maxTs).putInt(bloom.length);
+        for (long word : bloom) {
+            record.putLong(word);
+        }
+        record.flip();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        return record.limit();
+    }
+
+    /**
+     * 检索本分段中前 indexLength 字节索引所覆盖的块。
+     * 索引和数据文件都以只读内存映射方式读取，只有时间范围重叠且三元组过滤器命中的块才会被扫描。
+     */
+    void search(LogSearch search, long indexLength) throws IOException {
+        if (indexLength <= 0) return;
+        RandomAccessFile index;
+        RandomAccessFile data;
+        try {
+            index = new RandomAccessFile(indexFile, "r");
+        } catch (FileNotFoundException e) {
+            // 检索期间被保留策略删除
+            return;
+        }
+        try {
+            data = new RandomAccessFile(dataFile, "r");
+        } catch (FileNotFoundException e) {
+            index.close();
+            return;
+        }
+        try {
+            MappedByteBuffer indexBuffer = index.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, indexLength);
+            MappedByteBuffer dataBuffer = null;
+            LogMatcher matcher = search.getMatcher();
+            int pos = 0;
+            while (pos + RECORD_HEADER_BYTES <= indexLength && !search.isFull()) {
+                long offset = indexBuffer.getLong(pos);
+                int length = indexBuffer.getInt(pos + 8);
+                long minTs = indexBuffer.getLong(pos + 16);
+                long maxTs = indexBuffer.getLong(pos + 24);
+                int words = indexBuffer.getInt(pos + 32);
+                if (search.overlaps(minTs, maxTs) && matcher.mayMatch(indexBuffer, pos + RECORD_HEADER_BYTES, words)) {
+                    if (dataBuffer == null) {
+                        dataBuffer = data.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, data.length());
+                    }
+                    byte[] bytes = search.buffer(length);
+                    ByteBuffer block = dataBuffer.duplicate();
+                    block.position((int) offset);
+                    block.get(bytes, 0, length);
+                    search.scanBlock(bytes, length);
+                } else {
+                    search.skipBlock();
+                }
+                pos += RECORD_HEADER_BYTES + words * 8;
+            }
+        } finally {
+            index.close();
+            data.close();
+        }
+    }
+
+    void delete() {
+        if (!dataFile.delete() && dataFile.exists()) {
+            System.err.println("删除日志分段失败: " + dataFile);
+        }
+        if (!indexFile.delete() && indexFile.exists()) {
+            System.err.println("删除日志索引失败: " + indexFile);
+        }
+    }
+}
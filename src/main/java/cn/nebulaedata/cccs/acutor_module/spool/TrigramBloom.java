@@ -0,0 +1,102 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 日志块的三元组（trigram）布隆过滤器。
+ * 每个块记录其中所有日志正文的字节三元组（ASCII 字母统一转小写），
+ * 查询时只有包含查询串全部三元组的块才需要真正扫描。
+ * 位下标取哈希值的低位，因此过滤器可以按对半折叠缩小，写入磁盘前按填充率压缩到合适的大小。
+ */
+final class TrigramBloom {
+
+    static final int MAX_WORDS = 512;   // 32768 位
+    static final int MIN_WORDS = 16;    // 1024 位
+    // 折叠后的目标填充率上限
+    private static final double MAX_FILL = 0.4;
+
+    private TrigramBloom() {
+    }
+
+    // 把 [start, end) 中所有三元组加入过滤器（过滤器大小为 MAX_WORDS）
+    static void add(long[] words, byte[] bytes, int start, int end) {
+        int mask = MAX_WORDS * 64 - 1;
+        for (int i = start; i + 2 < end; i++) {
+            set(words, key(bytes[i], bytes[i + 1], bytes[i + 2]), mask);
+        }
+    }
+
+    // 计算查询串中所有三元组的键，串长不足3时返回空数组（无法过滤）
+    static int[] keys(byte[] bytes) {
+        if (bytes.length < 3) return new int[0];
+        int[] keys = new int[bytes.length - 2];
+        for (int i = 0; i + 2 < bytes.length; i++) {
+            keys[i] = key(bytes[i], bytes[i + 1], bytes[i + 2]);
+        }
+        return keys;
+    }
+
+    // 检查 buffer 中 position 处、长度为 wordCount 的过滤器是否包含全部键
+    static boolean containsAll(ByteBuffer buffer, int position, int wordCount, int[] keys) {
+        int mask = wordCount * 64 - 1;
+        for (int key : keys) {
+            long mix = mix(key);
+            if (!test(buffer, position, (int) mix & mask)
+                    || !test(buffer, position, (int) (mix >>> 21) & mask)
+                    || !test(buffer, position, (int) (mix >>> 42) & mask)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 按对半折叠压缩过滤器，直到再折叠会超过目标填充率
+    static long[] fold(long[] words) {
+        long[] current = words;
+        int length = words.length;
+        while (length > MIN_WORDS) {
+            int half = length / 2;
+            int bits = 0;
+            for (int i = 0; i < half; i++) {
+                bits += Long.bitCount(current[i] | current[i + half]);
+            }
+            if (bits > half * 64 * MAX_FILL) break;
+            long[] folded = new long[half];
+            for (int i = 0; i < half; i++) {
+                folded[i] = current[i] | current[i + half];
+            }
+            current = folded;
+            length = half;
+        }
+        return current == words ? Arrays.copyOf(words, words.length) : current;
+    }
+
+    static int key(byte b0, byte b1, byte b2) {
+        return (lower(b0) & 0xFF) << 16 | (lower(b1) & 0xFF) << 8 | (lower(b2) & 0xFF);
+    }
+
+    static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    private static void set(long[] words, int key, int mask) {
+        long mix = mix(key);
+        setBit(words, (int) mix & mask);
+        setBit(words, (int) (mix >>> 21) & mask);
+        setBit(words, (int) (mix >>> 42) & mask);
+    }
+
+    private static long mix(int key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static void setBit(long[] words, int bit) {
+        words[bit >>> 6] |= 1L << (bit & 63);
+    }
+
+    private static boolean test(ByteBuffer buffer, int position, int bit) {
+        return (buffer.getLong(position + (bit >>> 6) * 8) & (1L << (bit & 63))) != 0;
+    }
+}
@@ -0,0 +1,76 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 从字节缓冲区（通常是内存映射的分段）的指定区间按位读取，高位在前。
+ * 每次从缓冲区装入8个字节到本地缓存，只使用绝对位置读取，多个读取方可以共享同一个缓冲区。
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private int position;
+    private final int end;
+
+    // 左对齐的待读位及其个数
+    private long cache = 0;
+    private int cacheBits = 0;
+
+    BitReader(ByteBuffer buffer, int start, int length) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = start + length;
+    }
+
+    boolean readBit() {
+        if (cacheBits == 0) {
+            refill();
+        }
+        boolean bit = cache < 0;
+        cache <<= 1;
+        cacheBits--;
+        return bit;
+    }
+
+    // 读取 n 位（1 <= n <= 64）作为无符号数
+    long readBits(int n) {
+        if (n == 64) {
+            return (readBits(32) << 32) | readBits(32);
+        }
+        if (n <= cacheBits) {
+            long value = cache >>> (64 - n);
+            cache <<= n;
+            cacheBits -= n;
+            return value;
+        }
+        int have = cacheBits;
+        long high = have == 0 ? 0 : cache >>> (64 - have);
+        refill();
+        int need = n - have;
+        if (need > cacheBits) {
+            throw new IllegalStateException("数据块已截断");
+        }
+        long low = cache >>> (64 - need);
+        cache <<= need;
+        cacheBits -= need;
+        return (high << need) | low;
+    }
+
+    private void refill() {
+        if (position + 8 <= end) {
+            cache = buffer.getLong(position);
+            position += 8;
+            cacheBits = 64;
+            return;
+        }
+        if (position >= end) {
+            throw new IllegalStateException("数据块已截断");
+        }
+        cache = 0;
+        cacheBits = 0;
+        while (position < end) {
+            cache |= (buffer.get(position++) & 0xFFL) << (56 - cacheBits);
+            cacheBits += 8;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 按位追加的写缓冲区，高位在前，写出时按大端字节序与 {@link BitReader} 对应。
+ */
+final class BitWriter {
+
+    private long[] words;
+    private int bitCount = 0;
+
+    BitWriter(int initialBits) {
+        this.words = new long[Math.max(1, (initialBits + 63) >>> 6)];
+    }
+
+    void writeBit(boolean bit) {
+        ensureCapacity(1);
+        if (bit) {
+            words[bitCount >>> 6] |= 1L << (63 - (bitCount & 63));
+        }
+        bitCount++;
+    }
+
+    // 写入 value 的低 n 位（1 <= n <= 64）
+    void writeBits(long value, int n) {
+        ensureCapacity(n);
+        if (n < 64) {
+            value &= (1L << n) - 1;
+        }
+        int index = bitCount >>> 6;
+        int free = 64 - (bitCount & 63);
+        if (n <= free) {
+            words[index] |= value << (free - n);
+        } else {
+            int spill = n - free;
+            words[index] |= value >>> spill;
+            words[index + 1] |= value << (64 - spill);
+        }
+        bitCount += n;
+    }
+
+    int byteLength() {
+        return (bitCount + 7) >>> 3;
+    }
+
+    // 写出 byteLength() 个字节
+    void writeTo(ByteBuffer target) {
+        int bytes = byteLength();
+        int fullWords = bytes >>> 3;
+        for (int i = 0; i < fullWords; i++) {
+            target.putLong(words[i]);
+        }
+        for (int i = fullWords * 8; i < bytes; i++) {
+            target.put((byte) (words[i >>> 3] >>> (56 - (i & 7) * 8)));
+        }
+    }
+
+    void reset() {
+        Arrays.fill(words, 0, Math.min(words.length, (bitCount >>> 6) + 1), 0L);
+        bitCount = 0;
+    }
+
+    private void ensureCapacity(int n) {
+        int required = ((bitCount + n) >>> 6) + 1;
+        if (required > words.length) {
+            words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+        }
+    }
+}
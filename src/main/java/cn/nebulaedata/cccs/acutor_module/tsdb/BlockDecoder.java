@@ -0,0 +1,116 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 解码 {@link BlockEncoder} 格式的数据块，只解码查询用到的序列。
+ * 解码缓冲区在块之间复用，一次查询的内存占用与单个块的点数成正比，与查询范围无关。
+ * 不是线程安全的，每次查询使用各自的实例。
+ */
+final class BlockDecoder {
+
+    private final int columnCount;
+    private long[] timestamps = new long[0];
+    private double[][] columns;
+    private final double[] row;
+
+    BlockDecoder(int columnCount) {
+        this.columnCount = columnCount;
+        this.columns = new double[columnCount][0];
+        this.row = new double[columnCount];
+    }
+
+    /**
+     * 解码 position 处的块并把 [from, to] 内的点交给 visitor。
+     *
+     * @param streamCount   块中的序列数
+     * @param columnStreams 每个输出列对应的序列序号，-1 表示该块中没有此序列（输出NaN）
+     */
+    void decode(ByteBuffer buffer, int position, int streamCount, int[] columnStreams,
+                long from, long to, PointVisitor visitor) {
+        int count = buffer.getInt(position + 4);
+        if (count <= 0) return;
+        if (timestamps.length < count) {
+            timestamps = new long[count];
+            for (int c = 0; c < columnCount; c++) {
+                columns[c] = new double[count];
+            }
+        }
+
+        int lengths = position + BlockEncoder.FIXED_HEADER_BYTES;
+        int offset = position + BlockEncoder.headerBytes(streamCount);
+        int timestampBytes = buffer.getInt(lengths);
+        decodeTimestamps(new BitReader(buffer, offset, timestampBytes), count);
+
+        int first = 0;
+        while (first < count && timestamps[first] < from) first++;
+        int last = count;
+        while (last > first && timestamps[last - 1] > to) last--;
+        if (first >= last) return;
+
+        for (int c = 0; c < columnCount; c++) {
+            int stream = columnStreams[c];
+            if (stream < 0) {
+                Arrays.fill(columns[c], 0, last, Double.NaN);
+                continue;
+            }
+            // 数值流依次排在时间戳流之后
+            int start = offset + timestampBytes;
+            for (int s = 0; s < stream; s++) {
+                start += buffer.getInt(lengths + 4 * (s + 1));
+            }
+            int length = buffer.getInt(lengths + 4 * (stream + 1));
+            decodeValues(new BitReader(buffer, start, length), last, columns[c]);
+        }
+
+        for (int i = first; i < last; i++) {
+            for (int c = 0; c < columnCount; c++) {
+                row[c] = columns[c][i];
+            }
+            visitor.visit(timestamps[i], row);
+        }
+    }
+
+    private void decodeTimestamps(BitReader reader, int count) {
+        long timestamp = reader.readBits(64);
+        long delta = 0;
+        timestamps[0] = timestamp;
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (!reader.readBit()) {
+                dod = 0;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(7) - 63;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(9) - 255;
+            } else if (!reader.readBit()) {
+                dod = reader.readBits(12) - 2047;
+            } else {
+                dod = reader.readBits(64);
+            }
+            delta += dod;
+            timestamp += delta;
+            timestamps[i] = timestamp;
+        }
+    }
+
+    // 解码前 count 个值
+    private static void decodeValues(BitReader reader, int count, double[] into) {
+        long bits = reader.readBits(64);
+        into[0] = Double.longBitsToDouble(bits);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (reader.readBit()) {
+                if (reader.readBit()) {
+                    leading = (int) reader.readBits(5);
+                    int significant = (int) reader.readBits(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                bits ^= reader.readBits(64 - leading - trailing) << trailing;
+            }
+            into[i] = Double.longBitsToDouble(bits);
+        }
+    }
+}
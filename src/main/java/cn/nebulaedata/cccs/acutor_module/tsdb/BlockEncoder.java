@@ -0,0 +1,170 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 内存中的当前数据块，按 Gorilla 方式压缩：
+ * 时间戳记录二阶差分（规则采样时每点约1~9位），每个序列的数值与前一个值按位异或，
+ * 只记录变化的有效位（不变时每点1位）。
+ * <p>
+ * 块格式：length(4) count(4) minTs(8) maxTs(8) streamLengths(4*(1+序列数))，
+ * 之后依次是时间戳流和各序列的数值流。
+ */
+final class BlockEncoder {
+
+    static final int FIXED_HEADER_BYTES = 24;
+
+    private final int streamCount;
+    private final BitWriter timestamps;
+    private final BitWriter[] values;
+
+    private int count = 0;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    // 时间戳编码状态
+    private long previousTimestamp;
+    private long previousDelta;
+
+    // 数值编码状态：上一个值的位模式和上一次有效位窗口（-1 表示尚无窗口）
+    private final long[] previousBits;
+    private final int[] previousLeading;
+    private final int[] previousTrailing;
+
+    BlockEncoder(int streamCount, int expectedPoints) {
+        this.streamCount = streamCount;
+        this.timestamps = new BitWriter(expectedPoints * 2 + 64);
+        this.values = new BitWriter[streamCount];
+        for (int i = 0; i < streamCount; i++) {
+            values[i] = new BitWriter(expectedPoints * 8 + 64);
+        }
+        this.previousBits = new long[streamCount];
+        this.previousLeading = new int[streamCount];
+        this.previousTrailing = new int[streamCount];
+        Arrays.fill(previousLeading, -1);
+    }
+
+    static int headerBytes(int streamCount) {
+        return FIXED_HEADER_BYTES + 4 * (streamCount + 1);
+    }
+
+    int size() {
+        return count;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    // 追加一个点，时间戳必须递增；row 不足的序列记为NaN
+    void add(long timestamp, double[] row) {
+        encodeTimestamp(timestamp);
+        for (int i = 0; i < streamCount; i++) {
+            encodeValue(i, i < row.length ? row[i] : Double.NaN);
+        }
+        if (count == 0) {
+            minTimestamp = timestamp;
+        }
+        maxTimestamp = timestamp;
+        count++;
+    }
+
+    private void encodeTimestamp(long timestamp) {
+        if (count == 0) {
+            timestamps.writeBits(timestamp, 64);
+            previousTimestamp = timestamp;
+            previousDelta = 0;
+            return;
+        }
+        long delta = timestamp - previousTimestamp;
+        long dod = delta - previousDelta;
+        if (dod == 0) {
+            timestamps.writeBit(false);
+        } else if (dod >= -63 && dod <= 64) {
+            timestamps.writeBits((0b10L << 7) | (dod + 63), 9);
+        } else if (dod >= -255 && dod <= 256) {
+            timestamps.writeBits((0b110L << 9) | (dod + 255), 12);
+        } else if (dod >= -2047 && dod <= 2048) {
+            timestamps.writeBits((0b1110L << 12) | (dod + 2047), 16);
+        } else {
+            timestamps.writeBits(0b1111L, 4);
+            timestamps.writeBits(dod, 64);
+        }
+        previousTimestamp = timestamp;
+        previousDelta = delta;
+    }
+
+    private void encodeValue(int stream, double value) {
+        BitWriter writer = values[stream];
+        long bits = Double.doubleToLongBits(value);
+        if (count == 0) {
+            writer.writeBits(bits, 64);
+            previousBits[stream] = bits;
+            return;
+        }
+        long xor = bits ^ previousBits[stream];
+        previousBits[stream] = bits;
+        if (xor == 0) {
+            writer.writeBit(false);
+            return;
+        }
+        writer.writeBit(true);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        int previous = previousLeading[stream];
+        if (previous >= 0 && leading >= previous && trailing >= previousTrailing[stream]) {
+            // 有效位落在上一次的窗口内，沿用窗口
+            writer.writeBit(false);
+            writer.writeBits(xor >>> previousTrailing[stream], 64 - previous - previousTrailing[stream]);
+        } else {
+            int significant = 64 - leading - trailing;
+            writer.writeBit(true);
+            writer.writeBits(leading, 5);
+            writer.writeBits(significant - 1, 6);
+            writer.writeBits(xor >>> trailing, significant);
+            previousLeading[stream] = leading;
+            previousTrailing[stream] = trailing;
+        }
+    }
+
+    int encodedLength() {
+        int length = headerBytes(streamCount) + timestamps.byteLength();
+        for (BitWriter writer : values) {
+            length += writer.byteLength();
+        }
+        return length;
+    }
+
+    // 按块格式写出当前内容
+    void writeTo(ByteBuffer target) {
+        target.putInt(encodedLength()).putInt(count).putLong(minTimestamp).putLong(maxTimestamp);
+        target.putInt(timestamps.byteLength());
+        for (BitWriter writer : values) {
+            target.putInt(writer.byteLength());
+        }
+        timestamps.writeTo(target);
+        for (BitWriter writer : values) {
+            writer.writeTo(target);
+        }
+    }
+
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength());
+        writeTo(buffer);
+        return buffer.array();
+    }
+
+    void reset() {
+        timestamps.reset();
+        for (BitWriter writer : values) {
+            writer.reset();
+        }
+        Arrays.fill(previousLeading, -1);
+        count = 0;
+    }
+}
@@ -0,0 +1,246 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按 Largest-Triangle-Three-Buckets 对每一列独立降采样，在扫描过程中一次完成，不物化完整结果。
+ * [from, to] 按时间等分为 maxPoints - 2 个桶，每列保留第一个点、最后一个点，
+ * 以及每个非空桶中与“上一个选中点、下一个非空桶的均值点”构成三角形面积最大的点。
+ * 选点需要下一个桶的均值，因此每列只缓冲当前桶和下一个桶的点，内存与单个桶的点数成正比；
+ * 输出点数不超过 maxPoints，与时间范围无关。NaN 视为缺失，不参与选点。
+ * 汇总精度的最小值列、最大值列不按 LTTB 选点，而是每个非空桶保留桶内最小（最大）的点，降采样后不会丢失极值。
+ */
+public final class LttbDownsampler implements PointVisitor {
+
+    public static final int MAX_POINTS_LIMIT = 100_000;
+
+    // 每列的选点方式
+    public static final int REDUCE_LTTB = 0;
+    public static final int REDUCE_MIN = 1;
+    public static final int REDUCE_MAX = 2;
+
+    private final Column[] columns;
+    private final long from;
+    private final double bucketWidth;
+    private long sourceCount = 0;
+
+    public LttbDownsampler(int columnCount, long from, long to, int maxPoints) {
+        this(new int[columnCount], from, to, maxPoints);
+    }
+
+    /**
+     * @param reducers 每列的选点方式：REDUCE_LTTB、REDUCE_MIN 或 REDUCE_MAX
+     */
+    public LttbDownsampler(int[] reducers, long from, long to, int maxPoints) {
+        if (maxPoints < 3 || maxPoints > MAX_POINTS_LIMIT) {
+            throw new IllegalArgumentException("maxPoints 必须在 3 到 " + MAX_POINTS_LIMIT + " 之间");
+        }
+        this.from = from;
+        this.bucketWidth = Math.max(1.0, (double) (to - from + 1) / (maxPoints - 2));
+        this.columns = new Column[reducers.length];
+        for (int c = 0; c < reducers.length; c++) {
+            columns[c] = new Column(maxPoints, reducers[c]);
+        }
+    }
+
+    @Override
+    public void visit(long timestamp, double[] values) {
+        sourceCount++;
+        long bucket = (long) ((timestamp - from) / bucketWidth);
+        for (int c = 0; c < columns.length; c++) {
+            double value = values[c];
+            if (!Double.isNaN(value)) {
+                columns[c].add(bucket, timestamp - from, value);
+            }
+        }
+    }
+
+    // 扫描结束后调用，输出剩余的桶
+    public void finish() {
+        for (Column column : columns) {
+            column.finish();
+        }
+    }
+
+    // 扫描过的原始点数
+    public long getSourceCount() {
+        return sourceCount;
+    }
+
+    public long[] timestamps(int column) {
+        Column c = columns[column];
+        long[] timestamps = new long[c.outputCount];
+        for (int i = 0; i < c.outputCount; i++) {
+            timestamps[i] = c.outputOffsets[i] + from;
+        }
+        return timestamps;
+    }
+
+    public double[] values(int column) {
+        return Arrays.copyOf(columns[column].outputValues, columns[column].outputCount);
+    }
+
+    // 一列的降采样结果：{"timestamps": [...], "values": [...]}
+    public Map<String, Object> series(int column) {
+        Map<String, Object> series = new LinkedHashMap<>();
+        series.put("timestamps", timestamps(column));
+        series.put("values", values(column));
+        return series;
+    }
+
+    private static final class Column {
+
+        private final int maxPoints;
+        private final int reducer;
+        // 已选中的点，时间为相对 from 的偏移
+        private long[] outputOffsets;
+        private double[] outputValues;
+        private int outputCount = 0;
+
+        // 当前桶（待选点）和下一个非空桶
+        private Bucket pending = new Bucket();
+        private Bucket next = new Bucket();
+
+        Column(int maxPoints, int reducer) {
+            this.maxPoints = maxPoints;
+            this.reducer = reducer;
+            this.outputOffsets = new long[Math.min(maxPoints, 256)];
+            this.outputValues = new double[outputOffsets.length];
+        }
+
+        void add(long bucket, long offset, double value) {
+            if (reducer != REDUCE_LTTB) {
+                addExtreme(bucket, offset, value);
+                return;
+            }
+            if (outputCount == 0) {
+                // 第一个点总是保留
+                emit(offset, value);
+                return;
+            }
+            if (next.size > 0 && bucket != next.index) {
+                // 下一个桶已完整，可以为当前桶选点
+                if (pending.size > 0) {
+                    select(pending, next.averageOffset(), next.averageValue());
+                }
+                Bucket swap = pending;
+                pending = next;
+                next = swap;
+                next.clear();
+            }
+            if (next.size == 0) {
+                next.index = bucket;
+            }
+            next.add(offset, value);
+        }
+
+        // 最小值列、最大值列：next 只保存当前桶的极值点，进入新桶时输出
+        private void addExtreme(long bucket, long offset, double value) {
+            if (next.size > 0 && bucket != next.index) {
+                emitLast(next);
+                next.clear();
+            }
+            if (next.size == 0) {
+                next.index = bucket;
+                next.add(offset, value);
+            } else if (reducer == REDUCE_MIN ? value < next.values[0] : value > next.values[0]) {
+                next.offsets[0] = offset;
+                next.values[0] = value;
+            }
+        }
+
+        void finish() {
+            if (reducer != REDUCE_LTTB) {
+                if (next.size > 0) {
+                    emitLast(next);
+                    next.clear();
+                }
+                return;
+            }
+            if (next.size == 0) {
+                if (pending.size > 0) {
+                    emitLast(pending);
+                }
+                return;
+            }
+            if (pending.size > 0) {
+                select(pending, next.averageOffset(), next.averageValue());
+            }
+            // 最后一个点总是保留
+            emitLast(next);
+            pending.clear();
+            next.clear();
+        }
+
+        // 选出与上一个选中点 A、下一个桶均值点 C 构成三角形面积最大的点
+        private void select(Bucket bucket, double offsetC, double valueC) {
+            double offsetA = outputOffsets[outputCount - 1];
+            double valueA = outputValues[outputCount - 1];
+            int best = 0;
+            double bestArea = -1;
+            for (int i = 0; i < bucket.size; i++) {
+                double area = Math.abs((offsetA - offsetC) * (bucket.values[i] - valueA)
+                        - (offsetA - bucket.offsets[i]) * (valueC - valueA));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+            emit(bucket.offsets[best], bucket.values[best]);
+        }
+
+        private void emitLast(Bucket bucket) {
+            emit(bucket.offsets[bucket.size - 1], bucket.values[bucket.size - 1]);
+        }
+
+        private void emit(long offset, double value) {
+            if (outputCount == maxPoints) return;
+            if (outputCount == outputOffsets.length) {
+                int capacity = Math.min(maxPoints, outputCount * 2);
+                outputOffsets = Arrays.copyOf(outputOffsets, capacity);
+                outputValues = Arrays.copyOf(outputValues, capacity);
+            }
+            outputOffsets[outputCount] = offset;
+            outputValues[outputCount] = value;
+            outputCount++;
+        }
+    }
+
+    private static final class Bucket {
+
+        long index;
+        long[] offsets = new long[16];
+        double[] values = new double[16];
+        int size = 0;
+        private double offsetSum = 0;
+        private double valueSum = 0;
+
+        void add(long offset, double value) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            offsets[size] = offset;
+            values[size] = value;
+            size++;
+            offsetSum += offset;
+            valueSum += value;
+        }
+
+        double averageOffset() {
+            return offsetSum / size;
+        }
+
+        double averageValue() {
+            return valueSum / size;
+        }
+
+        void clear() {
+            size = 0;
+            offsetSum = 0;
+            valueSum = 0;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorStats;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsListener;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * 指标时序存储（默认开启）。
+ * 每次采样后把历史序列写入原始精度，并同时汇总为 10s / 1m / 10m 三级精度（最小值、最大值、平均值）；
+ * 各精度分别按 Gorilla 方式压缩为数据块，追加写入内存映射读取的分段文件，重启后历史数据仍然可查。
+ * 每级精度有各自的保存时长，总大小超出上限时优先删除原始精度中最旧的分段。
+ */
+@Component
+public class MetricsStore implements MetricsListener {
+
+    public static final String RAW = "raw";
+    public static final String AUTO = "auto";
+    private static final String[] ROLLUP_NAMES = {"10s", "1m", "10m"};
+    private static final long[] ROLLUP_INTERVALS = {10_000L, 60_000L, 600_000L};
+    // 自动选择精度时每个序列最多返回的点数
+    private static final int AUTO_MAX_POINTS = 4000;
+
+    private final MetricsSampler metricsSampler;
+    private final boolean enabled;
+    private final File rootDirectory;
+    private final long rawIntervalMs;
+    private final int pointsPerBlock;
+    private final long maxBlockAgeMs;
+    private final long retentionBytes;
+    // 不降采样（未指定 maxPoints）时每个序列最多返回的点数
+    private final int maxQueryPoints;
+    // 依次为原始精度和各级汇总的保存时长
+    private final long[] retentionMs;
+    private final CollectorStats appendStats;
+    private final CollectorStats queryStats;
+
+    // 原始精度在前，汇总精度按间隔从小到大
+    private final List<TsdbTier> tiers = new ArrayList<>();
+    private final List<Rollup> rollups = new ArrayList<>();
+    // 写入状态由 this 保护
+    private boolean running = false;
+    private boolean writeFailed = false;
+
+    public MetricsStore(MetricsSampler metricsSampler, CollectorMetrics collectorMetrics,
+                        @Value("${monitor.tsdb.enabled:true}") boolean enabled,
+                        @Value("${monitor.tsdb.dir:./data/tsdb}") String directory,
+                        @Value("${monitor.sampler.interval-ms:1000}") long rawIntervalMs,
+                        @Value("${monitor.tsdb.points-per-block:600}") int pointsPerBlock,
+                        @Value("${monitor.tsdb.max-block-age-ms:600000}") long maxBlockAgeMs,
+                        @Value("${monitor.tsdb.retention-bytes:536870912}") long retentionBytes,
+                        @Value("${monitor.tsdb.retention-hours.raw:168}") long rawRetentionHours,
+                        @Value("${monitor.tsdb.retention-hours.10s:720}") long retention10sHours,
+                        @Value("${monitor.tsdb.retention-hours.1m:2160}") long retention1mHours,
+                        @Value("${monitor.tsdb.retention-hours.10m:8760}") long retention10mHours,
+                        @Value("${monitor.tsdb.max-query-points:20000}") int maxQueryPoints) {
+        this.metricsSampler = metricsSampler;
+        this.enabled = enabled;
+        this.rootDirectory = new File(directory);
+        this.rawIntervalMs = Math.max(1, rawIntervalMs);
+        this.pointsPerBlock = Math.max(16, pointsPerBlock);
+        this.maxBlockAgeMs = Math.max(1000, maxBlockAgeMs);
+        this.retentionBytes = retentionBytes;
+        this.maxQueryPoints = Math.max(AUTO_MAX_POINTS, maxQueryPoints);
+        this.retentionMs = new long[]{
+                TimeUnit.HOURS.toMillis(rawRetentionHours), TimeUnit.HOURS.toMillis(retention10sHours),
+                TimeUnit.HOURS.toMillis(retention1mHours), TimeUnit.HOURS.toMillis(retention10mHours)
+        };
+        this.appendStats = collectorMetrics.stats("tsdb.append");
+        this.queryStats = collectorMetrics.stats("tsdb.query");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        String[] series = MetricsSampler.HISTORY_SERIES;
+        try {
+            tiers.add(TsdbTier.open(RAW, rawIntervalMs, series, new File(rootDirectory, RAW),
+                    pointsPerBlock, retentionMs[0]));
+            String[] rollupStreams = Rollup.streams(series);
+            for (int i = 0; i < ROLLUP_NAMES.length; i++) {
+                TsdbTier tier = TsdbTier.open(ROLLUP_NAMES[i], ROLLUP_INTERVALS[i], rollupStreams,
+                        new File(rootDirectory, ROLLUP_NAMES[i]), pointsPerBlock, retentionMs[i + 1]);
+                tiers.add(tier);
+                rollups.add(new Rollup(tier, series.length));
+            }
+        } catch (IOException e) {
+            System.err.println("时序存储初始化失败，历史查询仅使用内存缓冲区: " + e.getMessage());
+            tiers.clear();
+            rollups.clear();
+            return;
+        }
+        synchronized (this) {
+            running = true;
+        }
+        metricsSampler.addListener(this);
+        System.out.println("时序存储已启用，目录: " + rootDirectory.getAbsolutePath() + "，已有数据: " + sizeOnDisk() + " 字节");
+    }
+
+    public synchronized boolean isEnabled() {
+        return running;
+    }
+
+    @Override
+    public void onSample(MetricsSnapshot snapshot) {
+        long start = System.nanoTime();
+        double[] row = MetricsSampler.toHistoryRow(snapshot);
+        synchronized (this) {
+            if (!running) return;
+            IOException failure = null;
+            try {
+                tiers.get(0).append(snapshot.getTimestamp(), row);
+            } catch (IOException e) {
+                failure = e;
+                tiers.get(0).abandonActive();
+            }
+            for (int i = 0; i < rollups.size(); i++) {
+                try {
+                    rollups.get(i).add(snapshot.getTimestamp(), row);
+                } catch (IOException e) {
+                    failure = e;
+                    tiers.get(i + 1).abandonActive();
+                }
+            }
+            if (failure == null) {
+                writeFailed = false;
+                appendStats.record(start);
+                return;
+            }
+            appendStats.recordFailure(start, failure);
+            if (!writeFailed) {
+                // 同一故障只提示一次，之后的数据继续尝试写入新的分段
+                writeFailed = true;
+                System.err.println("写入时序存储失败: " + failure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 定期维护：落盘空闲的当前块，执行保留策略。
+     */
+    @Scheduled(fixedDelayString = "${monitor.tsdb.maintenance-interval-ms:10000}")
+    public void maintain() {
+        if (!isEnabled()) return;
+        long now = System.currentTimeMillis();
+        for (TsdbTier tier : tiers) {
+            try {
+                tier.flushIdle(now, maxBlockAgeMs);
+            } catch (IOException e) {
+                System.err.println("时序存储 " + tier.getName() + " 落盘失败: " + e.getMessage());
+                tier.abandonActive();
+            }
+        }
+        enforceRetention(now);
+    }
+
+    // 删除各精度中超过保存时长的分段，再按原始精度优先、从最旧开始删除直到总大小不超过上限
+    private void enforceRetention(long now) {
+        long total = 0;
+        List<List<TsdbSegment>> sealed = new ArrayList<>();
+        for (TsdbTier tier : tiers) {
+            List<TsdbSegment> segments = tier.getSealedSegments();
+            List<TsdbSegment> kept = new ArrayList<>();
+            long cutoff = now - tier.getRetentionMs();
+            for (TsdbSegment segment : segments) {
+                if (segment.maxTimestamp < cutoff) {
+                    tier.deleteSegment(segment);
+                } else {
+                    kept.add(segment);
+                }
+            }
+            sealed.add(kept);
+            total += tier.sizeOnDisk();
+        }
+
+        for (int i = 0; i < tiers.size() && total > retentionBytes; i++) {
+            for (TsdbSegment segment : sealed.get(i)) {
+                if (total <= retentionBytes) break;
+                total -= segment.length;
+                tiers.get(i).deleteSegment(segment);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            metricsSampler.removeListener(this);
+            for (Rollup rollup : rollups) {
+                try {
+                    rollup.flush();
+                } catch (IOException e) {
+                    System.err.println("写入时序汇总失败: " + e.getMessage());
+                }
+            }
+        }
+        for (TsdbTier tier : tiers) {
+            tier.close();
+        }
+    }
+
+    public long sizeOnDisk() {
+        long size = 0;
+        for (TsdbTier tier : tiers) {
+            size += tier.sizeOnDisk();
+        }
+        return size;
+    }
+
+    /**
+     * 查询 [from, to] 范围内的历史序列（毫秒时间戳，闭区间）。
+     * 原始精度的结果格式与内存缓冲区相同；汇总精度的 series 为平均值，另在 min / max 中给出最小值和最大值。
+     * 指定 maxPoints 时在扫描过程中把每个序列降到最多 maxPoints 个点：原始值和平均值按 LTTB 选点，
+     * 最小值、最大值取每个时间桶内的最小、最大值；
+     * 各序列选中的点不同，每个序列的结果为 {"timestamps": [...], "values": [...]}。
+     *
+     * @param resolution raw / 10s / 1m / 10m，或 auto（选择点数不超过 4000 和 maxPoints 中较大者的最细精度，
+     *                   该精度已不再保留 from 处的数据时改用更粗的精度）
+     * @param maxPoints  每个序列最多返回的点数，为 null 时不降采样；范围内的点数超过 max-query-points 时，
+     *                   auto 改为降采样到 4000 个点，指定的精度则拒绝查询
+     * @throws IllegalArgumentException 精度名称或 maxPoints 无效，或指定精度、未指定 maxPoints 而范围内的点数超出上限
+     */
+    public Map<String, Object> query(long from, long to, String resolution, Integer maxPoints) throws IOException {
+        long start = System.nanoTime();
+        try {
+            int autoMaxPoints = maxPoints != null ? Math.max(AUTO_MAX_POINTS, maxPoints) : AUTO_MAX_POINTS;
+            TsdbTier tier = selectTier(from, to, resolution, autoMaxPoints);
+            String[] series = MetricsSampler.HISTORY_SERIES;
+            boolean rollup = !RAW.equals(tier.getName());
+            String[] columns = rollup ? Rollup.streams(series) : series;
+
+            SeriesBuffer buffer = null;
+            LttbDownsampler downsampler = null;
+            if (maxPoints == null) {
+                // 不降采样时结果随时间范围线性增长，按实际有数据的范围估算点数：
+                // 超出上限时自动精度改为降采样到 4000 个点，指定的精度直接拒绝
+                long first = Math.max(from, tier.getOldestTimestamp());
+                long last = Math.min(to, tier.getNewestTimestamp());
+                long points = first <= last ? (last - first) / tier.getIntervalMs() + 1 : 0;
+                if (points > maxQueryPoints) {
+                    if (resolution != null && !AUTO.equals(resolution)) {
+                        throw new IllegalArgumentException("精度 " + tier.getName() + " 在该范围内约有 " + points
+                                + " 个点，超过上限 " + maxQueryPoints + "，请指定 maxPoints 或缩小时间范围");
+                    }
+                    maxPoints = AUTO_MAX_POINTS;
+                }
+            }
+            if (maxPoints == null) {
+                buffer = new SeriesBuffer(columns.length);
+                tier.scan(from, to, columns, buffer);
+            } else {
+                // 按实际有数据的范围划分时间桶，避免查询范围远大于数据范围时大部分桶为空
+                long first = Math.max(from, tier.getOldestTimestamp());
+                long last = Math.min(to, tier.getNewestTimestamp());
+                int[] reducers = new int[columns.length];
+                if (rollup) {
+                    // 最小值、最大值按桶取极值，只有平均值按 LTTB 选点
+                    for (int c = 0; c < columns.length; c += Rollup.STATS.length) {
+                        reducers[c] = LttbDownsampler.REDUCE_MIN;
+                        reducers[c + 1] = LttbDownsampler.REDUCE_MAX;
+                    }
+                }
+                downsampler = first <= last
+                        ? new LttbDownsampler(reducers, first, last, maxPoints)
+                        : new LttbDownsampler(reducers, from, to, maxPoints);
+                tier.scan(from, to, columns, downsampler);
+                downsampler.finish();
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("from", from);
+            result.put("to", to);
+            result.put("resolution", tier.getName());
+            result.put("intervalMs", tier.getIntervalMs());
+            if (buffer != null) {
+                result.put("count", buffer.count);
+                result.put("timestamps", Arrays.copyOf(buffer.timestamps, buffer.count));
+            } else {
+                result.put("maxPoints", maxPoints);
+                result.put("sourceCount", downsampler.getSourceCount());
+            }
+            SeriesBuffer values = buffer;
+            LttbDownsampler reduced = downsampler;
+            IntFunction<Object> column = c -> values != null ? values.column(c) : reduced.series(c);
+            if (rollup) {
+                int stats = Rollup.STATS.length;
+                Map<String, Object> min = new LinkedHashMap<>();
+                Map<String, Object> max = new LinkedHashMap<>();
+                Map<String, Object> avg = new LinkedHashMap<>();
+                for (int s = 0; s < series.length; s++) {
+                    min.put(series[s], column.apply(s * stats));
+                    max.put(series[s], column.apply(s * stats + 1));
+                    avg.put(series[s], column.apply(s * stats + 2));
+                }
+                result.put("series", avg);
+                result.put("min", min);
+                result.put("max", max);
+            } else {
+                Map<String, Object> raw = new LinkedHashMap<>();
+                for (int s = 0; s < series.length; s++) {
+                    raw.put(series[s], column.apply(s));
+                }
+                result.put("series", raw);
+            }
+            queryStats.record(start);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            queryStats.recordFailure(start, e);
+            throw e;
+        }
+    }
+
+    private TsdbTier selectTier(long from, long to, String resolution, int autoMaxPoints) {
+        if (resolution == null || AUTO.equals(resolution)) {
+            long span = Math.max(0, Math.min(to, System.currentTimeMillis()) - from);
+            int chosen = tiers.size() - 1;
+            for (int i = 0; i < tiers.size(); i++) {
+                if (span / tiers.get(i).getIntervalMs() <= autoMaxPoints) {
+                    chosen = i;
+                    break;
+                }
+            }
+            // 该精度已不再保留起始时间的数据、而更粗的精度保留得更久时，改用更粗的精度
+            // （汇总点的时间戳是桶的起始时间，相差不到一个桶不算更久）
+            while (chosen < tiers.size() - 1 && tiers.get(chosen).getOldestTimestamp() > from) {
+                TsdbTier coarser = tiers.get(chosen + 1);
+                long coarserOldest = coarser.getOldestTimestamp();
+                if (coarserOldest == Long.MAX_VALUE
+                        || coarserOldest + coarser.getIntervalMs() > tiers.get(chosen).getOldestTimestamp()) {
+                    break;
+                }
+                chosen++;
+            }
+            return tiers.get(chosen);
+        }
+        for (TsdbTier tier : tiers) {
+            if (tier.getName().equals(resolution)) return tier;
+        }
+        throw new IllegalArgumentException("resolution 只能是 auto、raw、10s、1m 或 10m");
+    }
+
+    // 把扫描结果按列收集到基本类型数组中
+    private static final class SeriesBuffer implements PointVisitor {
+
+        private long[] timestamps = new long[256];
+        private double[][] values;
+        private int count = 0;
+
+        SeriesBuffer(int columns) {
+            values = new double[columns][256];
+        }
+
+        @Override
+        public void visit(long timestamp, double[] row) {
+            if (count == timestamps.length) {
+                int capacity = count * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                for (int c = 0; c < values.length; c++) {
+                    values[c] = Arrays.copyOf(values[c], capacity);
+                }
+            }
+            timestamps[count] = timestamp;
+            for (int c = 0; c < values.length; c++) {
+                values[c][count] = row[c];
+            }
+            count++;
+        }
+
+        double[] column(int c) {
+            return Arrays.copyOf(values[c], count);
+        }
+    }
+}
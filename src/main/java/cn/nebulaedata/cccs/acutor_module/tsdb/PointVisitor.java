@@ -0,0 +1,10 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+/**
+ * 按时间顺序接收查询结果中的采样点。
+ * values 的顺序与查询时给出的列名一致，数组在回调之间复用，实现方需要保留时应自行复制。
+ */
+public interface PointVisitor {
+
+    void visit(long timestamp, double[] values);
+}
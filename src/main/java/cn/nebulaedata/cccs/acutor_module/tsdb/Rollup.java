@@ -0,0 +1,90 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 把原始采样点按固定时间桶汇总为最小值、最大值和平均值，桶结束时写入对应精度。
+ * 汇总点的时间戳为桶的起始时间，NaN 不参与计算，桶内某序列全为NaN时汇总值也为NaN。
+ * 只在存储的写入锁内使用。
+ */
+final class Rollup {
+
+    static final String[] STATS = {"min", "max", "avg"};
+
+    private final TsdbTier tier;
+    private final long intervalMs;
+    private final int seriesCount;
+
+    private long bucketStart = Long.MIN_VALUE;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
+    private final double[] row;
+
+    Rollup(TsdbTier tier, int seriesCount) {
+        this.tier = tier;
+        this.intervalMs = tier.getIntervalMs();
+        this.seriesCount = seriesCount;
+        this.min = new double[seriesCount];
+        this.max = new double[seriesCount];
+        this.sum = new double[seriesCount];
+        this.count = new int[seriesCount];
+        this.row = new double[seriesCount * STATS.length];
+        clear();
+    }
+
+    // 汇总精度中各序列的列名：<序列名>:min / :max / :avg
+    static String[] streams(String[] series) {
+        String[] streams = new String[series.length * STATS.length];
+        for (int i = 0; i < series.length; i++) {
+            for (int s = 0; s < STATS.length; s++) {
+                streams[i * STATS.length + s] = column(series[i], STATS[s]);
+            }
+        }
+        return streams;
+    }
+
+    static String column(String series, String stat) {
+        return series + ":" + stat;
+    }
+
+    void add(long timestamp, double[] values) throws IOException {
+        long bucket = timestamp - Math.floorMod(timestamp, intervalMs);
+        if (bucket != bucketStart) {
+            flush();
+            bucketStart = bucket;
+        }
+        for (int i = 0; i < seriesCount && i < values.length; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) continue;
+            min[i] = Math.min(min[i], value);
+            max[i] = Math.max(max[i], value);
+            sum[i] += value;
+            count[i]++;
+        }
+    }
+
+    // 写出当前桶（停止时写出未结束的桶，重启后同一桶的剩余部分因时间戳不递增而被丢弃）
+    void flush() throws IOException {
+        if (bucketStart == Long.MIN_VALUE) return;
+        for (int i = 0; i < seriesCount; i++) {
+            boolean empty = count[i] == 0;
+            row[i * 3] = empty ? Double.NaN : min[i];
+            row[i * 3 + 1] = empty ? Double.NaN : max[i];
+            row[i * 3 + 2] = empty ? Double.NaN : sum[i] / count[i];
+        }
+        long start = bucketStart;
+        clear();
+        tier.append(start, row);
+    }
+
+    private void clear() {
+        bucketStart = Long.MIN_VALUE;
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        Arrays.fill(sum, 0);
+        Arrays.fill(count, 0);
+    }
+}
@@ -0,0 +1,206 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 时序存储的一个分段文件（*.tsd），只追加写入，读取时整体只读内存映射。
+ * 文件头：magic(4) version(4) intervalMs(8) streamCount(4)，之后每个序列名为 length(2) + UTF-8；
+ * 文件头之后依次是 {@link BlockEncoder} 格式的数据块。
+ * 块索引（位置和时间范围）在加载时扫描块头重建，只保存在内存中。
+ */
+final class TsdbSegment {
+
+    static final String SUFFIX = ".tsd";
+    private static final int MAGIC = 0x4D545344;   // "MTSD"
+    private static final int VERSION = 1;
+
+    private final File file;
+    final long intervalMs;
+    final String[] streams;
+
+    // 以下字段只由所属 TsdbTier 在其锁内修改
+    long length;
+    long minTimestamp = Long.MAX_VALUE;
+    long maxTimestamp = Long.MIN_VALUE;
+    private long[] blockPositions = new long[16];
+    private long[] blockMinTs = new long[16];
+    private long[] blockMaxTs = new long[16];
+    private int blockCount = 0;
+
+    // 读取用的内存映射，文件增长后按需重新映射
+    private MappedByteBuffer mapped;
+
+    private TsdbSegment(File file, long intervalMs, String[] streams, long headerLength) {
+        this.file = file;
+        this.intervalMs = intervalMs;
+        this.streams = streams;
+        this.length = headerLength;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    // 创建新分段并写入文件头
+    static TsdbSegment create(File file, FileChannel channel, long intervalMs, String[] streams) throws IOException {
+        int size = 20;
+        byte[][] names = new byte[streams.length][];
+        for (int i = 0; i < streams.length; i++) {
+            names[i] = streams[i].getBytes(StandardCharsets.UTF_8);
+            size += 2 + names[i].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putInt(VERSION).putLong(intervalMs).putInt(streams.length);
+        for (byte[] name : names) {
+            header.putShort((short) name.length).put(name);
+        }
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        return new TsdbSegment(file, intervalMs, streams.clone(), size);
+    }
+
+    /**
+     * 从已有文件恢复分段：解析文件头并扫描块头重建块索引。
+     * 末尾不完整的块（进程异常退出时）被忽略。
+     */
+    static TsdbSegment load(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long size = raf.length();
+            if (size < 20) throw new IOException("文件头不完整");
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("不是时序存储分段或版本不支持");
+            }
+            long intervalMs = buffer.getLong(8);
+            int streamCount = buffer.getInt(16);
+            String[] streams = new String[streamCount];
+            int pos = 20;
+            for (int i = 0; i < streamCount; i++) {
+                if (pos + 2 > size) throw new IOException("文件头不完整");
+                int nameLength = buffer.getShort(pos) & 0xFFFF;
+                if (pos + 2 + nameLength > size) throw new IOException("文件头不完整");
+                byte[] name = new byte[nameLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(pos + 2);
+                view.get(name);
+                streams[i] = new String(name, StandardCharsets.UTF_8);
+                pos += 2 + nameLength;
+            }
+
+            TsdbSegment segment = new TsdbSegment(file, intervalMs, streams, pos);
+            int headerBytes = BlockEncoder.headerBytes(streamCount);
+            while (pos + headerBytes <= size) {
+                int blockLength = buffer.getInt(pos);
+                if (blockLength < headerBytes || pos + (long) blockLength > size) break;
+                segment.addBlock(pos, buffer.getLong(pos + 8), buffer.getLong(pos + 16), blockLength);
+                pos += blockLength;
+            }
+            return segment;
+        }
+    }
+
+    // 记录一个已写入的块
+    void addBlock(long position, long minTs, long maxTs, int blockLength) {
+        if (blockCount == blockPositions.length) {
+            int capacity = blockCount * 2;
+            blockPositions = Arrays.copyOf(blockPositions, capacity);
+            blockMinTs = Arrays.copyOf(blockMinTs, capacity);
+            blockMaxTs = Arrays.copyOf(blockMaxTs, capacity);
+        }
+        blockPositions[blockCount] = position;
+        blockMinTs[blockCount] = minTs;
+        blockMaxTs[blockCount] = maxTs;
+        blockCount++;
+        length = position + blockLength;
+        minTimestamp = Math.min(minTimestamp, minTs);
+        maxTimestamp = Math.max(maxTimestamp, maxTs);
+    }
+
+    // 当前块索引的只读视图，需在所属 TsdbTier 的锁内取得，之后可在锁外使用
+    Index index() {
+        return new Index(blockPositions, blockMinTs, blockMaxTs, blockCount, length);
+    }
+
+    // 查询列在本分段中的序列序号，没有的列为 -1
+    int[] columns(String[] names) {
+        int[] columns = new int[names.length];
+        for (int c = 0; c < names.length; c++) {
+            columns[c] = -1;
+            for (int s = 0; s < streams.length; s++) {
+                if (streams[s].equals(names[c])) {
+                    columns[c] = s;
+                    break;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 扫描索引中与 [from, to] 重叠的块。
+     * 分段以只读方式整体映射并缓存映射，文件在查询期间被保留策略删除时已建立的映射仍然有效。
+     */
+    void scan(Index index, long from, long to, String[] names, BlockDecoder decoder,
+              PointVisitor visitor) throws IOException {
+        ByteBuffer buffer = map(index.length);
+        if (buffer == null) return;
+        int[] columns = columns(names);
+        for (int i = 0; i < index.count; i++) {
+            if (index.maxTs[i] < from) continue;
+            if (index.minTs[i] > to) break;
+            decoder.decode(buffer, (int) index.positions[i], streams.length, columns, from, to, visitor);
+        }
+    }
+
+    private synchronized ByteBuffer map(long required) throws IOException {
+        if (mapped == null || mapped.capacity() < required) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } catch (FileNotFoundException e) {
+                // 查询期间被保留策略删除
+                return null;
+            }
+        }
+        return mapped;
+    }
+
+    void delete() {
+        synchronized (this) {
+            mapped = null;
+        }
+        if (!file.delete() && file.exists()) {
+            System.err.println("删除时序分段失败: " + file);
+        }
+    }
+
+    static final class Index {
+        final long[] positions;
+        final long[] minTs;
+        final long[] maxTs;
+        final int count;
+        final long length;
+
+        private Index(long[] positions, long[] minTs, long[] maxTs, int count, long length) {
+            this.positions = positions;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+            this.count = count;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package cn.nebulaedata.cccs.acutor_module.tsdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 时序存储中一种精度（原始采样或某一级汇总）的全部数据。
+ * 采样点先压缩进内存中的当前块，块满或空闲超过上限后追加到当前分段；
+ * 分段覆盖的时长超过上限后轮转，之后不再修改，按保存时长和总大小整体删除。
+ */
+final class TsdbTier {
+
+    // 每个分段大约容纳的满块数
+    private static final int SEGMENT_BLOCKS = 24;
+
+    private final String name;
+    private final long intervalMs;
+    private final String[] streams;
+    private final File directory;
+    private final int pointsPerBlock;
+    private final long segmentDurationMs;
+    private final long retentionMs;
+
+    // 按时间排序的分段（含当前分段），由 this 保护
+    private final List<TsdbSegment> segments = new ArrayList<>();
+    private TsdbSegment active;
+    private FileChannel channel;
+
+    private final BlockEncoder block;
+    private long blockStartedAt;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private TsdbTier(String name, long intervalMs, String[] streams, File directory,
+                     int pointsPerBlock, long retentionMs) {
+        this.name = name;
+        this.intervalMs = intervalMs;
+        this.streams = streams.clone();
+        this.directory = directory;
+        this.pointsPerBlock = pointsPerBlock;
+        this.segmentDurationMs = intervalMs * pointsPerBlock * SEGMENT_BLOCKS;
+        this.retentionMs = retentionMs;
+        this.block = new BlockEncoder(streams.length, pointsPerBlock);
+    }
+
+    // 打开精度目录并加载已有分段，新数据总是写入新的分段
+    static TsdbTier open(String name, long intervalMs, String[] streams, File directory,
+                         int pointsPerBlock, long retentionMs) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("无法创建时序存储目录: " + directory);
+        }
+        TsdbTier tier = new TsdbTier(name, intervalMs, streams, directory, pointsPerBlock, retentionMs);
+        File[] files = directory.listFiles((dir, file) -> file.endsWith(TsdbSegment.SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                TsdbSegment segment;
+                try {
+                    segment = TsdbSegment.load(file);
+                } catch (IOException e) {
+                    System.err.println("加载时序分段 " + file + " 失败: " + e.getMessage());
+                    continue;
+                }
+                if (segment.getBlockCount() == 0) {
+                    segment.delete();
+                    continue;
+                }
+                tier.segments.add(segment);
+                tier.lastTimestamp = Math.max(tier.lastTimestamp, segment.maxTimestamp);
+            }
+        }
+        tier.segments.sort(Comparator.comparingLong(segment -> segment.minTimestamp));
+        return tier;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getIntervalMs() {
+        return intervalMs;
+    }
+
+    long getRetentionMs() {
+        return retentionMs;
+    }
+
+    // 最早的数据时间戳，没有数据时为 Long.MAX_VALUE
+    synchronized long getOldestTimestamp() {
+        if (!segments.isEmpty()) return segments.get(0).minTimestamp;
+        return block.size() > 0 ? block.getMinTimestamp() : Long.MAX_VALUE;
+    }
+
+    // 最新的数据时间戳，没有数据时为 Long.MIN_VALUE
+    synchronized long getNewestTimestamp() {
+        return lastTimestamp;
+    }
+
+    // 追加一个点，时间戳不晚于已写入数据的点（如时钟回拨）被丢弃
+    synchronized void append(long timestamp, double[] row) throws IOException {
+        if (timestamp <= lastTimestamp) return;
+        if (block.size() == 0) {
+            blockStartedAt = System.currentTimeMillis();
+        }
+        block.add(timestamp, row);
+        lastTimestamp = timestamp;
+        if (block.size() >= pointsPerBlock) {
+            sealBlock();
+        }
+    }
+
+    // 当前块空闲超过上限时落盘，限制异常退出时丢失的数据量
+    synchronized void flushIdle(long now, long maxBlockAgeMs) throws IOException {
+        if (block.size() > 0 && now - blockStartedAt >= maxBlockAgeMs) {
+            sealBlock();
+        }
+    }
+
+    private void sealBlock() throws IOException {
+        if (block.size() == 0) return;
+        if (active != null && block.getMinTimestamp() - active.minTimestamp >= segmentDurationMs) {
+            closeActive();
+        }
+        if (active == null) {
+            openActive();
+        }
+        ByteBuffer data = ByteBuffer.wrap(block.toBytes());
+        long offset = active.length;
+        long position = offset;
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+        active.addBlock(offset, block.getMinTimestamp(), block.getMaxTimestamp(), data.capacity());
+        block.reset();
+    }
+
+    private void openActive() throws IOException {
+        // 分段以首块的毫秒时间戳命名，补零使文件名按时间排序
+        String base = String.format("%013d", Math.max(0, block.getMinTimestamp()));
+        File file = new File(directory, base + TsdbSegment.SUFFIX);
+        for (int i = 1; file.exists(); i++) {
+            file = new File(directory, base + "-" + i + TsdbSegment.SUFFIX);
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            active = TsdbSegment.create(file, channel, intervalMs, streams);
+        } catch (IOException e) {
+            closeActive();
+            throw e;
+        }
+        segments.add(active);
+    }
+
+    private void closeActive() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("关闭时序分段失败: " + e.getMessage());
+            }
+        }
+        channel = null;
+        active = null;
+    }
+
+    // 写入失败后放弃当前块和当前分段，之后的数据写入新的分段
+    synchronized void abandonActive() {
+        block.reset();
+        closeActive();
+    }
+
+    // 落盘当前块并关闭文件
+    synchronized void close() {
+        try {
+            sealBlock();
+        } catch (IOException e) {
+            System.err.println("时序存储 " + name + " 落盘失败: " + e.getMessage());
+        }
+        closeActive();
+    }
+
+    synchronized long sizeOnDisk() {
+        long size = 0;
+        for (TsdbSegment segment : segments) {
+            size += segment.length;
+        }
+        return size;
+    }
+
+    // 已轮转（不再写入）的分段，按时间排序，供保留策略清理
+    synchronized List<TsdbSegment> getSealedSegments() {
+        List<TsdbSegment> sealed = new ArrayList<>(segments.size());
+        for (TsdbSegment segment : segments) {
+            if (segment != active) {
+                sealed.add(segment);
+            }
+        }
+        return sealed;
+    }
+
+    synchronized void deleteSegment(TsdbSegment segment) {
+        if (segment != active && segments.remove(segment)) {
+            segment.delete();
+        }
+    }
+
+    /**
+     * 按时间顺序扫描 [from, to] 内的点，names 为要读取的序列名（不存在的序列输出NaN）。
+     * 只在锁内复制分段索引和当前块，解码在锁外进行，不阻塞写入。
+     */
+    void scan(long from, long to, String[] names, PointVisitor visitor) throws IOException {
+        List<TsdbSegment> candidates = new ArrayList<>();
+        List<TsdbSegment.Index> indexes = new ArrayList<>();
+        byte[] pending = null;
+        synchronized (this) {
+            for (TsdbSegment segment : segments) {
+                if (segment.getBlockCount() > 0 && segment.maxTimestamp >= from && segment.minTimestamp <= to) {
+                    candidates.add(segment);
+                    indexes.add(segment.index());
+                }
+            }
+            if (block.size() > 0 && block.getMaxTimestamp() >= from && block.getMinTimestamp() <= to) {
+                pending = block.toBytes();
+            }
+        }
+
+        BlockDecoder decoder = new BlockDecoder(names.length);
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).scan(indexes.get(i), from, to, names, decoder, visitor);
+        }
+        if (pending != null) {
+            int[] columns = new int[names.length];
+            for (int c = 0; c < names.length; c++) {
+                columns[c] = indexOf(names[c]);
+            }
+            decoder.decode(ByteBuffer.wrap(pending), 0, streams.length, columns, from, to, visitor);
+        }
+    }
+
+    private int indexOf(String stream) {
+        for (int s = 0; s < streams.length; s++) {
+            if (streams[s].equals(stream)) return s;
+        }
+        return -1;
+    }
+}
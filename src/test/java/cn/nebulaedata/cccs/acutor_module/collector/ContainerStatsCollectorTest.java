@@ -0,0 +1,194 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.docker.FakeDockerDaemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static cn.nebulaedata.cccs.acutor_module.collector.ContainerStatsCollector.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContainerStatsCollectorTest {
+
+    private static final String ID = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String NET_DEV = "Inter-|   Receive                                                |  Transmit\n"
+            + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls carrier compressed\n"
+            + "    lo:     999       9    0    0    0     0          0         0      999       9    0    0    0     0       0          0\n"
+            + "  eth0: %d      10    0    0    0     0          0         0     %d      20    0    0    0     0       0          0\n";
+
+    @TempDir
+    Path root;
+
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+    private ExecutorService executor;
+    private DockerInventory inventory;
+
+    // 清单中只有一个运行中的容器
+    @BeforeEach
+    void setUp() throws Exception {
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            switch (path) {
+                case "/containers/json":
+                    return FakeDockerDaemon.Response.json(200, "[{\"Id\":\"" + ID + "\",\"Names\":[\"/web\"],"
+                            + "\"State\":\"running\",\"Status\":\"Up 1 minute\"}]");
+                case "/containers/" + ID + "/json":
+                    return FakeDockerDaemon.Response.json(200, "{\"Id\":\"" + ID + "\",\"Name\":\"/web\","
+                            + "\"State\":{\"Status\":\"running\"}}");
+                case "/images/json":
+                    return FakeDockerDaemon.Response.json(200, "[]");
+                case "/events":
+                    return FakeDockerDaemon.Response.stream(new LinkedBlockingQueue<>());
+                default:
+                    return null;
+            }
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 1, 2000, 5000, new CollectorMetrics(60000));
+        executor = Executors.newSingleThreadExecutor();
+        inventory = new DockerInventory(client, executor, 64, 60000);
+        inventory.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!inventory.getSnapshot().isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(inventory.getSnapshot().isAvailable());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        inventory.stop();
+        executor.shutdownNow();
+        client.shutdown();
+        daemon.close();
+    }
+
+    @Test
+    void readsCgroupV2AndComputesRates() throws Exception {
+        Path cgroup = root.resolve("cgroup");
+        Path container = cgroup.resolve("system.slice/docker-" + ID + ".scope");
+        write(cgroup.resolve("cgroup.controllers"), "cpu io memory pids\n");
+        write(container.resolve("cpu.stat"), cpuStatV2(1_000_000));
+        write(container.resolve("memory.current"), "104857600\n");
+        write(container.resolve("memory.stat"), "anon 52428800\nfile 41943040\ninactive_file 10485760\n");
+        write(container.resolve("memory.max"), "max\n");
+        write(container.resolve("pids.current"), "7\n");
+        write(container.resolve("io.stat"), "8:0 rbytes=1000 wbytes=2000 rios=10 wios=20 dbytes=0 dios=0\n"
+                + "8:16 rbytes=500 wbytes=0 rios=5 wios=0 dbytes=0 dios=0\n");
+        write(container.resolve("cgroup.procs"), "4242\n4243\n");
+        write(root.resolve("proc/4242/net/dev"), String.format(NET_DEV, 5000, 8000));
+
+        ContainerStatsCollector collector = collector();
+        collector.sample();
+        ContainerStats first = collector.getLatest().getContainers().get(ID);
+        assertNotNull(first);
+        assertEquals(2, collector.getLatest().getCgroupVersion());
+        assertEquals(1_000_000_000L, first.getCounter(CPU_USAGE_NANOS));
+        assertEquals(600_000_000L, first.getCounter(CPU_USER_NANOS));
+        assertEquals(3, first.getCounter(CPU_THROTTLED_PERIODS));
+        assertEquals(104857600L, first.getGauge(MEMORY_USAGE));
+        assertEquals(104857600L - 10485760L, first.getGauge(MEMORY_WORKING_SET));
+        assertEquals(52428800L, first.getGauge(MEMORY_RSS));
+        assertEquals(-1, first.getGauge(MEMORY_LIMIT));
+        assertEquals(7, first.getGauge(PIDS));
+        assertEquals(1500, first.getCounter(BLKIO_READ_BYTES));
+        assertEquals(2000, first.getCounter(BLKIO_WRITE_BYTES));
+        assertEquals(15, first.getCounter(BLKIO_READ_OPS));
+        // 回环接口不计入
+        assertTrue(first.isNetworkAvailable());
+        assertEquals(5000, first.getCounter(NETWORK_RX_BYTES));
+        assertEquals(8000, first.getCounter(NETWORK_TX_BYTES));
+        assertEquals(0, first.getCpuPercent());
+
+        Thread.sleep(50);
+        write(container.resolve("cpu.stat"), cpuStatV2(1_050_000));
+        write(container.resolve("memory.max"), "209715200\n");
+        write(root.resolve("proc/4242/net/dev"), String.format(NET_DEV, 6000, 8000));
+        collector.sample();
+        ContainerStats second = collector.getLatest().getContainers().get(ID);
+        assertTrue(second.getCpuPercent() > 0);
+        assertTrue(second.getRate(NETWORK_RX_BYTES) > 0);
+        assertEquals(0, second.getRate(NETWORK_TX_BYTES));
+        assertEquals(209715200L, second.getGauge(MEMORY_LIMIT));
+        assertEquals(45.0, second.getMemoryPercent(), 1e-9);
+
+        // 计数器变小（cgroup 重建）视为重置，速率为0而不是负数或巨大的值
+        write(container.resolve("cpu.stat"), cpuStatV2(10));
+        collector.sample();
+        assertEquals(0, collector.getLatest().getContainers().get(ID).getCpuPercent());
+    }
+
+    @Test
+    void readsCgroupV1WithCombinedCpuControllers() throws Exception {
+        Path cgroup = root.resolve("cgroup");
+        Path cpu = cgroup.resolve("cpu,cpuacct/docker/" + ID);
+        Path memory = cgroup.resolve("memory/docker/" + ID);
+        Path blkio = cgroup.resolve("blkio/docker/" + ID);
+        write(cpu.resolve("cpuacct.usage"), "2500000000\n");
+        write(cpu.resolve("cpuacct.stat"), "user 150\nsystem 50\n");
+        write(cpu.resolve("cpu.stat"), "nr_periods 100\nnr_throttled 4\nthrottled_time 123456\n");
+        write(memory.resolve("memory.usage_in_bytes"), "3000\n");
+        write(memory.resolve("memory.stat"), "cache 100\nrss 200\ninactive_file 1000\n"
+                + "total_cache 1100\ntotal_rss 1200\ntotal_inactive_file 500\n");
+        write(memory.resolve("memory.limit_in_bytes"), "9223372036854771712\n");
+        write(memory.resolve("cgroup.procs"), "");
+        write(blkio.resolve("blkio.throttle.io_service_bytes"), "8:0 Read 4096\n8:0 Write 8192\n8:0 Sync 0\n"
+                + "8:0 Total 12288\nTotal 12288\n");
+        write(blkio.resolve("blkio.throttle.io_serviced"), "8:0 Read 1\n8:0 Write 2\n8:0 Total 3\nTotal 3\n");
+
+        ContainerStatsCollector collector = collector();
+        collector.sample();
+        ContainerStats stats = collector.getLatest().getContainers().get(ID);
+        assertEquals(1, collector.getLatest().getCgroupVersion());
+        assertEquals(2_500_000_000L, stats.getCounter(CPU_USAGE_NANOS));
+        assertEquals(1_500_000_000L, stats.getCounter(CPU_USER_NANOS));
+        assertEquals(500_000_000L, stats.getCounter(CPU_SYSTEM_NANOS));
+        assertEquals(4, stats.getCounter(CPU_THROTTLED_PERIODS));
+        assertEquals(123456, stats.getCounter(CPU_THROTTLED_NANOS));
+        // total_* 优先
+        assertEquals(1200, stats.getGauge(MEMORY_RSS));
+        assertEquals(1100, stats.getGauge(MEMORY_CACHE));
+        assertEquals(2500, stats.getGauge(MEMORY_WORKING_SET));
+        assertEquals(-1, stats.getGauge(MEMORY_LIMIT));
+        assertEquals(4096, stats.getCounter(BLKIO_READ_BYTES));
+        assertEquals(8192, stats.getCounter(BLKIO_WRITE_BYTES));
+        assertEquals(2, stats.getCounter(BLKIO_WRITE_OPS));
+        // 没有进程时没有网络计数器
+        assertEquals(false, stats.isNetworkAvailable());
+    }
+
+    @Test
+    void skipsContainersWithoutCgroup() throws Exception {
+        write(root.resolve("cgroup/cgroup.controllers"), "cpu\n");
+        ContainerStatsCollector collector = collector();
+        collector.sample();
+        assertTrue(collector.getLatest().getContainers().isEmpty());
+    }
+
+    private ContainerStatsCollector collector() {
+        return new ContainerStatsCollector(inventory, root.resolve("cgroup").toString(), root.resolve("proc").toString(),
+                new CollectorMetrics(60000));
+    }
+
+    private static String cpuStatV2(long usageUsec) {
+        return "usage_usec " + usageUsec + "\nuser_usec " + usageUsec * 6 / 10 + "\nsystem_usec " + usageUsec * 4 / 10
+                + "\nnr_periods 10\nnr_throttled 3\nthrottled_usec 1500\n";
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
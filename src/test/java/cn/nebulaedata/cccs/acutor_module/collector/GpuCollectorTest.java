@@ -0,0 +1,176 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GpuCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final CollectorMetrics metrics = new CollectorMetrics(60000);
+    private GpuCollector collector;
+
+    @AfterEach
+    void tearDown() {
+        if (collector != null) collector.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void parsesRowsIntoPerGpuState() {
+        collector = collector("nvidia-smi", 1000);
+        assertTrue(collector.onRow("1, NVIDIA A100-SXM4-80GB, 0, 4, 81920, 0, 31, [N/A], 400.00, 210, 1593"));
+        assertTrue(collector.onRow("0, Tesla T4 , 37, 2048, 15360, 12"));
+        assertFalse(collector.onRow("NVIDIA-SMI has failed because it couldn't communicate with the NVIDIA driver."));
+        assertFalse(collector.onRow("x, name, 1, 2, 3"));
+        assertFalse(collector.onRow("0, name, 1, 2, [N/A]"));
+
+        GpuCollector.GpuState[] gpus = collector.getGpus();
+        assertEquals(2, gpus.length);
+        assertEquals(0, gpus[0].getIndex());
+        assertEquals("Tesla T4", gpus[0].getName());
+
+        double[] values = new double[GpuCollector.VALUE_COUNT];
+        gpus[0].read(values);
+        assertEquals(37, values[GpuCollector.UTILIZATION]);
+        assertEquals(15360, values[GpuCollector.MEMORY_TOTAL]);
+        // 旧驱动没有输出的列为 NaN
+        assertTrue(Double.isNaN(values[GpuCollector.TEMPERATURE]));
+        gpus[1].read(values);
+        assertTrue(Double.isNaN(values[GpuCollector.POWER_DRAW]));
+        assertEquals(400.0, values[GpuCollector.POWER_LIMIT]);
+        assertEquals(1593, values[GpuCollector.MEMORY_CLOCK]);
+    }
+
+    @Test
+    void streamsAllGpusFromTheFakeScript() throws Exception {
+        File script = new File("scripts/fake-nvidia-smi.sh");
+        collector = collector(script.getAbsolutePath(), 100);
+        collector.start();
+        waitFor(() -> collector.getGpus().length == 2 && collector.getError() == null);
+        assertEquals("NVIDIA A100-SXM4-80GB", collector.getGpus()[1].getName());
+        assertEquals(1L, (long) spawns());
+    }
+
+    @Test
+    void restartsWithGrowingBackoffWhileNoRowArrives() throws Exception {
+        Path log = directory.resolve("starts.log");
+        Path script = script("date +%s%N >> " + log + "\n"
+                + "echo 'driver went away'\n"
+                + "exit 3\n");
+        collector = collector(script.toString(), 100);
+        collector.start();
+        waitFor(() -> lines(log).size() >= 4);
+        assertEquals("nvidia-smi 已退出（退出码 3）: driver went away", collector.getError());
+        assertEquals(0, collector.getGpus().length);
+
+        // 重启间隔按 100ms、200ms、400ms 翻倍
+        long[] gaps = gaps(lines(log));
+        assertTrue(gaps[0] >= 100, "gaps " + Arrays.toString(gaps));
+        assertTrue(gaps[1] >= 200, "gaps " + Arrays.toString(gaps));
+        assertTrue(gaps[2] >= 400, "gaps " + Arrays.toString(gaps));
+    }
+
+    @Test
+    void resetsBackoffOnceARowArrives() throws Exception {
+        Path log = directory.resolve("starts.log");
+        Path script = script("date +%s%N >> " + log + "\n"
+                + "echo '0, Fake GPU, 5, 1, 100'\n"
+                + "exit 1\n");
+        collector = collector(script.toString(), 100);
+        collector.start();
+        waitFor(() -> lines(log).size() >= 5);
+        assertEquals(1, collector.getGpus().length);
+        assertEquals("Fake GPU", collector.getGpus()[0].getName());
+        assertTrue(spawns() >= 5);
+
+        // 每次都收到数据行，间隔保持在初始的 100ms，不会涨到 800ms
+        long[] gaps = gaps(lines(log));
+        assertTrue(gaps[3] < 800, "gaps " + Arrays.toString(gaps));
+    }
+
+    @Test
+    void watchdogKillsASilentProcess() throws Exception {
+        Path log = directory.resolve("starts.log");
+        // 只有第一次启动输出一行，之后一直静默
+        Path script = script("date +%s%N >> " + log + "\n"
+                + "if [ \"$(wc -l < " + log + ")\" -eq 1 ]; then echo '0, Fake GPU, 5, 1, 100'; fi\n"
+                + "exec sleep 60\n");
+        collector = collector(script.toString(), 100);
+        collector.start();
+        waitFor(() -> collector.getGpus().length == 1);
+        // stall-timeout 不小于两个采样间隔（200ms）
+        Thread.sleep(300);
+        collector.watchdog();
+        waitFor(() -> lines(log).size() >= 2);
+        assertEquals("nvidia-smi 超过 200ms 没有输出，已强制结束", collector.getError());
+    }
+
+    @Test
+    void reportsAMissingCommand() throws Exception {
+        collector = collector(directory.resolve("no-such-nvidia-smi").toString(), 100);
+        collector.start();
+        waitFor(() -> collector.getError() != null && !collector.getError().contains("尚未启动"));
+        assertEquals(0, collector.getGpus().length);
+        assertTrue(collector.getError().startsWith("无法启动nvidia-smi: "), collector.getError());
+    }
+
+    private Long spawns() {
+        return metrics.getProcessSpawns().get("nvidia-smi");
+    }
+
+    private GpuCollector collector(String command, long intervalMs) {
+        return new GpuCollector(command, intervalMs, 0, 100, true, executor, metrics);
+    }
+
+    private Path script(String body) throws IOException {
+        Path script = Files.createTempFile(directory, "fake-nvidia-smi", ".sh");
+        Files.write(script, ("#!/bin/sh\n" + body).getBytes(StandardCharsets.UTF_8));
+        assertTrue(script.toFile().setExecutable(true));
+        return script;
+    }
+
+    private static List<String> lines(Path file) {
+        try {
+            return Files.exists(file) ? Files.readAllLines(file) : new ArrayList<>();
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    // 相邻两次启动之间的毫秒数
+    private static long[] gaps(List<String> starts) {
+        long[] gaps = new long[starts.size() - 1];
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] = (Long.parseLong(starts.get(i + 1)) - Long.parseLong(starts.get(i))) / 1_000_000L;
+        }
+        return gaps;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package cn.nebulaedata.cccs.acutor_module.collector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessCollectorTest {
+
+    private static final long BOOT_TIME = 1700000000L;
+
+    @TempDir
+    Path proc;
+
+    private ProcessCollector collector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write(proc.resolve("meminfo"), "MemTotal:        1000000 kB\nMemFree:          500000 kB\n");
+        write(proc.resolve("stat"), "cpu  1 2 3 4 5 6 7 0 0 0\nbtime " + BOOT_TIME + "\nprocesses 100\n");
+        write(proc.resolve("uptime"), "1000.00 3000.00\n");
+        Files.createDirectories(proc.resolve("self"));
+        collector = new ProcessCollector(proc.toString(), true, 4096, 4096, null, new CollectorMetrics(60000));
+    }
+
+    @Test
+    void parsesStatStatmAndCmdline() throws Exception {
+        // 命令名中可以有空格和括号，以最后一个 ')' 为界
+        process(1, "my (odd) proc", 'S', 0, 100, 50, 3, 500, 8192000, 250, "/usr/bin/odd\0--flag\0");
+        write(proc.resolve("1/statm"), "2000 250 30 40 0 60 0\n");
+        process(2, "kworker/0:1", 'R', 1, 0, 0, 1, 600, 0, 0, "");
+        collector.sample();
+
+        ProcessCollector.Sample sample = collector.getLatest();
+        assertEquals(2, sample.getProcessCount());
+        assertEquals(4, sample.getThreadCount());
+        assertEquals(1, sample.getRunningCount());
+
+        Map<String, Object> row = row(collector.top(ProcessCollector.SORT_MEMORY, 10), 1);
+        assertEquals("my (odd) proc", row.get("name"));
+        assertEquals("S", row.get("state"));
+        assertEquals(0, row.get("ppid"));
+        assertEquals(3, row.get("threads"));
+        assertEquals(1500L, row.get("cpuTimeMs"));
+        assertEquals(250L * 4096, row.get("rssBytes"));
+        assertEquals(8192000L, row.get("vsizeBytes"));
+        assertEquals(0.1, row.get("memoryPercent"));
+        assertEquals(30L * 4096, row.get("sharedBytes"));
+        assertEquals(40L * 4096, row.get("textBytes"));
+        assertEquals(60L * 4096, row.get("dataBytes"));
+        assertEquals(BOOT_TIME * 1000 + 5000, row.get("startTime"));
+        assertEquals("/usr/bin/odd --flag", row.get("cmdline"));
+        // 首次扫描只记录基线
+        assertNull(row.get("cpuPercent"));
+
+        // 内核线程没有命令行
+        assertEquals("[kworker/0:1]", row(collector.top(ProcessCollector.SORT_MEMORY, 10), 2).get("cmdline"));
+    }
+
+    @Test
+    void reusedPidStartsFromAFreshBaseline() throws Exception {
+        process(42, "old", 'S', 1, 9000, 1000, 1, 500, 0, 10, "old\0");
+        collector.sample();
+        assertEquals("old", row(collector.top(ProcessCollector.SORT_TIME, 10), 42).get("cmdline"));
+
+        // pid 42 被上一次扫描（uptime 1000.00s）之后启动的新进程复用：旧的累计 CPU 时间和缓存的命令行都不能沿用
+        Thread.sleep(200);
+        write(proc.resolve("uptime"), "1000.30 3000.00\n");
+        process(42, "new", 'R', 1, 10, 5, 2, 100010, 0, 10, "new\0--serve\0");
+        collector.sample();
+
+        Map<String, Object> row = row(collector.top(ProcessCollector.SORT_CPU, 10), 42);
+        assertEquals("new", row.get("name"));
+        assertEquals("new --serve", row.get("cmdline"));
+        assertEquals(150L, row.get("cpuTimeMs"));
+        Double cpuPercent = (Double) row.get("cpuPercent");
+        assertNotNull(cpuPercent);
+        assertTrue(cpuPercent > 0, "cpuPercent " + cpuPercent);
+    }
+
+    @Test
+    void keepsCpuUnknownForProcessesMissedByThePreviousScan() throws Exception {
+        process(1, "init", 'S', 0, 100, 0, 1, 1, 0, 10, "init\0");
+        collector.sample();
+
+        Thread.sleep(100);
+        write(proc.resolve("uptime"), "1000.20 3000.00\n");
+        process(1, "init", 'S', 0, 110, 0, 1, 1, 0, 10, "init\0");
+        // 上一次扫描之前就已启动、但当时没有列出：CPU 时间的归属未知
+        process(7, "missed", 'S', 1, 5000, 0, 1, 90000, 0, 10, "missed\0");
+        // 上一次扫描之后启动：全部 CPU 时间都在本次间隔内
+        process(8, "fresh", 'S', 1, 2, 0, 1, 100010, 0, 10, "fresh\0");
+        collector.sample();
+
+        Map<String, Object> top = collector.top(ProcessCollector.SORT_TIME, 10);
+        assertTrue((Double) row(top, 1).get("cpuPercent") > 0);
+        assertNull(row(top, 7).get("cpuPercent"));
+        assertTrue((Double) row(top, 8).get("cpuPercent") > 0);
+
+        // 进程退出后随旧表一起丢弃
+        deleteProcess(7);
+        collector.sample();
+        assertEquals(2, collector.getLatest().getProcessCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> row(Map<String, Object> top, int pid) {
+        for (Map<String, Object> row : (List<Map<String, Object>>) top.get("processes")) {
+            if (row.get("pid").equals(pid)) return row;
+        }
+        throw new AssertionError("没有 pid " + pid + ": " + top);
+    }
+
+    private void process(int pid, String comm, char state, int ppid, long utime, long stime, int threads,
+                         long startTicks, long vsize, long rssPages, String cmdline) throws IOException {
+        Path directory = proc.resolve(String.valueOf(pid));
+        // pid (comm) state ppid pgrp session tty_nr tpgid flags minflt cminflt majflt cmajflt
+        // utime stime cutime cstime priority nice num_threads itrealvalue starttime vsize rss ...
+        write(directory.resolve("stat"), pid + " (" + comm + ") " + state + " " + ppid + " " + pid + " " + pid
+                + " 0 -1 4194560 120 0 0 0 " + utime + " " + stime + " 0 0 20 0 " + threads + " 0 "
+                + startTicks + " " + vsize + " " + rssPages + " 18446744073709551615 1 1 0 0 0 0 0 0 0 0 0 0 17 0\n");
+        write(directory.resolve("cmdline"), cmdline);
+    }
+
+    private void deleteProcess(int pid) throws IOException {
+        Path directory = proc.resolve(String.valueOf(pid));
+        for (String name : new String[]{"stat", "statm", "cmdline"}) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+        Files.delete(directory);
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
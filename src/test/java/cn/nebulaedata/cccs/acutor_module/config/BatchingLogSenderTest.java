@@ -0,0 +1,85 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchingLogSenderTest {
+
+    private static final int LINE_BYTES = 100;
+
+    private ScheduledExecutorService scheduler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void dropsOldestLinesOnceQueuedBytesExceedTheCap() throws Exception {
+        // 行数上限很高，只有字节上限（64KB，约 650 行）会生效；合并间隔内不发送
+        BatchingLogSender sender = new BatchingLogSender(session, null, scheduler, 1_000_000, 65536, 65536, 500,
+                BatchingLogSender.OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 2000; i++) {
+            sender.onLine(0, line(i));
+        }
+
+        ArgumentCaptor<TextMessage> frames = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, timeout(5000).atLeastOnce()).sendMessage(frames.capture());
+        String first = frames.getAllValues().get(0).getPayload();
+        String[] lines = first.split("\n");
+        int kept = 65536 / (LINE_BYTES + 1);
+        assertEquals("…… 客户端接收过慢，已跳过 " + (2000 - kept) + " 行日志 ……", lines[0]);
+        assertEquals(line(2000 - kept), lines[1]);
+        assertTrue(BatchingLogSender.utf8Length(first) <= 65536 + 128);
+    }
+
+    @Test
+    void disconnectsOnceQueuedBytesExceedTheCap() throws Exception {
+        BatchingLogSender sender = new BatchingLogSender(session, null, scheduler, 1_000_000, 65536, 65536, 500,
+                BatchingLogSender.OverflowPolicy.DISCONNECT);
+        int kept = 65536 / (LINE_BYTES + 1);
+        for (int i = 0; i < kept; i++) {
+            sender.onLine(0, line(i));
+        }
+        verify(session, never()).close(any(CloseStatus.class));
+
+        sender.onLine(0, line(kept));
+        ArgumentCaptor<CloseStatus> status = ArgumentCaptor.forClass(CloseStatus.class);
+        verify(session, timeout(5000)).close(status.capture());
+        assertEquals(1008, status.getValue().getCode());
+        verify(session, never()).sendMessage(any());
+    }
+
+    // 每行加换行符共 LINE_BYTES + 1 字节
+    private static String line(int i) {
+        StringBuilder builder = new StringBuilder(String.format("%06d ", i));
+        while (builder.length() < LINE_BYTES) builder.append('x');
+        return builder.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogMultiplexer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerTimestamps;
+import cn.nebulaedata.cccs.acutor_module.docker.FakeDockerDaemon;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志查看者增多时线程数不变：同一容器的会话共享一个跟随器（流式读取线程池中的一个线程），
+ * 会话只占用有界队列，由共享的组帧线程池发送。
+ */
+class LogViewerThreadCountTest {
+
+    private static final int CONTAINERS = 4;
+
+    private final Map<String, BlockingQueue<String>> logStreams = new ConcurrentHashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final AtomicInteger frames = new AtomicInteger();
+    private final List<DockerLogMultiplexer.Subscription> subscriptions = new ArrayList<>();
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+    private ExecutorService streamExecutor;
+    private ScheduledThreadPoolExecutor sendScheduler;
+    private DockerInventory inventory;
+    private DockerLogMultiplexer multiplexer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < CONTAINERS; i++) {
+            String id = String.format("%064x", i + 1);
+            ids.add(id);
+            logStreams.put(id, new LinkedBlockingQueue<>());
+            if (i > 0) list.append(',');
+            list.append("{\"Id\":\"").append(id).append("\",\"Names\":[\"/c").append(i)
+                    .append("\"],\"State\":\"running\",\"Status\":\"Up 1 minute\"}");
+        }
+        String containers = list.append(']').toString();
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            if ("/containers/json".equals(path)) return FakeDockerDaemon.Response.json(200, containers);
+            if ("/images/json".equals(path)) return FakeDockerDaemon.Response.json(200, "[]");
+            if ("/events".equals(path)) return FakeDockerDaemon.Response.stream(new LinkedBlockingQueue<>());
+            for (String id : ids) {
+                if (("/containers/" + id + "/json").equals(path)) {
+                    return FakeDockerDaemon.Response.json(200, "{\"Id\":\"" + id + "\",\"Name\":\"/c\","
+                            + "\"State\":{\"Status\":\"running\"}}");
+                }
+                if (("/containers/" + id + "/logs").equals(path)) {
+                    return FakeDockerDaemon.Response.stream(logStreams.get(id));
+                }
+            }
+            return null;
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 2, 2000, 5000, new CollectorMetrics(60000));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        streamExecutor = new IoExecutorConfig().streamExecutor(registry, 128);
+        // 与 DockerLogWebSocketHandler 相同的共享组帧线程池，预先启动全部线程
+        sendScheduler = new ScheduledThreadPoolExecutor(2);
+        sendScheduler.prestartAllCoreThreads();
+        inventory = new DockerInventory(client, streamExecutor, 64, 60000);
+        inventory.start();
+        multiplexer = new DockerLogMultiplexer(client, inventory, streamExecutor, registry, 100);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!inventory.getSnapshot().isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(inventory.getSnapshot().isAvailable());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (DockerLogMultiplexer.Subscription subscription : subscriptions) {
+            multiplexer.unsubscribe(subscription);
+        }
+        multiplexer.shutdown();
+        inventory.stop();
+        sendScheduler.shutdownNow();
+        streamExecutor.shutdownNow();
+        client.shutdown();
+        daemon.close();
+    }
+
+    @Test
+    void threadCountStaysFlatAsViewersGrow() throws Exception {
+        int fewThreads = threadsWithViewersPerContainer(5);
+        int manyThreads = threadsWithViewersPerContainer(50);
+        assertEquals(CONTAINERS, multiplexer.getActiveFollowerCount());
+        assertEquals(fewThreads, manyThreads, "5 个和 50 个查看者/容器时的线程数");
+    }
+
+    // 把每个容器的查看者增加到 viewers 个，等所有会话都收到一行新日志后返回当前线程数
+    private int threadsWithViewersPerContainer(int viewers) throws Exception {
+        int existing = subscriptions.size() / CONTAINERS;
+        for (String id : ids) {
+            for (int i = existing; i < viewers; i++) {
+                BatchingLogSender sender = new BatchingLogSender(session(), null, sendScheduler,
+                        10000, 1 << 20, 65536, 10, BatchingLogSender.OverflowPolicy.DROP_OLDEST);
+                subscriptions.add(multiplexer.subscribe(id, sender));
+            }
+        }
+        int sessions = subscriptions.size();
+        frames.set(0);
+        for (BlockingQueue<String> stream : logStreams.values()) {
+            stream.add(DockerTimestamps.format(System.currentTimeMillis() * 1_000_000L) + " line\n");
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (frames.get() < sessions && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(frames.get() >= sessions, "收到日志的会话数 " + frames.get() + "/" + sessions);
+        return Thread.activeCount();
+    }
+
+    private WebSocketSession session() throws IOException {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s" + subscriptions.size());
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            frames.incrementAndGet();
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
@@ -0,0 +1,49 @@
+package cn.nebulaedata.cccs.acutor_module.config;
+
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class MetricsPushSessionTest {
+
+    private final MetricsPushSession push = new MetricsPushSession(mock(WebSocketSession.class), 1000);
+
+    @Test
+    void firstFrameIsFullThenDeltas() {
+        MetricsSnapshot first = new MetricsSnapshot();
+        assertNull(push.takeBase());
+        push.markSent(first, 0);
+        assertSame(first, push.takeBase());
+    }
+
+    @Test
+    void resyncRequestedAfterADeltaWasChosenIsKeptForTheNextFrame() {
+        MetricsSnapshot first = new MetricsSnapshot();
+        push.takeBase();
+        push.markSent(first, 0);
+
+        // 采样线程已选定增量帧，标记发送之前客户端请求重新同步
+        assertSame(first, push.takeBase());
+        push.requestFullFrame();
+        push.markSent(new MetricsSnapshot(), 1000);
+
+        assertNull(push.takeBase());
+    }
+
+    @Test
+    void resyncRequestedWhileAFullFrameIsPendingIsKeptForTheNextFrame() {
+        assertNull(push.takeBase());
+        push.requestFullFrame();
+        MetricsSnapshot first = new MetricsSnapshot();
+        push.markSent(first, 0);
+
+        assertNull(push.takeBase());
+        MetricsSnapshot second = new MetricsSnapshot();
+        push.markSent(second, 1000);
+        assertSame(second, push.takeBase());
+    }
+}
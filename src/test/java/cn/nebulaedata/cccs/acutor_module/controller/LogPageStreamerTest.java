@@ -0,0 +1,108 @@
+package cn.nebulaedata.cccs.acutor_module.controller;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogCursor;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogOptions;
+import cn.nebulaedata.cccs.acutor_module.docker.FakeDockerDaemon;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogPageStreamerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<String> logLines = new ArrayList<>();
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 按 tail / until 过滤日志，与 Docker 的语义一致：until 包含边界，tail 取最后若干行
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            BigDecimal until = query.containsKey("until") ? new BigDecimal(query.get("until")) : null;
+            List<String> matched = new ArrayList<>();
+            for (String line : logLines) {
+                String timestamp = line.substring(0, line.indexOf(' '));
+                if (until == null || new BigDecimal(DockerLogCursor.toUntil(timestamp)).compareTo(until) <= 0) {
+                    matched.add(line);
+                }
+            }
+            int tail = Integer.parseInt(query.get("tail"));
+            StringBuilder body = new StringBuilder();
+            for (String line : matched.subList(Math.max(0, matched.size() - tail), matched.size())) {
+                body.append(line).append('\n');
+            }
+            return FakeDockerDaemon.Response.raw(body.toString());
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 1, 2000, 5000, new CollectorMetrics(60000));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        daemon.close();
+    }
+
+    @Test
+    void pagesThroughMoreSameTimestampLinesThanOnePageHolds() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            logLines.add("2024-01-01T00:00:0" + i + ".000000000Z old-" + i);
+        }
+        for (int i = 1; i <= 7; i++) {
+            logLines.add("2024-01-01T00:00:10.000000000Z same-" + i);
+        }
+
+        List<String> collected = new ArrayList<>();
+        DockerLogCursor cursor = null;
+        int pages = 0;
+        while (true) {
+            JsonNode page = readPage(3, cursor);
+            List<String> lines = new ArrayList<>(Arrays.asList(page.get("logs").asText().split("\n")));
+            lines.removeIf(String::isEmpty);
+            collected.addAll(0, lines);
+            assertTrue(++pages <= 10, "翻页没有结束: " + collected);
+            if (!page.get("hasMore").asBoolean()) break;
+            cursor = DockerLogCursor.decode(page.get("nextCursor").asText());
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (String line : logLines) {
+            expected.add(line.substring(line.indexOf(' ') + 1));
+        }
+        assertEquals(expected, collected);
+    }
+
+    @Test
+    void skipsOnlyLinesAlreadyReturnedWhenTimestampsDiffer() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            logLines.add("2024-01-01T00:00:0" + i + ".000000000Z line-" + i);
+        }
+        JsonNode first = readPage(2, null);
+        assertEquals("line-3\nline-4\n", first.get("logs").asText());
+        JsonNode second = readPage(2, DockerLogCursor.decode(first.get("nextCursor").asText()));
+        assertEquals("line-1\nline-2\n", second.get("logs").asText());
+    }
+
+    private JsonNode readPage(int pageSize, DockerLogCursor cursor) throws Exception {
+        DockerLogOptions options = new DockerLogOptions()
+                .tail(pageSize + (cursor != null ? cursor.getSkip() : 0))
+                .timestamps(true)
+                .until(cursor != null ? cursor.getUntil() : null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LogPageStreamer("c1", client.openLogs("c1", options), pageSize, false, cursor).writeTo(out);
+        return MAPPER.readTree(out.toByteArray());
+    }
+}
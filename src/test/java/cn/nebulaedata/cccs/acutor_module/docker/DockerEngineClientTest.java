@@ -0,0 +1,151 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DockerEngineClientTest {
+
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+    private final Map<String, String> lastQuery = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) client.shutdown();
+        if (daemon != null) daemon.close();
+    }
+
+    private void start(FakeDockerDaemon.Handler handler) throws IOException {
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            lastQuery.clear();
+            lastQuery.putAll(query);
+            return handler.handle(method, path, query);
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 2, 2000, 5000, new CollectorMetrics(60000));
+    }
+
+    @Test
+    void pingReportsAvailability() throws IOException {
+        start((method, path, query) -> "/_ping".equals(path) ? FakeDockerDaemon.Response.of(200, "text/plain",
+                "OK".getBytes(StandardCharsets.US_ASCII)) : null);
+        assertTrue(client.ping());
+        daemon.close();
+        assertFalse(client.ping());
+    }
+
+    @Test
+    void listsContainersAndImagesFromStreamedJson() throws IOException {
+        start((method, path, query) -> {
+            if ("/containers/json".equals(path)) {
+                return FakeDockerDaemon.Response.json(200, "[{\"Id\":\"abc\",\"Names\":[\"/web\",\"/alias\"],"
+                        + "\"Image\":\"nginx:1.25\",\"ImageID\":\"sha256:1\",\"Command\":\"nginx\",\"Created\":1700000000,"
+                        + "\"Ports\":[{\"PrivatePort\":80}],\"State\":\"running\",\"Status\":\"Up 2 hours\"}]");
+            }
+            if ("/images/json".equals(path)) {
+                return FakeDockerDaemon.Response.json(200, "[{\"Id\":\"sha256:1\",\"RepoTags\":[\"nginx:1.25\"],"
+                        + "\"Size\":1234,\"Created\":1690000000},{\"Id\":\"sha256:2\",\"RepoTags\":null,\"Size\":5}]");
+            }
+            return null;
+        });
+
+        List<DockerContainer> containers = client.listContainers(true);
+        assertEquals("1", lastQuery.get("all"));
+        assertEquals(1, containers.size());
+        DockerContainer container = containers.get(0);
+        assertEquals("abc", container.getId());
+        assertEquals("web", container.getName());
+        assertEquals("nginx:1.25", container.getImage());
+        assertEquals("running", container.getState());
+        assertEquals(1700000000L, container.getCreated());
+
+        List<DockerImage> images = client.listImages();
+        assertEquals(2, images.size());
+        assertEquals(Arrays.asList("nginx:1.25"), images.get(0).getRepoTags());
+        assertEquals(1234, images.get(0).getSize());
+        assertTrue(images.get(1).getRepoTags().isEmpty());
+    }
+
+    @Test
+    void inspectReadsStateAndHealthAndReturnsNullWhenMissing() throws IOException {
+        start((method, path, query) -> {
+            if ("/containers/abc/json".equals(path)) {
+                return FakeDockerDaemon.Response.json(200, "{\"Id\":\"abc\",\"Name\":\"/web\","
+                        + "\"Created\":\"2024-01-01T00:00:00.5Z\",\"Image\":\"sha256:1\","
+                        + "\"State\":{\"Status\":\"exited\",\"ExitCode\":137,\"StartedAt\":\"2024-01-01T00:00:01Z\","
+                        + "\"FinishedAt\":\"0001-01-01T00:00:00Z\",\"Health\":{\"Status\":\"unhealthy\",\"Log\":[]}},"
+                        + "\"Config\":{\"Image\":\"nginx:1.25\",\"Env\":[\"A=1\"]}}");
+            }
+            return null;
+        });
+
+        DockerContainer container = client.inspectContainer("abc");
+        assertEquals("web", container.getName());
+        assertEquals("nginx:1.25", container.getImage());
+        assertEquals("exited", container.getState());
+        assertEquals(137, container.getExitCode());
+        assertEquals(1704067201000L, container.getStartedAt());
+        assertEquals(0, container.getFinishedAt());
+        assertEquals("unhealthy", container.getHealth());
+        assertEquals(1704067200L, container.getCreated());
+
+        assertNull(client.inspectContainer("missing"));
+    }
+
+    @Test
+    void errorResponsesCarryTheDaemonMessage() throws IOException {
+        start((method, path, query) -> FakeDockerDaemon.Response.json(500, "{\"message\":\"boom\"}"));
+        DockerApiException e = assertThrows(DockerApiException.class, () -> client.listImages());
+        assertEquals(500, e.getStatusCode());
+        assertTrue(e.getMessage().endsWith("boom"), e.getMessage());
+    }
+
+    @Test
+    void demultiplexesLogFramesIntoLines() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        // 一行被拆在两个帧中，另一帧包含两行
+        frame(body, 1, "hello ");
+        frame(body, 2, "oops\n");
+        frame(body, 1, "world\nsecond\n");
+        frame(body, 1, "no newline at end");
+        start((method, path, query) -> "/containers/abc/logs".equals(path)
+                ? FakeDockerDaemon.Response.of(200, "application/vnd.docker.multiplexed-stream", body.toByteArray())
+                : null);
+
+        List<String> lines = new ArrayList<>();
+        try (DockerLogStream stream = client.openLogs("abc", new DockerLogOptions().tail(10).timestamps(true))) {
+            stream.pump((stderr, line) -> lines.add((stderr ? "E " : "O ") + line));
+        }
+        assertEquals("10", lastQuery.get("tail"));
+        assertEquals("1", lastQuery.get("timestamps"));
+        assertEquals(Arrays.asList("E oops", "O hello world", "O second", "O no newline at end"), lines);
+    }
+
+    private static void frame(ByteArrayOutputStream out, int streamType, String text) {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        out.write(streamType);
+        out.write(0);
+        out.write(0);
+        out.write(0);
+        out.write(payload.length >>> 24);
+        out.write(payload.length >>> 16);
+        out.write(payload.length >>> 8);
+        out.write(payload.length);
+        out.write(payload, 0, payload.length);
+    }
+}
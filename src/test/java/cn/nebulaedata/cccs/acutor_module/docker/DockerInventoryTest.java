@@ -0,0 +1,100 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DockerInventoryTest {
+
+    private static final String ID = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    // inspect 返回的状态，可在测试中修改
+    private volatile String state = "running";
+    private final AtomicInteger inspects = new AtomicInteger();
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+    private ExecutorService executor;
+    private DockerInventory inventory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            switch (path) {
+                case "/containers/json":
+                    return FakeDockerDaemon.Response.json(200, "[{\"Id\":\"" + ID + "\",\"Names\":[\"/web\"],"
+                            + "\"State\":\"running\",\"Status\":\"Up 1 minute\"}]");
+                case "/containers/" + ID + "/json":
+                    inspects.incrementAndGet();
+                    return FakeDockerDaemon.Response.json(200, "{\"Id\":\"" + ID + "\",\"Name\":\"/web\","
+                            + "\"State\":{\"Status\":\"" + state + "\",\"StartedAt\":\"2024-01-01T00:00:00Z\"}}");
+                case "/images/json":
+                    return FakeDockerDaemon.Response.json(200, "[]");
+                case "/events":
+                    return FakeDockerDaemon.Response.stream(events);
+                default:
+                    return null;
+            }
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 2, 2000, 5000, new CollectorMetrics(60000));
+        executor = Executors.newCachedThreadPool();
+        inventory = new DockerInventory(client, executor, 64, 60000);
+        inventory.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!inventory.getSnapshot().isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(inventory.getSnapshot().isAvailable());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        inventory.stop();
+        executor.shutdownNow();
+        client.shutdown();
+        daemon.close();
+    }
+
+    @Test
+    void unchangedContainerFromEventDoesNotProduceAnUpsert() throws Exception {
+        long version = inventory.getSnapshot().getVersion();
+        assertEquals("Up 1 minute", inventory.getSnapshot().getContainers().get(ID).getStatus());
+
+        // 全量对账时带有列表接口的 status，事件路径的 inspect 没有：容器本身没有变化
+        int before = inspects.get();
+        events.add(event("update"));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (inspects.get() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 随后真正的状态变化；事件按顺序处理，它生效时前一个事件已处理完
+        state = "paused";
+        events.add(event("pause"));
+        while (inventory.getSnapshot().getVersion() == version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        List<DockerInventory.Change> changes = inventory.changesSince(version);
+        assertEquals(1, changes.size());
+        assertEquals(version + 1, changes.get(0).getVersion());
+        assertEquals(DockerInventory.ACTION_UPSERT, changes.get(0).getAction());
+        assertEquals("paused", inventory.getSnapshot().getContainers().get(ID).getState());
+    }
+
+    private static String event(String action) {
+        return "{\"Type\":\"container\",\"Action\":\"" + action + "\",\"Actor\":{\"ID\":\"" + ID + "\"},"
+                + "\"timeNano\":1}\n";
+    }
+}
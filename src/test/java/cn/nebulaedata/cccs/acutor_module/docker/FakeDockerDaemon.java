@@ -0,0 +1,190 @@
+package cn.nebulaedata.cccs.acutor_module.docker;
+
+import org.newsclub.net.unix.AFUNIXServerSocket;
+import org.newsclub.net.unix.AFUNIXSocketAddress;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试用的 Docker 守护进程：在临时目录的 Unix 套接字上监听，按 handler 返回的内容应答。
+ * 每条连接只处理一个请求，响应带 Connection: close；流式响应（事件流）以分块传输逐条发送队列中的内容，直到守护进程关闭。
+ */
+public class FakeDockerDaemon implements Closeable {
+
+    public interface Handler {
+        Response handle(String method, String path, Map<String, String> query) throws IOException;
+    }
+
+    private final File directory;
+    private final File socketFile;
+    private final AFUNIXServerSocket server;
+    private final Handler handler;
+    private final Thread acceptThread;
+
+    public FakeDockerDaemon(Handler handler) throws IOException {
+        this.handler = handler;
+        this.directory = Files.createTempDirectory("fake-docker").toFile();
+        this.socketFile = new File(directory, "docker.sock");
+        this.server = AFUNIXServerSocket.newInstance();
+        server.bind(AFUNIXSocketAddress.of(socketFile));
+        this.acceptThread = new Thread(this::accept, "fake-docker");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread thread = new Thread(() -> serve(socket), "fake-docker-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            String requestLine = readLine(in);
+            while (!readLine(in).isEmpty()) {
+                // 忽略请求头
+            }
+            String[] parts = requestLine.split(" ");
+            String target = parts[1];
+            int question = target.indexOf('?');
+            String path = question >= 0 ? target.substring(0, question) : target;
+            Map<String, String> query = parseQuery(question >= 0 ? target.substring(question + 1) : "");
+            Response response;
+            try {
+                response = handler.handle(parts[0], path, query);
+            } catch (RuntimeException e) {
+                response = Response.json(500, "{\"message\":\"" + e + "\"}");
+            }
+            if (response == null) {
+                response = Response.json(404, "{\"message\":\"page not found\"}");
+            }
+            OutputStream out = s.getOutputStream();
+            if (response.chunks != null) {
+                stream(out, response);
+                return;
+            }
+            String head = "HTTP/1.1 " + response.status + " X\r\n"
+                    + "Content-Type: " + response.contentType + "\r\n"
+                    + "Content-Length: " + response.body.length + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(response.body);
+            out.flush();
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void stream(OutputStream out, Response response) throws IOException {
+        String head = "HTTP/1.1 " + response.status + " X\r\n"
+                + "Content-Type: " + response.contentType + "\r\n"
+                + "Transfer-Encoding: chunked\r\n"
+                + "Connection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        try {
+            while (!server.isClosed()) {
+                String chunk = response.chunks.poll(50, TimeUnit.MILLISECONDS);
+                if (chunk == null) continue;
+                byte[] data = chunk.getBytes(StandardCharsets.UTF_8);
+                out.write((Integer.toHexString(data.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(data);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> result = new HashMap<>();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), "UTF-8") : "";
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        socketFile.delete();
+        directory.delete();
+    }
+
+    public static final class Response {
+        final int status;
+        final String contentType;
+        final byte[] body;
+        final BlockingQueue<String> chunks;
+
+        private Response(int status, String contentType, byte[] body, BlockingQueue<String> chunks) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+            this.chunks = chunks;
+        }
+
+        private Response(int status, String contentType, byte[] body) {
+            this(status, contentType, body, null);
+        }
+
+        // 保持连接，把之后放入队列的内容逐条发送（如 /events 的 JSON 事件）
+        public static Response stream(BlockingQueue<String> chunks) {
+            return new Response(200, "application/json", new byte[0], chunks);
+        }
+
+        public static Response json(int status, String body) {
+            return new Response(status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Response of(int status, String contentType, byte[] body) {
+            return new Response(status, contentType, body);
+        }
+
+        // TTY 容器的日志：原始字节流
+        public static Response raw(String body) {
+            return new Response(200, "application/vnd.docker.raw-stream", body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package cn.nebulaedata.cccs.acutor_module.fleet;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSampler;
+import cn.nebulaedata.cccs.acutor_module.service.MetricsSnapshot;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FleetAgentTest {
+
+    // 汇聚节点依次返回的状态码，用完后返回 200
+    private final BlockingQueue<Integer> statuses = new LinkedBlockingQueue<>();
+    // 每次推送的快照数（推送间隔 200ms，收到一批后立即加入的快照会进入同一批）
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ExecutorService executor;
+    private DockerEngineClient dockerClient;
+    private FleetAgent agent;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/fleet/ingest", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                batches.add(FleetCodec.decode(body).getCount());
+            }
+            Integer status = statuses.poll();
+            exchange.sendResponseHeaders(status != null ? status : 200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        executor = Executors.newCachedThreadPool();
+        // 清单未加载，推送时不附带容器摘要
+        dockerClient = new DockerEngineClient("/nonexistent/docker.sock", 1, 100, 100, new CollectorMetrics(60000));
+        DockerInventory inventory = new DockerInventory(dockerClient, executor, 64, 1000);
+        agent = new FleetAgent(mock(MetricsSampler.class), inventory, null, new CollectorMetrics(60000), executor,
+                "agent", "http://127.0.0.1:" + server.getAddress().getPort(), "h1", "http://h1:8080", "secret",
+                8080, 200, 3600, 600, 2000, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        agent.stop();
+        executor.shutdownNow();
+        dockerClient.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void retriesServerErrorsAndDropsBatchesRejectedWithClientErrors() throws Exception {
+        assertTrue(FleetAgent.isRetryable(503));
+        assertTrue(FleetAgent.isRetryable(429));
+        assertFalse(FleetAgent.isRetryable(400));
+        assertFalse(FleetAgent.isRetryable(401));
+
+        // 503 和 429 后同一批数据重新推送
+        statuses.addAll(Arrays.asList(503, 429));
+        sample(3);
+        agent.start();
+        awaitBatches(3);
+        assertEquals(Arrays.asList(3, 3, 3), batches);
+
+        // 400 的一批被丢弃，之后只推送新的快照
+        statuses.add(400);
+        sample(2);
+        awaitBatches(4);
+        sample(1);
+        awaitBatches(5);
+        Thread.sleep(300);
+        assertEquals(Arrays.asList(3, 3, 3, 2, 1), batches);
+    }
+
+    private void sample(int count) {
+        for (int i = 0; i < count; i++) {
+            agent.onSample(new MetricsSnapshot());
+        }
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (batches.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, batches.size(), "推送次数 " + batches);
+    }
+}
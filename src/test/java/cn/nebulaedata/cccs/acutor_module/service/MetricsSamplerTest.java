@@ -0,0 +1,110 @@
+package cn.nebulaedata.cccs.acutor_module.service;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.collector.DiskCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GcEventCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.GpuCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.NetworkCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.PressureCollector;
+import cn.nebulaedata.cccs.acutor_module.collector.ThreadCpuCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsSamplerTest {
+
+    private static final String PRESSURE = "some avg10=1.50 avg60=1.00 avg300=0.50 total=12345\n"
+            + "full avg10=0.00 avg60=0.00 avg300=0.00 total=0\n";
+
+    @TempDir
+    Path proc;
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private MetricsSampler sampler;
+    private Path pressureFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pressureFile = proc.resolve("pressure/cpu");
+        Files.createDirectories(pressureFile.getParent());
+        Files.write(pressureFile, PRESSURE.getBytes(StandardCharsets.US_ASCII));
+        CollectorMetrics metrics = new CollectorMetrics(60000);
+        // 网络、磁盘在测试目录下不可用，GPU 关闭
+        sampler = new MetricsSampler(new NetworkCollector(proc.toString()),
+                new GpuCollector("nvidia-smi", 1000, 0, 1000, false, ioExecutor, metrics),
+                new ThreadCpuCollector(5, false), new GcEventCollector(16),
+                new DiskCollector(proc.toString(), "^loop\\d+$", "proc", 60000, ioExecutor, metrics),
+                new PressureCollector(proc.toString()), metrics,
+                5, 60, 200, 500, 500, 500, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampler.shutdown();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void hungFileReadFallsBackToTheLastValueWithinTheDeadline() throws Exception {
+        sampler.sample();
+        MetricsSnapshot first = sampler.getLatest();
+        PressureCollector.Sample fresh = first.pressure;
+        assertNotNull(fresh);
+        assertEquals(-1, first.pressureStaleMs);
+        assertEquals(1.5, fresh.getAverage(PressureCollector.CPU, PressureCollector.SOME, PressureCollector.AVG10));
+
+        // 没有写入端的命名管道：读取会一直阻塞，模拟挂起的文件读取
+        Files.delete(pressureFile);
+        Process mkfifo = new ProcessBuilder("mkfifo", pressureFile.toString()).start();
+        assertEquals(0, mkfifo.waitFor());
+
+        Thread.sleep(10);
+        long start = System.nanoTime();
+        sampler.sample();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        MetricsSnapshot stale = sampler.getLatest();
+        assertTrue(elapsedMs < 2000, "采样耗时 " + elapsedMs + "ms");
+        assertSame(fresh, stale.pressure);
+        assertTrue(stale.pressureStaleMs >= 0);
+        // JVM 计数器照常更新，过期的压力值不写入历史
+        assertTrue(stale.heapUsedMB > 0);
+        double[] row = MetricsSampler.toHistoryRow(stale);
+        assertTrue(Double.isNaN(row[row.length - 3]));
+        stale.encode();
+        assertTrue(new String(stale.getJson(), StandardCharsets.UTF_8).contains("\"stale\":{\"pressure\":"));
+
+        // 挂起期间不重复提交：再采样一次仍是旧值，不会占用更多线程
+        sampler.sample();
+        assertSame(fresh, sampler.getLatest().pressure);
+
+        // 管道有了写入端后挂起的读取结束，换回普通文件，之后的采样恢复为新值
+        try (OutputStream out = new FileOutputStream(pressureFile.toFile())) {
+            out.write(PRESSURE.getBytes(StandardCharsets.US_ASCII));
+        }
+        Files.delete(pressureFile);
+        Files.write(pressureFile, PRESSURE.replace("1.50", "2.50").getBytes(StandardCharsets.US_ASCII));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sampler.getLatest().pressureStaleMs >= 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            sampler.sample();
+        }
+        assertEquals(-1, sampler.getLatest().pressureStaleMs);
+        assertEquals(2.5, sampler.getLatest().pressure.getAverage(PressureCollector.CPU, PressureCollector.SOME,
+                PressureCollector.AVG10));
+    }
+}
@@ -0,0 +1,151 @@
+package cn.nebulaedata.cccs.acutor_module.spool;
+
+import cn.nebulaedata.cccs.acutor_module.collector.CollectorMetrics;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerEngineClient;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerInventory;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerLogMultiplexer;
+import cn.nebulaedata.cccs.acutor_module.docker.DockerTimestamps;
+import cn.nebulaedata.cccs.acutor_module.docker.FakeDockerDaemon;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSpoolTest {
+
+    private static final String ID = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final long BASE_SECONDS = System.currentTimeMillis() / 1000 - 60;
+
+    @TempDir
+    Path directory;
+
+    // 守护进程返回的日志（不跟随，读完即结束，下次维护时重新订阅并补发这些行）
+    private volatile String logs = "";
+    private FakeDockerDaemon daemon;
+    private DockerEngineClient client;
+    private ExecutorService executor;
+    private DockerInventory inventory;
+    private DockerLogMultiplexer multiplexer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        daemon = new FakeDockerDaemon((method, path, query) -> {
+            switch (path) {
+                case "/containers/json":
+                    return FakeDockerDaemon.Response.json(200, "[{\"Id\":\"" + ID + "\",\"Names\":[\"/web\"],"
+                            + "\"State\":\"running\",\"Status\":\"Up 1 minute\"}]");
+                case "/containers/" + ID + "/json":
+                    return FakeDockerDaemon.Response.json(200, "{\"Id\":\"" + ID + "\",\"Name\":\"/web\","
+                            + "\"State\":{\"Status\":\"running\"}}");
+                case "/containers/" + ID + "/logs":
+                    return FakeDockerDaemon.Response.raw(logs);
+                case "/images/json":
+                    return FakeDockerDaemon.Response.json(200, "[]");
+                case "/events":
+                    return FakeDockerDaemon.Response.stream(new LinkedBlockingQueue<>());
+                default:
+                    return null;
+            }
+        });
+        client = new DockerEngineClient(daemon.getSocketFile().getPath(), 2, 2000, 5000, new CollectorMetrics(60000));
+        executor = Executors.newCachedThreadPool();
+        inventory = new DockerInventory(client, executor, 64, 60000);
+        inventory.start();
+        multiplexer = new DockerLogMultiplexer(client, inventory, executor, new SimpleMeterRegistry(), 100);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!inventory.getSnapshot().isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(inventory.getSnapshot().isAvailable());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        multiplexer.shutdown();
+        inventory.stop();
+        executor.shutdownNow();
+        client.shutdown();
+        daemon.close();
+    }
+
+    @Test
+    void resubscribingKeepsNewLinesThatShareTheLastTimestamp() throws Exception {
+        LogSpool spool = spool();
+        spool.start();
+        logs = line(1, "a") + line(2, "b1") + line(2, "b2");
+        awaitLines(spool, Arrays.asList("a", "b1", "b2"));
+
+        // 日志流结束后重新订阅：补发的 a、b1、b2 已落盘，同一时间戳的 b3 和之后的 c 是新行
+        logs = logs + line(2, "b3") + line(3, "c");
+        awaitLines(spool, Arrays.asList("a", "b1", "b2", "b3", "c"));
+        spool.shutdown();
+    }
+
+    @Test
+    void countsSameTimestampLinesOnDiskAfterRestart() throws Exception {
+        LogSpool first = spool();
+        first.start();
+        logs = line(1, "a") + line(2, "b1") + line(2, "b2");
+        awaitLines(first, Arrays.asList("a", "b1", "b2"));
+        first.shutdown();
+        multiplexer.shutdown();
+
+        // 重启后从磁盘上的分段恢复最新时间戳的行数
+        LogSpool second = spool();
+        second.start();
+        logs = logs + line(2, "b3");
+        awaitLines(second, Arrays.asList("a", "b1", "b2", "b3"));
+        second.shutdown();
+    }
+
+    private LogSpool spool() {
+        return new LogSpool(multiplexer, inventory, true, directory.toString(), 4096, 1 << 20, 3600000,
+                100, 1L << 30, 24, 4, 1000);
+    }
+
+    // 时间戳取最近的时刻，不被保留策略清理
+    private static String line(int second, String text) {
+        return DockerTimestamps.format((BASE_SECONDS + second) * 1_000_000_000L) + " " + text + "\n";
+    }
+
+    // 反复维护（日志流每次读完即结束，维护时重新订阅并补发全部行）直到落盘内容与预期一致，
+    // 再确认之后的几次重新订阅没有多写重复的行
+    private static void awaitLines(LogSpool spool, List<String> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!expected.equals(spooled(spool)) && System.currentTimeMillis() < deadline) {
+            spool.maintain();
+            Thread.sleep(20);
+        }
+        for (int i = 0; i < 10; i++) {
+            spool.maintain();
+            Thread.sleep(20);
+        }
+        assertEquals(expected, spooled(spool));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> spooled(LogSpool spool) throws IOException {
+        Map<String, Object> result = spool.search(ID, ".", true, false, 0, Long.MAX_VALUE, 100);
+        List<String> lines = new ArrayList<>();
+        // 还没有订阅过时没有落盘目录
+        if (result == null) return lines;
+        for (Map<String, Object> hit : (List<Map<String, Object>>) result.get("hits")) {
+            lines.add((String) hit.get("line"));
+        }
+        return lines;
+    }
+}